@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.BeanMapper;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.PropertyAccess;
+
+/**
+ * Compares converting between a bean and a map with a loop of <code>propertyIndex()</code> and
+ * <code>getProperty()</code> or <code>setProperty()</code> per key, with a generated {@link BeanMapper}
+ */
+public class BeanMapperBenchmark {
+	public static class Bean {
+		private double amount;
+		private int count;
+		private long id;
+		private String name;
+		private Integer version;
+		
+		public double getAmount() {
+			return amount;
+		}
+		public void setAmount(double amount) {
+			this.amount = amount;
+		}
+		
+		public int getCount() {
+			return count;
+		}
+		public void setCount(int count) {
+			this.count = count;
+		}
+		
+		public long getId() {
+			return id;
+		}
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public Integer getVersion() {
+			return version;
+		}
+		public void setVersion(Integer version) {
+			this.version = version;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class BeanMapperState {
+		public Bean bean = new Bean();
+		public BeanMapper<Bean> beanMapper;
+		public Map<String, Object> map;
+		public PropertyAccess<Bean> propertyAccess;
+		public String[] propertyNames = { "amount", "count", "id", "name", "version" };
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			propertyAccess = ClassAccessFactory.get(Bean.class);
+			beanMapper = ClassAccessFactory.getBeanMapper(Bean.class);
+			bean.setAmount(12.5d);
+			bean.setCount(1_000_000);
+			bean.setId(123_456_789L);
+			bean.setName("bean");
+			bean.setVersion(3);
+			map = beanMapper.toMap(bean);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Bean testBeanMapperFromMap(BeanMapperState state) {
+		state.beanMapper.fromMap(state.map, state.bean);
+		return state.bean;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Map<String, Object> testBeanMapperToMap(BeanMapperState state) {
+		return state.beanMapper.toMap(state.bean);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Bean testPropertyIndexLoopFromMap(BeanMapperState state) {
+		for (Map.Entry<String, Object> entry : state.map.entrySet()) {
+			int propertyIndex = state.propertyAccess.propertyIndex(entry.getKey());
+			state.propertyAccess.setProperty(state.bean, propertyIndex, entry.getValue());
+		}
+		return state.bean;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Map<String, Object> testPropertyIndexLoopToMap(BeanMapperState state) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (String propertyName : state.propertyNames) {
+			int propertyIndex = state.propertyAccess.propertyIndex(propertyName);
+			map.put(propertyName, state.propertyAccess.getProperty(state.bean, propertyIndex));
+		}
+		return map;
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+/**
+ * Compares getting the {@link ClassAccess} of a class for the first time, e.g. at the start of a run, by generating
+ * its bytecode with defining it from the directory of {@link ClassAccessFactory#setBytecodeCacheDirectory(Path)}.
+ * Each call defines {@link Foo} in a new class loader, so that it is not taken from the registry.
+ */
+public class BytecodeCacheBenchmark {
+	private static final String FOO_RESOURCE_NAME = Foo.class.getName().replace('.', '/') + ".class";
+	
+	@State(Scope.Thread)
+	public static class BytecodeCacheState {
+		public Path directory;
+		public byte[] fooClassFile;
+		
+		public Class<?> defineFoo() throws ClassNotFoundException {
+			return new ClassLoader(BytecodeCacheBenchmark.class.getClassLoader()) {
+				@Override
+				public InputStream getResourceAsStream(String name) {
+					return name.equals(FOO_RESOURCE_NAME)
+							? new ByteArrayInputStream(fooClassFile)
+							: super.getResourceAsStream(name);
+				}
+				
+				@Override
+				protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+					synchronized (getClassLoadingLock(name)) {
+						if (name.equals(Foo.class.getName())) {
+							Class<?> clazz = findLoadedClass(name);
+							return clazz != null ? clazz : defineClass(name, fooClassFile, 0, fooClassFile.length);
+						}
+						return super.loadClass(name, resolve);
+					}
+				}
+			}.loadClass(Foo.class.getName());
+		}
+		
+		@Setup(Level.Trial)
+		public void doSetup() throws IOException {
+			directory = Files.createTempDirectory("bytecode-cache");
+			try (InputStream in = Foo.class.getClassLoader().getResourceAsStream(FOO_RESOURCE_NAME)) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				for (int n; (n = in.read(buffer)) != -1;) {
+					out.write(buffer, 0, n);
+				}
+				fooClassFile = out.toByteArray();
+			}
+		}
+		
+		@TearDown(Level.Trial)
+		public void doTearDown() throws IOException {
+			ClassAccessFactory.setBytecodeCacheDirectory(null);
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>)files::iterator) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public ClassAccess<?> testGetCached(BytecodeCacheState state) throws ClassNotFoundException {
+		ClassAccessFactory.setBytecodeCacheDirectory(state.directory);
+		return ClassAccessFactory.get(state.defineFoo());
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public ClassAccess<?> testGetGenerated(BytecodeCacheState state) throws ClassNotFoundException {
+		ClassAccessFactory.setBytecodeCacheDirectory(null);
+		return ClassAccessFactory.get(state.defineFoo());
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+/**
+ * Measures cached lookups of {@link ClassAccessFactory#get(Class)} under contention
+ */
+public class ClassAccessFactoryBenchmark {
+	@State(Scope.Benchmark)
+	public static class ClassAccessFactoryState {
+		@Setup(Level.Trial)
+		public void doSetup() {
+			ClassAccessFactory.get(Foo.class);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Threads(1)
+	@Benchmark
+	public ClassAccess<Foo> testGet1Thread(ClassAccessFactoryState state) {
+		return ClassAccessFactory.get(Foo.class);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Threads(8)
+	@Benchmark
+	public ClassAccess<Foo> testGet8Threads(ClassAccessFactoryState state) {
+		return ClassAccessFactory.get(Foo.class);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Threads(64)
+	@Benchmark
+	public ClassAccess<Foo> testGet64Threads(ClassAccessFactoryState state) {
+		return ClassAccessFactory.get(Foo.class);
+	}
+}
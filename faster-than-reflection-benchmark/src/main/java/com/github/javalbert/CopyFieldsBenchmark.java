@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldCopier;
+
+/**
+ * Compares copying every field with <code>getField()</code> and <code>setField()</code>, which box primitive values,
+ * with a {@link FieldCopier}. Run with <code>-prof gc</code> to compare allocations.
+ */
+public class CopyFieldsBenchmark {
+	@State(Scope.Thread)
+	public static class CopyFieldsState {
+		public FieldCopier<Entity> copier;
+		public Entity dst = new Entity();
+		public FieldAccess<Entity> fieldAccess;
+		public int[] fieldIndices;
+		public FieldCopier<Entity> fieldIndicesCopier;
+		public Entity src = new Entity();
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			fieldAccess = ClassAccessFactory.get(Entity.class);
+			fieldIndices = new int[] {
+					fieldAccess.fieldIndex("amount"),
+					fieldAccess.fieldIndex("count"),
+					fieldAccess.fieldIndex("id"),
+					fieldAccess.fieldIndex("name"),
+					fieldAccess.fieldIndex("version")
+			};
+			copier = ClassAccessFactory.getFieldCopier(Entity.class);
+			fieldIndicesCopier = ClassAccessFactory.getFieldCopier(Entity.class, fieldIndices);
+			// Not in the Integer and Long caches, so boxing them allocates
+			src.amount = 1234.5d;
+			src.count = 1_000_000;
+			src.id = 1_000_000_000L;
+			src.name = "entity";
+			src.version = 1_000_000L;
+		}
+	}
+	
+	public static class Entity {
+		private double amount;
+		private int count;
+		private long id;
+		private String name;
+		private long version;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testCopyFields(CopyFieldsState state) {
+		state.copier.copy(state.src, state.dst);
+		return state.dst;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testCopyFieldsWithFieldIndices(CopyFieldsState state) {
+		state.fieldIndicesCopier.copy(state.src, state.dst);
+		return state.dst;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testGetFieldSetFieldLoop(CopyFieldsState state) {
+		for (int fieldIndex : state.fieldIndices) {
+			state.fieldAccess.setField(state.dst, fieldIndex, state.fieldAccess.getField(state.src, fieldIndex));
+		}
+		return state.dst;
+	}
+}
@@ -28,6 +28,7 @@ import org.openjdk.jmh.annotations.State;
 
 import com.github.javalbert.reflection.ClassAccessFactory;
 import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.IntFieldGetter;
 import com.github.javalbert.reflection.PropertyAccess;
 
 public class FasterThanReflectionBenchmark {
@@ -51,6 +52,17 @@ public class FasterThanReflectionBenchmark {
 		}
 	}
 	
+	@State(Scope.Thread)
+	public static class FieldAccessFasterThanReflectionIntGetterState {
+		public Foo foo = new Foo();
+		public IntFieldGetter<Foo> intGetter;
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			intGetter = ClassAccessFactory.getIntFieldGetter(Foo.class, "intVal");
+		}
+	}
+	
 	@State(Scope.Thread)
 	public static class FieldAccessReflectAsmState {
 		public Foo foo = new Foo();
@@ -94,6 +106,13 @@ public class FasterThanReflectionBenchmark {
 		return state.fieldAccess.getIntField(state.foo, state.fieldIndex);
 	}
 	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testFieldAccessFasterThanReflectionIntGetter(FieldAccessFasterThanReflectionIntGetterState state) {
+		return state.intGetter.get(state.foo);
+	}
+	
 	@OutputTimeUnit(TimeUnit.NANOSECONDS)
 	@BenchmarkMode(Mode.AverageTime)
 	@Benchmark
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldColumns;
+
+/**
+ * Compares extracting an <code>int</code> field of 100,000 objects with {@link FieldColumns}, which loops in code
+ * generated for the field, with calling {@link ClassAccess#getIntField(Object, int)} per object
+ */
+public class FieldColumnsBenchmark {
+	@State(Scope.Thread)
+	public static class FieldColumnsState {
+		public ClassAccess<Foo> access;
+		public FieldColumns<Foo> fieldColumns;
+		public Foo[] foos = new Foo[100_000];
+		public int intValIndex;
+		public int[] out = new int[foos.length];
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			access = ClassAccessFactory.get(Foo.class);
+			fieldColumns = ClassAccessFactory.getFieldColumns(Foo.class);
+			intValIndex = access.fieldIndex("intVal");
+			for (int i = 0; i < foos.length; i++) {
+				foos[i] = new Foo();
+				foos[i].setIntVal(i);
+			}
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int[] testExtractInto(FieldColumnsState state) {
+		state.fieldColumns.extractInto(state.foos, state.intValIndex, state.out);
+		return state.out;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int[] testExtractIntoParallel(FieldColumnsState state) {
+		state.fieldColumns.extractIntoParallel(state.foos, state.intValIndex, state.out);
+		return state.out;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int[] testGetIntField(FieldColumnsState state) {
+		for (int i = 0; i < state.foos.length; i++) {
+			state.out[i] = state.access.getIntField(state.foos[i], state.intValIndex);
+		}
+		return state.out;
+	}
+}
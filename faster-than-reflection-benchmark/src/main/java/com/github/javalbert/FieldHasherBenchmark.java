@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldHasher;
+
+/**
+ * Compares hashing and comparing some fields with a loop of <code>getField()</code>, which boxes primitive values,
+ * with a generated {@link FieldHasher}. Run with <code>-prof gc</code> to compare allocations.
+ */
+public class FieldHasherBenchmark {
+	@State(Scope.Thread)
+	public static class FieldHasherState {
+		public FieldAccess<CopyFieldsBenchmark.Entity> fieldAccess;
+		public int[] fieldIndices;
+		public FieldHasher<CopyFieldsBenchmark.Entity> hasher;
+		public CopyFieldsBenchmark.Entity entity;
+		public CopyFieldsBenchmark.Entity otherEntity;
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			CopyFieldsBenchmark.CopyFieldsState copyFieldsState = new CopyFieldsBenchmark.CopyFieldsState();
+			copyFieldsState.doSetup();
+			fieldAccess = copyFieldsState.fieldAccess;
+			fieldIndices = copyFieldsState.fieldIndices;
+			entity = copyFieldsState.src;
+			otherEntity = copyFieldsState.dst;
+			copyFieldsState.copier.copy(entity, otherEntity);
+			hasher = ClassAccessFactory.getFieldHasher(CopyFieldsBenchmark.Entity.class, fieldIndices);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public boolean testGetFieldLoopEquals(FieldHasherState state) {
+		for (int fieldIndex : state.fieldIndices) {
+			if (!Objects.equals(
+					state.fieldAccess.getField(state.entity, fieldIndex),
+					state.fieldAccess.getField(state.otherEntity, fieldIndex))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testGetFieldLoopHashCode(FieldHasherState state) {
+		int hashCode = 1;
+		for (int fieldIndex : state.fieldIndices) {
+			hashCode = 31 * hashCode + Objects.hashCode(state.fieldAccess.getField(state.entity, fieldIndex));
+		}
+		return hashCode;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public boolean testHasherEquals(FieldHasherState state) {
+		return state.hasher.equals(state.entity, state.otherEntity);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testHasherHashCode(FieldHasherState state) {
+		return state.hasher.hashCode(state.entity);
+	}
+}
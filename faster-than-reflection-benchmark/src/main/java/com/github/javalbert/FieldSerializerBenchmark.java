@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldSerializer;
+
+/**
+ * Compares writing and reading an object with Java serialization, with a generated {@link FieldSerializer}
+ */
+public class FieldSerializerBenchmark {
+	public static class Entity implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private BigDecimal amount;
+		private int count;
+		private LocalDate day;
+		private long id;
+		private String name;
+		private Integer version;
+	}
+	
+	@State(Scope.Thread)
+	public static class FieldSerializerState {
+		public ByteBuffer buffer = ByteBuffer.allocate(1024);
+		public Entity entity = new Entity();
+		public FieldSerializer<Entity> fieldSerializer;
+		public byte[] javaSerialized;
+		public byte[] serialized;
+		
+		@Setup(Level.Trial)
+		public void doSetup() throws IOException {
+			fieldSerializer = ClassAccessFactory.getFieldSerializer(Entity.class);
+			entity.amount = new BigDecimal("12.50");
+			entity.count = 1_000_000;
+			entity.day = LocalDate.of(2017, 5, 6);
+			entity.id = 123_456_789L;
+			entity.name = "entity";
+			entity.version = 3;
+			
+			fieldSerializer.write(entity, buffer);
+			serialized = new byte[buffer.position()];
+			buffer.flip();
+			buffer.get(serialized);
+			javaSerialized = javaSerialize(entity);
+		}
+	}
+	
+	private static byte[] javaSerialize(Entity entity) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(entity);
+		}
+		return bytes.toByteArray();
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testFieldSerializerRead(FieldSerializerState state) {
+		return state.fieldSerializer.read(ByteBuffer.wrap(state.serialized));
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public ByteBuffer testFieldSerializerWrite(FieldSerializerState state) {
+		state.buffer.clear();
+		state.fieldSerializer.write(state.entity, state.buffer);
+		return state.buffer;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Object testJavaSerializationRead(FieldSerializerState state) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state.javaSerialized))) {
+			return in.readObject();
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public byte[] testJavaSerializationWrite(FieldSerializerState state) throws IOException {
+		return javaSerialize(state.entity);
+	}
+}
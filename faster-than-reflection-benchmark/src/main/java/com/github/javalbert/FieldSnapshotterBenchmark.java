@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldSnapshot;
+import com.github.javalbert.reflection.FieldSnapshotter;
+
+/**
+ * Compares dirty checking with a snapshot of <code>getField()</code> values, which boxes primitive values, with a
+ * generated {@link FieldSnapshotter}. Run with <code>-prof gc</code> to compare allocations.
+ */
+public class FieldSnapshotterBenchmark {
+	@State(Scope.Thread)
+	public static class FieldSnapshotterState {
+		public BitSet changedFieldIndices = new BitSet();
+		public CopyFieldsBenchmark.Entity entity;
+		public FieldAccess<CopyFieldsBenchmark.Entity> fieldAccess;
+		public int[] fieldIndices;
+		public FieldSnapshot snapshot;
+		public FieldSnapshotter<CopyFieldsBenchmark.Entity> snapshotter;
+		public Object[] values;
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			CopyFieldsBenchmark.CopyFieldsState copyFieldsState = new CopyFieldsBenchmark.CopyFieldsState();
+			copyFieldsState.doSetup();
+			entity = copyFieldsState.src;
+			fieldAccess = copyFieldsState.fieldAccess;
+			fieldIndices = copyFieldsState.fieldIndices;
+			snapshotter = ClassAccessFactory.getFieldSnapshotter(CopyFieldsBenchmark.Entity.class);
+			snapshot = snapshotter.snapshot(entity);
+			values = new Object[fieldIndices.length];
+			for (int i = 0; i < fieldIndices.length; i++) {
+				values[i] = fieldAccess.getField(entity, fieldIndices[i]);
+			}
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public boolean testGetFieldLoopDiff(FieldSnapshotterState state) {
+		boolean changed = false;
+		for (int i = 0; i < state.fieldIndices.length; i++) {
+			if (!Objects.equals(state.values[i], state.fieldAccess.getField(state.entity, state.fieldIndices[i]))) {
+				state.changedFieldIndices.set(state.fieldIndices[i]);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public boolean testSnapshotterDiff(FieldSnapshotterState state) {
+		return state.snapshotter.diff(state.entity, state.snapshot, state.changedFieldIndices);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public FieldSnapshot testSnapshotterSnapshot(FieldSnapshotterState state) {
+		state.snapshotter.snapshot(state.entity, state.snapshot);
+		return state.snapshot;
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.json.JsonCodec;
+import com.github.javalbert.reflection.json.JsonCodecFactory;
+import com.github.javalbert.reflection.json.JsonInput;
+import com.github.javalbert.reflection.json.JsonOutput;
+
+/**
+ * Compares writing and reading JSON with a generated {@link JsonCodec}, with binding the fields by reflection, which
+ * gets and sets boxed values and writes the name of each field as a {@link String}
+ */
+public class JsonCodecBenchmark {
+	public static class Entity {
+		private double amount;
+		private int count;
+		private long id;
+		private String name;
+		private Integer version;
+	}
+	
+	@State(Scope.Thread)
+	public static class JsonCodecState {
+		public Entity entity = new Entity();
+		public Field[] fields;
+		public byte[] json;
+		public JsonCodec<Entity> jsonCodec;
+		public byte[][] names;
+		public JsonOutput out = new JsonOutput();
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			jsonCodec = JsonCodecFactory.get(Entity.class);
+			fields = Entity.class.getDeclaredFields();
+			names = new byte[fields.length][];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i].setAccessible(true);
+				names[i] = fields[i].getName().getBytes(StandardCharsets.UTF_8);
+			}
+			entity.amount = 12.5d;
+			entity.count = 1_000_000;
+			entity.id = 123_456_789L;
+			entity.name = "entity";
+			entity.version = 3;
+			
+			jsonCodec.write(entity, out);
+			json = out.toByteArray();
+		}
+	}
+	
+	private static void readField(JsonInput in, Entity entity, Field field) throws IllegalAccessException {
+		Class<?> type = field.getType();
+		if (type == double.class) {
+			field.setDouble(entity, in.readDouble());
+		} else if (type == int.class) {
+			field.setInt(entity, in.readInt());
+		} else if (type == long.class) {
+			field.setLong(entity, in.readLong());
+		} else if (type == Integer.class) {
+			field.set(entity, in.readBoxedInt());
+		} else {
+			field.set(entity, in.readString());
+		}
+	}
+	
+	private static void writeValue(JsonOutput out, Object value) {
+		if (value instanceof Double) {
+			out.writeDouble((Double)value);
+		} else if (value instanceof Integer) {
+			out.writeInt((Integer)value);
+		} else if (value instanceof Long) {
+			out.writeLong((Long)value);
+		} else {
+			out.writeString((String)value);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testJsonCodecRead(JsonCodecState state) {
+		return state.jsonCodec.read(new JsonInput(state.json));
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public JsonOutput testJsonCodecWrite(JsonCodecState state) {
+		state.out.reset();
+		state.jsonCodec.write(state.entity, state.out);
+		return state.out;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testReflectionRead(JsonCodecState state) throws IllegalAccessException {
+		Entity entity = new Entity();
+		JsonInput in = new JsonInput(state.json);
+		in.beginObject();
+		nextName:
+		while (in.nextName()) {
+			for (int i = 0; i < state.fields.length; i++) {
+				if (in.nameEquals(state.names[i])) {
+					readField(in, entity, state.fields[i]);
+					continue nextName;
+				}
+			}
+			in.skipValue();
+		}
+		return entity;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public JsonOutput testReflectionWrite(JsonCodecState state) throws IllegalAccessException {
+		JsonOutput out = state.out;
+		out.reset();
+		out.writeRawByte('{');
+		for (int i = 0; i < state.fields.length; i++) {
+			if (i > 0) {
+				out.writeRawByte(',');
+			}
+			out.writeString(state.fields[i].getName());
+			out.writeRawByte(':');
+			writeValue(out, state.fields[i].get(state.entity));
+		}
+		out.writeRawByte('}');
+		return out;
+	}
+}
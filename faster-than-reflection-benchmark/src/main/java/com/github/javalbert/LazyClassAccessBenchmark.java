@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+
+/**
+ * Compares generating the {@link ClassAccess} of a class with generating only its {@link FieldAccess}, directly or
+ * through {@link ClassAccessFactory#getLazy(Class)}, and the cost of the delegation of the lazy {@link ClassAccess}
+ * when accessing a field. The generating benchmarks define {@link Foo} in a new class loader for each call, so that
+ * it is not taken from the registry.
+ */
+public class LazyClassAccessBenchmark {
+	@State(Scope.Thread)
+	public static class FieldState {
+		public ClassAccess<Foo> classAccess;
+		public Foo foo = new Foo();
+		public int intValIndex;
+		public ClassAccess<Foo> lazyClassAccess;
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			classAccess = ClassAccessFactory.get(Foo.class);
+			intValIndex = classAccess.fieldIndex("intVal");
+			lazyClassAccess = ClassAccessFactory.getLazy(Foo.class);
+			// Other classes used through the same lazy class, as in an application
+			ClassAccessFactory.getLazy(FieldState.class).fieldIndex("foo");
+			ClassAccessFactory.getLazy(GenerationState.class).fieldIndex("fooClassFile");
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class GenerationState {
+		public byte[] fooClassFile;
+		
+		public Class<?> defineFoo() throws ClassNotFoundException {
+			return new ClassLoader(LazyClassAccessBenchmark.class.getClassLoader()) {
+				@Override
+				protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+					synchronized (getClassLoadingLock(name)) {
+						if (name.equals(Foo.class.getName())) {
+							Class<?> clazz = findLoadedClass(name);
+							return clazz != null ? clazz : defineClass(name, fooClassFile, 0, fooClassFile.length);
+						}
+						return super.loadClass(name, resolve);
+					}
+				}
+			}.loadClass(Foo.class.getName());
+		}
+		
+		@Setup(Level.Trial)
+		public void doSetup() throws IOException {
+			String resourceName = Foo.class.getName().replace('.', '/') + ".class";
+			try (InputStream in = Foo.class.getClassLoader().getResourceAsStream(resourceName)) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				for (int n; (n = in.read(buffer)) != -1;) {
+					out.write(buffer, 0, n);
+				}
+				fooClassFile = out.toByteArray();
+			}
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Object testGenerateClassAccess(GenerationState state) throws ClassNotFoundException {
+		return ClassAccessFactory.get(state.defineFoo());
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Object testGenerateFieldAccess(GenerationState state) throws ClassNotFoundException {
+		return ClassAccessFactory.getFieldAccess(state.defineFoo());
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testGenerateLazyFieldAccess(GenerationState state) throws ClassNotFoundException {
+		return ClassAccessFactory.getLazy(state.defineFoo()).fieldIndex("intVal");
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testGetIntField(FieldState state) {
+		return state.classAccess.getIntField(state.foo, state.intValIndex);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testGetIntFieldLazy(FieldState state) {
+		return state.lazyClassAccess.getIntField(state.foo, state.intValIndex);
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.PrimitiveMethodAccess;
+
+/**
+ * Compares <code>call()</code>, which boxes arguments and return values, with the primitive-specialized
+ * <code>callInt()</code> and <code>callVoid()</code>. Run with <code>-prof gc</code> to compare garbage collections.
+ * That <code>callInt()</code> and <code>callVoid()</code> allocate no bytes at all is asserted by
+ * <code>MethodAccessPrimitiveCallTest</code>, since JMH 1.0 does not report bytes per operation.
+ */
+public class MethodAccessBenchmark {
+	@State(Scope.Thread)
+	public static class MethodAccessState {
+		public Foo foo = new Foo();
+		public int getIntValIndex;
+		public PrimitiveMethodAccess<Foo> methodAccess;
+		public int setIntValIndex;
+		// Not in the Integer cache, so boxing it allocates
+		public int value = 1_000_000;
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			methodAccess = ClassAccessFactory.getPrimitiveMethodAccess(Foo.class);
+			getIntValIndex = methodAccess.methodIndex("getIntVal");
+			setIntValIndex = methodAccess.methodIndex("setIntVal", int.class);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testCallBoxed(MethodAccessState state) {
+		state.methodAccess.call(state.foo, state.setIntValIndex, state.value);
+		return (int)state.methodAccess.call(state.foo, state.getIntValIndex);
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testCallPrimitive(MethodAccessState state) {
+		state.methodAccess.callVoid(state.foo, state.setIntValIndex, state.value);
+		return state.methodAccess.callInt(state.foo, state.getIntValIndex);
+	}
+}
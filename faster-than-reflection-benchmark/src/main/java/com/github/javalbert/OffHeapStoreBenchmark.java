@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.github.javalbert.reflection.OffHeapCursor;
+import com.github.javalbert.reflection.OffHeapStore;
+
+/**
+ * Compares summing a field of 1,000,000 objects on the heap with summing its column in an {@link OffHeapStore}, and
+ * measures loading and storing a row
+ */
+public class OffHeapStoreBenchmark {
+	public static class Entity {
+		private double amount;
+		private int count;
+		private long id;
+	}
+	
+	@State(Scope.Thread)
+	public static class OffHeapStoreState {
+		public Entity[] entities = new Entity[1_000_000];
+		public Entity entity = new Entity();
+		public int row;
+		public OffHeapStore<Entity> store = OffHeapStore.allocate(Entity.class, entities.length);
+		
+		@Setup(Level.Trial)
+		public void doSetup() {
+			for (int i = 0; i < entities.length; i++) {
+				entities[i] = new Entity();
+				entities[i].amount = i / 2d;
+				entities[i].count = i;
+				entities[i].id = i;
+				store.store(i, entities[i]);
+			}
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testLoad(OffHeapStoreState state) {
+		state.row = (state.row + 1) % state.entities.length;
+		state.store.load(state.row, state.entity);
+		return state.entity;
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public int testStore(OffHeapStoreState state) {
+		state.row = (state.row + 1) % state.entities.length;
+		state.store.store(state.row, state.entity);
+		return state.row;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public double testSumCursor(OffHeapStoreState state) {
+		OffHeapCursor cursor = state.store.cursor("amount");
+		double sum = 0;
+		while (cursor.next()) {
+			sum += cursor.getDouble();
+		}
+		return sum;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public double testSumHeap(OffHeapStoreState state) {
+		double sum = 0;
+		for (Entity entity : state.entities) {
+			sum += entity.amount;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldSerializer;
+import com.github.javalbert.reflection.RecordFile;
+
+/**
+ * Compares opening a {@link RecordFile} of 1,000,000 records with reading the same objects with a
+ * {@link FieldSerializer} from memory, measures getting a record into the same object, and compares summing a field
+ * of every record by getting each record with summing it through a view
+ */
+public class RecordFileBenchmark {
+	public static class Entity {
+		private double amount;
+		private int count;
+		private long id;
+		private Long parentId;
+		
+		public double getAmount() {
+			return amount;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class RecordFileState {
+		public ByteBuffer buffer;
+		public Entity entity = new Entity();
+		public FieldSerializer<Entity> fieldSerializer = ClassAccessFactory.getFieldSerializer(Entity.class);
+		public RecordFile<Entity> file;
+		public long index;
+		public Path path;
+		public int size = 1_000_000;
+		public Entity view;
+		
+		@Setup(Level.Trial)
+		public void doSetup() throws IOException {
+			List<Entity> entities = new ArrayList<>();
+			buffer = ByteBuffer.allocate(size * 64);
+			for (int i = 0; i < size; i++) {
+				Entity entity = new Entity();
+				entity.amount = i / 2d;
+				entity.count = i;
+				entity.id = i;
+				entity.parentId = i % 2 == 0 ? null : (long)i / 2;
+				entities.add(entity);
+				fieldSerializer.write(entity, buffer);
+			}
+			buffer.flip();
+			
+			path = Files.createTempFile("records", ".bin");
+			RecordFile.write(path, Entity.class, entities);
+			file = RecordFile.open(path, Entity.class);
+			view = file.newView(Entity.class);
+		}
+		
+		@TearDown(Level.Trial)
+		public void doTearDown() throws IOException {
+			file = null;
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testGet(RecordFileState state) {
+		state.index = (state.index + 1) % state.size;
+		return state.file.get(state.index, state.entity);
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public Entity testOpen(RecordFileState state) throws IOException {
+		RecordFile<Entity> file = RecordFile.open(state.path, Entity.class);
+		return file.get(file.size() - 1);
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public List<Entity> testReadAllFieldSerializer(RecordFileState state) {
+		ByteBuffer buffer = state.buffer.duplicate();
+		List<Entity> entities = new ArrayList<>(state.size);
+		for (int i = 0; i < state.size; i++) {
+			entities.add(state.fieldSerializer.read(buffer));
+		}
+		return entities;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public double testSumGet(RecordFileState state) {
+		double sum = 0;
+		for (long i = 0; i < state.size; i++) {
+			sum += state.file.get(i, state.entity).amount;
+		}
+		return sum;
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public double testSumView(RecordFileState state) {
+		double sum = 0;
+		for (long i = 0; i < state.size; i++) {
+			sum += state.file.view(i, state.view).getAmount();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.github.javalbert.reflection.RecordFormat;
+import com.github.javalbert.reflection.RecordParser;
+
+/**
+ * Compares parsing a CSV file of 10,000 records with a {@link RecordParser}, with reading its lines as strings,
+ * splitting them and parsing each cell
+ */
+public class RecordParserBenchmark {
+	private static final int RECORD_COUNT = 10_000;
+	
+	public static class Entity {
+		private double amount;
+		private int count;
+		private long id;
+		private String name;
+	}
+	
+	@State(Scope.Thread)
+	public static class RecordParserState {
+		public FileChannel channel;
+		public Path file;
+		public RecordParser<Entity> parser;
+		
+		@Setup(Level.Trial)
+		public void doSetup() throws IOException {
+			StringBuilder csv = new StringBuilder("id,name,count,amount\n");
+			for (int i = 0; i < RECORD_COUNT; i++) {
+				csv.append(1_000_000_000L + i).append(",entity").append(i).append(',').append(i * 7).append(',')
+						.append(i / 8d).append('\n');
+			}
+			file = Files.createTempFile("records", ".csv");
+			Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			parser = RecordParser.open(channel, Entity.class, RecordFormat.csv());
+		}
+		
+		@TearDown(Level.Trial)
+		public void doTearDown() throws IOException {
+			channel.close();
+			Files.delete(file);
+		}
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public long testRecordParser(RecordParserState state) throws IOException {
+		long[] sum = new long[1];
+		state.parser.parse(entity -> sum[0] += entity.id + entity.count);
+		return sum[0];
+	}
+	
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	@Benchmark
+	public long testSplitLines(RecordParserState state) throws IOException {
+		long sum = 0;
+		try (BufferedReader reader = Files.newBufferedReader(state.file)) {
+			reader.readLine();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] cells = line.split(",");
+				Entity entity = new Entity();
+				entity.id = Long.parseLong(cells[0]);
+				entity.name = cells[1];
+				entity.count = Integer.parseInt(cells[2]);
+				entity.amount = Double.parseDouble(cells[3]);
+				sum += entity.id + entity.count;
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+/**
+ * Writes the same <code>Foo$FooClassAccess</code> classes that {@link ClassAccessFactory} would generate at runtime
+ * into the project's output directory, so that they are packaged in the jar and loaded instead of generated. The classes
+ * are generated for the way the JVM running the build defines them (e.g. as hidden classes on JDK 15+), and are only
+ * loaded on JVMs that define them the same way, so the build should run on the same JDK as the application.
+ * <p>
+ * On JDK 15+ the classes access private members as nestmates of the classes they access, which only hidden classes
+ * can be, so they are not loaded but read and defined as hidden classes at runtime. This saves generating the bytecode
+ * but not defining the classes, and does not work where classes cannot be defined at runtime, e.g. in a GraalVM
+ * native image.
+ */
+@Mojo(
+		name = "generate",
+		defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+		requiresDependencyResolution = ResolutionScope.COMPILE,
+		threadSafe = true)
+public class GenerateClassAccessMojo extends AbstractMojo {
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	
+	/**
+	 * Fully qualified names of classes to generate {@link com.github.javalbert.reflection.ClassAccess} for
+	 */
+	@Parameter
+	private List<String> classes = Collections.emptyList();
+	
+	@Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+	private File outputDirectory;
+	
+	/**
+	 * Packages whose classes (not including subpackages) to generate
+	 * {@link com.github.javalbert.reflection.ClassAccess} for, except those that
+	 * {@link ClassAccessFactory#isPreloadable(Class)} excludes, e.g. interfaces
+	 */
+	@Parameter
+	private List<String> packages = Collections.emptyList();
+	
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+	
+	@Parameter(property = "faster-than-reflection.skip", defaultValue = "false")
+	private boolean skip;
+	
+	@Override
+	public void execute() throws MojoExecutionException {
+		if (skip) {
+			getLog().info("Skipping ClassAccess generation");
+			return;
+		}
+		
+		if (classes.isEmpty() && packages.isEmpty()) {
+			getLog().info("No classes configured for ClassAccess generation");
+			return;
+		}
+		
+		try (URLClassLoader classLoader = newProjectClassLoader()) {
+			Set<Class<?>> classesToGenerate = new LinkedHashSet<>();
+			for (String className : classes) {
+				Class<?> clazz = loadClass(classLoader, className);
+				if (!clazz.isAnnotation()) {
+					classesToGenerate.add(clazz);
+				}
+			}
+			for (String packageName : packages) {
+				classesToGenerate.addAll(findClassesInPackage(classLoader, packageName));
+			}
+			
+			for (Class<?> clazz : classesToGenerate) {
+				generate(clazz);
+			}
+			getLog().info("Generated ClassAccess for " + classesToGenerate.size() + " class(es)");
+		} catch (IOException e) {
+			throw new MojoExecutionException("Failed to close project class loader", e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param classLoader
+	 * @param packageName
+	 * @return the classes in the package of the output directory that
+	 * {@link ClassAccessFactory#preloadPackage(String, ClassLoader, java.util.concurrent.Executor)} would preload too
+	 */
+	private List<Class<?>> findClassesInPackage(ClassLoader classLoader, String packageName) {
+		File packageDirectory = new File(outputDirectory, packageName.replace('.', File.separatorChar));
+		File[] files = packageDirectory.listFiles();
+		if (files == null) {
+			getLog().warn("Package " + packageName + " not found in " + outputDirectory);
+			return Collections.emptyList();
+		}
+		
+		// A class file has a shorter name than the one of its ClassAccess, so the ClassAccess written by a previous run
+		// is known and skipped before it is loaded
+		Arrays.sort(files, Comparator.comparingInt(file -> file.getName().length()));
+		Set<String> classAccessClassNames = new HashSet<>();
+		List<Class<?>> packageClasses = new ArrayList<>();
+		for (File file : files) {
+			String fileName = file.getName();
+			if (!file.isFile() || !fileName.endsWith(CLASS_FILE_EXTENSION)) {
+				continue;
+			}
+			
+			String className = packageName + "." + fileName.substring(0, fileName.length() - CLASS_FILE_EXTENSION.length());
+			if (classAccessClassNames.contains(className)) {
+				continue;
+			}
+			try {
+				Class<?> clazz = Class.forName(className, false, classLoader);
+				classAccessClassNames.add(ClassAccessFactory.getClassNameOfClassAccessFor(clazz));
+				if (ClassAccessFactory.isPreloadable(clazz)) {
+					packageClasses.add(clazz);
+				}
+			} catch (ClassNotFoundException | LinkageError e) {
+				// e.g. a class generated by another version of this plugin or for another JDK
+				getLog().debug("Skipping " + className + ", which cannot be loaded or inspected", e);
+			}
+		}
+		return packageClasses;
+	}
+	
+	private void generate(Class<?> clazz) throws MojoExecutionException {
+		byte[] bytecode;
+		try {
+			bytecode = ClassAccessFactory.generateClassAccessBytecode(clazz);
+		} catch (RuntimeException e) {
+			throw new MojoExecutionException("Failed to generate ClassAccess for " + clazz.getName(), e);
+		}
+		
+		String classAccessClassName = ClassAccessFactory.getClassNameOfClassAccessFor(clazz);
+		File classFile = new File(
+				outputDirectory,
+				classAccessClassName.replace('.', File.separatorChar) + CLASS_FILE_EXTENSION);
+		try {
+			Files.write(classFile.toPath(), bytecode);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Failed to write " + classFile, e);
+		}
+		getLog().debug("Wrote " + classFile);
+	}
+	
+	private Class<?> loadClass(ClassLoader classLoader, String className) throws MojoExecutionException {
+		try {
+			return Class.forName(className, false, classLoader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			throw new MojoExecutionException("Cannot load " + className, e);
+		}
+	}
+	
+	private URLClassLoader newProjectClassLoader() throws MojoExecutionException {
+		List<URL> urls = new ArrayList<>();
+		try {
+			for (String element : project.getCompileClasspathElements()) {
+				urls.add(new File(element).toURI().toURL());
+			}
+		} catch (DependencyResolutionRequiredException | MalformedURLException e) {
+			throw new MojoExecutionException("Failed to resolve project classpath", e);
+		}
+		return new URLClassLoader(urls.toArray(new URL[urls.size()]), getClass().getClassLoader());
+	}
+}
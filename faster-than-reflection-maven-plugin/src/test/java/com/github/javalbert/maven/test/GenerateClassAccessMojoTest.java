@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.maven.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javalbert.maven.GenerateClassAccessMojo;
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+public class GenerateClassAccessMojoTest {
+	private static final String ACCESS_CLASS_FILE_NAME = "Person$PersonClassAccess.class";
+	private static final String PACKAGE_NAME = Person.class.getPackage().getName();
+	
+	private static void setField(Object obj, String fieldName, Object value) throws ReflectiveOperationException {
+		Field field = obj.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(obj, value);
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private GenerateClassAccessMojo mojo;
+	private Path outputDirectory;
+	private Path packageDirectory;
+	
+	@Before
+	public void createMojo() throws IOException, ReflectiveOperationException {
+		outputDirectory = folder.newFolder("classes").toPath();
+		packageDirectory = Files.createDirectories(outputDirectory.resolve(PACKAGE_NAME.replace('.', '/')));
+		Files.write(packageDirectory.resolve("Person.class"), readClassFile(Person.class.getName()));
+		
+		mojo = new GenerateClassAccessMojo();
+		setField(mojo, "outputDirectory", outputDirectory.toFile());
+		setField(mojo, "project", new MavenProject() {
+			@Override
+			public List<String> getCompileClasspathElements() {
+				return Collections.singletonList(outputDirectory.toString());
+			}
+		});
+	}
+	
+	@Test
+	public void executeWithClassesAndVerifyClassFileWritten() throws IOException, ReflectiveOperationException,
+			MojoExecutionException {
+		setField(mojo, "classes", Collections.singletonList(Person.class.getName()));
+		
+		mojo.execute();
+		
+		assertThat(
+				Files.readAllBytes(packageDirectory.resolve(ACCESS_CLASS_FILE_NAME)),
+				equalTo(ClassAccessFactory.generateClassAccessBytecode(Person.class)));
+	}
+	
+	@Test
+	public void executeWithPackagesAndVerifyOnlyClassesOfPackageGenerated() throws IOException,
+			ReflectiveOperationException, MojoExecutionException {
+		// Neither an anonymous class nor a previously generated class can be loaded from these files
+		Files.write(packageDirectory.resolve("Person$1.class"), new byte[0]);
+		Files.write(packageDirectory.resolve("OldClassAccess.class"), new byte[0]);
+		setField(mojo, "packages", Collections.singletonList(PACKAGE_NAME));
+		
+		mojo.execute();
+		
+		try (Stream<Path> files = Files.list(packageDirectory)) {
+			assertThat(files.filter(f -> f.getFileName().toString().endsWith("ClassAccess.class")).count(), equalTo(2L));
+		}
+		assertThat(Files.exists(packageDirectory.resolve(ACCESS_CLASS_FILE_NAME)), equalTo(true));
+	}
+	
+	@Test
+	public void executeWithPackagesTwiceAndVerifyClassFileRewritten() throws IOException,
+			ReflectiveOperationException, MojoExecutionException {
+		setField(mojo, "packages", Collections.singletonList(PACKAGE_NAME));
+		
+		mojo.execute();
+		// Like a second build without clean, whose output directory has the class file written by the first one
+		mojo.execute();
+		
+		try (Stream<Path> files = Files.list(packageDirectory)) {
+			assertThat(files.filter(f -> f.getFileName().toString().endsWith("ClassAccess.class")).count(), equalTo(1L));
+		}
+		assertThat(
+				Files.readAllBytes(packageDirectory.resolve(ACCESS_CLASS_FILE_NAME)),
+				equalTo(ClassAccessFactory.generateClassAccessBytecode(Person.class)));
+	}
+	
+	@Test
+	public void executeWithSkipAndVerifyNothingWritten() throws ReflectiveOperationException, MojoExecutionException {
+		setField(mojo, "classes", Collections.singletonList(Person.class.getName()));
+		setField(mojo, "skip", true);
+		
+		mojo.execute();
+		
+		assertThat(Files.exists(packageDirectory.resolve(ACCESS_CLASS_FILE_NAME)), equalTo(false));
+	}
+	
+	@Test
+	public void executeWithUnknownClassAndVerifyException() throws ReflectiveOperationException {
+		setField(mojo, "classes", Arrays.asList(PACKAGE_NAME + ".Unknown"));
+		
+		try {
+			mojo.execute();
+			fail("expected MojoExecutionException");
+		} catch (MojoExecutionException e) {
+			assertThat(e.getMessage(), equalTo("Cannot load " + PACKAGE_NAME + ".Unknown"));
+		}
+	}
+	
+	@Test
+	public void getClassAccessAfterExecuteAndVerifyClassFileRead() throws IOException, ReflectiveOperationException,
+			MojoExecutionException {
+		setField(mojo, "classes", Collections.singletonList(Person.class.getName()));
+		mojo.execute();
+		Set<String> readResources = ConcurrentHashMap.newKeySet();
+		Class<?> personClass = new OutputDirectoryClassLoader(readResources).loadClass(Person.class.getName());
+		
+		@SuppressWarnings("unchecked")
+		ClassAccess<Object> access = (ClassAccess<Object>)ClassAccessFactory.get(personClass);
+		Object person = access.newInstance();
+		access.setStringField(person, access.fieldIndex("name"), "Ann");
+		
+		assertThat(readResources, hasItem(PACKAGE_NAME.replace('.', '/') + "/" + ACCESS_CLASS_FILE_NAME));
+		assertThat(access.getStringField(person, access.fieldIndex("name")), equalTo("Ann"));
+	}
+	
+	private byte[] readClassFile(String className) throws IOException {
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class")) {
+			byte[] bytes = new byte[in.available()];
+			int offset = 0;
+			for (int n; offset < bytes.length && (n = in.read(bytes, offset, bytes.length - offset)) != -1;) {
+				offset += n;
+			}
+			return bytes;
+		}
+	}
+	
+	/**
+	 * Loads the classes of the package of {@link Person} from the output directory rather than the test classes,
+	 * like the class loader of a project packaged with the generated class files
+	 */
+	private class OutputDirectoryClassLoader extends ClassLoader {
+		private final Set<String> readResources;
+		
+		public OutputDirectoryClassLoader(Set<String> readResources) {
+			super(GenerateClassAccessMojoTest.class.getClassLoader());
+			this.readResources = readResources;
+		}
+		
+		@Override
+		public InputStream getResourceAsStream(String name) {
+			Path file = outputDirectory.resolve(name);
+			if (!Files.isRegularFile(file)) {
+				return super.getResourceAsStream(name);
+			}
+			readResources.add(name);
+			try {
+				return new ByteArrayInputStream(Files.readAllBytes(file));
+			} catch (IOException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			synchronized (getClassLoadingLock(name)) {
+				Path file = outputDirectory.resolve(name.replace('.', File.separatorChar) + ".class");
+				if (!Files.isRegularFile(file)) {
+					return super.loadClass(name, resolve);
+				}
+				Class<?> clazz = findLoadedClass(name);
+				if (clazz != null) {
+					return clazz;
+				}
+				try {
+					byte[] bytecode = Files.readAllBytes(file);
+					return defineClass(name, bytecode, 0, bytecode.length);
+				} catch (IOException e) {
+					throw new ClassNotFoundException(name, e);
+				}
+			}
+		}
+	}
+}
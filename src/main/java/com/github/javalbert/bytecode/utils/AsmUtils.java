@@ -15,6 +15,7 @@ package com.github.javalbert.bytecode.utils;
 import static org.objectweb.asm.Opcodes.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.objectweb.asm.ClassWriter;
@@ -54,6 +55,28 @@ public final class AsmUtils {
 		return labels.stream().toArray(s -> new Label[s]);
 	}
 	
+	/**
+	 * Like {@link #getTableSwitchLabels(Label, int[])} but places the given case labels instead of
+	 * creating new ones, so that <code>caseLabels[i]</code> is the jump target of <code>cases[i]</code>
+	 * even when there are gaps between cases
+	 * @param defaultCaseLabel
+	 * @param cases should be a sorted int array
+	 * @param caseLabels one {@link Label} per case
+	 * @return an array of {@link Label}s when calling {@link MethodVisitor#visitTableSwitchInsn(int, int, Label, Label...)}
+	 */
+	public static Label[] getTableSwitchLabels(
+			Label defaultCaseLabel,
+			int[] cases,
+			Label[] caseLabels) {
+		int lo = cases[0];
+		Label[] labels = new Label[cases[cases.length - 1] - lo + 1];
+		Arrays.fill(labels, defaultCaseLabel);
+		for (int i = 0; i < cases.length; i++) {
+			labels[cases[i] - lo] = caseLabels[i];
+		}
+		return labels;
+	}
+	
 	/**
 	 * Determines what <code>switch</code> Java instruction to use:
 	 * <br>{@link MethodVisitor#visitTableSwitchInsn(int, int, Label, Label...)}
@@ -97,24 +120,20 @@ public final class AsmUtils {
 	}
 	
 	/**
-	 * 
+	 * Pushes an int constant using the shortest instruction for its value: <code>ICONST_M1</code> to
+	 * <code>ICONST_5</code>, <code>BIPUSH</code>, <code>SIPUSH</code>, or <code>LDC</code>
 	 * @param mv
 	 * @param i the int value
 	 */
 	public static void visitZeroOperandInt(MethodVisitor mv, int i) {
-		if (i > 5) {
+		if (i >= -1 && i <= 5) {
+			mv.visitInsn(ICONST_0 + i);
+		} else if (i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE) {
 			mv.visitIntInsn(BIPUSH, i);
+		} else if (i >= Short.MIN_VALUE && i <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, i);
 		} else {
-			int opcode = NOP;
-			switch (i) {
-				case 0: opcode = ICONST_0; break;
-				case 1: opcode = ICONST_1; break;
-				case 2: opcode = ICONST_2; break;
-				case 3: opcode = ICONST_3; break;
-				case 4: opcode = ICONST_4; break;
-				case 5: opcode = ICONST_5; break;
-			}
-			mv.visitInsn(opcode);
+			mv.visitLdcInsn(i);
 		}
 	}
 	
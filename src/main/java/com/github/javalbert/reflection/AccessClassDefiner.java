@@ -0,0 +1,491 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Defines generated classes that access the members of another class (the host) directly, choosing the way to do so
+ * that works on the running JVM:
+ * <ul>
+ * <li>JDK 15+: a hidden class that is a nestmate of the host, defined with
+ * <code>MethodHandles.privateLookupIn(host, lookup).defineHiddenClass(bytes, true, NESTMATE)</code>. It can access
+ * the private members of the host and is unloaded together with it</li>
+ * <li>JDK 8: a class extending <code>sun.reflect.MagicAccessorImpl</code>, defined in the class loader of the host</li>
+ * <li>JDK 9 to 14: a class defined with <code>MethodHandles.privateLookupIn(host, lookup).defineClass(bytes)</code>,
+ * which can access all but private members of the host. Private members are accessed through method handles
+ * instead</li>
+ * </ul>
+ * The system property <code>com.github.javalbert.reflection.definitionMode</code> can choose another way that works on
+ * the running JVM, e.g. <code>LOOKUP_DEFINE_CLASS</code> to test the way of JDK 9 to 14 on a later JDK.
+ */
+final class AccessClassDefiner {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AccessClassDefiner.class);
+	static final String LOOKUP_CLASS_SIMPLE_NAME = "FasterThanReflectionLookup";
+	private static final String MAGIC_ACCESSOR_INTERNAL_NAME = "sun/reflect/MagicAccessorImpl";
+	private static final String MODE_FIELD_NAME = "DEFINITION_MODE";
+	private static final String MODE_PROPERTY = "com.github.javalbert.reflection.definitionMode";
+	private static final String OBJECT_INTERNAL_NAME = "java/lang/Object";
+	
+	private static final Method DEFINE_CLASS_METHOD;
+	private static final Method DEFINE_HIDDEN_CLASS_METHOD;
+	private static final Object HIDDEN_CLASS_OPTIONS;
+	private static final Mode MODE;
+	private static final int MODULE_LOOKUP_MODE;
+	private static final Method PRIVATE_LOOKUP_IN_METHOD;
+	/**
+	 * Classes with a binary name that were defined for each host, by name, so that defining one again from the same
+	 * bytecode gets the class rather than a {@link LinkageError}. Only a hash of the bytecode is kept, since a
+	 * {@link ClassAccess} class alone can be tens of kilobytes.
+	 */
+	private static final ClassValue<ConcurrentMap<String, NamedClass>> NAMED_CLASSES_VALUE =
+			new ClassValue<ConcurrentMap<String, NamedClass>>() {
+				@Override
+				protected ConcurrentMap<String, NamedClass> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	
+	private enum Mode {
+		HIDDEN_CLASS,
+		LOOKUP_DEFINE_CLASS,
+		MAGIC_ACCESSOR
+	}
+	
+	static {
+		Method privateLookupIn = null;
+		Method defineClass = null;
+		Method defineHiddenClass = null;
+		Object hiddenClassOptions = null;
+		int moduleLookupMode = 0;
+		
+		try {
+			privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+			defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+			moduleLookupMode = MethodHandles.Lookup.class.getField("MODULE").getInt(null);
+		} catch (ReflectiveOperationException ignored) {}
+		
+		try {
+			Class<?> classOptionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			hiddenClassOptions = Array.newInstance(classOptionClass, 1);
+			Array.set(hiddenClassOptions, 0, classOptionClass.getField("NESTMATE").get(null));
+			defineHiddenClass = MethodHandles.Lookup.class.getMethod(
+					"defineHiddenClass",
+					byte[].class,
+					boolean.class,
+					hiddenClassOptions.getClass());
+		} catch (ReflectiveOperationException ignored) {}
+		
+		DEFINE_CLASS_METHOD = defineClass;
+		DEFINE_HIDDEN_CLASS_METHOD = defineHiddenClass;
+		HIDDEN_CLASS_OPTIONS = hiddenClassOptions;
+		MODULE_LOOKUP_MODE = moduleLookupMode;
+		PRIVATE_LOOKUP_IN_METHOD = privateLookupIn;
+		
+		Mode mode;
+		if (privateLookupIn != null && defineHiddenClass != null) {
+			mode = Mode.HIDDEN_CLASS;
+		} else if (isMagicAccessorAvailable() || privateLookupIn == null) {
+			mode = Mode.MAGIC_ACCESSOR;
+		} else {
+			mode = Mode.LOOKUP_DEFINE_CLASS;
+		}
+		
+		String modeName = System.getProperty(MODE_PROPERTY);
+		if (modeName != null) {
+			Mode requestedMode = Arrays.stream(Mode.values())
+					.filter(m -> m.name().equals(modeName))
+					.findFirst()
+					.orElse(null);
+			boolean isAvailable = requestedMode == Mode.MAGIC_ACCESSOR ? isMagicAccessorAvailable()
+					: requestedMode != null && privateLookupIn != null
+							&& (requestedMode == Mode.HIDDEN_CLASS ? defineHiddenClass : defineClass) != null;
+			if (isAvailable) {
+				mode = requestedMode;
+			} else {
+				LOGGER.warn(MODE_PROPERTY + "=" + modeName + " is not available on this JVM, so " + mode + " is used");
+			}
+		}
+		MODE = mode;
+		
+		if (MODE == Mode.LOOKUP_DEFINE_CLASS) {
+			LOGGER.warn("Generated classes are defined with Lookup.defineClass, so they access private members through "
+					+ "method handles");
+		}
+	}
+	
+	/**
+	 * Defines a generated class. A hidden class has no name to clash with, but a class with a binary name can only be
+	 * defined once per class loader, so a name that was already defined for the host from the same bytecode returns
+	 * that class instead, e.g. when two threads generated the same class.
+	 * @param host the class whose members are accessed
+	 * @param className binary name of the generated class, which must be in the same package as <code>host</code>
+	 * @param bytecode
+	 * @return the defined class
+	 * @throws LinkageError if a class with the name was already defined from other bytecode
+	 */
+	static Class<?> defineClass(Class<?> host, String className, byte[] bytecode) {
+		if (MODE == Mode.HIDDEN_CLASS) {
+			return ((MethodHandles.Lookup)invoke(
+					DEFINE_HIDDEN_CLASS_METHOD,
+					fullPrivilegeLookupIn(host),
+					bytecode,
+					true,
+					HIDDEN_CLASS_OPTIONS))
+					.lookupClass();
+		}
+		
+		byte[] bytecodeHash = sha256(bytecode);
+		NamedClass namedClass = NAMED_CLASSES_VALUE.get(host).computeIfAbsent(
+				className,
+				name -> new NamedClass(defineNamedClass(host, name, bytecode), bytecodeHash));
+		if (!MessageDigest.isEqual(namedClass.bytecodeHash, bytecodeHash)) {
+			throw new LinkageError("Another class named " + className + " was already generated for " + host);
+		}
+		return namedClass.definedClass;
+	}
+	
+	/**
+	 * Looks for a class generated at build time on the class path of <code>host</code>
+	 * @param host
+	 * @param className
+	 * @return the class, or <code>null</code> if there is none, or it was generated for another way of defining classes
+	 * than the one of this JVM. A hidden class is defined from the class file rather than loaded, so a class generated
+	 * at build time still has to be defined at runtime on JDK 15+.
+	 */
+	static Class<?> findPrebuiltClass(Class<?> host, String className) {
+		byte[] bytecode = readClassFile(host, className);
+		if (bytecode == null || !isGeneratedForMode(bytecode)) {
+			return null;
+		}
+		
+		if (MODE == Mode.HIDDEN_CLASS) {
+			// Hidden classes cannot be loaded by name, so define one from the class file instead
+			return defineClass(host, className, bytecode);
+		}
+		try {
+			return AccessClassLoader.get(host).loadClass(className);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param host
+	 * @param member of the host or a superclass of the host
+	 * @return <code>true</code> if a class defined for the host can access the member with field or method
+	 * instructions whose owner is the declaring class of the member
+	 */
+	static boolean canAccessDirectly(Class<?> host, Member member) {
+		Class<?> declaringClass = member.getDeclaringClass();
+		// A class defined with Lookup.defineClass is not a nestmate of the host, so it cannot access its private members
+		if (MODE == Mode.MAGIC_ACCESSOR || MODE == Mode.HIDDEN_CLASS && declaringClass == host) {
+			return true;
+		}
+		
+		int modifiers = member.getModifiers();
+		boolean isSamePackage = isSamePackage(declaringClass, host);
+		return !Modifier.isPrivate(modifiers)
+				&& (Modifier.isPublic(declaringClass.getModifiers()) || isSamePackage)
+				&& (Modifier.isPublic(modifiers) || isSamePackage);
+	}
+	
+	/**
+	 * 
+	 * @return internal name of the superclass that generated classes must extend
+	 */
+	static String getSuperclassInternalName() {
+		return MODE == Mode.MAGIC_ACCESSOR ? MAGIC_ACCESSOR_INTERNAL_NAME : OBJECT_INTERNAL_NAME;
+	}
+	
+	/**
+	 * 
+	 * @param a
+	 * @param b
+	 * @return <code>true</code> if the classes are in the same runtime package, i.e. the same package and class loader
+	 */
+	static boolean isSamePackage(Class<?> a, Class<?> b) {
+		return a.getClassLoader() == b.getClassLoader()
+				&& ClassUtils.getPackageName(a).equals(ClassUtils.getPackageName(b));
+	}
+	
+	/**
+	 * 
+	 * @return <code>true</code> if generated classes are hidden classes, which must not declare themselves as
+	 * inner classes of the host
+	 */
+	static boolean isHiddenClass() {
+		return MODE == Mode.HIDDEN_CLASS;
+	}
+	
+	/**
+	 * 
+	 * @param host
+	 * @param className binary name of a class
+	 * @return the class file of the class from the class loader of the host, or <code>null</code> if it cannot be read
+	 */
+	static byte[] readClassFile(Class<?> host, String className) {
+		ClassLoader classLoader = host.getClassLoader();
+		if (classLoader == null) {
+			classLoader = ClassLoader.getSystemClassLoader();
+		}
+		
+		try (InputStream in = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+			if (in == null) {
+				return null;
+			}
+			
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int n; (n = in.read(buffer)) != -1;) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param field
+	 * @param isSetter
+	 * @return a method handle that gets or sets the field, which a generated class that cannot access the field
+	 * directly can call instead
+	 * @throws IllegalAccessException if the field cannot be set, i.e. it is <code>static final</code>
+	 */
+	static MethodHandle unreflectField(Field field, boolean isSetter) throws IllegalAccessException {
+		MethodHandles.Lookup lookup = privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+		if (!isSetter) {
+			return lookup.unreflectGetter(field);
+		} else if (Modifier.isFinal(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+			// A final field can only be set when it is accessible, and never when it is static
+			field.setAccessible(true);
+		}
+		return lookup.unreflectSetter(field);
+	}
+	
+	/**
+	 * Records the way this JVM defines generated classes as a constant of the class, so that a class file generated at
+	 * build time is not used on a JVM that defines them another way
+	 * @param cw
+	 */
+	static void visitModeField(ClassWriter cw) {
+		cw.visitField(
+				Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL + Opcodes.ACC_SYNTHETIC,
+				MODE_FIELD_NAME,
+				"Ljava/lang/String;",
+				null,
+				MODE.name())
+				.visitEnd();
+	}
+	
+	private static Class<?> defineNamedClass(Class<?> host, String className, byte[] bytecode) {
+		if (MODE == Mode.LOOKUP_DEFINE_CLASS) {
+			return (Class<?>)invoke(DEFINE_CLASS_METHOD, privateLookupIn(host, MethodHandles.lookup()), bytecode);
+		}
+		
+		AccessClassLoader accessClassLoader = AccessClassLoader.get(host);
+		accessClassLoader.defineClass(className, bytecode);
+		try {
+			return accessClassLoader.loadClass(className);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param host
+	 * @return a lookup on <code>host</code> with full privilege access, which is needed to define hidden classes
+	 */
+	private static MethodHandles.Lookup fullPrivilegeLookupIn(Class<?> host) {
+		MethodHandles.Lookup lookup = privateLookupIn(host, MethodHandles.lookup());
+		if ((lookup.lookupModes() & MODULE_LOOKUP_MODE) != 0) {
+			return lookup;
+		}
+		
+		// The host is in another module e.g. the unnamed module of another class loader, so the lookup has to come
+		// from a class in that module. The private lookup can define one in the package of the host.
+		try {
+			MethodHandles.Lookup moduleLookup = (MethodHandles.Lookup)lookup.findStatic(
+					getLookupClass(host, lookup),
+					"lookup",
+					MethodType.methodType(MethodHandles.Lookup.class))
+					.invoke();
+			return privateLookupIn(host, moduleLookup);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param internalName
+	 * @return bytecode of a package-private class with a package-private <code>lookup()</code> method that returns
+	 * its own full privilege lookup, so that only classes in the same package can call it
+	 */
+	private static byte[] generateLookupClass(String internalName) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				Opcodes.V1_8,
+				Opcodes.ACC_FINAL + Opcodes.ACC_SUPER + Opcodes.ACC_SYNTHETIC,
+				internalName,
+				null,
+				OBJECT_INTERNAL_NAME,
+				null);
+		MethodVisitor mv = cw.visitMethod(
+				Opcodes.ACC_STATIC,
+				"lookup",
+				"()Ljava/lang/invoke/MethodHandles$Lookup;",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitMethodInsn(
+				Opcodes.INVOKESTATIC,
+				"java/lang/invoke/MethodHandles",
+				"lookup",
+				"()Ljava/lang/invoke/MethodHandles$Lookup;",
+				false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(1, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static Class<?> getLookupClass(Class<?> host, MethodHandles.Lookup lookup) {
+		String hostName = host.getName();
+		String className = hostName.substring(0, hostName.lastIndexOf('.') + 1) + LOOKUP_CLASS_SIMPLE_NAME;
+		
+		try {
+			return Class.forName(className, false, host.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			try {
+				return (Class<?>)invoke(DEFINE_CLASS_METHOD, lookup, generateLookupClass(className.replace('.', '/')));
+			} catch (LinkageError definedByAnotherThread) {
+				try {
+					return Class.forName(className, false, host.getClassLoader());
+				} catch (ClassNotFoundException notFound) {
+					throw definedByAnotherThread;
+				}
+			}
+		}
+	}
+	
+	private static Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static boolean isMagicAccessorAvailable() {
+		try {
+			Class.forName(MAGIC_ACCESSOR_INTERNAL_NAME.replace('/', '.'));
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+	
+	private static MethodHandles.Lookup privateLookupIn(Class<?> host, MethodHandles.Lookup caller) {
+		return (MethodHandles.Lookup)invoke(PRIVATE_LOOKUP_IN_METHOD, null, host, caller);
+	}
+	
+	private static byte[] sha256(byte[] bytecode) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytecode);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param bytecode
+	 * @return <code>true</code> if the class file extends the superclass of this mode and has the constant written by
+	 * {@link #visitModeField(ClassWriter)} for this mode
+	 */
+	private static boolean isGeneratedForMode(byte[] bytecode) {
+		String[] modeName = new String[1];
+		try {
+			ClassReader reader = new ClassReader(bytecode);
+			if (!getSuperclassInternalName().equals(reader.getSuperName())) {
+				return false;
+			}
+			reader.accept(new ClassVisitor(Opcodes.ASM5) {
+				@Override
+				public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+					if (name.equals(MODE_FIELD_NAME) && value instanceof String) {
+						modeName[0] = (String)value;
+					}
+					return null;
+				}
+			}, ClassReader.SKIP_CODE + ClassReader.SKIP_DEBUG + ClassReader.SKIP_FRAMES);
+		} catch (RuntimeException e) {
+			return false; // Not a readable class file
+		}
+		return MODE.name().equals(modeName[0]);
+	}
+	
+	private AccessClassDefiner() {}
+	
+	private static class NamedClass {
+		final byte[] bytecodeHash;
+		final Class<?> definedClass;
+		
+		NamedClass(Class<?> definedClass, byte[] bytecodeHash) {
+			this.bytecodeHash = bytecodeHash;
+			this.definedClass = definedClass;
+		}
+	}
+}
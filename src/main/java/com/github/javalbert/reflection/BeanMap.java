@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map of the properties of an object, whose values are read from the object through a
+ * {@link BeanMapper} whenever they are needed
+ * @param <T> the class of the object
+ */
+final class BeanMap<T> extends AbstractMap<String, Object> {
+	private final BeanMapper<T> mapper;
+	private final T obj;
+	private final List<String> propertyNames;
+	
+	BeanMap(BeanMapper<T> mapper, T obj) {
+		this.mapper = mapper;
+		this.obj = obj;
+		propertyNames = mapper.propertyNames();
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && mapper.position((String)key) != -1;
+	}
+	
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+					private int position;
+					
+					@Override
+					public boolean hasNext() {
+						return position < propertyNames.size();
+					}
+					
+					@Override
+					public Entry<String, Object> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						Entry<String, Object> entry = new SimpleImmutableEntry<>(
+								propertyNames.get(position),
+								mapper.get(obj, position));
+						position++;
+						return entry;
+					}
+				};
+			}
+			
+			@Override
+			public int size() {
+				return propertyNames.size();
+			}
+		};
+	}
+	
+	@Override
+	public Object get(Object key) {
+		int position = key instanceof String ? mapper.position((String)key) : -1;
+		return position != -1 ? mapper.get(obj, position) : null;
+	}
+	
+	@Override
+	public Set<String> keySet() {
+		return new AbstractSet<String>() {
+			@Override
+			public boolean contains(Object o) {
+				return containsKey(o);
+			}
+			
+			@Override
+			public Iterator<String> iterator() {
+				return propertyNames.iterator();
+			}
+			
+			@Override
+			public int size() {
+				return propertyNames.size();
+			}
+		};
+	}
+	
+	@Override
+	public int size() {
+		return propertyNames.size();
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts between objects and maps of the values of their properties by name, calling each getter or setter
+ * directly without looking up the property by name
+ * @param <T> the class of the objects
+ * @see ClassAccessFactory#getBeanMapper(Class)
+ */
+public interface BeanMapper<T> {
+	/**
+	 * 
+	 * @param obj
+	 * @return a read-only map of the properties with getters, in the order of {@link #propertyNames()}, which calls
+	 * the getters of the object whenever a value is read rather than copying the values
+	 */
+	default Map<String, Object> asMap(T obj) {
+		return new BeanMap<>(this, obj);
+	}
+	
+	/**
+	 * Sets each property with a setter whose name is a key of the map to the value of the key. A <code>null</code>
+	 * value of a primitive property is skipped.
+	 * @param map
+	 * @param obj
+	 * @throws ClassCastException if a value is not of the type of its property
+	 */
+	void fromMap(Map<String, ?> map, T obj);
+	
+	/**
+	 * 
+	 * @param obj
+	 * @param position of a property in {@link #propertyNames()}
+	 * @return the value of the property, boxed if it is primitive
+	 * @throws IllegalArgumentException if there is no property with the position
+	 */
+	Object get(T obj, int position);
+	
+	/**
+	 * 
+	 * @param propertyName
+	 * @return the position of the property in {@link #propertyNames()}, or -1 if there is none
+	 */
+	int position(String propertyName);
+	
+	/**
+	 * 
+	 * @return the names of the properties with getters, in the order of {@link PropertyAccess#propertyIndex(String)}
+	 */
+	List<String> propertyNames();
+	
+	/**
+	 * 
+	 * @param obj
+	 * @return a new map of the values of the properties with getters, in the order of {@link #propertyNames()}
+	 */
+	default Map<String, Object> toMap(T obj) {
+		return toMap(obj, false);
+	}
+	
+	/**
+	 * 
+	 * @param obj
+	 * @param skipNulls whether to leave out properties whose values are <code>null</code>
+	 * @return a new {@link java.util.LinkedHashMap}, sized for all the properties, of the values of the properties
+	 * with getters in the order of {@link #propertyNames()}
+	 */
+	Map<String, Object> toMap(T obj, boolean skipNulls);
+}
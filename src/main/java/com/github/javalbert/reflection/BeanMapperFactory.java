@@ -0,0 +1,533 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static java.util.stream.Collectors.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link BeanMapper} per class, whose methods call the getter or setter of each property directly, with
+ * the names of the properties as constants
+ */
+final class BeanMapperFactory {
+	private static final String FROM_MAP_METHOD_DESCRIPTOR = "(Ljava/util/Map;Ljava/lang/Object;)V";
+	private static final String GET_METHOD_DESCRIPTOR = "(Ljava/lang/Object;I)Ljava/lang/Object;";
+	private static final ClassValue<BeanMapper<?>> MAPPER_VALUE = new ClassValue<BeanMapper<?>>() {
+		@Override
+		protected BeanMapper<?> computeValue(Class<?> type) {
+			return createMapper(type);
+		}
+	};
+	/**
+	 * At most about 30 bytes of bytecode per property in <code>fromMap()</code>, so that a method of a class with many
+	 * properties is split into methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_PROPERTIES_PER_METHOD = 200;
+	private static final String PUT_PROPERTIES_METHOD_DESCRIPTOR = "(Ljava/lang/Object;ZLjava/util/Map;)V";
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the mapper, which is generated the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> BeanMapper<T> get(Class<T> clazz) {
+		return (BeanMapper<T>)MAPPER_VALUE.get(clazz);
+	}
+	
+	private static BeanMapper<?> createMapper(Class<?> clazz) {
+		List<PropertyDescriptor> propertyDescriptors;
+		try {
+			propertyDescriptors = Arrays.stream(Introspector.getBeanInfo(clazz).getPropertyDescriptors())
+					.filter(prop -> !prop.getName().equals("class"))
+					.collect(toList());
+		} catch (IntrospectionException e) {
+			throw new RuntimeException(e);
+		}
+		List<PropertyDescriptor> readableProperties = propertyDescriptors.stream()
+				.filter(prop -> prop.getReadMethod() != null)
+				.collect(toList());
+		List<PropertyDescriptor> writableProperties = propertyDescriptors.stream()
+				.filter(prop -> prop.getWriteMethod() != null)
+				.collect(toList());
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooBeanMapper
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "BeanMapper";
+		byte[] bytecode = generateMapperClass(
+				className.replace('.', '/'),
+				clazz,
+				readableProperties,
+				writableProperties);
+		try {
+			return (BeanMapper<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateMapperClass(
+			String internalName,
+			Class<?> clazz,
+			List<PropertyDescriptor> readableProperties,
+			List<PropertyDescriptor> writableProperties) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(BeanMapper.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		visitStaticInitializer(cw, internalName, readableProperties);
+		
+		int readableChunkCount = getChunkCount(readableProperties.size());
+		int writableChunkCount = getChunkCount(writableProperties.size());
+		if (readableChunkCount == 1) {
+			visitGetMethod(cw, ACC_PUBLIC, "get", clazz, readableProperties, 0);
+			visitPutPropertiesMethod(cw, "putProperties", clazz, readableProperties);
+		} else {
+			for (int i = 0; i < readableChunkCount; i++) {
+				int from = i * MAX_PROPERTIES_PER_METHOD;
+				int to = Math.min(readableProperties.size(), from + MAX_PROPERTIES_PER_METHOD);
+				visitGetMethod(cw, ACC_PRIVATE, "get$" + i, clazz, readableProperties.subList(from, to), from);
+				visitPutPropertiesMethod(cw, "putProperties$" + i, clazz, readableProperties.subList(from, to));
+			}
+			visitGetChunkMethod(cw, internalName, readableChunkCount);
+		}
+		if (writableChunkCount == 1) {
+			visitFromMapMethod(cw, ACC_PUBLIC, "fromMap", clazz, writableProperties);
+		} else {
+			for (int i = 0; i < writableChunkCount; i++) {
+				int from = i * MAX_PROPERTIES_PER_METHOD;
+				int to = Math.min(writableProperties.size(), from + MAX_PROPERTIES_PER_METHOD);
+				visitFromMapMethod(cw, ACC_PRIVATE, "fromMap$" + i, clazz, writableProperties.subList(from, to));
+			}
+			visitChunkCallsMethod(cw, "fromMap", FROM_MAP_METHOD_DESCRIPTOR, internalName, writableChunkCount);
+		}
+		visitPositionMethod(cw, internalName);
+		visitPropertyNamesMethod(cw, internalName);
+		visitToMapMethod(cw, internalName, readableProperties.size(), readableChunkCount);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static int getChunkCount(int propertyCount) {
+		return Math.max(1, (propertyCount + MAX_PROPERTIES_PER_METHOD - 1) / MAX_PROPERTIES_PER_METHOD);
+	}
+	
+	/**
+	 * 
+	 * @param size
+	 * @return the initial capacity of a hash map for the number of entries without resizing it
+	 */
+	private static int getInitialCapacity(int size) {
+		return (int)(size / 0.75f) + 1;
+	}
+	
+	/**
+	 * Visits a method that calls the method of each chunk of properties with the same arguments, which are all
+	 * references
+	 */
+	private static void visitChunkCallsMethod(
+			ClassWriter cw,
+			String methodName,
+			String descriptor,
+			String internalName,
+			int chunkCount) {
+		int argumentSlots = Type.getArgumentsAndReturnSizes(descriptor) >> 2;
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, descriptor, null, null);
+		mv.visitCode();
+		for (int i = 0; i < chunkCount; i++) {
+			for (int slot = 0; slot < argumentSlots; slot++) {
+				mv.visitVarInsn(ALOAD, slot);
+			}
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, methodName + "$" + i, descriptor, false);
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(argumentSlots, argumentSlots);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>fromMap(Map, Object)</code> for some of the properties, which gets the value of each property by its
+	 * name as a constant and calls its setter if the map has the name as a key
+	 */
+	private static void visitFromMapMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			Class<?> clazz,
+			List<PropertyDescriptor> properties) {
+		MethodVisitor mv = cw.visitMethod(access, methodName, FROM_MAP_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (PropertyDescriptor property : properties) {
+			Method writeMethod = property.getWriteMethod();
+			Class<?> propertyType = writeMethod.getParameterTypes()[0];
+			Label setLabel = new Label();
+			Label nextPropertyLabel = new Label();
+			
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitLdcInsn(property.getName());
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, setLabel);
+			mv.visitInsn(POP);
+			if (propertyType.isPrimitive()) {
+				mv.visitJumpInsn(GOTO, nextPropertyLabel);
+			} else {
+				// null if the key is in the map
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitLdcInsn(property.getName());
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "containsKey", "(Ljava/lang/Object;)Z", true);
+				mv.visitJumpInsn(IFEQ, nextPropertyLabel);
+				mv.visitInsn(ACONST_NULL);
+			}
+			
+			mv.visitLabel(setLabel);
+			mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { "java/lang/Object" });
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(clazz));
+			mv.visitInsn(SWAP);
+			if (propertyType.isPrimitive()) {
+				String wrapperInternalName = Type.getInternalName(ClassUtils.primitiveToWrapper(propertyType));
+				mv.visitTypeInsn(CHECKCAST, wrapperInternalName);
+				mv.visitMethodInsn(
+						INVOKEVIRTUAL,
+						wrapperInternalName,
+						propertyType.getName() + "Value",
+						"()" + Type.getDescriptor(propertyType),
+						false);
+			} else {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(propertyType));
+			}
+			visitInvokeMethod(mv, clazz, writeMethod);
+			if (writeMethod.getReturnType() != void.class) {
+				mv.visitInsn(Type.getType(writeMethod.getReturnType()).getSize() == 2 ? POP2 : POP);
+			}
+			
+			mv.visitLabel(nextPropertyLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+		}
+		mv.visitInsn(RETURN);
+		// The object and a long or double value
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>get(Object, int)</code> that calls the <code>get$k()</code> method of the chunk of the position
+	 */
+	private static void visitGetChunkMethod(ClassWriter cw, String internalName, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "get", GET_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ILOAD, 2);
+		AsmUtils.visitZeroOperandInt(mv, MAX_PROPERTIES_PER_METHOD);
+		mv.visitInsn(IDIV);
+		
+		Label defaultCaseLabel = new Label();
+		Label[] labels = new Label[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			labels[i] = new Label();
+		}
+		mv.visitTableSwitchInsn(0, chunkCount - 1, defaultCaseLabel, labels);
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitLabel(labels[i]);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "get$" + i, GET_METHOD_DESCRIPTOR, false);
+			mv.visitInsn(ARETURN);
+		}
+		
+		mv.visitLabel(defaultCaseLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		visitThrowNoPropertyWithPosition(mv);
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>get(Object, int)</code> for some of the properties, which switches on the position to call a getter
+	 * @param firstPosition position of the first of <code>properties</code>
+	 */
+	private static void visitGetMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			Class<?> clazz,
+			List<PropertyDescriptor> properties,
+			int firstPosition) {
+		MethodVisitor mv = cw.visitMethod(access, methodName, GET_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		Label defaultCaseLabel = new Label();
+		if (!properties.isEmpty()) {
+			Label[] labels = new Label[properties.size()];
+			for (int i = 0; i < labels.length; i++) {
+				labels[i] = new Label();
+			}
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitTableSwitchInsn(firstPosition, firstPosition + labels.length - 1, defaultCaseLabel, labels);
+			
+			for (int i = 0; i < labels.length; i++) {
+				mv.visitLabel(labels[i]);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+				visitGetProperty(mv, clazz, properties.get(i).getReadMethod());
+				mv.visitInsn(ARETURN);
+			}
+		}
+		
+		mv.visitLabel(defaultCaseLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		visitThrowNoPropertyWithPosition(mv);
+		// The exception twice, the StringBuilder twice and the message
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Calls the getter of the object in local variable 1, and boxes its return value if it is primitive
+	 */
+	private static void visitGetProperty(MethodVisitor mv, Class<?> clazz, Method readMethod) {
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(clazz));
+		visitInvokeMethod(mv, clazz, readMethod);
+		
+		Class<?> returnType = readMethod.getReturnType();
+		if (returnType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.primitiveToWrapper(returnType);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(wrapperType),
+					"valueOf",
+					"(" + Type.getDescriptor(returnType) + ")" + Type.getDescriptor(wrapperType),
+					false);
+		}
+	}
+	
+	private static void visitInvokeMethod(MethodVisitor mv, Class<?> clazz, Method method) {
+		mv.visitMethodInsn(
+				clazz.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+				Type.getInternalName(clazz),
+				method.getName(),
+				Type.getMethodDescriptor(method),
+				clazz.isInterface());
+	}
+	
+	/**
+	 * Visits <code>position(String)</code>, which looks up the name in the map of positions of the static initializer
+	 */
+	private static void visitPositionMethod(ClassWriter cw, String internalName) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "position", "(Ljava/lang/String;)I", null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(GETSTATIC, internalName, "positions", "Ljava/util/Map;");
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+		mv.visitInsn(DUP);
+		Label foundLabel = new Label();
+		mv.visitJumpInsn(IFNONNULL, foundLabel);
+		mv.visitInsn(POP);
+		mv.visitInsn(ICONST_M1);
+		mv.visitInsn(IRETURN);
+		
+		mv.visitLabel(foundLabel);
+		mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { "java/lang/Object" });
+		mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+	
+	private static void visitPropertyNamesMethod(ClassWriter cw, String internalName) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "propertyNames", "()Ljava/util/List;", null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(GETSTATIC, internalName, "propertyNames", "Ljava/util/List;");
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a private method <code>putProperties(Object, boolean, Map)</code> for some of the properties, which puts
+	 * the value of each property into the map, unless it is <code>null</code> and <code>null</code> values are skipped
+	 */
+	private static void visitPutPropertiesMethod(
+			ClassWriter cw,
+			String methodName,
+			Class<?> clazz,
+			List<PropertyDescriptor> properties) {
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, methodName, PUT_PROPERTIES_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (PropertyDescriptor property : properties) {
+			Method readMethod = property.getReadMethod();
+			visitGetProperty(mv, clazz, readMethod);
+			
+			Label putLabel = new Label();
+			Label popLabel = new Label();
+			boolean isPrimitive = readMethod.getReturnType().isPrimitive();
+			if (!isPrimitive) {
+				mv.visitInsn(DUP);
+				mv.visitJumpInsn(IFNONNULL, putLabel);
+				mv.visitVarInsn(ILOAD, 2);
+				mv.visitJumpInsn(IFNE, popLabel);
+				mv.visitLabel(putLabel);
+				mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { "java/lang/Object" });
+			}
+			
+			// map.put(name, value), with the value below the map and name on the stack
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitInsn(SWAP);
+			mv.visitLdcInsn(property.getName());
+			mv.visitInsn(SWAP);
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					"java/util/Map",
+					"put",
+					"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+					true);
+			if (!isPrimitive) {
+				mv.visitLabel(popLabel);
+				mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { "java/lang/Object" });
+			}
+			mv.visitInsn(POP);
+		}
+		mv.visitInsn(RETURN);
+		// The object and a long or double value, then the map, name and value
+		mv.visitMaxs(3, 4);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits the static initializer of the names of the properties with getters, in a list, and their positions, in a
+	 * map
+	 */
+	private static void visitStaticInitializer(
+			ClassWriter cw,
+			String internalName,
+			List<PropertyDescriptor> readableProperties) {
+		cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "positions", "Ljava/util/Map;", null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "propertyNames", "Ljava/util/List;", null, null)
+				.visitEnd();
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		AsmUtils.visitZeroOperandInt(mv, readableProperties.size());
+		mv.visitTypeInsn(ANEWARRAY, "java/lang/String");
+		for (int i = 0; i < readableProperties.size(); i++) {
+			mv.visitInsn(DUP);
+			AsmUtils.visitZeroOperandInt(mv, i);
+			mv.visitLdcInsn(readableProperties.get(i).getName());
+			mv.visitInsn(AASTORE);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "asList", "([Ljava/lang/Object;)Ljava/util/List;", false);
+		mv.visitMethodInsn(
+				INVOKESTATIC,
+				"java/util/Collections",
+				"unmodifiableList",
+				"(Ljava/util/List;)Ljava/util/List;",
+				false);
+		mv.visitFieldInsn(PUTSTATIC, internalName, "propertyNames", "Ljava/util/List;");
+		
+		mv.visitTypeInsn(NEW, "java/util/HashMap");
+		mv.visitInsn(DUP);
+		AsmUtils.visitZeroOperandInt(mv, getInitialCapacity(readableProperties.size()));
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "(I)V", false);
+		for (int i = 0; i < readableProperties.size(); i++) {
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn(readableProperties.get(i).getName());
+			AsmUtils.visitZeroOperandInt(mv, i);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					"java/util/HashMap",
+					"put",
+					"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+					false);
+			mv.visitInsn(POP);
+		}
+		mv.visitFieldInsn(PUTSTATIC, internalName, "positions", "Ljava/util/Map;");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(4, 0);
+		mv.visitEnd();
+	}
+	
+	private static void visitThrowNoPropertyWithPosition(MethodVisitor mv) {
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("No property with position: ");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(I)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+	}
+	
+	/**
+	 * Visits <code>toMap(Object, boolean)</code>, which creates a {@link java.util.LinkedHashMap} with the capacity for
+	 * all the properties then puts the values of the properties
+	 */
+	private static void visitToMapMethod(ClassWriter cw, String internalName, int propertyCount, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"toMap",
+				"(Ljava/lang/Object;Z)Ljava/util/Map;",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, "java/util/LinkedHashMap");
+		mv.visitInsn(DUP);
+		AsmUtils.visitZeroOperandInt(mv, getInitialCapacity(propertyCount));
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "(I)V", false);
+		mv.visitVarInsn(ASTORE, 3);
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitMethodInsn(
+					INVOKESPECIAL,
+					internalName,
+					chunkCount == 1 ? "putProperties" : "putProperties$" + i,
+					PUT_PROPERTIES_METHOD_DESCRIPTOR,
+					false);
+		}
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(4, 4);
+		mv.visitEnd();
+	}
+	
+	private BeanMapperFactory() {}
+}
@@ -12,5 +12,5 @@
  *******************************************************************************/
 package com.github.javalbert.reflection;
 
-public interface ClassAccess<T> extends FieldAccess<T>, PropertyAccess<T>, MethodAccess<T> {
+public interface ClassAccess<T> extends FieldAccess<T>, PropertyAccess<T>, MethodAccess<T>, ConstructorAccess<T> {
 }
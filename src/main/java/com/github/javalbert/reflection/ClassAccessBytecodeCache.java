@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.objectweb.asm.ClassReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the bytecode of generated {@link ClassAccess} classes as files in a directory, so that a later run defines
+ * a class from its file rather than generating it again. A file is named by the generated class and a key that hashes
+ * the class files of the class and its superclasses, every class file of this library (including the generator and
+ * the version of ASM), and the way that the running JVM defines generated classes, so that changing any of them
+ * misses the old file. Files are written to a temporary file that is atomically renamed, so that JVMs sharing the
+ * directory never read part of a file.
+ * <p>
+ * A class whose class files cannot be read, e.g. one generated at runtime, is not cached, nor is any class when the
+ * class files of this library cannot be read. Errors reading or writing files are logged rather than thrown. Files of
+ * old keys are not deleted.
+ */
+final class ClassAccessBytecodeCache {
+	/**
+	 * Version of the names and contents of the files, which is part of the key
+	 */
+	private static final int CACHE_VERSION = 1;
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	/**
+	 * Hex digits of the key in the name of a file
+	 */
+	private static final int KEY_LENGTH = 32;
+	/**
+	 * Path of the directory or jar entries of the class files of this library, which includes ASM when it is shaded
+	 */
+	private static final String LIBRARY_PATH = "com/github/javalbert/";
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClassAccessBytecodeCache.class);
+	
+	private static volatile Path directory;
+	/**
+	 * Hex digits of a hash of the class files of this library and the version of ASM, which also changes between
+	 * builds of the same version, an empty string if they cannot be read, or <code>null</code> until the first key is
+	 * computed
+	 */
+	private static volatile String libraryHash;
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param className of the generated class
+	 * @return the file of the bytecode of the generated class, or <code>null</code> if there is no directory or the
+	 * class files of the class cannot be read
+	 */
+	static Path getCacheFile(Class<?> clazz, String className) {
+		Path directory = ClassAccessBytecodeCache.directory;
+		if (directory == null) {
+			return null;
+		}
+		String key = getKey(clazz);
+		return key != null ? directory.resolve(className + "-" + key + CLASS_FILE_EXTENSION) : null;
+	}
+	
+	static Path getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * 
+	 * @param cacheFile from {@link #getCacheFile(Class, String)}
+	 * @param className of the generated class
+	 * @return the bytecode in the file, or <code>null</code> if there is no file or it is not a class file of the
+	 * generated class
+	 */
+	static byte[] read(Path cacheFile, String className) {
+		byte[] bytecode;
+		try {
+			bytecode = Files.readAllBytes(cacheFile);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			LOGGER.warn("Could not read cached bytecode from " + cacheFile, e);
+			return null;
+		}
+		
+		try {
+			if (new ClassReader(bytecode).getClassName().equals(className.replace('.', '/'))) {
+				return bytecode;
+			}
+		} catch (RuntimeException ignored) {}
+		LOGGER.warn("Ignoring cached bytecode in " + cacheFile + ", which is not a class file of " + className);
+		return null;
+	}
+	
+	static void setDirectory(Path directory) {
+		ClassAccessBytecodeCache.directory = directory;
+	}
+	
+	/**
+	 * Writes the bytecode to a temporary file in the directory, then renames it to the file, replacing the file if
+	 * another JVM wrote it in the meantime
+	 * @param cacheFile from {@link #getCacheFile(Class, String)}
+	 * @param bytecode
+	 */
+	static void write(Path cacheFile, byte[] bytecode) {
+		Path temporaryFile = null;
+		try {
+			Files.createDirectories(cacheFile.getParent());
+			temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+			Files.write(temporaryFile, bytecode);
+			Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			if (!Files.exists(cacheFile)) {
+				LOGGER.warn("Could not write cached bytecode to " + cacheFile, e);
+			}
+			try {
+				if (temporaryFile != null) {
+					Files.deleteIfExists(temporaryFile);
+				}
+			} catch (IOException ignored) {}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return hex digits of a hash of the class files of the class and its superclasses, the class files of this
+	 * library, and the way that generated classes are defined, or <code>null</code> if a class file cannot be read
+	 */
+	private static String getKey(Class<?> clazz) {
+		String libraryHash = ClassAccessBytecodeCache.libraryHash;
+		if (libraryHash == null) {
+			libraryHash = hashLibraryClassFiles();
+			ClassAccessBytecodeCache.libraryHash = libraryHash;
+		}
+		if (libraryHash.isEmpty()) {
+			return null;
+		}
+		
+		MessageDigest digest = sha256();
+		String header = CACHE_VERSION + ";" + libraryHash
+				+ ";" + AccessClassDefiner.getSuperclassInternalName()
+				+ ";" + AccessClassDefiner.isHiddenClass()
+				+ ";" + System.getProperty("java.specification.version");
+		digest.update(header.getBytes(StandardCharsets.UTF_8));
+		for (Class<?> c : ClassAccessFactory.getClassHierarchy(clazz)) {
+			byte[] classFile = AccessClassDefiner.readClassFile(c, c.getName());
+			if (classFile == null) {
+				return null;
+			}
+			digest.update((";" + c.getName() + ";").getBytes(StandardCharsets.UTF_8));
+			digest.update(classFile);
+		}
+		return toHex(digest.digest()).substring(0, KEY_LENGTH);
+	}
+	
+	/**
+	 * Hashes every class file of this library in the directory or jar file that it is loaded from, rather than only
+	 * the class file of {@link ClassAccessFactory}, because the bytecode also depends on the classes that it uses to
+	 * generate it
+	 * @return hex digits of the hash, or an empty string if the class files cannot be read
+	 */
+	private static String hashLibraryClassFiles() {
+		MessageDigest digest = sha256();
+		digest.update(String.valueOf(ClassReader.class.getPackage().getImplementationVersion())
+				.getBytes(StandardCharsets.UTF_8));
+		try {
+			CodeSource codeSource = ClassAccessFactory.class.getProtectionDomain().getCodeSource();
+			if (codeSource == null) {
+				throw new IOException("No code source of " + ClassAccessFactory.class);
+			}
+			
+			Path location = Paths.get(codeSource.getLocation().toURI());
+			if (Files.isDirectory(location)) {
+				List<Path> classFiles;
+				try (Stream<Path> files = Files.walk(location.resolve(LIBRARY_PATH))) {
+					classFiles = files.filter(f -> f.toString().endsWith(CLASS_FILE_EXTENSION))
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				for (Path classFile : classFiles) {
+					digest.update(location.relativize(classFile).toString().getBytes(StandardCharsets.UTF_8));
+					digest.update(Files.readAllBytes(classFile));
+				}
+			} else {
+				try (JarFile jarFile = new JarFile(location.toFile())) {
+					List<JarEntry> entries = Collections.list(jarFile.entries()).stream()
+							.filter(e -> e.getName().startsWith(LIBRARY_PATH)
+									&& e.getName().endsWith(CLASS_FILE_EXTENSION))
+							.sorted(Comparator.comparing(JarEntry::getName))
+							.collect(Collectors.toList());
+					byte[] buffer = new byte[8192];
+					for (JarEntry entry : entries) {
+						digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+						try (InputStream in = jarFile.getInputStream(entry)) {
+							for (int n; (n = in.read(buffer)) != -1;) {
+								digest.update(buffer, 0, n);
+							}
+						}
+					}
+				}
+			}
+		} catch (IOException | URISyntaxException | RuntimeException e) {
+			LOGGER.warn("Could not read the class files of this library, so bytecode is not cached", e);
+			return "";
+		}
+		return toHex(digest.digest());
+	}
+	
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+	
+	private ClassAccessBytecodeCache() {}
+}
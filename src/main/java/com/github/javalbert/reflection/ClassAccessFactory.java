@@ -21,22 +21,39 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.ToIntFunction;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.text.WordUtils;
 import org.objectweb.asm.ClassWriter;
@@ -50,67 +67,898 @@ import org.slf4j.LoggerFactory;
 import com.github.javalbert.bytecode.utils.AsmUtils;
 
 public final class ClassAccessFactory<T> {
+	/**
+	 * Builds of the access classes of each class, keyed by access type. A completed build stays for as long as the
+	 * class does, so every thread that computes the {@link ClassValue} of an access type for the class, however late,
+	 * gets the class of the one build rather than generating and defining another. Threads may still create an
+	 * instance each, of which the {@link ClassValue} publishes one. A failed build is removed so that the next call
+	 * retries.
+	 */
+	private static final ClassValue<ConcurrentMap<Class<?>, FutureTask<Class<?>>>> ACCESS_CLASS_BUILDS_VALUE =
+			new ClassValue<ConcurrentMap<Class<?>, FutureTask<Class<?>>>>() {
+				@Override
+				protected ConcurrentMap<Class<?>, FutureTask<Class<?>>> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	/**
+	 * The types that an access class is generated for, which {@link #isAccessClass(Class)} checks against
+	 */
+	private static final Class<?>[] ACCESS_TYPES = {
+			ClassAccess.class,
+			ConstructorAccess.class,
+			FieldAccess.class,
+			MethodAccess.class,
+			PrimitiveMethodAccess.class,
+			PropertyAccess.class
+	};
+	/**
+	 * Lock-free registry of generated {@link ClassAccess} instances. Cached lookups are a single read of a value
+	 * stored on the {@link Class} itself, and entries go away with the class when its class loader is unloaded.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<ClassAccess> CLASS_ACCESS_VALUE = newAccessValue(ClassAccess.class);
 	@SuppressWarnings("rawtypes")
-	private static final Map<Class, ClassAccess> CLASS_ACCESS_MAP = new WeakHashMap<>();
+	private static final ClassValue<ConstructorAccess> CONSTRUCTOR_ACCESS_VALUE = newAccessValue(ConstructorAccess.class);
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<FieldAccess> FIELD_ACCESS_VALUE = newAccessValue(FieldAccess.class);
+	/**
+	 * HotSpot does not JIT compile methods with more bytes of bytecode than this (see <code>-XX:-DontCompileHugeMethods</code>)
+	 */
+	private static final int HUGE_METHOD_LIMIT = 8000;
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClassAccessFactory.class);
+	private static final String LOOKUP_INTERNAL_NAME = "java/lang/invoke/MethodHandles$Lookup";
 	private static final int MAX_METHOD_ACCESS_PARAMETER_COUNT = 22;
+	/**
+	 * Estimated bytes of switch cases allowed in one generated method, leaving room under {@link #HUGE_METHOD_LIMIT} for
+	 * the rest of the method. Switches over more members are split into private chunk methods.
+	 */
+	private static final int MAX_SWITCH_CODE_SIZE = HUGE_METHOD_LIMIT - 1000;
 	
 	private static final String MEMBER_TYPE_FIELD = "field";
 	private static final String MEMBER_TYPE_PROPERTY = "property";
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<MethodAccess> METHOD_ACCESS_VALUE = newAccessValue(MethodAccess.class);
+	private static final String METHOD_HANDLE_DESCRIPTOR = "Ljava/lang/invoke/MethodHandle;";
+	/**
+	 * The class loader of the JDK classes that the bootstrap class loader does not load, e.g. <code>java.sql</code>,
+	 * which is the platform class loader on JDK 9+ and the extension class loader on JDK 8
+	 */
+	private static final ClassLoader PLATFORM_CLASS_LOADER = getPlatformClassLoader();
+	/**
+	 * The {@link ClassAccess} class generated at build time for each class, if any, which then implements every
+	 * access type that {@link ClassAccess} extends so that nothing is generated at runtime
+	 */
+	private static final ClassValue<Optional<Class<?>>> PREBUILT_CLASS_VALUE = new ClassValue<Optional<Class<?>>>() {
+		@Override
+		protected Optional<Class<?>> computeValue(Class<?> type) {
+			return Optional.ofNullable(AccessClassDefiner.findPrebuiltClass(type, getClassNameOfClassAccessFor(type)));
+		}
+	};
+	private static final List<PrimitiveCallInfo> PRIMITIVE_CALL_INFO_LIST = PrimitiveCallInfo.newPrimitiveCallInfoList();
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<PrimitiveMethodAccess> PRIMITIVE_METHOD_ACCESS_VALUE =
+			newAccessValue(PrimitiveMethodAccess.class);
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<PropertyAccess> PROPERTY_ACCESS_VALUE = newAccessValue(PropertyAccess.class);
 	
+	/**
+	 * Gets the access to every member of the class. The accesses to one kind of member, e.g.
+	 * {@link #getFieldAccess(Class)}, are classes of their own rather than this one, so getting both for a class
+	 * generates two classes.
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 */
 	public static <T> ClassAccess<T> get(Class<T> clazz) {
-		if (ClassAccess.class.isAssignableFrom(clazz)) {
-			throw new IllegalArgumentException("should not get class access recursively");
+		return getInstance(clazz, ClassAccess.class, CLASS_ACCESS_VALUE);
+	}
+	
+	/**
+	 * Gets a converter between objects of the class and maps of their properties, without looking up each property
+	 * by name
+	 * @param clazz
+	 * @return the mapper, which is generated the first time and cached
+	 */
+	public static <T> BeanMapper<T> getBeanMapper(Class<T> clazz) {
+		return BeanMapperFactory.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>boolean</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>boolean</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BooleanFieldGetter<T> getBooleanFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, BooleanFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>boolean</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>boolean</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BooleanFieldSetter<T> getBooleanFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, BooleanFieldSetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>byte</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>byte</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ByteFieldGetter<T> getByteFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ByteFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>byte</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>byte</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ByteFieldSetter<T> getByteFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ByteFieldSetter.class);
+	}
+	
+	/**
+	 * 
+	 * @return the directory set by {@link #setBytecodeCacheDirectory(Path)}, or <code>null</code>
+	 */
+	public static Path getBytecodeCacheDirectory() {
+		return ClassAccessBytecodeCache.getDirectory();
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>char</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>char</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> CharFieldGetter<T> getCharFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, CharFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>char</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>char</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> CharFieldSetter<T> getCharFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, CharFieldSetter.class);
+	}
+	
+	/**
+	 * Gets the access to the constructors of the class alone, which is generated without looking up its fields,
+	 * properties or methods
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static <T> ConstructorAccess<T> getConstructorAccess(Class<T> clazz) {
+		return getInstance(clazz, ConstructorAccess.class, CONSTRUCTOR_ACCESS_VALUE);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>double</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>double</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> DoubleFieldGetter<T> getDoubleFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, DoubleFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>double</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>double</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> DoubleFieldSetter<T> getDoubleFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, DoubleFieldSetter.class);
+	}
+	
+	/**
+	 * Gets the access to the fields of the class alone, which is generated without looking up its properties, methods
+	 * or constructors
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static <T> FieldAccess<T> getFieldAccess(Class<T> clazz) {
+		return getInstance(clazz, FieldAccess.class, FIELD_ACCESS_VALUE);
+	}
+	
+	/**
+	 * Gets an accessor of a single field that accesses it directly without switching on a field index, e.g. an
+	 * {@link IntFieldGetter}, for monomorphic call sites in hot loops. Get it once rather than on every access. The
+	 * typed methods, e.g. {@link #getIntFieldGetter(Class, String)}, return the accessor of the class without a cast.
+	 * @param clazz
+	 * @param fieldName
+	 * @param accessorType {@link ObjectFieldGetter}, {@link ObjectFieldSetter}, or the getter or setter interface for
+	 * the primitive type of the field
+	 * @return the accessor, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or the accessor type does not match the
+	 * type of the field
+	 */
+	public static <A> A getFieldAccessor(Class<?> clazz, String fieldName, Class<A> accessorType) {
+		return FieldAccessorFactory.get(clazz, fieldName, accessorType);
+	}
+	
+	/**
+	 * Gets bulk getters and setters of the primitive fields of many objects, e.g. for analytics over a large list
+	 * @param clazz
+	 * @return the columns, which are generated the first time and cached
+	 */
+	public static <T> FieldColumns<T> getFieldColumns(Class<T> clazz) {
+		return FieldColumnsFactory.get(clazz);
+	}
+	
+	/**
+	 * Gets a comparator of objects by the fields with the indices, in order. It is generated on first use and cached,
+	 * so get it once rather than on every comparison.
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the comparator, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, a field is static, or a field is neither
+	 * primitive nor {@link Comparable}
+	 */
+	public static <T> FieldComparator<T> getFieldComparator(Class<T> clazz, int... fieldIndices) {
+		return FieldComparisonFactory.getComparator(clazz, fieldIndices);
+	}
+	
+	/**
+	 * Gets a copier of the fields of the class that are neither static nor final
+	 * @param clazz
+	 * @return the copier, which is generated the first time and cached
+	 */
+	public static <T> FieldCopier<T> getFieldCopier(Class<T> clazz) {
+		return FieldCopierFactory.get(clazz);
+	}
+	
+	/**
+	 * Gets a copier of the fields with the indices, e.g. to copy a projection of an object
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the copier, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, or a field is static or final
+	 */
+	public static <T> FieldCopier<T> getFieldCopier(Class<T> clazz, int... fieldIndices) {
+		return FieldCopierFactory.get(clazz, fieldIndices);
+	}
+	
+	/**
+	 * Gets a hasher of objects by the fields with the indices, in order. It is generated on first use and cached, so
+	 * get it once rather than on every comparison.
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the hasher, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, or a field is static
+	 */
+	public static <T> FieldHasher<T> getFieldHasher(Class<T> clazz, int... fieldIndices) {
+		return FieldComparisonFactory.getHasher(clazz, fieldIndices);
+	}
+	
+	/**
+	 * Gets a serializer of the fields of the class that are neither static, transient nor final, with a fingerprint
+	 * of the fields so that data written with other fields fails fast rather than being read wrong
+	 * @param clazz
+	 * @return the serializer, which is generated the first time and cached
+	 * @throws IllegalArgumentException if a field is of a type that cannot be serialized
+	 */
+	public static <T> FieldSerializer<T> getFieldSerializer(Class<T> clazz) {
+		return FieldSerializerFactory.get(clazz);
+	}
+	
+	/**
+	 * Gets a snapshotter of the fields of the class that are not static, to find the fields that changed since a
+	 * snapshot, e.g. for dirty checking
+	 * @param clazz
+	 * @return the snapshotter, which is generated the first time and cached
+	 */
+	public static <T> FieldSnapshotter<T> getFieldSnapshotter(Class<T> clazz) {
+		return FieldSnapshotterFactory.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>float</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>float</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> FloatFieldGetter<T> getFloatFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, FloatFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>float</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>float</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> FloatFieldSetter<T> getFloatFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, FloatFieldSetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of an <code>int</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not an <code>int</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> IntFieldGetter<T> getIntFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, IntFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of an <code>int</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not an <code>int</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> IntFieldSetter<T> getIntFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, IntFieldSetter.class);
+	}
+	
+	/**
+	 * Gets an access to every member of the class that generates its {@link FieldAccess}, {@link PropertyAccess},
+	 * {@link MethodAccess} and {@link ConstructorAccess} each the first time that one of their methods is called, e.g.
+	 * the methods of the class are never looked up when only its fields are accessed. Unlike the one of
+	 * {@link #get(Class)}, its class is shared by every class, so each call goes through one more interface call that
+	 * the JIT compiler may not inline.
+	 * @param clazz
+	 * @return the access, which is created the first time and cached
+	 */
+	public static <T> ClassAccess<T> getLazy(Class<T> clazz) {
+		return LazyClassAccessFactory.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>long</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>long</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> LongFieldGetter<T> getLongFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, LongFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>long</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>long</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> LongFieldSetter<T> getLongFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, LongFieldSetter.class);
+	}
+	
+	/**
+	 * Gets the access to the methods of the class alone, which is generated without looking up its fields, properties
+	 * or constructors
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static <T> MethodAccess<T> getMethodAccess(Class<T> clazz) {
+		return getInstance(clazz, MethodAccess.class, METHOD_ACCESS_VALUE);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a field of the class or a superclass, of any type
+	 * @return a getter of the field, which is generated the first time and cached. It boxes primitive values, and
+	 * <code>V</code> is not checked against the type of the field.
+	 * @throws IllegalArgumentException if there is no field with the name
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T, V> ObjectFieldGetter<T, V> getObjectFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ObjectFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a field of the class or a superclass, of any type
+	 * @return a setter of the field, which is generated the first time and cached. It unboxes primitive values, and
+	 * <code>V</code> is not checked against the type of the field.
+	 * @throws IllegalArgumentException if there is no field with the name
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T, V> ObjectFieldSetter<T, V> getObjectFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ObjectFieldSetter.class);
+	}
+	
+	/**
+	 * Gets a binder of the properties to the parameters of a {@link java.sql.PreparedStatement} in order, without
+	 * boxing
+	 * @param clazz
+	 * @param propertyNames of properties with getters, in the order of the parameters
+	 * @return the binder, which is generated the first time for the property names and cached
+	 * @throws IllegalArgumentException if there is no property with a name, or a property has no getter
+	 */
+	public static <T> ParameterBinder<T> getParameterBinder(Class<T> clazz, String... propertyNames) {
+		return ParameterBinderFactory.get(clazz, propertyNames);
+	}
+	
+	/**
+	 * Gets the access to the methods of the class that also calls them without boxing primitive arguments and return
+	 * values, which is generated without looking up its fields, properties or constructors
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static <T> PrimitiveMethodAccess<T> getPrimitiveMethodAccess(Class<T> clazz) {
+		return getInstance(clazz, PrimitiveMethodAccess.class, PRIMITIVE_METHOD_ACCESS_VALUE);
+	}
+	
+	/**
+	 * Gets the access to the properties of the class alone, which is generated without looking up its fields, methods
+	 * or constructors
+	 * @param clazz
+	 * @return the access, which is generated the first time and cached
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static <T> PropertyAccess<T> getPropertyAccess(Class<T> clazz) {
+		return getInstance(clazz, PropertyAccess.class, PROPERTY_ACCESS_VALUE);
+	}
+	
+	/**
+	 * Gets a mapper of rows with the columns of the metadata onto objects of the class. Each column is mapped to the
+	 * field with the same name as its label, ignoring case and underscores, and columns without such a field or whose
+	 * field is static or final are skipped
+	 * @param clazz
+	 * @param metaData of the result set whose rows are mapped
+	 * @return the mapper, which is generated the first time for the column labels and cached
+	 * @throws SQLException if the metadata cannot be read
+	 */
+	public static <T> RowMapper<T> getRowMapper(Class<T> clazz, ResultSetMetaData metaData) throws SQLException {
+		int columnCount = metaData.getColumnCount();
+		List<String> columnLabels = new ArrayList<>(columnCount);
+		for (int i = 1; i <= columnCount; i++) {
+			columnLabels.add(metaData.getColumnLabel(i));
+		}
+		return RowMapperFactory.get(clazz, columnLabels);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>short</code> field of the class or a superclass
+	 * @return a getter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>short</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ShortFieldGetter<T> getShortFieldGetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ShortFieldGetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName of a <code>short</code> field of the class or a superclass
+	 * @return a setter of the field, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or it is not a <code>short</code> field
+	 * @see #getFieldAccessor(Class, String, Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ShortFieldSetter<T> getShortFieldSetter(Class<T> clazz, String fieldName) {
+		return FieldAccessorFactory.get(clazz, fieldName, ShortFieldSetter.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return <code>true</code> if {@link #preloadPackage(String, ClassLoader, Executor)} preloads the class when it
+	 * finds it in a package, i.e. it is not an interface, annotation, anonymous, local or synthetic class, nor a class
+	 * generated by this library
+	 * @throws LinkageError if the inner class metadata of the class cannot be read, e.g. it is a class generated by
+	 * another version of this library
+	 */
+	public static boolean isPreloadable(Class<?> clazz) {
+		return ClassAccessPreloader.isPreloadable(clazz);
+	}
+	
+	/**
+	 * Generates the {@link ClassAccess} of each class in parallel on the {@link ForkJoinPool#commonPool()},
+	 * so that the cost is paid before the first real request rather than on its latency path. Only {@link #get(Class)}
+	 * benefits, since each access type of a class is a class of its own, e.g. {@link #getFieldAccess(Class)} generates
+	 * another one, so use {@link #preload(Collection, Collection, Executor)} for the access types that are used.
+	 * @param classes
+	 * @return completes when every class has been processed. A class that fails does not fail the others and is
+	 * reported by {@link PreloadResult#getFailures()}
+	 */
+	public static CompletableFuture<PreloadResult> preload(Collection<Class<?>> classes) {
+		return preload(classes, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Same as {@link #preload(Collection)} but generates on the given executor
+	 * @param classes
+	 * @param executor
+	 * @return
+	 */
+	public static CompletableFuture<PreloadResult> preload(Collection<Class<?>> classes, Executor executor) {
+		return preload(classes, Collections.singletonList(ClassAccess.class), executor);
+	}
+	
+	/**
+	 * Same as {@link #preload(Collection, Executor)} but generates the access of each of the given types, e.g.
+	 * <code>Arrays.asList(FieldAccess.class, ConstructorAccess.class)</code> for the classes that are only got with
+	 * {@link #getFieldAccess(Class)} and {@link #getConstructorAccess(Class)}
+	 * @param classes
+	 * @param accessTypes {@link ClassAccess}, the interfaces that it extends or {@link PrimitiveMethodAccess}
+	 * @param executor
+	 * @return
+	 * @throws IllegalArgumentException if one of the types is not an access type
+	 */
+	public static CompletableFuture<PreloadResult> preload(
+			Collection<Class<?>> classes,
+			Collection<Class<?>> accessTypes,
+			Executor executor) {
+		for (Class<?> accessType : accessTypes) {
+			if (!ArrayUtils.contains(ACCESS_TYPES, accessType)) {
+				throw new IllegalArgumentException("Not an access type: " + accessType.getName());
+			}
+		}
+		return ClassAccessPreloader.preload(classes, accessTypes, executor);
+	}
+	
+	/**
+	 * Preloads every top-level and member class found directly in a package (subpackages are not included), except
+	 * interfaces and annotations
+	 * @param packageName e.g. <code>com.example.entity</code>
+	 * @param classLoader the class loader to search for and load the classes from
+	 * @param executor
+	 * @return
+	 * @see #preload(Collection, Executor)
+	 */
+	public static CompletableFuture<PreloadResult> preloadPackage(
+			String packageName,
+			ClassLoader classLoader,
+			Executor executor) {
+		return preload(ClassAccessPreloader.findClassesInPackage(packageName, classLoader), executor);
+	}
+	
+	/**
+	 * Preloads the access of each of the given types of every top-level and member class found directly in a package
+	 * @param packageName e.g. <code>com.example.entity</code>
+	 * @param classLoader the class loader to search for and load the classes from
+	 * @param accessTypes {@link ClassAccess}, the interfaces that it extends or {@link PrimitiveMethodAccess}
+	 * @param executor
+	 * @return
+	 * @see #preload(Collection, Collection, Executor)
+	 */
+	public static CompletableFuture<PreloadResult> preloadPackage(
+			String packageName,
+			ClassLoader classLoader,
+			Collection<Class<?>> accessTypes,
+			Executor executor) {
+		return preload(ClassAccessPreloader.findClassesInPackage(packageName, classLoader), accessTypes, executor);
+	}
+	
+	/**
+	 * Stores the bytecode of each {@link ClassAccess} class generated from now on as a file in the directory, and
+	 * defines the class from its file rather than generating it when neither the class, its superclasses nor this
+	 * library have changed, e.g. when the next run starts. JVMs can share the directory.
+	 * @param directory created if it does not exist, or <code>null</code> to not cache bytecode, which is the default
+	 */
+	public static void setBytecodeCacheDirectory(Path directory) {
+		ClassAccessBytecodeCache.setDirectory(directory);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param accessType {@link ClassAccess}, one of the interfaces that it extends, or {@link PrimitiveMethodAccess}
+	 * @return
+	 */
+	private static Class<?> createAccessClass(Class<?> clazz, Class<?> accessType) {
+		// Use the class generated at build time (e.g. by faster-than-reflection-maven-plugin) if there is one
+		Optional<Class<?>> prebuiltClass = PREBUILT_CLASS_VALUE.get(clazz);
+		if (prebuiltClass.isPresent() && accessType.isAssignableFrom(prebuiltClass.get())) {
+			return prebuiltClass.get();
+		}
+		
+		String className = getClassNameOfAccessFor(clazz, accessType);
+		Path cacheFile = ClassAccessBytecodeCache.getCacheFile(clazz, className);
+		byte[] cachedBytecode = cacheFile != null ? ClassAccessBytecodeCache.read(cacheFile, className) : null;
+		if (cachedBytecode != null) {
+			try {
+				return AccessClassDefiner.defineClass(clazz, className, cachedBytecode);
+			} catch (ClassFormatError e) {
+				LOGGER.warn("Ignoring cached bytecode in " + cacheFile + ", which cannot be defined", e);
+			}
 		}
 		
-		try {
-			return getInstance(clazz);
-		} catch (Exception e) {
-			LOGGER.error("Error occurred while trying to get ClassAccess for " + clazz, e);
-			throw new RuntimeException(e);
+		byte[] bytecode = new ClassAccessFactory<>(clazz, accessType).buildClassAccessClass();
+		if (cacheFile != null) {
+			ClassAccessBytecodeCache.write(cacheFile, bytecode);
 		}
+		return AccessClassDefiner.defineClass(clazz, className, bytecode);
 	}
 	
-	private static Class<?> createClassAccessClass(Class<?> clazz)
-			throws ClassNotFoundException {
-		String className = getClassNameOfClassAccessFor(clazz);
-		try {
-			return AccessClassLoader.get(clazz).loadClass(className);
-		} catch (ClassNotFoundException ignored) {}
+	/**
+	 * Threads asking for the same class share one build, while threads asking for different classes generate in
+	 * parallel without waiting on each other
+	 */
+	private static Class<?> getOrCreateAccessClass(Class<?> clazz, Class<?> accessType) {
+		ConcurrentMap<Class<?>, FutureTask<Class<?>>> builds = ACCESS_CLASS_BUILDS_VALUE.get(clazz);
+		FutureTask<Class<?>> task = new FutureTask<>(() -> createAccessClass(clazz, accessType));
+		FutureTask<Class<?>> inFlightTask = builds.putIfAbsent(accessType, task);
+		
+		if (inFlightTask == null) {
+			inFlightTask = task;
+			task.run();
+		}
 		
-		new ClassAccessFactory<>(clazz).buildClassAccessClass();
-		return AccessClassLoader.get(clazz).loadClass(className);
+		try {
+			return inFlightTask.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while waiting for " + accessType.getSimpleName() + " of " + clazz,
+					e);
+		} catch (ExecutionException e) {
+			builds.remove(accessType, inFlightTask);
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Generates the bytecode of the {@link ClassAccess} implementation for a class without defining it, e.g. to
+	 * write it as a class file at build time. When a class with the name {@link #getClassNameOfClassAccessFor(Class)}
+	 * can be loaded from the class loader of <code>clazz</code>, {@link #get(Class)} and the methods that get the access
+	 * to one kind of member, e.g. {@link #getFieldAccess(Class)}, use it instead of generating one. The bytecode records
+	 * how the running JVM defines generated classes (e.g. as hidden classes on JDK 15+), and a class file generated on
+	 * a JVM that defines them another way is ignored
+	 * @param clazz
+	 * @return
+	 */
+	public static byte[] generateClassAccessBytecode(Class<?> clazz) {
+		if (isAccessClass(clazz)) {
+			throw new IllegalArgumentException("should not get class access recursively");
+		}
+		return new ClassAccessFactory<>(clazz, ClassAccess.class).buildClassAccessClass();
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return binary name of the generated {@link ClassAccess} class e.g.
+	 * <code>com.github.javalbert.reflection.test.Foo$FooClassAccess</code>
+	 */
+	public static String getClassNameOfClassAccessFor(Class<?> clazz) {
+		return getClassNameOfAccessFor(clazz, ClassAccess.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param accessType {@link ClassAccess}, one of the interfaces that it extends, or {@link PrimitiveMethodAccess}
+	 * @return the access, which is generated the first time and cached
+	 */
+	static Object getAccess(Class<?> clazz, Class<?> accessType) {
+		if (accessType == ClassAccess.class) {
+			return get(clazz);
+		} else if (accessType == ConstructorAccess.class) {
+			return getConstructorAccess(clazz);
+		} else if (accessType == FieldAccess.class) {
+			return getFieldAccess(clazz);
+		} else if (accessType == MethodAccess.class) {
+			return getMethodAccess(clazz);
+		} else if (accessType == PrimitiveMethodAccess.class) {
+			return getPrimitiveMethodAccess(clazz);
+		} else if (accessType == PropertyAccess.class) {
+			return getPropertyAccess(clazz);
+		}
+		throw new IllegalArgumentException("Not an access type: " + accessType.getName());
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return <code>true</code> if the class is a generated access class, which should not be accessed recursively
+	 */
+	static boolean isAccessClass(Class<?> clazz) {
+		for (Class<?> accessType : ACCESS_TYPES) {
+			if (accessType.isAssignableFrom(clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Gets the fields of the class then of each superclass, each sorted by name, so that inheriting fields does not
+	 * change the indices of the fields of the class
+	 * @param clazz
+	 * @return the fields in the order of their field indices
+	 */
+	public static List<Field> getFields(Class<?> clazz) {
+		return getClassHierarchy(clazz).stream()
+				.flatMap(c -> Arrays.stream(c.getDeclaredFields())
+						.sorted(comparing(Field::getName)))
+				.collect(toList());
+	}
+	
+	/**
+	 * Gets the class then its superclasses, up to but not including the first class of the JDK, so that e.g. the
+	 * fields of a base entity are accessed like the fields of the class
+	 * @param clazz
+	 * @return
+	 */
+	static List<Class<?>> getClassHierarchy(Class<?> clazz) {
+		List<Class<?>> classHierarchy = new ArrayList<>();
+		classHierarchy.add(clazz);
+		for (Class<?> c = clazz.getSuperclass(); c != null && !isJdkClass(c); c = c.getSuperclass()) {
+			classHierarchy.add(c);
+		}
+		return classHierarchy;
 	}
 	
-	private static String getClassNameOfClassAccessFor(Class<?> clazz) {
-		return clazz.getName() + "$" + clazz.getSimpleName() + "ClassAccess"; // com.github.javalbert.reflection.test.Foo$FooClassAccess
+	/**
+	 * Compares parameter types by the names of the types, then by the number of parameters
+	 * @param aparams
+	 * @param bparams
+	 * @return
+	 */
+	private static int compareParameterTypes(Class<?>[] aparams, Class<?>[] bparams) {
+		int len = Math.min(aparams.length, bparams.length);
+		for (int i = 0; i < len; i++) {
+			int compareParamType = aparams[i].getName().compareTo(bparams[i].getName());
+			if (compareParamType != 0) {
+				return compareParamType;
+			}
+		}
+		return Integer.compare(aparams.length, bparams.length);
+	}
+	
+	private static String getChunkMethodName(String methodName, int chunk) {
+		return methodName + "$" + chunk;
+	}
+	
+	/**
+	 * 
+	 * @param method
+	 * @return name and parameter types, which are the same for a method and the methods that it overrides
+	 */
+	private static String getSignature(Method method) {
+		return method.getName() + Type.getMethodDescriptor(method).replaceFirst("\\).*", ")");
+	}
+	
+	/**
+	 * 
+	 * @return the last ancestor of the system class loader before the bootstrap class loader
+	 */
+	private static ClassLoader getPlatformClassLoader() {
+		ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+		while (classLoader != null && classLoader.getParent() != null) {
+			classLoader = classLoader.getParent();
+		}
+		return classLoader;
+	}
+	
+	private static int[] getHashCodes(List<? extends List<? extends StringCaseReturnIndex>> hashCodeGroups) {
+		return hashCodeGroups.stream()
+				.mapToInt(group -> group.get(0).hashCode)
+				.toArray();
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param accessType
+	 * @return binary name of the generated class e.g. <code>com.github.javalbert.reflection.test.Foo$FooFieldAccess</code>
+	 */
+	private static String getClassNameOfAccessFor(Class<?> clazz, Class<?> accessType) {
+		return clazz.getName() + "$" + clazz.getSimpleName() + accessType.getSimpleName();
 	}
 	
 	@SuppressWarnings("unchecked")
-	private static <T> ClassAccess<T> getInstance(Class<T> clazz)
-			throws ClassNotFoundException, InstantiationException, IllegalAccessException {
-		ClassAccess<T> classAccess = CLASS_ACCESS_MAP.get(clazz);
-		
-		if (classAccess == null) {
-			synchronized (CLASS_ACCESS_MAP) {
-				classAccess = CLASS_ACCESS_MAP.get(clazz);
-				
-				if (classAccess == null) {
-					Class<?> classAccessClass = createClassAccessClass(clazz);
-					classAccess = (ClassAccess<T>)classAccessClass.newInstance();
-					CLASS_ACCESS_MAP.put(clazz, classAccess);
-				}
+	private static <A> A getInstance(Class<?> clazz, Class<?> accessType, ClassValue<?> accessValue) {
+		try {
+			return (A)accessValue.get(clazz);
+		} catch (IllegalArgumentException e) {
+			// e.g. the class is itself an access class
+			throw e;
+		} catch (Exception e) {
+			LOGGER.error("Error occurred while trying to get " + accessType.getSimpleName() + " for " + clazz, e);
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param stringCases
+	 * @return the cases grouped by the hash code of their names, sorted by hash code
+	 */
+	private static <S extends StringCaseReturnIndex> List<List<S>> groupByHashCode(List<S> stringCases) {
+		List<S> sortedCases = new ArrayList<>(stringCases);
+		Collections.sort(sortedCases, StringCaseReturnIndex::compareHashCode);
+		
+		List<List<S>> hashCodeGroups = new ArrayList<>();
+		for (int i = 0; i < sortedCases.size(); i++) {
+			S stringCase = sortedCases.get(i);
+			if (i == 0 || stringCase.hashCode != sortedCases.get(i - 1).hashCode) {
+				hashCodeGroups.add(new ArrayList<>());
 			}
+			hashCodeGroups.get(hashCodeGroups.size() - 1).add(stringCase);
 		}
-		return classAccess;
+		return hashCodeGroups;
 	}
 	
-	private static Label[] getTableSwitchLabelsForAccess(
-			Label defaultCaseLabel,
-			List<? extends MemberInfo> members) {
-		return AsmUtils.getTableSwitchLabels(defaultCaseLabel, members.stream()
-				.mapToInt(m -> m.memberIndex)
-				.toArray());
+	/**
+	 * 
+	 * @param clazz
+	 * @param member declared by a superclass of <code>clazz</code>
+	 * @return <code>true</code> if a class in the package of the class, without any special access, could use the
+	 * inherited member
+	 */
+	private static boolean isInheritedMemberAccessible(Class<?> clazz, Member member) {
+		int modifiers = member.getModifiers();
+		if (Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+		Class<?> declaringClass = member.getDeclaringClass();
+		return Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers())
+				|| AccessClassDefiner.isSamePackage(declaringClass, clazz);
 	}
 	
 	private static boolean isDescriptorDoubleOrLong(String descriptor) {
@@ -118,6 +966,34 @@ public final class ClassAccessFactory<T> {
 				|| descriptor.equals(Type.LONG_TYPE.getDescriptor());
 	}
 	
+	/**
+	 * 
+	 * @param clazz
+	 * @return <code>true</code> if the class is loaded by the bootstrap or platform class loader
+	 */
+	private static boolean isJdkClass(Class<?> clazz) {
+		ClassLoader classLoader = clazz.getClassLoader();
+		return classLoader == null || classLoader == PLATFORM_CLASS_LOADER;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <A> ClassValue<A> newAccessValue(Class<?> accessType) {
+		return new ClassValue<A>() {
+			@Override
+			protected A computeValue(Class<?> type) {
+				// Checked here rather than on every get, since a value is never computed for an access class
+				if (isAccessClass(type)) {
+					throw new IllegalArgumentException("should not get class access recursively");
+				}
+				try {
+					return (A)getOrCreateAccessClass(type, accessType).newInstance();
+				} catch (InstantiationException | IllegalAccessException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+	}
+	
 	private static Label[] newLabelArray(int size) {
 		Label[] labels = new Label[size];
 		for (int i = 0; i < size; i++) {
@@ -130,10 +1006,76 @@ public final class ClassAccessFactory<T> {
 		object.setAccessible(true);
 	}
 	
-	private static boolean useTableSwitch(List<? extends MemberInfo> members) {
-		return AsmUtils.useTableSwitch(members.stream()
-				.mapToInt(m -> m.memberIndex)
-				.toArray());
+	/**
+	 * Splits switch cases into consecutive chunks whose estimated code size fits in one method
+	 * @param cases
+	 * @param caseCodeSizes estimated bytes of bytecode of each case
+	 * @return a single chunk if all cases fit in one method
+	 */
+	private static <E> List<List<E>> splitIntoChunks(List<? extends E> cases, int[] caseCodeSizes) {
+		List<List<E>> chunks = new ArrayList<>();
+		List<E> chunk = new ArrayList<>();
+		int chunkCodeSize = 0;
+		
+		for (int i = 0; i < cases.size(); i++) {
+			if (!chunk.isEmpty() && chunkCodeSize + caseCodeSizes[i] > MAX_SWITCH_CODE_SIZE) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>();
+				chunkCodeSize = 0;
+			}
+			chunk.add(cases.get(i));
+			chunkCodeSize += caseCodeSizes[i];
+		}
+		chunks.add(chunk);
+		return chunks;
+	}
+	
+	/**
+	 * Splits the cases of a <code>fieldIndex()</code>, <code>propertyIndex()</code> or <code>methodIndex()</code>
+	 * method into chunks by ranges of hash codes
+	 * @param stringCases
+	 * @param caseCodeSize estimated bytes of bytecode of a case, not including its entry in the switch instruction
+	 * @return chunks sorted by hash code, each of which has all the cases with the same hash code
+	 */
+	private static <S extends StringCaseReturnIndex> List<List<S>> splitIndexCasesIntoChunks(
+			List<S> stringCases,
+			ToIntFunction<? super S> caseCodeSize) {
+		List<List<S>> hashCodeGroups = groupByHashCode(stringCases);
+		int[] groupCodeSizes = new int[hashCodeGroups.size()];
+		for (int i = 0; i < hashCodeGroups.size(); i++) {
+			// 8 bytes per lookup switch entry
+			groupCodeSizes[i] = 8 + hashCodeGroups.get(i).stream()
+					.mapToInt(caseCodeSize)
+					.sum();
+		}
+		
+		return splitIntoChunks(hashCodeGroups, groupCodeSizes).stream()
+				.map(groups -> groups.stream()
+						.flatMap(List::stream)
+						.collect(toList()))
+				.collect(toList());
+	}
+	
+	/**
+	 * Splits the cases of a switch on member index into chunks by ranges of member indices
+	 * @param members sorted by member index, or <code>null</code> if there are none
+	 * @param caseCodeSize estimated bytes of bytecode of a case, not including its entry in the switch instruction
+	 * @return
+	 */
+	private static <M extends MemberInfo> List<List<M>> splitMembersIntoChunks(
+			List<? extends M> members,
+			ToIntFunction<? super M> caseCodeSize) {
+		if (members == null) {
+			return Collections.singletonList(Collections.emptyList());
+		}
+		
+		int[] caseCodeSizes = new int[members.size()];
+		for (int i = 0; i < members.size(); i++) {
+			// Table switches take 4 bytes per index including gaps, and lookup switches 8 bytes per case
+			int gap = i == 0 ? 0 : members.get(i).memberIndex - members.get(i - 1).memberIndex - 1;
+			caseCodeSizes[i] = caseCodeSize.applyAsInt(members.get(i)) + 8 + 4 * gap;
+		}
+		return splitIntoChunks(members, caseCodeSizes);
 	}
 	
 	private static class AccessInfo {
@@ -208,23 +1150,23 @@ public final class ClassAccessFactory<T> {
 	private static abstract class AssignableInfo extends MemberInfo implements Castable {
 		protected final String internalName;
 		protected final Class<?> type;
-
+		
 		@Override
 		public String getDescriptor() {
 			return descriptor;
 		}
-
+		
 		@Override
 		public String getInternalName() {
 			return internalName;
 		}
-
+		
 		@SuppressWarnings("rawtypes")
 		@Override
 		public Class getType() {
 			return type;
 		}
-
+		
 		private AssignableInfo(
 				String name,
 				int memberIndex,
@@ -242,18 +1184,78 @@ public final class ClassAccessFactory<T> {
 		Class getType();
 	}
 	
+	@FunctionalInterface
+	private static interface ChunkVisitor<E> {
+		void visitChunk(int access, String methodName, List<E> chunk);
+	}
+	
+	private static class ConstructorInfo extends MemberInfo {
+		private final Constructor<?> constructor;
+		/**
+		 * <code>false</code> if the constructor is called through a method handle, because it is private and the
+		 * generated class is not a nestmate of the class
+		 */
+		private final boolean isDirectlyAccessible;
+		private final int parameterCount;
+		private final List<ParameterInfo> parameters;
+		
+		private ConstructorInfo(Constructor<?> constructor, int index, boolean isDirectlyAccessible) {
+			super("<init>", index, Type.getConstructorDescriptor(constructor));
+			this.constructor = constructor;
+			this.isDirectlyAccessible = isDirectlyAccessible;
+			parameterCount = constructor.getParameterCount();
+			parameters = Collections.unmodifiableList(
+					Arrays.stream(constructor.getParameterTypes())
+					.map(ParameterInfo::new)
+					.collect(toList())
+					);
+		}
+		
+		/**
+		 * 
+		 * @param clazz
+		 * @return the descriptor that the method handle of the constructor is called with
+		 */
+		private String getHandleDescriptor(Class<?> clazz) {
+			return Type.getMethodDescriptor(Type.getType(clazz), Type.getArgumentTypes(descriptor));
+		}
+		
+		private String getHandleFieldName() {
+			return "constructor$" + memberIndex;
+		}
+	}
+	
 	private static class FieldInfo extends AssignableInfo {
+		private final Field field;
 		private final int getFieldOpcode;
+		/**
+		 * <code>false</code> if the field is accessed through a {@link FieldAccessorFactory} accessor, because it is
+		 * declared by a superclass whose private or package-private members the generated class cannot access
+		 */
+		private final boolean isDirectlyAccessible;
+		private final boolean isFinal;
+		private final boolean isStatic;
+		private final String ownerInternalName;
 		private final int setFieldOpcode;
 		
-		private FieldInfo(Field field, int fieldIndex) {
+		private FieldInfo(Field field, int fieldIndex, boolean isDirectlyAccessible) {
 			super(
 					field.getName(),
 					fieldIndex,
 					field.getType()
 					);
-			getFieldOpcode = Modifier.isStatic(field.getModifiers()) ? GETSTATIC : GETFIELD;
-			setFieldOpcode = Modifier.isStatic(field.getModifiers()) ? PUTSTATIC : PUTFIELD;
+			this.field = field;
+			this.isDirectlyAccessible = isDirectlyAccessible;
+			isFinal = Modifier.isFinal(field.getModifiers());
+			isStatic = Modifier.isStatic(field.getModifiers());
+			getFieldOpcode = isStatic ? GETSTATIC : GETFIELD;
+			// The declaring class, so that a field shadowed by a subclass field with the same name is still accessed
+			ownerInternalName = Type.getInternalName(field.getDeclaringClass());
+			setFieldOpcode = isStatic ? PUTSTATIC : PUTFIELD;
+		}
+		
+		private String getAccessorFieldName(boolean isSetter) {
+			return (isSetter ? "setter$" : "getter$") + memberIndex;
 		}
 	}
 	
@@ -274,14 +1276,20 @@ public final class ClassAccessFactory<T> {
 	
 	private static class MethodInfo extends MemberInfo {
 		private final int invokeOpcode;
+		/**
+		 * <code>false</code> if the method is called through a method handle, because it is private and the generated
+		 * class is not a nestmate of the class
+		 */
+		private final boolean isDirectlyAccessible;
 		private final Method method;
 		private final int parameterCount;
 		private final List<ParameterInfo> parameters;
 		
-		private MethodInfo(Method method, int index) {
+		private MethodInfo(Method method, int index, boolean isDirectlyAccessible) {
 			super(method.getName(), index, Type.getMethodDescriptor(method));
 			invokeOpcode = method.getDeclaringClass().isInterface() ? INVOKEINTERFACE
 					: Modifier.isStatic(method.getModifiers()) ? INVOKESTATIC : INVOKEVIRTUAL;
+			this.isDirectlyAccessible = isDirectlyAccessible;
 			this.method = method;
 			parameterCount = method.getParameterCount();
 			parameters = Collections.unmodifiableList(
@@ -290,6 +1298,20 @@ public final class ClassAccessFactory<T> {
 					.collect(toList())
 					);
 		}
+		
+		/**
+		 * 
+		 * @return the descriptor that the method handle of the method is called with, whose first parameter is the
+		 * object unless the method is static
+		 */
+		private String getHandleDescriptor() {
+			return invokeOpcode == INVOKESTATIC ? descriptor
+					: "(" + Type.getDescriptor(method.getDeclaringClass()) + descriptor.substring(1);
+		}
+		
+		private String getHandleFieldName() {
+			return "method$" + memberIndex;
+		}
 	}
 	
 	private static class MethodNameReturnIndex extends StringCaseReturnIndex {
@@ -310,18 +1332,18 @@ public final class ClassAccessFactory<T> {
 		public String getDescriptor() {
 			return descriptor;
 		}
-
+		
 		@Override
 		public String getInternalName() {
 			return internalName;
 		}
-
+		
 		@SuppressWarnings("rawtypes")
 		@Override
 		public Class getType() {
 			return type;
 		}
-
+		
 		private ParameterInfo(Class<?> type) {
 			descriptor = Type.getDescriptor(type);
 			internalName = Type.getInternalName(type);
@@ -329,10 +1351,76 @@ public final class ClassAccessFactory<T> {
 		}
 	}
 	
+	/**
+	 * A <code>call</code> method specialized for a return type and primitive parameter types, e.g.
+	 * <code>int callInt(T obj, int methodIndex, int arg0, int arg1)</code>
+	 */
+	private static class PrimitiveCallInfo {
+		private static List<PrimitiveCallInfo> newPrimitiveCallInfoList() {
+			List<Type[]> argumentTypesList = Arrays.asList(
+					new Type[0],
+					new Type[] { Type.INT_TYPE },
+					new Type[] { Type.LONG_TYPE },
+					new Type[] { Type.DOUBLE_TYPE },
+					new Type[] { Type.INT_TYPE, Type.INT_TYPE },
+					new Type[] { Type.LONG_TYPE, Type.LONG_TYPE },
+					new Type[] { Type.DOUBLE_TYPE, Type.DOUBLE_TYPE });
+			List<PrimitiveCallInfo> primitiveCallInfoList = new ArrayList<>();
+			for (Type returnType : new Type[] {
+					Type.BOOLEAN_TYPE,
+					Type.DOUBLE_TYPE,
+					Type.INT_TYPE,
+					Type.LONG_TYPE,
+					Type.VOID_TYPE }) {
+				for (Type[] argumentTypes : argumentTypesList) {
+					primitiveCallInfoList.add(new PrimitiveCallInfo(returnType, argumentTypes));
+				}
+			}
+			return Collections.unmodifiableList(primitiveCallInfoList);
+		}
+		
+		private final int argumentSlots;
+		private final Type[] argumentTypes;
+		private final String methodName;
+		private final Type returnType;
+		
+		private PrimitiveCallInfo(Type returnType, Type[] argumentTypes) {
+			argumentSlots = Arrays.stream(argumentTypes)
+					.mapToInt(Type::getSize)
+					.sum();
+			this.argumentTypes = argumentTypes;
+			methodName = "call" + WordUtils.capitalize(returnType.getClassName());
+			this.returnType = returnType;
+		}
+		
+		/**
+		 * 
+		 * @return e.g. <code>(int, int) returning int</code>
+		 */
+		private String getDescription() {
+			String description = Arrays.stream(argumentTypes)
+					.map(Type::getClassName)
+					.collect(joining(", ", "(", ")"));
+			return returnType == Type.VOID_TYPE ? description : description + " returning " + returnType.getClassName();
+		}
+		
+		private String getDescriptor(String objDescriptor) {
+			Type[] parameterTypes = ArrayUtils.addAll(
+					new Type[] { Type.getType(objDescriptor), Type.INT_TYPE },
+					argumentTypes);
+			return Type.getMethodDescriptor(returnType, parameterTypes);
+		}
+		
+		private boolean matches(MethodInfo methodInfo) {
+			return Arrays.equals(Type.getArgumentTypes(methodInfo.descriptor), argumentTypes)
+					&& (returnType == Type.VOID_TYPE || Type.getReturnType(methodInfo.descriptor).equals(returnType));
+		}
+	}
+	
 	private static class PropertyInfo extends AssignableInfo {
 		private final String readMethodName;
 		private final String writeMethodName;
-
+		
 		private PropertyInfo(PropertyDescriptor propertyDescriptor, int propertyIndex) {
 			super(
 					propertyDescriptor.getName(),
@@ -367,43 +1455,89 @@ public final class ClassAccessFactory<T> {
 			this.name = name;
 		}
 	}
-
+	
 	private final List<PropertyInfo> accessorInfoList = new ArrayList<>();
+	private final Class<?> accessType;
 	private String classAccessInternalName;
 	private String classAccessTypeDescriptor;
 	private String classTypeDescriptor;
 	private final Class<T> clazz;
+	private final List<ConstructorInfo> constructorInfoList = new ArrayList<>();
 	private final ClassWriter cw;
 	private final List<FieldInfo> fieldInfoList = new ArrayList<>();
 	private String internalName;
+	private final int invokeVirtualOpcode;
 	private final List<MethodInfo> methodInfoList = new ArrayList<>();
 	private final List<PropertyInfo> mutatorInfoList = new ArrayList<>();
 	private MethodVisitor mv;
+	private final Map<Integer, List<ConstructorInfo>> paramCountConstructorsMap = new HashMap<>();
 	private final Map<Integer, List<MethodInfo>> paramCountMethodsMap = new HashMap<>();
 	private final List<PropertyInfo> propertyInfoList = new ArrayList<>();
 	private final Map<String, List<PropertyInfo>> typeToAccessorsMap = new HashMap<>();
 	private final Map<String, List<FieldInfo>> typeToFieldsMap = new HashMap<>();
 	private final Map<String, List<PropertyInfo>> typeToMutatorsMap = new HashMap<>();
 	
-	private ClassAccessFactory(Class<T> clazz) {
+	/**
+	 * 
+	 * @param clazz
+	 * @param accessType {@link ClassAccess}, or one of the interfaces that it extends or {@link PrimitiveMethodAccess}
+	 * to generate the access to one kind of member without looking up the others
+	 */
+	private ClassAccessFactory(Class<T> clazz, Class<?> accessType) {
+		this.accessType = accessType;
 		this.clazz = clazz;
-		initializePropertyDescriptors();
-		initializeFields();
-		initializeMethods();
+		invokeVirtualOpcode = clazz.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL;
+		// Only look up the members that the generated class accesses, e.g. the Introspector is slow
+		if (isGenerated(PropertyAccess.class)) {
+			initializePropertyDescriptors();
+		}
+		if (isGenerated(FieldAccess.class)) {
+			initializeFields();
+		}
+		if (isGenerated(MethodAccess.class)) {
+			initializeMethods();
+		}
+		if (isGenerated(ConstructorAccess.class)) {
+			initializeConstructors();
+		}
 		cw = new ClassWriter(0);
 	}
 	
-	void buildClassAccessClass() {
+	byte[] buildClassAccessClass() {
 		visitClass();
 		AsmUtils.visitDefaultConstructor(cw, classAccessTypeDescriptor);
-		visitIndexMethod(MEMBER_TYPE_FIELD, getMemberIndexSwitchCases(fieldInfoList));
-		visitFieldAccessMethods();
-		visitIndexMethod(MEMBER_TYPE_PROPERTY, getMemberIndexSwitchCases(propertyInfoList));
-		visitPropertyAccessMethods();
-		visitMethodIndexMethod();
-		visitMethodAccessMethods();
+		visitStaticInitializer();
+		if (isGenerated(FieldAccess.class)) {
+			visitIndexMethod(MEMBER_TYPE_FIELD, getMemberIndexSwitchCases(fieldInfoList));
+			visitFieldAccessMethods();
+		}
+		if (isGenerated(PropertyAccess.class)) {
+			visitIndexMethod(MEMBER_TYPE_PROPERTY, getMemberIndexSwitchCases(propertyInfoList));
+			visitPropertyAccessMethods();
+		}
+		if (isGenerated(MethodAccess.class)) {
+			visitMethodIndexMethod();
+			visitMethodAccessMethods();
+		}
+		if (isGenerated(PrimitiveMethodAccess.class)) {
+			visitPrimitiveCallMethods();
+		}
+		if (isGenerated(ConstructorAccess.class)) {
+			visitConstructorAccessMethods();
+		}
 		cw.visitEnd();
-		AccessClassLoader.get(clazz).defineClass(getClassNameOfClassAccessFor(clazz), cw.toByteArray());
+		return cw.toByteArray();
+	}
+	
+	private void addConstructorInfo(ConstructorInfo constructorInfo) {
+		List<ConstructorInfo> constructorsWithParamCount = paramCountConstructorsMap.get(constructorInfo.parameterCount);
+		if (constructorsWithParamCount == null) {
+			constructorsWithParamCount = new ArrayList<>();
+			paramCountConstructorsMap.put(constructorInfo.parameterCount, constructorsWithParamCount);
+		}
+		
+		constructorsWithParamCount.add(constructorInfo);
+		constructorInfoList.add(constructorInfo);
 	}
 	
 	private void addFieldInfo(FieldInfo fieldInfo) {
@@ -478,12 +1612,40 @@ public final class ClassAccessFactory<T> {
 	
 	private List<StringCaseReturnIndex> getMemberIndexSwitchCases(List<? extends MemberInfo> memberInfoList) {
 		List<StringCaseReturnIndex> memberIndexSwitchCases = new ArrayList<>();
+		Set<String> names = new HashSet<>();
 		for (int i = 0; i < memberInfoList.size(); i++) {
-			memberIndexSwitchCases.add(new StringCaseReturnIndex(memberInfoList.get(i).name, i));
+			// A field shadowed by a field of a subclass has an index but cannot be found by name
+			if (names.add(memberInfoList.get(i).name)) {
+				memberIndexSwitchCases.add(new StringCaseReturnIndex(memberInfoList.get(i).name, i));
+			}
 		}
 		return memberIndexSwitchCases;
 	}
 	
+	/**
+	 * 
+	 * @param methods
+	 * @return the operand stack size needed by <code>call()</code> or <code>invoke()</code> to call any of the methods,
+	 * which is at least enough to throw an exception for an invalid method index
+	 */
+	private int getMaxStackOfConstructorCalls(List<ConstructorInfo> constructors) {
+		int maxArgumentSlots = constructors.stream()
+				.mapToInt(c -> (Type.getArgumentsAndReturnSizes(c.descriptor) >> 2) - 1)
+				.max()
+				.orElse(0);
+		// new instance twice, arguments, then args array and index for the next argument of the varargs newInstance()
+		return Math.max(5, maxArgumentSlots + 4);
+	}
+	
+	private int getMaxStackOfMethodCalls(List<MethodInfo> methods) {
+		int maxArgumentSlots = methods.stream()
+				.mapToInt(m -> Type.getArgumentsAndReturnSizes(m.descriptor) >> 2)
+				.max()
+				.orElse(0);
+		// method handle, obj, arguments, then args array and index for the next argument of invoke()
+		return Math.max(5, maxArgumentSlots + 3);
+	}
+	
 	private String getMethodAccessMethodDescriptor(int parameterCount) {
 		return getMethodAccessMethodDescriptor(parameterCount, classTypeDescriptor);
 	}
@@ -508,7 +1670,7 @@ public final class ClassAccessFactory<T> {
 			if (overloadedMethods == null) {
 				overloadedMethods = new ArrayList<>();
 				overloadedMap.put(methodInfo.name, overloadedMethods);
-
+				
 				overloadedMethods.add(methodInfo);
 				methodIndices.add(new MethodNameReturnIndex(overloadedMethods));
 			} else {
@@ -519,43 +1681,82 @@ public final class ClassAccessFactory<T> {
 		return methodIndices;
 	}
 	
-	private void initializeFields() {
-		List<Field> fields = Arrays.stream(clazz.getDeclaredFields())
-				.sorted(comparing(Field::getName))
+	private String getNewInstanceMethodDescriptor(int parameterCount) {
+		StringBuilder desc = new StringBuilder("(I");
+		for (int i = 0; i < parameterCount; i++) {
+			desc.append("Ljava/lang/Object;");
+		}
+		return desc.append(")Ljava/lang/Object;")
+				.toString();
+	}
+	
+	private void initializeConstructors() {
+		// Instances of these cannot be created, and enum constants must not be
+		if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isEnum()) {
+			return;
+		}
+		
+		List<Constructor<?>> constructors = Arrays.stream(clazz.getDeclaredConstructors())
+				// Skip constructors that the compiler generates to access private constructors of nested classes
+				.filter(constructor -> !constructor.isSynthetic())
+				.sorted((a, b) -> compareParameterTypes(a.getParameterTypes(), b.getParameterTypes()))
 				.collect(toList());
 		
+		for (int i = 0; i < constructors.size(); i++) {
+			Constructor<?> constructor = constructors.get(i);
+			setAccessible(constructor);
+			addConstructorInfo(
+					new ConstructorInfo(constructor, i, AccessClassDefiner.canAccessDirectly(clazz, constructor)));
+		}
+	}
+	
+	private void initializeFields() {
+		List<Field> fields = getFields(clazz);
 		for (int i = 0; i < fields.size(); i++) {
 			Field field = fields.get(i);
 			setAccessible(field);
-			addFieldInfo(new FieldInfo(field, i));
+			addFieldInfo(new FieldInfo(field, i, AccessClassDefiner.canAccessDirectly(clazz, field)));
 		}
 	}
 	
 	private void initializeMethods() {
+		Comparator<Method> methodComparator = (a, b) -> {
+			int compareMethodName = a.getName().compareTo(b.getName());
+			if (compareMethodName != 0) {
+				return compareMethodName;
+			}
+			return compareParameterTypes(a.getParameterTypes(), b.getParameterTypes());
+		};
+		// All the declared methods, so that the indexes are the same however the generated class is defined
 		List<Method> methods = Arrays.stream(clazz.getDeclaredMethods())
-				.sorted((a, b) -> {
-					int compareMethodName = a.getName().compareTo(b.getName());
-					if (compareMethodName != 0) {
-						return compareMethodName;
-					}
-					
-					Class<?>[] aparams = a.getParameterTypes();
-					Class<?>[] bparams = b.getParameterTypes();
-					
-					int len = Math.min(aparams.length, bparams.length);
-					for (int i = 0; i < len; i++) {
-						int compareParamType = aparams[i].getName().compareTo(bparams[i].getName());
-						if (compareParamType != 0) {
-							return compareParamType;
-						}
-					}
-					return Integer.compare(aparams.length, bparams.length);
-				}).collect(toList());
+				.sorted(methodComparator)
+				.collect(toList());
+		
+		// Then the methods that each superclass declares and that are not overridden, and that can be called from
+		// the package of the class regardless of how the generated class is defined
+		Set<String> signatures = methods.stream()
+				.map(ClassAccessFactory::getSignature)
+				.collect(toSet());
+		List<Class<?>> classHierarchy = getClassHierarchy(clazz);
+		for (Class<?> superclass : classHierarchy.subList(1, classHierarchy.size())) {
+			List<Method> inheritedMethods = Arrays.stream(superclass.getDeclaredMethods())
+					.filter(m -> !m.isSynthetic()
+							&& isInheritedMemberAccessible(clazz, m)
+							&& !signatures.contains(getSignature(m)))
+					.sorted(methodComparator)
+					.collect(toList());
+			inheritedMethods.forEach(m -> signatures.add(getSignature(m)));
+			methods.addAll(inheritedMethods);
+		}
 		
 		for (int i = 0; i < methods.size(); i++) {
 			Method method = methods.get(i);
 			setAccessible(method);
-			addMethodInfo(new MethodInfo(method, i));
+			// Inherited methods are only included if they can be called directly
+			addMethodInfo(new MethodInfo(
+					method,
+					i,
+					method.getDeclaringClass() != clazz || AccessClassDefiner.canAccessDirectly(clazz, method)));
 		}
 	}
 	
@@ -575,22 +1776,50 @@ public final class ClassAccessFactory<T> {
 		}
 	}
 	
+	/**
+	 * 
+	 * @param memberAccessType e.g. {@link FieldAccess}
+	 * @return <code>true</code> if the generated class implements the access type
+	 */
+	private boolean isGenerated(Class<?> memberAccessType) {
+		return memberAccessType.isAssignableFrom(accessType);
+	}
+	
 	private void visitAccessGetter(
 			List<? extends AssignableInfo> memberInfoList,
 			AccessInfo accessInfo) {
-		mv = cw.visitMethod(
+		List<List<AssignableInfo>> chunks = splitMembersIntoChunks(
+				memberInfoList,
+				member -> 10 /* load obj, get field or call getter, return */);
+		visitChunkedMethod(
 				ACC_PUBLIC,
 				accessInfo.getMethodName,
 				"(" + classTypeDescriptor + "I)" + accessInfo.descriptor,
 				null,
+				chunks,
+				member -> member.memberIndex,
+				false,
+				(access, methodName, chunk) -> visitAccessGetter(access, methodName, chunk, accessInfo));
+	}
+	
+	private void visitAccessGetter(
+			int access,
+			String methodName,
+			List<? extends AssignableInfo> memberInfoList,
+			AccessInfo accessInfo) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(" + classTypeDescriptor + "I)" + accessInfo.descriptor,
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		mv.visitVarInsn(ILOAD, 2);
-
+		
 		Label defaultCaseLabel = new Label();
-
+		
 		if (memberInfoList == null
 				|| memberInfoList.isEmpty()) {
 			mv.visitInsn(POP);
@@ -599,48 +1828,27 @@ public final class ClassAccessFactory<T> {
 			return;
 		}
 		
-		boolean useTableSwitch = useTableSwitch(memberInfoList);
-		Label[] labels = useTableSwitch ? getTableSwitchLabelsForAccess(defaultCaseLabel, memberInfoList)
-				: newLabelArray(memberInfoList.size());
-		
-		if (useTableSwitch) {
-			mv.visitTableSwitchInsn(
-					memberInfoList.get(0).memberIndex,
-					memberInfoList.get(memberInfoList.size() - 1).memberIndex,
-					defaultCaseLabel,
-					labels
-					);
-		} else {
-			mv.visitLookupSwitchInsn(
-					defaultCaseLabel,
-					memberInfoList.stream()
-					.mapToInt(f -> f.memberIndex)
-					.toArray(),
-					labels);
-		}
+		Label[] labels = visitMemberIndexSwitch(memberInfoList, defaultCaseLabel);
 		
 		for (int i = 0; i < memberInfoList.size(); i++) {
 			MemberInfo memberInfo = memberInfoList.get(i);
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadFieldAccessor(memberInfo, false);
+			visitLoadObj(memberInfo);
 			
 			switch (accessInfo.memberType) {
 				case MEMBER_TYPE_FIELD:
-					mv.visitFieldInsn(
-							((FieldInfo)memberInfo).getFieldOpcode,
-							internalName,
-							memberInfo.name,
-							accessInfo.descriptor);
+					visitGetField((FieldInfo)memberInfo);
 					break;
 				case MEMBER_TYPE_PROPERTY:
 					mv.visitMethodInsn(
-							INVOKEVIRTUAL,
+							invokeVirtualOpcode,
 							internalName,
 							((PropertyInfo)memberInfo).readMethodName,
 							"()" + accessInfo.descriptor,
-							false);
+							clazz.isInterface());
 					break;
 			}
 			
@@ -711,19 +1919,38 @@ public final class ClassAccessFactory<T> {
 	private void visitAccessSetter(
 			List<? extends AssignableInfo> memberInfoList,
 			AccessInfo accessInfo) {
-		mv = cw.visitMethod(
+		List<List<AssignableInfo>> chunks = splitMembersIntoChunks(
+				memberInfoList,
+				member -> 13 /* load obj and value, set field or call setter, goto */);
+		visitChunkedMethod(
 				ACC_PUBLIC,
 				accessInfo.setMethodName,
 				"(" + classTypeDescriptor + "I" + accessInfo.descriptor + ")V",
 				null,
+				chunks,
+				member -> member.memberIndex,
+				false,
+				(access, methodName, chunk) -> visitAccessSetter(access, methodName, chunk, accessInfo));
+	}
+	
+	private void visitAccessSetter(
+			int access,
+			String methodName,
+			List<? extends AssignableInfo> memberInfoList,
+			AccessInfo accessInfo) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(" + classTypeDescriptor + "I" + accessInfo.descriptor + ")V",
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		mv.visitVarInsn(ILOAD, 2);
-
+		
 		Label defaultCaseLabel = new Label();
-
+		
 		if (memberInfoList == null
 				|| memberInfoList.isEmpty()) {
 			mv.visitInsn(POP);
@@ -736,25 +1963,7 @@ public final class ClassAccessFactory<T> {
 			return;
 		}
 		
-		boolean useTableSwitch = useTableSwitch(memberInfoList);
-		Label[] labels = useTableSwitch ? getTableSwitchLabelsForAccess(defaultCaseLabel, memberInfoList)
-				: newLabelArray(memberInfoList.size());
-		
-		if (useTableSwitch) {
-			mv.visitTableSwitchInsn(
-					memberInfoList.get(0).memberIndex,
-					memberInfoList.get(memberInfoList.size() - 1).memberIndex,
-					defaultCaseLabel,
-					labels
-					);
-		} else {
-			mv.visitLookupSwitchInsn(
-					defaultCaseLabel,
-					memberInfoList.stream()
-					.mapToInt(f -> f.memberIndex)
-					.toArray(),
-					labels);
-		}
+		Label[] labels = visitMemberIndexSwitch(memberInfoList, defaultCaseLabel);
 		
 		Label breakLabel = new Label();
 		
@@ -763,24 +1972,21 @@ public final class ClassAccessFactory<T> {
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadFieldAccessor(memberInfo, true);
+			visitLoadObj(memberInfo);
 			mv.visitVarInsn(accessInfo.loadOpcode, 3);
 			
 			switch (accessInfo.memberType) {
 				case MEMBER_TYPE_FIELD:
-					mv.visitFieldInsn(
-							((FieldInfo)memberInfo).setFieldOpcode,
-							internalName,
-							memberInfo.name,
-							accessInfo.descriptor);
+					visitPutField((FieldInfo)memberInfo);
 					break;
 				case MEMBER_TYPE_PROPERTY:
 					mv.visitMethodInsn(
-							INVOKEVIRTUAL,
+							invokeVirtualOpcode,
 							internalName,
 							((PropertyInfo)memberInfo).writeMethodName,
 							"(" + accessInfo.descriptor + ")V",
-							false);
+							clazz.isInterface());
 					break;
 			}
 			
@@ -870,9 +2076,114 @@ public final class ClassAccessFactory<T> {
 		mv.visitEnd();
 	}
 	
+	/**
+	 * Visits a method that passes its arguments to the private chunk method whose range of keys has the key, found
+	 * by a binary search of the first key of each chunk
+	 * @param access
+	 * @param methodName
+	 * @param descriptor of both the method and its chunk methods
+	 * @param signature
+	 * @param chunkFirstKeys the lowest key of each chunk, in ascending order
+	 * @param keyIsNameHashCode <code>true</code> if the key is the hash code of the <code>String</code> parameter,
+	 * otherwise it is the <code>int</code> index parameter
+	 */
+	private void visitChunkDispatcher(
+			int access,
+			String methodName,
+			String descriptor,
+			String signature,
+			int[] chunkFirstKeys,
+			boolean keyIsNameHashCode) {
+		mv = cw.visitMethod(access, methodName, descriptor, signature, null);
+		mv.visitCode();
+		mv.visitLabel(new Label());
+		visitChunkDispatcherBranch(methodName, descriptor, chunkFirstKeys, keyIsNameHashCode, 0, chunkFirstKeys.length - 1);
+		int argumentSlots = Type.getArgumentsAndReturnSizes(descriptor) >> 2;
+		mv.visitMaxs(Math.max(2, argumentSlots), argumentSlots);
+		mv.visitEnd();
+	}
+	
+	private void visitChunkDispatcherBranch(
+			String methodName,
+			String descriptor,
+			int[] chunkFirstKeys,
+			boolean keyIsNameHashCode,
+			int lowestChunk,
+			int highestChunk) {
+		if (lowestChunk == highestChunk) {
+			mv.visitVarInsn(ALOAD, 0);
+			int slot = 1;
+			for (Type argumentType : Type.getArgumentTypes(descriptor)) {
+				mv.visitVarInsn(argumentType.getOpcode(ILOAD), slot);
+				slot += argumentType.getSize();
+			}
+			mv.visitMethodInsn(
+					INVOKESPECIAL,
+					classAccessInternalName,
+					getChunkMethodName(methodName, lowestChunk),
+					descriptor,
+					false);
+			mv.visitInsn(Type.getReturnType(descriptor).getOpcode(IRETURN));
+			return;
+		}
+		
+		int middleChunk = (lowestChunk + highestChunk + 1) / 2;
+		Label upperHalfLabel = new Label();
+		
+		if (keyIsNameHashCode) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+		} else {
+			mv.visitVarInsn(ILOAD, 2);
+		}
+		AsmUtils.visitZeroOperandInt(mv, chunkFirstKeys[middleChunk]);
+		mv.visitJumpInsn(IF_ICMPGE, upperHalfLabel);
+		visitChunkDispatcherBranch(methodName, descriptor, chunkFirstKeys, keyIsNameHashCode, lowestChunk, middleChunk - 1);
+		
+		mv.visitLabel(upperHalfLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		visitChunkDispatcherBranch(methodName, descriptor, chunkFirstKeys, keyIsNameHashCode, middleChunk, highestChunk);
+	}
+	
+	/**
+	 * Visits a method with all of the cases, or if they were split because they are too big for one method, a private
+	 * method for each chunk and a method that dispatches to them, so that every method can be JIT compiled
+	 * @param access
+	 * @param methodName
+	 * @param descriptor
+	 * @param signature
+	 * @param chunks
+	 * @param keyOfCase the switch key of a case
+	 * @param keyIsNameHashCode
+	 * @param chunkVisitor visits a method with the cases of a chunk
+	 * @see #visitChunkDispatcher(int, String, String, String, int[], boolean)
+	 */
+	private <E> void visitChunkedMethod(
+			int access,
+			String methodName,
+			String descriptor,
+			String signature,
+			List<List<E>> chunks,
+			ToIntFunction<? super E> keyOfCase,
+			boolean keyIsNameHashCode,
+			ChunkVisitor<E> chunkVisitor) {
+		if (chunks.size() == 1) {
+			chunkVisitor.visitChunk(access, methodName, chunks.get(0));
+			return;
+		}
+		
+		int[] chunkFirstKeys = new int[chunks.size()];
+		for (int i = 0; i < chunks.size(); i++) {
+			List<E> chunk = chunks.get(i);
+			chunkFirstKeys[i] = keyOfCase.applyAsInt(chunk.get(0));
+			chunkVisitor.visitChunk(ACC_PRIVATE, getChunkMethodName(methodName, i), chunk);
+		}
+		visitChunkDispatcher(access, methodName, descriptor, signature, chunkFirstKeys, keyIsNameHashCode);
+	}
+	
 	private void visitClass() {
 		internalName = Type.getInternalName(clazz); // com/github/javalbert/reflection/test/Foo
-		String classAccessSimpleName = clazz.getSimpleName() + "ClassAccess"; // FooClassAccess
+		String classAccessSimpleName = clazz.getSimpleName() + accessType.getSimpleName(); // FooClassAccess
 		classAccessInternalName = internalName + "$" + classAccessSimpleName; // com/github/javalbert/reflection/test/Foo$FooClassAccess
 		
 		cw.visit(
@@ -880,10 +2191,13 @@ public final class ClassAccessFactory<T> {
 				ACC_PUBLIC + ACC_SUPER,
 				classAccessInternalName,
 				internalName,
-				"sun/reflect/MagicAccessorImpl"/*CREDIT: https://github.com/dimzon/reflectasm/blob/master/src/com/esotericsoftware/reflectasm/ClassAccess.java*/,
-				new String[] { Type.getInternalName(ClassAccess.class) });
+				AccessClassDefiner.getSuperclassInternalName()/*CREDIT: https://github.com/dimzon/reflectasm/blob/master/src/com/esotericsoftware/reflectasm/ClassAccess.java*/,
+				new String[] { Type.getInternalName(accessType) });
 		cw.visitSource(clazz.getSimpleName() + ".java", null);
-		cw.visitInnerClass(classAccessInternalName, internalName, classAccessSimpleName, ACC_PUBLIC + ACC_STATIC);
+		if (!AccessClassDefiner.isHiddenClass()) {
+			cw.visitInnerClass(classAccessInternalName, internalName, classAccessSimpleName, ACC_PUBLIC + ACC_STATIC);
+		}
+		AccessClassDefiner.visitModeField(cw);
 		
 		// For the lamda function Class::getName in methodIndex() method
 		// Appears not to be required
@@ -897,6 +2211,61 @@ public final class ClassAccessFactory<T> {
 		classTypeDescriptor = "L" + internalName + ";";
 	}
 	
+	private void visitConstructorAccessMethods() {
+		visitConstructorIndexMethod();
+		visitNewInstanceMethod();
+		visitNewInstanceVarargsMethod();
+		
+		for (int i = 0; i <= MAX_METHOD_ACCESS_PARAMETER_COUNT; i++) {
+			visitNewInstanceMethod(i);
+		}
+	}
+	
+	private void visitConstructorIndexMethod() {
+		mv = cw.visitMethod(
+				ACC_PUBLIC + ACC_VARARGS,
+				"constructorIndex",
+				"([Ljava/lang/Class;)I",
+				"([Ljava/lang/Class<*>;)I",
+				null);
+		mv.visitCode();
+		Label firstLabel = new Label();
+		mv.visitLabel(firstLabel);
+		
+		for (ConstructorInfo constructorInfo : constructorInfoList) {
+			Label nextConstructorLabel = new Label();
+			
+			mv.visitVarInsn(ALOAD, 1);
+			visitParameterTypesArray(constructorInfo.constructor.getParameterTypes());
+			mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals", "([Ljava/lang/Object;[Ljava/lang/Object;)Z", false);
+			mv.visitJumpInsn(IFEQ, nextConstructorLabel);
+			AsmUtils.visitZeroOperandInt(mv, constructorInfo.memberIndex);
+			mv.visitInsn(IRETURN);
+			
+			mv.visitLabel(nextConstructorLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+		}
+		
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("No constructor with parameters ");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitVarInsn(ALOAD, 1);
+		visitParameterTypeNames();
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/Object;)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		Label lastLabel = new Label();
+		mv.visitLabel(lastLabel);
+		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
+		mv.visitLocalVariable("parameterTypes", "[Ljava/lang/Class;", null, firstLabel, lastLabel, 1);
+		mv.visitMaxs(5, 2);
+		mv.visitEnd();
+	}
+	
 	private void visitFieldAccessMethods() {
 		List<AccessInfo> fieldAccessInfoList = Collections.unmodifiableList(
 				Arrays.asList(
@@ -950,19 +2319,38 @@ public final class ClassAccessFactory<T> {
 			String methodName,
 			String memberType,
 			List<? extends AssignableInfo> memberInfoList) {
-		mv = cw.visitMethod(
+		List<List<AssignableInfo>> chunks = splitMembersIntoChunks(
+				memberInfoList,
+				member -> 13 /* load obj, get field or call getter, box, return */);
+		visitChunkedMethod(
 				ACC_PUBLIC,
 				methodName,
 				"(" + classTypeDescriptor + "I)Ljava/lang/Object;",
 				null,
+				chunks,
+				member -> member.memberIndex,
+				false,
+				(access, chunkMethodName, chunk) -> visitGeneralAccessGetter(access, chunkMethodName, memberType, chunk));
+	}
+	
+	private void visitGeneralAccessGetter(
+			int access,
+			String methodName,
+			String memberType,
+			List<? extends AssignableInfo> memberInfoList) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(" + classTypeDescriptor + "I)Ljava/lang/Object;",
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		mv.visitVarInsn(ILOAD, 2);
-
+		
 		Label defaultCaseLabel = new Label();
-
+		
 		if (memberInfoList == null
 				|| memberInfoList.isEmpty()) {
 			mv.visitInsn(POP);
@@ -971,38 +2359,27 @@ public final class ClassAccessFactory<T> {
 			return;
 		}
 		
-		Label[] labels = getTableSwitchLabelsForAccess(defaultCaseLabel, memberInfoList);
-		
-		// Always use a table switch because there are no gaps between member indices
-		mv.visitTableSwitchInsn(
-				memberInfoList.get(0).memberIndex,
-				memberInfoList.get(memberInfoList.size() - 1).memberIndex,
-				defaultCaseLabel,
-				labels
-				);
+		Label[] labels = visitMemberIndexSwitch(memberInfoList, defaultCaseLabel);
 		
 		for (int i = 0; i < memberInfoList.size(); i++) {
 			AssignableInfo member = memberInfoList.get(i);
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadFieldAccessor(member, false);
+			visitLoadObj(member);
 			
 			switch (memberType) {
 				case MEMBER_TYPE_FIELD:
-					mv.visitFieldInsn(
-							((FieldInfo)member).getFieldOpcode,
-							internalName,
-							member.name,
-							member.descriptor);
+					visitGetField((FieldInfo)member);
 					break;
 				case MEMBER_TYPE_PROPERTY:
 					mv.visitMethodInsn(
-							INVOKEVIRTUAL,
+							invokeVirtualOpcode,
 							internalName,
 							((PropertyInfo)member).readMethodName,
 							"()" + member.descriptor,
-							false);
+							clazz.isInterface());
 					break;
 			}
 			
@@ -1023,24 +2400,43 @@ public final class ClassAccessFactory<T> {
 		
 		visitAccessGetterLastPart(memberType, firstLabel);
 	}
-
+	
 	private void visitGeneralAccessSetter(
 			String methodName,
 			String memberType,
 			List<? extends AssignableInfo> memberInfoList) {
-		mv = cw.visitMethod(
+		List<List<AssignableInfo>> chunks = splitMembersIntoChunks(
+				memberInfoList,
+				member -> 19 /* load obj and value, cast, unbox, set field or call setter, goto */);
+		visitChunkedMethod(
 				ACC_PUBLIC,
 				methodName,
 				"(" + classTypeDescriptor + "ILjava/lang/Object;)V",
 				null,
+				chunks,
+				member -> member.memberIndex,
+				false,
+				(access, chunkMethodName, chunk) -> visitGeneralAccessSetter(access, chunkMethodName, memberType, chunk));
+	}
+	
+	private void visitGeneralAccessSetter(
+			int access,
+			String methodName,
+			String memberType,
+			List<? extends AssignableInfo> memberInfoList) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(" + classTypeDescriptor + "ILjava/lang/Object;)V",
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		mv.visitVarInsn(ILOAD, 2);
-
+		
 		Label defaultCaseLabel = new Label();
-
+		
 		if (memberInfoList == null
 				|| memberInfoList.isEmpty()) {
 			mv.visitInsn(POP);
@@ -1053,15 +2449,7 @@ public final class ClassAccessFactory<T> {
 			return;
 		}
 		
-		Label[] labels = getTableSwitchLabelsForAccess(defaultCaseLabel, memberInfoList);
-
-		// Always use a table switch because there are no gaps between member indices
-		mv.visitTableSwitchInsn(
-				memberInfoList.get(0).memberIndex,
-				memberInfoList.get(memberInfoList.size() - 1).memberIndex,
-				defaultCaseLabel,
-				labels
-				);
+		Label[] labels = visitMemberIndexSwitch(memberInfoList, defaultCaseLabel);
 		
 		Label breakLabel = new Label();
 		
@@ -1070,26 +2458,23 @@ public final class ClassAccessFactory<T> {
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadFieldAccessor(member, true);
+			visitLoadObj(member);
 			mv.visitVarInsn(ALOAD, 3);
 			
 			checkCast(member);
 			
 			switch (memberType) {
 				case MEMBER_TYPE_FIELD:
-					mv.visitFieldInsn(
-							((FieldInfo)member).setFieldOpcode,
-							internalName,
-							member.name,
-							member.descriptor);
+					visitPutField((FieldInfo)member);
 					break;
 				case MEMBER_TYPE_PROPERTY:
 					mv.visitMethodInsn(
-							INVOKEVIRTUAL,
+							invokeVirtualOpcode,
 							internalName,
 							((PropertyInfo)member).writeMethodName,
 							"(" + member.descriptor + ")V",
-							false);
+							clazz.isInterface());
 					break;
 			}
 			
@@ -1107,10 +2492,119 @@ public final class ClassAccessFactory<T> {
 				breakLabel);
 	}
 	
+	/**
+	 * Visits static fields with the getter and setter of the field, and the instructions that get them
+	 * @param fieldInfo
+	 */
+	private void visitGetFieldAccessors(FieldInfo fieldInfo) {
+		for (boolean isSetter : new boolean[] { false, true }) {
+			Class<?> accessorType = isSetter ? FieldAccessorFactory.getSetterType(fieldInfo.type)
+					: FieldAccessorFactory.getGetterType(fieldInfo.type);
+			String accessorFieldName = fieldInfo.getAccessorFieldName(isSetter);
+			
+			cw.visitField(
+					ACC_PRIVATE + ACC_STATIC + ACC_FINAL,
+					accessorFieldName,
+					Type.getDescriptor(accessorType),
+					null,
+					null)
+					.visitEnd();
+			
+			mv.visitLdcInsn(Type.getType(fieldInfo.field.getDeclaringClass()));
+			mv.visitLdcInsn(fieldInfo.name);
+			mv.visitLdcInsn(Type.getType(accessorType));
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(ClassAccessFactory.class),
+					"getFieldAccessor",
+					"(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;",
+					false);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(accessorType));
+			mv.visitFieldInsn(PUTSTATIC, classAccessInternalName, accessorFieldName, Type.getDescriptor(accessorType));
+		}
+	}
+	
+	/**
+	 * Visits a static field with the method handle of the method or constructor, and the instructions that find it
+	 * with the private lookup in local variable 0
+	 * @param memberInfo
+	 */
+	private void visitGetMethodHandle(MemberInfo memberInfo) {
+		String handleFieldName = memberInfo instanceof MethodInfo ? ((MethodInfo)memberInfo).getHandleFieldName()
+				: ((ConstructorInfo)memberInfo).getHandleFieldName();
+		cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, handleFieldName, METHOD_HANDLE_DESCRIPTOR, null, null)
+				.visitEnd();
+		
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitLdcInsn(Type.getType(clazz));
+		if (memberInfo instanceof MethodInfo) {
+			MethodInfo methodInfo = (MethodInfo)memberInfo;
+			mv.visitLdcInsn(methodInfo.name);
+			mv.visitLdcInsn(Type.getMethodType(methodInfo.descriptor));
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					LOOKUP_INTERNAL_NAME,
+					methodInfo.invokeOpcode == INVOKESTATIC ? "findStatic" : "findVirtual",
+					"(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)" + METHOD_HANDLE_DESCRIPTOR,
+					false);
+		} else {
+			mv.visitLdcInsn(Type.getMethodType(memberInfo.descriptor));
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					LOOKUP_INTERNAL_NAME,
+					"findConstructor",
+					"(Ljava/lang/Class;Ljava/lang/invoke/MethodType;)" + METHOD_HANDLE_DESCRIPTOR,
+					false);
+		}
+		mv.visitFieldInsn(PUTSTATIC, classAccessInternalName, handleFieldName, METHOD_HANDLE_DESCRIPTOR);
+	}
+	
+	/**
+	 * Gets the value of the field, whose object is on the stack, or the object and accessor if the field cannot be
+	 * accessed directly
+	 * @param fieldInfo
+	 */
+	private void visitGetField(FieldInfo fieldInfo) {
+		if (fieldInfo.isDirectlyAccessible) {
+			mv.visitFieldInsn(fieldInfo.getFieldOpcode, fieldInfo.ownerInternalName, fieldInfo.name, fieldInfo.descriptor);
+			return;
+		}
+		
+		String valueDescriptor = fieldInfo.type.isPrimitive() ? fieldInfo.descriptor : "Ljava/lang/Object;";
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				Type.getInternalName(FieldAccessorFactory.getGetterType(fieldInfo.type)),
+				"get",
+				"(Ljava/lang/Object;)" + valueDescriptor,
+				true);
+		if (!fieldInfo.type.isPrimitive()) {
+			mv.visitTypeInsn(CHECKCAST, fieldInfo.internalName);
+		}
+	}
+	
 	private void visitIndexMethod(
 			String categoryOfStringCase,
 			List<StringCaseReturnIndex> stringCaseReturnIndices) {
-		mv = cw.visitMethod(ACC_PUBLIC, categoryOfStringCase + "Index", "(Ljava/lang/String;)I", null, null);
+		List<List<StringCaseReturnIndex>> chunks = splitIndexCasesIntoChunks(
+				stringCaseReturnIndices,
+				stringCase -> 18 /* compare name, return index */);
+		visitChunkedMethod(
+				ACC_PUBLIC,
+				categoryOfStringCase + "Index",
+				"(Ljava/lang/String;)I",
+				null,
+				chunks,
+				stringCase -> stringCase.hashCode,
+				true,
+				(access, methodName, chunk) -> visitIndexMethod(access, methodName, categoryOfStringCase, chunk));
+	}
+	
+	private void visitIndexMethod(
+			int access,
+			String methodName,
+			String categoryOfStringCase,
+			List<StringCaseReturnIndex> stringCaseReturnIndices) {
+		mv = cw.visitMethod(access, methodName, "(Ljava/lang/String;)I", null, null);
 		mv.visitCode();
 		final Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
@@ -1118,7 +2612,7 @@ public final class ClassAccessFactory<T> {
 		mv.visitInsn(DUP);
 		mv.visitVarInsn(ASTORE, 2);
 		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
-
+		
 		final Label defaultCaseLabel = new Label();
 		
 		if (stringCaseReturnIndices.isEmpty()) {
@@ -1128,20 +2622,12 @@ public final class ClassAccessFactory<T> {
 			return;
 		}
 		
-		Collections.sort(stringCaseReturnIndices, StringCaseReturnIndex::compareHashCode);
-		
-		int[] stringHashCodes = new int[stringCaseReturnIndices.size()];
-		Label[] caseLabels = new Label[stringCaseReturnIndices.size()];
-		for (int i = 0; i < stringCaseReturnIndices.size(); i++) {
-			stringHashCodes[i] = stringCaseReturnIndices.get(i).hashCode;
-			caseLabels[i] = new Label();
-		}
+		List<List<StringCaseReturnIndex>> hashCodeGroups = groupByHashCode(stringCaseReturnIndices);
+		Label[] caseLabels = newLabelArray(hashCodeGroups.size());
 		
-		mv.visitLookupSwitchInsn(defaultCaseLabel, stringHashCodes, caseLabels);
+		mv.visitLookupSwitchInsn(defaultCaseLabel, getHashCodes(hashCodeGroups), caseLabels);
 		
-		for (int i = 0; i < stringCaseReturnIndices.size(); i++) {
-			StringCaseReturnIndex stringCaseReturnIndex = stringCaseReturnIndices.get(i);
-			
+		for (int i = 0; i < hashCodeGroups.size(); i++) {
 			mv.visitLabel(caseLabels[i]);
 			
 			if (i > 0) {
@@ -1150,13 +2636,16 @@ public final class ClassAccessFactory<T> {
 				mv.visitFrame(F_APPEND,1, new Object[] {"java/lang/String"}, 0, null);
 			}
 			
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitLdcInsn(stringCaseReturnIndex.name);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
-			mv.visitJumpInsn(IFNE, stringCaseReturnIndex.returnIndexLabel);
+			// Names with the same hash code share a case
+			for (StringCaseReturnIndex stringCaseReturnIndex : hashCodeGroups.get(i)) {
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitLdcInsn(stringCaseReturnIndex.name);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+				mv.visitJumpInsn(IFNE, stringCaseReturnIndex.returnIndexLabel);
+			}
 			mv.visitJumpInsn(GOTO, defaultCaseLabel);
 		}
-
+		
 		Collections.sort(stringCaseReturnIndices, StringCaseReturnIndex::compareIndex);
 		for (int i = 0; i < stringCaseReturnIndices.size(); i++) {
 			StringCaseReturnIndex stringCaseReturnIndex = stringCaseReturnIndices.get(i);
@@ -1193,36 +2682,140 @@ public final class ClassAccessFactory<T> {
 		mv.visitEnd();
 	}
 	
-	private void visitMethodAccessBridge(int parameterCount) {
-		mv = cw.visitMethod(
-				ACC_PUBLIC + ACC_BRIDGE + ACC_SYNTHETIC,
-				"call",
-				getMethodAccessMethodDescriptor(parameterCount, "Ljava/lang/Object;"),
-				null,
-				null);
-		mv.visitCode();
-		mv.visitLabel(new Label());
-		mv.visitVarInsn(ALOAD, 0);
-		mv.visitVarInsn(ALOAD, 1);
-		mv.visitTypeInsn(CHECKCAST, internalName);
-		mv.visitVarInsn(ILOAD, 2);
-		for (int i = 0; i < parameterCount; i++) {
-			mv.visitVarInsn(ALOAD, 3 + i);
+	/**
+	 * Calls the method, whose arguments are on the stack above the object unless the method is static, and above the
+	 * method handle of the method if it cannot be called directly
+	 * @param methodInfo
+	 */
+	private void visitInvokeMethod(MethodInfo methodInfo) {
+		if (methodInfo.isDirectlyAccessible) {
+			mv.visitMethodInsn(
+					methodInfo.invokeOpcode,
+					internalName,
+					methodInfo.name,
+					methodInfo.descriptor,
+					clazz.isInterface());
+		} else {
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					"java/lang/invoke/MethodHandle",
+					"invokeExact",
+					methodInfo.getHandleDescriptor(),
+					false);
 		}
-		mv.visitMethodInsn(
-				INVOKEVIRTUAL,
-				classAccessInternalName,
-				"call",
-				getMethodAccessMethodDescriptor(parameterCount),
-				false);
-		mv.visitInsn(ARETURN);
-		mv.visitMaxs(3 + parameterCount, 3 + parameterCount);
-		mv.visitEnd();
 	}
 	
-	private void visitMethodAccessInvokeBridge() {
-		mv = cw.visitMethod(
-				ACC_PUBLIC + ACC_BRIDGE + ACC_VARARGS + ACC_SYNTHETIC,
+	/**
+	 * Loads the accessor of a field that cannot be accessed directly, which must be done before loading the object
+	 * @param memberInfo
+	 * @param isSetter
+	 */
+	private void visitLoadFieldAccessor(MemberInfo memberInfo, boolean isSetter) {
+		if (!(memberInfo instanceof FieldInfo) || ((FieldInfo)memberInfo).isDirectlyAccessible) {
+			return;
+		}
+		
+		FieldInfo fieldInfo = (FieldInfo)memberInfo;
+		Class<?> accessorType = isSetter ? FieldAccessorFactory.getSetterType(fieldInfo.type)
+				: FieldAccessorFactory.getGetterType(fieldInfo.type);
+		mv.visitFieldInsn(
+				GETSTATIC,
+				classAccessInternalName,
+				fieldInfo.getAccessorFieldName(isSetter),
+				Type.getDescriptor(accessorType));
+	}
+	
+	/**
+	 * Loads the method handle of the method or constructor, if it cannot be accessed directly
+	 * @param memberInfo
+	 */
+	private void visitLoadMethodHandle(MemberInfo memberInfo) {
+		if (memberInfo instanceof MethodInfo && !((MethodInfo)memberInfo).isDirectlyAccessible) {
+			mv.visitFieldInsn(
+					GETSTATIC,
+					classAccessInternalName,
+					((MethodInfo)memberInfo).getHandleFieldName(),
+					METHOD_HANDLE_DESCRIPTOR);
+		} else if (memberInfo instanceof ConstructorInfo && !((ConstructorInfo)memberInfo).isDirectlyAccessible) {
+			mv.visitFieldInsn(
+					GETSTATIC,
+					classAccessInternalName,
+					((ConstructorInfo)memberInfo).getHandleFieldName(),
+					METHOD_HANDLE_DESCRIPTOR);
+		}
+	}
+	
+	/**
+	 * Loads the <code>obj</code> parameter, unless the member is static and does not need it
+	 * @param memberInfo
+	 */
+	private void visitLoadObj(MemberInfo memberInfo) {
+		if (memberInfo instanceof FieldInfo && ((FieldInfo)memberInfo).isStatic
+				|| memberInfo instanceof MethodInfo && ((MethodInfo)memberInfo).invokeOpcode == INVOKESTATIC) {
+			if (memberInfo instanceof FieldInfo && !((FieldInfo)memberInfo).isDirectlyAccessible) {
+				// Accessors of static fields ignore the object
+				mv.visitInsn(ACONST_NULL);
+			}
+			return;
+		}
+		mv.visitVarInsn(ALOAD, 1);
+	}
+	
+	/**
+	 * Visits a table switch or lookup switch, whichever is smaller, on the member index on top of the stack
+	 * @param members sorted by member index
+	 * @param defaultCaseLabel
+	 * @return the label of each member's case
+	 */
+	private Label[] visitMemberIndexSwitch(List<? extends MemberInfo> members, Label defaultCaseLabel) {
+		Label[] labels = newLabelArray(members.size());
+		int[] memberIndices = members.stream()
+				.mapToInt(m -> m.memberIndex)
+				.toArray();
+		
+		if (AsmUtils.useTableSwitch(memberIndices)) {
+			mv.visitTableSwitchInsn(
+					memberIndices[0],
+					memberIndices[memberIndices.length - 1],
+					defaultCaseLabel,
+					AsmUtils.getTableSwitchLabels(defaultCaseLabel, memberIndices, labels)
+					);
+		} else {
+			mv.visitLookupSwitchInsn(defaultCaseLabel, memberIndices, labels);
+		}
+		return labels;
+	}
+	
+	private void visitMethodAccessBridge(int parameterCount) {
+		mv = cw.visitMethod(
+				ACC_PUBLIC + ACC_BRIDGE + ACC_SYNTHETIC,
+				"call",
+				getMethodAccessMethodDescriptor(parameterCount, "Ljava/lang/Object;"),
+				null,
+				null);
+		mv.visitCode();
+		mv.visitLabel(new Label());
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, internalName);
+		mv.visitVarInsn(ILOAD, 2);
+		for (int i = 0; i < parameterCount; i++) {
+			mv.visitVarInsn(ALOAD, 3 + i);
+		}
+		mv.visitMethodInsn(
+				INVOKEVIRTUAL,
+				classAccessInternalName,
+				"call",
+				getMethodAccessMethodDescriptor(parameterCount),
+				false);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(3 + parameterCount, 3 + parameterCount);
+		mv.visitEnd();
+	}
+	
+	private void visitMethodAccessInvokeBridge() {
+		mv = cw.visitMethod(
+				ACC_PUBLIC + ACC_BRIDGE + ACC_VARARGS + ACC_SYNTHETIC,
 				"invoke",
 				"(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;",
 				null,
@@ -1246,43 +2839,51 @@ public final class ClassAccessFactory<T> {
 	}
 	
 	private void visitMethodAccessInvokeMethod() {
-		mv = cw.visitMethod(
+		List<List<MethodInfo>> chunks = splitMembersIntoChunks(
+				methodInfoList,
+				method -> 12 + 11 * method.parameterCount /* load and cast each argument, call, box, return */);
+		visitChunkedMethod(
 				ACC_PUBLIC + ACC_VARARGS,
 				"invoke",
 				"(" + classTypeDescriptor + "I[Ljava/lang/Object;)Ljava/lang/Object;",
 				null,
+				chunks,
+				method -> method.memberIndex,
+				false,
+				this::visitMethodAccessInvokeMethod);
+	}
+	
+	private void visitMethodAccessInvokeMethod(int access, String methodName, List<MethodInfo> methodInfoList) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(" + classTypeDescriptor + "I[Ljava/lang/Object;)Ljava/lang/Object;",
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		mv.visitVarInsn(ILOAD, 2);
-
+		
 		Label defaultCaseLabel = new Label();
-
+		
 		if (methodInfoList == null
 				|| methodInfoList.isEmpty()) {
 			mv.visitInsn(POP);
 			mv.visitLabel(defaultCaseLabel);
-			visitMethodAccessInvokeMethodLastPart(firstLabel);
+			visitMethodAccessInvokeMethodLastPart(firstLabel, 5);
 			return;
 		}
 		
-		Label[] labels = getTableSwitchLabelsForAccess(defaultCaseLabel, methodInfoList);
-		
-		// Always use a table switch because there are no gaps between method indices
-		mv.visitTableSwitchInsn(
-				methodInfoList.get(0).memberIndex,
-				methodInfoList.get(methodInfoList.size() - 1).memberIndex,
-				defaultCaseLabel,
-				labels
-				);
+		Label[] labels = visitMemberIndexSwitch(methodInfoList, defaultCaseLabel);
 		
 		for (int i = 0; i < methodInfoList.size(); i++) {
 			MethodInfo methodInfo = methodInfoList.get(i);
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadMethodHandle(methodInfo);
+			visitLoadObj(methodInfo);
 			
 			List<ParameterInfo> parameters = methodInfo.parameters;
 			for (int j = 0; j < parameters.size(); j++) {
@@ -1295,26 +2896,18 @@ public final class ClassAccessFactory<T> {
 				checkCast(parameter);
 			}
 			
-			mv.visitMethodInsn(
-					methodInfo.invokeOpcode,
-					internalName,
-					methodInfo.name,
-					methodInfo.descriptor,
-					true);
-			if (methodInfo.method.getReturnType() == Void.TYPE) {
-				mv.visitLabel(new Label());
-				mv.visitInsn(ACONST_NULL);
-			}
+			visitInvokeMethod(methodInfo);
+			visitReturnValueAsObject(methodInfo.method.getReturnType());
 			mv.visitInsn(ARETURN);
 		}
 		
 		mv.visitLabel(defaultCaseLabel);
 		mv.visitFrame(F_SAME, 0, null, 0, null);
 		
-		visitMethodAccessInvokeMethodLastPart(firstLabel);
+		visitMethodAccessInvokeMethodLastPart(firstLabel, getMaxStackOfMethodCalls(methodInfoList));
 	}
 	
-	private void visitMethodAccessInvokeMethodLastPart(Label firstLabel) {
+	private void visitMethodAccessInvokeMethodLastPart(Label firstLabel, int maxStack) {
 		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
 		mv.visitInsn(DUP);
 		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
@@ -1332,11 +2925,11 @@ public final class ClassAccessFactory<T> {
 		mv.visitLocalVariable("obj", classTypeDescriptor, null, firstLabel, lastLabel, 1);
 		mv.visitLocalVariable("methodIndex", "I", null, firstLabel, lastLabel, 2);
 		mv.visitLocalVariable("args", "[Ljava/lang/Object;", null, firstLabel, lastLabel, 3);
-		mv.visitMaxs(5, 4);
+		mv.visitMaxs(maxStack, 4);
 		mv.visitEnd();
 	}
 	
-	private void visitMethodAccessLastPart(Label firstLabel, int parameterCount) {
+	private void visitMethodAccessLastPart(Label firstLabel, int parameterCount, int maxStack) {
 		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
 		mv.visitInsn(DUP);
 		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
@@ -1362,18 +2955,35 @@ public final class ClassAccessFactory<T> {
 			mv.visitLocalVariable("arg" + i, "Ljava/lang/Object;", null, firstLabel, lastLabel, 3 + i);
 		}
 		
-		mv.visitMaxs(5, 3 + parameterCount);
+		mv.visitMaxs(maxStack, 3 + parameterCount);
 		mv.visitEnd();
 	}
 	
 	private void visitMethodAccessMethod(int parameterCount) {
-		List<MethodInfo> methodsWithParamCount = paramCountMethodsMap.get(parameterCount);
-		
-		mv = cw.visitMethod(
+		List<List<MethodInfo>> chunks = splitMembersIntoChunks(
+				paramCountMethodsMap.get(parameterCount),
+				method -> 12 + 8 * parameterCount /* load and cast each argument, call, box, return */);
+		visitChunkedMethod(
 				ACC_PUBLIC,
 				"call",
 				getMethodAccessMethodDescriptor(parameterCount),
 				null,
+				chunks,
+				method -> method.memberIndex,
+				false,
+				(access, methodName, chunk) -> visitMethodAccessMethod(access, methodName, parameterCount, chunk));
+	}
+	
+	private void visitMethodAccessMethod(
+			int access,
+			String methodName,
+			int parameterCount,
+			List<MethodInfo> methodsWithParamCount) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				getMethodAccessMethodDescriptor(parameterCount),
+				null,
 				null);
 		mv.visitCode();
 		Label firstLabel = new Label();
@@ -1386,36 +2996,19 @@ public final class ClassAccessFactory<T> {
 				|| methodsWithParamCount.isEmpty()) {
 			mv.visitInsn(POP);
 			mv.visitLabel(defaultCaseLabel);
-			visitMethodAccessLastPart(firstLabel, parameterCount);
+			visitMethodAccessLastPart(firstLabel, parameterCount, 5);
 			return;
 		}
 		
-		boolean useTableSwitch = useTableSwitch(methodsWithParamCount);
-		Label[] labels = useTableSwitch ? getTableSwitchLabelsForAccess(defaultCaseLabel, methodsWithParamCount)
-				: newLabelArray(methodsWithParamCount.size());
-		
-		if (useTableSwitch) {
-			mv.visitTableSwitchInsn(
-					methodsWithParamCount.get(0).memberIndex,
-					methodsWithParamCount.get(methodsWithParamCount.size() - 1).memberIndex,
-					defaultCaseLabel,
-					labels
-					);
-		} else {
-			mv.visitLookupSwitchInsn(
-					defaultCaseLabel,
-					methodsWithParamCount.stream()
-					.mapToInt(f -> f.memberIndex)
-					.toArray(),
-					labels);
-		}
+		Label[] labels = visitMemberIndexSwitch(methodsWithParamCount, defaultCaseLabel);
 		
 		for (int i = 0; i < methodsWithParamCount.size(); i++) {
 			MethodInfo methodInfo = methodsWithParamCount.get(i);
 			
 			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 1);
+			visitLoadMethodHandle(methodInfo);
+			visitLoadObj(methodInfo);
 			
 			List<ParameterInfo> parameters = methodInfo.parameters;
 			for (int j = 0; j < parameters.size(); j++) {
@@ -1426,23 +3019,15 @@ public final class ClassAccessFactory<T> {
 				checkCast(parameter);
 			}
 			
-			mv.visitMethodInsn(
-					methodInfo.invokeOpcode,
-					internalName,
-					methodInfo.name,
-					methodInfo.descriptor,
-					true);
-			if (methodInfo.method.getReturnType() == Void.TYPE) {
-				mv.visitLabel(new Label());
-				mv.visitInsn(ACONST_NULL);
-			}
+			visitInvokeMethod(methodInfo);
+			visitReturnValueAsObject(methodInfo.method.getReturnType());
 			mv.visitInsn(ARETURN);
 		}
-
+		
 		mv.visitLabel(defaultCaseLabel);
 		mv.visitFrame(F_SAME, 0, null, 0, null);
 		
-		visitMethodAccessLastPart(firstLabel, parameterCount);
+		visitMethodAccessLastPart(firstLabel, parameterCount, getMaxStackOfMethodCalls(methodsWithParamCount));
 	}
 	
 	private void visitMethodAccessMethods() {
@@ -1454,20 +3039,37 @@ public final class ClassAccessFactory<T> {
 			visitMethodAccessBridge(i);
 		}
 	}
-
+	
 	private void visitMethodIndexMethod() {
-		mv = cw.visitMethod(
+		List<List<MethodNameReturnIndex>> chunks = splitIndexCasesIntoChunks(
+				getMethodIndexSwitchCases(),
+				methodIndex -> 13 + methodIndex.methods.stream()
+						// compare parameter types, return index
+						.mapToInt(method -> 17 + 8 * method.parameterCount)
+						.sum());
+		String signature = "(Ljava/lang/String;[Ljava/lang/Class<*>;)I";
+		visitChunkedMethod(
 				ACC_PUBLIC + ACC_VARARGS,
 				"methodIndex",
 				"(Ljava/lang/String;[Ljava/lang/Class;)I",
-				"(Ljava/lang/String;[Ljava/lang/Class<*>;)I",
+				signature,
+				chunks,
+				methodIndex -> methodIndex.hashCode,
+				true,
+				(access, methodName, chunk) -> visitMethodIndexMethod(access, methodName, signature, chunk));
+	}
+	
+	private void visitMethodIndexMethod(int access, String methodName, String signature, List<MethodNameReturnIndex> methodIndices) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				"(Ljava/lang/String;[Ljava/lang/Class;)I",
+				signature,
 				null);
 		mv.visitCode();
 		final Label firstLabel = new Label();
 		mv.visitLabel(firstLabel);
 		
-		List<MethodNameReturnIndex> methodIndices = getMethodIndexSwitchCases();
-		
 		if (methodIndices.isEmpty()) {
 			visitMethodIndexMethodLastPart(firstLabel, methodIndices);
 			return;
@@ -1480,20 +3082,12 @@ public final class ClassAccessFactory<T> {
 		
 		final Label defaultCaseLabel = new Label();
 		
-		Collections.sort(methodIndices, StringCaseReturnIndex::compareHashCode);
-		
-		int[] methodNameHashCodes = new int[methodIndices.size()];
-		Label[] caseLabels = new Label[methodIndices.size()];
-		for (int i = 0; i < methodIndices.size(); i++) {
-			methodNameHashCodes[i] = methodIndices.get(i).hashCode;
-			caseLabels[i] = new Label();
-		}
+		List<List<MethodNameReturnIndex>> hashCodeGroups = groupByHashCode(methodIndices);
+		Label[] caseLabels = newLabelArray(hashCodeGroups.size());
 		
-		mv.visitLookupSwitchInsn(defaultCaseLabel, methodNameHashCodes, caseLabels);
+		mv.visitLookupSwitchInsn(defaultCaseLabel, getHashCodes(hashCodeGroups), caseLabels);
 		
-		for (int i = 0; i < methodIndices.size(); i++) {
-			MethodNameReturnIndex methodIndex = methodIndices.get(i);
-			
+		for (int i = 0; i < hashCodeGroups.size(); i++) {
 			mv.visitLabel(caseLabels[i]);
 			
 			if (i > 0) {
@@ -1502,10 +3096,13 @@ public final class ClassAccessFactory<T> {
 				mv.visitFrame(F_APPEND,1, new Object[] {"java/lang/String"}, 0, null);
 			}
 			
-			mv.visitVarInsn(ALOAD, 3);
-			mv.visitLdcInsn(methodIndex.name);
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
-			mv.visitJumpInsn(IFNE, methodIndex.returnIndexLabel);
+			// Names with the same hash code share a case
+			for (MethodNameReturnIndex methodIndex : hashCodeGroups.get(i)) {
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitLdcInsn(methodIndex.name);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+				mv.visitJumpInsn(IFNE, methodIndex.returnIndexLabel);
+			}
 			mv.visitJumpInsn(GOTO, defaultCaseLabel);
 		}
 		
@@ -1519,7 +3116,7 @@ public final class ClassAccessFactory<T> {
 		
 		visitMethodIndexMethodLastPart(firstLabel, methodIndices);
 	}
-
+	
 	private void visitMethodIndexMethodLastPart(Label firstLabel, List<MethodNameReturnIndex> methodIndices) {
 		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
 		mv.visitInsn(DUP);
@@ -1533,6 +3130,250 @@ public final class ClassAccessFactory<T> {
 		mv.visitLdcInsn(" with parameters ");
 		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
 		mv.visitVarInsn(ALOAD, 2);
+		visitParameterTypeNames();
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/Object;)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+		mv.visitLabel(new Label());
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		Label lastLabel = new Label();
+		mv.visitLabel(lastLabel);
+		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
+		mv.visitLocalVariable("name", "Ljava/lang/String;", null, firstLabel, lastLabel, 1);
+		mv.visitLocalVariable("parameterTypes", "[Ljava/lang/Class;", null, firstLabel, lastLabel, 2);
+		mv.visitMaxs(5, methodIndices.isEmpty() ? 3 : 4);
+		mv.visitEnd();
+	}
+	
+	private void visitMethodIndexReturnStatements(MethodNameReturnIndex methodIndex, Label defaultCaseLabel) {
+		Label jumpLabel = methodIndex.returnIndexLabel;
+		
+		List<MethodInfo> methods = methodIndex.methods;
+		for (int i = 0; i < methods.size(); i++) {
+			MethodInfo methodInfo = methods.get(i);
+			Class<?>[] parameterTypes = methodInfo.method.getParameterTypes();
+			
+			mv.visitLabel(jumpLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			mv.visitVarInsn(ALOAD, 2);
+			visitParameterTypesArray(parameterTypes);
+			mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals", "([Ljava/lang/Object;[Ljava/lang/Object;)Z", false);
+			
+			jumpLabel = i + 1 >= methods.size() ? defaultCaseLabel : new Label();
+			mv.visitJumpInsn(IFEQ, jumpLabel);
+			
+			mv.visitLabel(new Label());
+			AsmUtils.visitZeroOperandInt(mv, methodInfo.memberIndex);
+			mv.visitInsn(IRETURN);
+		}
+	}
+	
+	/**
+	 * Pushes two references to a new instance, or the method handle of the constructor if it cannot be called directly
+	 * @param constructorInfo
+	 */
+	private void visitNewInstanceAllocate(ConstructorInfo constructorInfo) {
+		if (constructorInfo.isDirectlyAccessible) {
+			mv.visitTypeInsn(NEW, internalName);
+			mv.visitInsn(DUP);
+		} else {
+			visitLoadMethodHandle(constructorInfo);
+		}
+	}
+	
+	/**
+	 * Calls the constructor, whose arguments are on the stack above the two references to the new instance or the
+	 * method handle of the constructor, and returns the new instance
+	 * @param constructorInfo
+	 */
+	private void visitNewInstanceInit(ConstructorInfo constructorInfo) {
+		if (constructorInfo.isDirectlyAccessible) {
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "<init>", constructorInfo.descriptor, false);
+		} else {
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					"java/lang/invoke/MethodHandle",
+					"invokeExact",
+					constructorInfo.getHandleDescriptor(clazz),
+					false);
+		}
+		mv.visitInsn(ARETURN);
+	}
+	
+	private void visitNewInstanceLastPart(Label firstLabel, int parameterCount, int maxStack) {
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("No constructor with index ");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(I)Ljava/lang/StringBuilder;", false);
+		mv.visitLdcInsn(" with " + parameterCount + " parameter(s)");
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		Label lastLabel = new Label();
+		mv.visitLabel(lastLabel);
+		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
+		mv.visitLocalVariable("constructorIndex", "I", null, firstLabel, lastLabel, 1);
+		
+		for (int i = 0; i < parameterCount; i++) {
+			mv.visitLocalVariable("arg" + i, "Ljava/lang/Object;", null, firstLabel, lastLabel, 2 + i);
+		}
+		
+		mv.visitMaxs(maxStack, 2 + parameterCount);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>newInstance()</code>, which calls the constructor without parameters
+	 */
+	private void visitNewInstanceMethod() {
+		mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "()Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		Label firstLabel = new Label();
+		mv.visitLabel(firstLabel);
+		
+		List<ConstructorInfo> constructorsWithoutParams = paramCountConstructorsMap.get(0);
+		if (constructorsWithoutParams != null) {
+			visitNewInstanceAllocate(constructorsWithoutParams.get(0));
+			visitNewInstanceInit(constructorsWithoutParams.get(0));
+		} else {
+			mv.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn("No constructor without parameters in " + clazz.getName());
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(Ljava/lang/String;)V", false);
+			mv.visitInsn(ATHROW);
+		}
+		
+		Label lastLabel = new Label();
+		mv.visitLabel(lastLabel);
+		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
+		mv.visitMaxs(3, 1);
+		mv.visitEnd();
+	}
+	
+	private void visitNewInstanceMethod(int parameterCount) {
+		mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"newInstance",
+				getNewInstanceMethodDescriptor(parameterCount),
+				null,
+				null);
+		mv.visitCode();
+		Label firstLabel = new Label();
+		mv.visitLabel(firstLabel);
+		mv.visitVarInsn(ILOAD, 1);
+		
+		Label defaultCaseLabel = new Label();
+		
+		List<ConstructorInfo> constructorsWithParamCount = paramCountConstructorsMap.get(parameterCount);
+		if (constructorsWithParamCount == null) {
+			mv.visitInsn(POP);
+			mv.visitLabel(defaultCaseLabel);
+			visitNewInstanceLastPart(firstLabel, parameterCount, 5);
+			return;
+		}
+		
+		Label[] labels = visitMemberIndexSwitch(constructorsWithParamCount, defaultCaseLabel);
+		
+		for (int i = 0; i < constructorsWithParamCount.size(); i++) {
+			ConstructorInfo constructorInfo = constructorsWithParamCount.get(i);
+			
+			mv.visitLabel(labels[i]);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			visitNewInstanceAllocate(constructorInfo);
+			
+			List<ParameterInfo> parameters = constructorInfo.parameters;
+			for (int j = 0; j < parameters.size(); j++) {
+				mv.visitVarInsn(ALOAD, 2 + j);
+				checkCast(parameters.get(j));
+			}
+			
+			visitNewInstanceInit(constructorInfo);
+		}
+		
+		mv.visitLabel(defaultCaseLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		
+		visitNewInstanceLastPart(firstLabel, parameterCount, getMaxStackOfConstructorCalls(constructorsWithParamCount));
+	}
+	
+	private void visitNewInstanceVarargsMethod() {
+		mv = cw.visitMethod(
+				ACC_PUBLIC + ACC_VARARGS,
+				"newInstance",
+				"(I[Ljava/lang/Object;)Ljava/lang/Object;",
+				null,
+				null);
+		mv.visitCode();
+		Label firstLabel = new Label();
+		mv.visitLabel(firstLabel);
+		mv.visitVarInsn(ILOAD, 1);
+		
+		Label defaultCaseLabel = new Label();
+		
+		if (constructorInfoList.isEmpty()) {
+			mv.visitInsn(POP);
+			mv.visitLabel(defaultCaseLabel);
+			visitNewInstanceVarargsMethodLastPart(firstLabel, 5);
+			return;
+		}
+		
+		Label[] labels = visitMemberIndexSwitch(constructorInfoList, defaultCaseLabel);
+		
+		for (int i = 0; i < constructorInfoList.size(); i++) {
+			ConstructorInfo constructorInfo = constructorInfoList.get(i);
+			
+			mv.visitLabel(labels[i]);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			visitNewInstanceAllocate(constructorInfo);
+			
+			List<ParameterInfo> parameters = constructorInfo.parameters;
+			for (int j = 0; j < parameters.size(); j++) {
+				mv.visitVarInsn(ALOAD, 2);
+				AsmUtils.visitZeroOperandInt(mv, j);
+				mv.visitInsn(AALOAD);
+				
+				checkCast(parameters.get(j));
+			}
+			
+			visitNewInstanceInit(constructorInfo);
+		}
+		
+		mv.visitLabel(defaultCaseLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		
+		visitNewInstanceVarargsMethodLastPart(firstLabel, getMaxStackOfConstructorCalls(constructorInfoList));
+	}
+	
+	private void visitNewInstanceVarargsMethodLastPart(Label firstLabel, int maxStack) {
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("No constructor with index: ");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(I)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		Label lastLabel = new Label();
+		mv.visitLabel(lastLabel);
+		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
+		mv.visitLocalVariable("constructorIndex", "I", null, firstLabel, lastLabel, 1);
+		mv.visitLocalVariable("args", "[Ljava/lang/Object;", null, firstLabel, lastLabel, 2);
+		mv.visitMaxs(maxStack, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Replaces the array of parameter types on top of the stack with a list of their names, for exception messages
+	 */
+	private void visitParameterTypeNames() {
 		mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "stream", "([Ljava/lang/Object;)Ljava/util/stream/Stream;", false);
 		mv.visitLabel(new Label());
 		mv.visitInvokeDynamicInsn(
@@ -1558,61 +3399,186 @@ public final class ClassAccessFactory<T> {
 		mv.visitLabel(new Label());
 		mv.visitMethodInsn(INVOKESTATIC, "java/util/stream/Collectors", "toList", "()Ljava/util/stream/Collector;", false);
 		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/stream/Stream", "collect", "(Ljava/util/stream/Collector;)Ljava/lang/Object;", true);
-		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/Object;)Ljava/lang/StringBuilder;", false);
-		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+	}
+	
+	/**
+	 * Pushes a new array of the parameter types
+	 * @param parameterTypes
+	 */
+	private void visitParameterTypesArray(Class<?>[] parameterTypes) {
+		AsmUtils.visitZeroOperandInt(mv, parameterTypes.length);
+		mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
+		
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitInsn(DUP);
+			AsmUtils.visitZeroOperandInt(mv, i);
+			
+			Class<?> parameterType = parameterTypes[i];
+			if (parameterType.isPrimitive()) {
+				mv.visitFieldInsn(
+						GETSTATIC,
+						Type.getInternalName(ClassUtils.primitiveToWrapper(parameterType)),
+						"TYPE",
+						"Ljava/lang/Class;");
+			} else {
+				mv.visitLdcInsn(Type.getType(parameterType));
+			}
+			
+			mv.visitInsn(AASTORE);
+		}
+	}
+	
+	private void visitPrimitiveCallBridge(PrimitiveCallInfo primitiveCall) {
+		mv = cw.visitMethod(
+				ACC_PUBLIC + ACC_BRIDGE + ACC_SYNTHETIC,
+				primitiveCall.methodName,
+				primitiveCall.getDescriptor("Ljava/lang/Object;"),
+				null,
+				null);
+		mv.visitCode();
 		mv.visitLabel(new Label());
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, internalName);
+		mv.visitVarInsn(ILOAD, 2);
+		visitPrimitiveCallArguments(primitiveCall);
+		mv.visitMethodInsn(
+				INVOKEVIRTUAL,
+				classAccessInternalName,
+				primitiveCall.methodName,
+				primitiveCall.getDescriptor(classTypeDescriptor),
+				false);
+		mv.visitInsn(primitiveCall.returnType.getOpcode(IRETURN));
+		mv.visitMaxs(3 + primitiveCall.argumentSlots, 3 + primitiveCall.argumentSlots);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Loads the primitive arguments, which start after the <code>obj</code> and <code>methodIndex</code> parameters
+	 * @param primitiveCall
+	 */
+	private void visitPrimitiveCallArguments(PrimitiveCallInfo primitiveCall) {
+		int slot = 3;
+		for (Type argumentType : primitiveCall.argumentTypes) {
+			mv.visitVarInsn(argumentType.getOpcode(ILOAD), slot);
+			slot += argumentType.getSize();
+		}
+	}
+	
+	private void visitPrimitiveCallLastPart(Label firstLabel, PrimitiveCallInfo primitiveCall) {
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("No method with index ");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(I)Ljava/lang/StringBuilder;", false);
+		mv.visitLdcInsn(" with parameters " + primitiveCall.getDescription());
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
 		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
 		mv.visitInsn(ATHROW);
 		Label lastLabel = new Label();
 		mv.visitLabel(lastLabel);
 		mv.visitLocalVariable("this", classAccessTypeDescriptor, null, firstLabel, lastLabel, 0);
-		mv.visitLocalVariable("name", "Ljava/lang/String;", null, firstLabel, lastLabel, 1);
-		mv.visitLocalVariable("parameterTypes", "[Ljava/lang/Class;", null, firstLabel, lastLabel, 2);
-		mv.visitMaxs(5, methodIndices.isEmpty() ? 3 : 4);
+		mv.visitLocalVariable("obj", classTypeDescriptor, null, firstLabel, lastLabel, 1);
+		mv.visitLocalVariable("methodIndex", "I", null, firstLabel, lastLabel, 2);
+		// method handle, obj and the arguments, or the exception
+		mv.visitMaxs(Math.max(5, 2 + primitiveCall.argumentSlots), 3 + primitiveCall.argumentSlots);
 		mv.visitEnd();
 	}
 	
-	private void visitMethodIndexReturnStatements(MethodNameReturnIndex methodIndex, Label defaultCaseLabel) {
-		Label jumpLabel = methodIndex.returnIndexLabel;
+	private void visitPrimitiveCallMethod(
+			int access,
+			String methodName,
+			PrimitiveCallInfo primitiveCall,
+			List<MethodInfo> matchingMethods) {
+		mv = cw.visitMethod(
+				access,
+				methodName,
+				primitiveCall.getDescriptor(classTypeDescriptor),
+				null,
+				null);
+		mv.visitCode();
+		Label firstLabel = new Label();
+		mv.visitLabel(firstLabel);
+		mv.visitVarInsn(ILOAD, 2);
 		
-		List<MethodInfo> methods = methodIndex.methods;
-		for (int i = 0; i < methods.size(); i++) {
-			MethodInfo methodInfo = methods.get(i);
-			Class<?>[] parameterTypes = methodInfo.method.getParameterTypes();
+		Label defaultCaseLabel = new Label();
+		
+		if (matchingMethods.isEmpty()) {
+			mv.visitInsn(POP);
+			mv.visitLabel(defaultCaseLabel);
+			visitPrimitiveCallLastPart(firstLabel, primitiveCall);
+			return;
+		}
+		
+		Label[] labels = visitMemberIndexSwitch(matchingMethods, defaultCaseLabel);
+		
+		for (int i = 0; i < matchingMethods.size(); i++) {
+			MethodInfo methodInfo = matchingMethods.get(i);
 			
-			mv.visitLabel(jumpLabel);
+			mv.visitLabel(labels[i]);
 			mv.visitFrame(F_SAME, 0, null, 0, null);
-			mv.visitVarInsn(ALOAD, 2);
-			AsmUtils.visitZeroOperandInt(mv, parameterTypes.length);
-			mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
+			visitLoadMethodHandle(methodInfo);
+			visitLoadObj(methodInfo);
+			visitPrimitiveCallArguments(primitiveCall);
+			visitInvokeMethod(methodInfo);
 			
-			for (int j = 0; j < parameterTypes.length; j++) {
-				mv.visitInsn(DUP);
-				AsmUtils.visitZeroOperandInt(mv, j);
-				
-				Class<?> parameterType = parameterTypes[j];
-				if (parameterType.isPrimitive()) {
-					mv.visitFieldInsn(
-							GETSTATIC,
-							Type.getInternalName(ClassUtils.primitiveToWrapper(parameterType)),
-							"TYPE",
-							"Ljava/lang/Class;");
-				} else {
-					mv.visitLdcInsn(Type.getType(parameterType));
-				}
-				
-				mv.visitInsn(AASTORE);
+			// callVoid() discards the return value
+			int returnValueSize = Type.getReturnType(methodInfo.descriptor).getSize();
+			if (primitiveCall.returnType == Type.VOID_TYPE && returnValueSize > 0) {
+				mv.visitInsn(returnValueSize == 2 ? POP2 : POP);
 			}
-			
-			mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals", "([Ljava/lang/Object;[Ljava/lang/Object;)Z", false);
-			
-			jumpLabel = i + 1 >= methods.size() ? defaultCaseLabel : new Label();
-			mv.visitJumpInsn(IFEQ, jumpLabel);
-			
-			mv.visitLabel(new Label());
-			AsmUtils.visitZeroOperandInt(mv, methodInfo.memberIndex);
-			mv.visitInsn(IRETURN);
+			mv.visitInsn(primitiveCall.returnType.getOpcode(IRETURN));
+		}
+		
+		mv.visitLabel(defaultCaseLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		
+		visitPrimitiveCallLastPart(firstLabel, primitiveCall);
+	}
+	
+	private void visitPrimitiveCallMethods() {
+		for (PrimitiveCallInfo primitiveCall : PRIMITIVE_CALL_INFO_LIST) {
+			List<MethodInfo> matchingMethods = methodInfoList.stream()
+					.filter(primitiveCall::matches)
+					.collect(toList());
+			List<List<MethodInfo>> chunks = splitMembersIntoChunks(
+					matchingMethods,
+					method -> 12 + 2 * method.parameterCount /* load each argument, call, return */);
+			visitChunkedMethod(
+					ACC_PUBLIC,
+					primitiveCall.methodName,
+					primitiveCall.getDescriptor(classTypeDescriptor),
+					null,
+					chunks,
+					method -> method.memberIndex,
+					false,
+					(access, methodName, chunk) -> visitPrimitiveCallMethod(access, methodName, primitiveCall, chunk));
+			visitPrimitiveCallBridge(primitiveCall);
+		}
+	}
+	
+	/**
+	 * Sets the field, whose object and new value are on the stack, after the accessor if the field cannot be accessed
+	 * directly
+	 * @param fieldInfo
+	 */
+	private void visitPutField(FieldInfo fieldInfo) {
+		if (fieldInfo.isDirectlyAccessible) {
+			mv.visitFieldInsn(fieldInfo.setFieldOpcode, fieldInfo.ownerInternalName, fieldInfo.name, fieldInfo.descriptor);
+			return;
 		}
+		
+		String valueDescriptor = fieldInfo.type.isPrimitive() ? fieldInfo.descriptor : "Ljava/lang/Object;";
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				Type.getInternalName(FieldAccessorFactory.getSetterType(fieldInfo.type)),
+				"set",
+				"(Ljava/lang/Object;" + valueDescriptor + ")V",
+				true);
 	}
 	
 	private void visitPropertyAccessMethods() {
@@ -1650,7 +3616,7 @@ public final class ClassAccessFactory<T> {
 		
 		for (int i = 0; i < propertyAccessInfoList.size(); i++) {
 			AccessInfo propertyAccessInfo = propertyAccessInfoList.get(i);
-
+			
 			visitAccessGetter(typeToAccessorsMap.get(propertyAccessInfo.className), propertyAccessInfo);
 			visitAccessGetterBridge(propertyAccessInfo);
 			visitAccessSetter(typeToMutatorsMap.get(propertyAccessInfo.className), propertyAccessInfo);
@@ -1662,4 +3628,113 @@ public final class ClassAccessFactory<T> {
 		visitGeneralAccessSetter("setProperty", MEMBER_TYPE_PROPERTY, mutatorInfoList);
 		visitAccessSetterBridge("setProperty", ALOAD, "Ljava/lang/Object;");
 	}
+	
+	/**
+	 * Boxes a primitive return value, or pushes <code>null</code> for a void method, so that it can be returned as an
+	 * {@link Object}
+	 * @param returnType
+	 */
+	private void visitReturnValueAsObject(Class<?> returnType) {
+		if (returnType == Void.TYPE) {
+			mv.visitLabel(new Label());
+			mv.visitInsn(ACONST_NULL);
+		} else if (returnType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.primitiveToWrapper(returnType);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(wrapperType),
+					"valueOf",
+					"(" + Type.getDescriptor(returnType) + ")" + Type.getDescriptor(wrapperType),
+					false);
+		}
+	}
+	
+	/**
+	 * Visits static fields with the accessors of the fields and the method handles of the methods and constructors that
+	 * cannot be accessed directly, and the static initializer that gets them, which calls a private method for each
+	 * chunk of members if they do not fit in one method
+	 */
+	private void visitStaticInitializer() {
+		List<MemberInfo> indirectMembers = new ArrayList<>();
+		fieldInfoList.stream()
+				.filter(fieldInfo -> !fieldInfo.isDirectlyAccessible)
+				.forEach(indirectMembers::add);
+		methodInfoList.stream()
+				.filter(methodInfo -> !methodInfo.isDirectlyAccessible)
+				.forEach(indirectMembers::add);
+		constructorInfoList.stream()
+				.filter(constructorInfo -> !constructorInfo.isDirectlyAccessible)
+				.forEach(indirectMembers::add);
+		if (indirectMembers.isEmpty()) {
+			return;
+		}
+		
+		int[] memberCodeSizes = indirectMembers.stream()
+				.mapToInt(member -> member instanceof FieldInfo ? 36 /* get then store the getter, then the setter */
+						: 16 /* find then store the method handle */)
+				.toArray();
+		List<List<MemberInfo>> chunks = splitIntoChunks(indirectMembers, memberCodeSizes);
+		if (chunks.size() > 1) {
+			// A class file older than Java 9 can set its static final fields outside of the static initializer
+			for (int i = 0; i < chunks.size(); i++) {
+				mv = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, getChunkMethodName("getStaticFields", i), "()V", null, null);
+				mv.visitCode();
+				visitStaticInitializerChunk(chunks.get(i));
+				mv.visitInsn(RETURN);
+				mv.visitMaxs(4, 1);
+				mv.visitEnd();
+			}
+		}
+		
+		mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		if (chunks.size() == 1) {
+			visitStaticInitializerChunk(indirectMembers);
+		} else {
+			for (int i = 0; i < chunks.size(); i++) {
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						classAccessInternalName,
+						getChunkMethodName("getStaticFields", i),
+						"()V",
+						false);
+			}
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(4, 1);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Gets the field accessors and method handles of the members, storing a private lookup in the class in local
+	 * variable 0 first if there are method handles to find
+	 * @param indirectMembers
+	 */
+	private void visitStaticInitializerChunk(List<MemberInfo> indirectMembers) {
+		if (indirectMembers.stream().anyMatch(member -> !(member instanceof FieldInfo))) {
+			// The generated class is in the package of the class, so its own lookup can be turned into a private one
+			mv.visitLdcInsn(Type.getType(clazz));
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					"java/lang/invoke/MethodHandles",
+					"lookup",
+					"()L" + LOOKUP_INTERNAL_NAME + ";",
+					false);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					"java/lang/invoke/MethodHandles",
+					"privateLookupIn",
+					"(Ljava/lang/Class;L" + LOOKUP_INTERNAL_NAME + ";)L" + LOOKUP_INTERNAL_NAME + ";",
+					false);
+			mv.visitVarInsn(ASTORE, 0);
+		}
+		
+		for (MemberInfo member : indirectMembers) {
+			if (member instanceof FieldInfo) {
+				visitGetFieldAccessors((FieldInfo)member);
+			} else {
+				visitGetMethodHandle(member);
+			}
+		}
+	}
 }
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Generates {@link ClassAccess} implementations, or implementations of other access types, for many classes up front,
+ * in parallel on an {@link Executor}
+ */
+final class ClassAccessPreloader {
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	
+	/**
+	 * 
+	 * @param classes
+	 * @param accessTypes checked by {@link ClassAccessFactory#preload(Collection, Collection, Executor)}
+	 * @param executor
+	 * @return
+	 */
+	static CompletableFuture<PreloadResult> preload(
+			Collection<Class<?>> classes,
+			Collection<Class<?>> accessTypes,
+			Executor executor) {
+		List<Class<?>> classList = new ArrayList<>(new LinkedHashSet<>(classes));
+		List<Class<?>> accessTypeList = new ArrayList<>(new LinkedHashSet<>(accessTypes));
+		long[] nanos = new long[classList.size()];
+		Throwable[] errors = new Throwable[classList.size()];
+		
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[classList.size()];
+		for (int i = 0; i < classList.size(); i++) {
+			final int index = i;
+			futures[i] = CompletableFuture.runAsync(() -> {
+				long start = System.nanoTime();
+				try {
+					for (Class<?> accessType : accessTypeList) {
+						ClassAccessFactory.getAccess(classList.get(index), accessType);
+					}
+					nanos[index] = System.nanoTime() - start;
+				} catch (Throwable e) {
+					errors[index] = e;
+				}
+			}, executor);
+		}
+		
+		// The writes to nanos and errors made by each task happen-before the completion of the allOf() future
+		return CompletableFuture.allOf(futures).thenApply(ignored -> {
+			Map<Class<?>, Long> generationNanos = new LinkedHashMap<>();
+			Map<Class<?>, Throwable> failures = new LinkedHashMap<>();
+			for (int i = 0; i < classList.size(); i++) {
+				if (errors[i] != null) {
+					failures.put(classList.get(i), errors[i]);
+				} else {
+					generationNanos.put(classList.get(i), nanos[i]);
+				}
+			}
+			return new PreloadResult(generationNanos, failures);
+		});
+	}
+	
+	/**
+	 * 
+	 * @param packageName e.g. <code>com.github.javalbert.reflection.test</code>
+	 * @param classLoader
+	 * @return top-level and member classes directly in the package (not in subpackages), excluding annotations and
+	 * generated access and lookup classes
+	 */
+	static List<Class<?>> findClassesInPackage(String packageName, ClassLoader classLoader) {
+		String packagePath = packageName.replace('.', '/');
+		Set<String> classNames = new LinkedHashSet<>();
+		
+		try {
+			Enumeration<URL> resources = classLoader.getResources(packagePath);
+			while (resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				URLConnection connection = resource.openConnection();
+				
+				if (connection instanceof JarURLConnection) {
+					addClassNamesInJar(((JarURLConnection)connection).getJarFile(), packagePath, classNames);
+				} else if ("file".equals(resource.getProtocol())) {
+					addClassNamesInDirectory(new File(resource.toURI()), packageName, classNames);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (URISyntaxException e) {
+			throw new IllegalArgumentException(e);
+		}
+		
+		List<Class<?>> classes = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				Class<?> clazz = Class.forName(className, false, classLoader);
+				if (isPreloadable(clazz)) {
+					classes.add(clazz);
+				}
+			} catch (ClassNotFoundException | LinkageError e) {
+				// Skipped, e.g. a class generated by another version of this library
+			}
+		}
+		return Collections.unmodifiableList(classes);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return <code>false</code> for classes that should not have an access of their own, including generated access
+	 * classes of any access type and the lookup class that {@link AccessClassDefiner} defines in a package
+	 * @throws LinkageError if the InnerClasses attributes of the class and its outer class disagree, e.g. for a class
+	 * generated by another version of this library
+	 */
+	static boolean isPreloadable(Class<?> clazz) {
+		// Checked first, since reading the inner class metadata of an access class generated on JDK 8 throws
+		// IncompatibleClassChangeError: its InnerClasses attribute names an outer class that does not list it
+		return !ClassAccessFactory.isAccessClass(clazz)
+				&& !clazz.isSynthetic()
+				&& !clazz.isAnnotation()
+				&& !clazz.isInterface()
+				&& !clazz.isAnonymousClass()
+				&& !clazz.isLocalClass()
+				&& !clazz.getSimpleName().equals(AccessClassDefiner.LOOKUP_CLASS_SIMPLE_NAME)
+				&& !clazz.getSimpleName().equals("package-info");
+	}
+	
+	private static void addClassNamesInDirectory(File directory, String packageName, Set<String> classNames) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		
+		for (File file : files) {
+			String fileName = file.getName();
+			if (file.isFile() && fileName.endsWith(CLASS_FILE_EXTENSION)) {
+				classNames.add(packageName + "." + fileName.substring(0, fileName.length() - CLASS_FILE_EXTENSION.length()));
+			}
+		}
+	}
+	
+	private static void addClassNamesInJar(JarFile jarFile, String packagePath, Set<String> classNames) {
+		String prefix = packagePath + "/";
+		Enumeration<JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			String entryName = entries.nextElement().getName();
+			if (entryName.startsWith(prefix)
+					&& entryName.endsWith(CLASS_FILE_EXTENSION)
+					&& entryName.indexOf('/', prefix.length()) < 0) {
+				classNames.add(entryName
+						.substring(0, entryName.length() - CLASS_FILE_EXTENSION.length())
+						.replace('/', '.'));
+			}
+		}
+	}
+	
+	private ClassAccessPreloader() {}
+}
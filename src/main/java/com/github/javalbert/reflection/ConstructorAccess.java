@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+/**
+ * Creates instances with direct constructor calls instead of {@link java.lang.reflect.Constructor#newInstance(Object...)}.
+ * Constructors are indexed in the order of their parameter types, and abstract classes, interfaces and enums have none.
+ */
+public interface ConstructorAccess<T> {
+	int constructorIndex(Class<?>... parameterTypes);
+	
+	/**
+	 * 
+	 * @return a new instance from the constructor without parameters
+	 * @throws IllegalStateException if there is no constructor without parameters
+	 */
+	T newInstance();
+	
+	T newInstance(int constructorIndex, Object... args);
+	
+	T newInstance(int constructorIndex);
+	T newInstance(int constructorIndex, Object arg0);
+	T newInstance(int constructorIndex, Object arg0, Object arg1);
+	T newInstance(int constructorIndex, Object arg0, Object arg1, Object arg2);
+	T newInstance(int constructorIndex, Object arg0, Object arg1, Object arg2, Object arg3);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16,
+			Object arg17);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16,
+			Object arg17,
+			Object arg18);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16,
+			Object arg17,
+			Object arg18,
+			Object arg19);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16,
+			Object arg17,
+			Object arg18,
+			Object arg19,
+			Object arg20);
+	T newInstance(
+			int constructorIndex,
+			Object arg0,
+			Object arg1,
+			Object arg2,
+			Object arg3,
+			Object arg4,
+			Object arg5,
+			Object arg6,
+			Object arg7,
+			Object arg8,
+			Object arg9,
+			Object arg10,
+			Object arg11,
+			Object arg12,
+			Object arg13,
+			Object arg14,
+			Object arg15,
+			Object arg16,
+			Object arg17,
+			Object arg18,
+			Object arg19,
+			Object arg20,
+			Object arg21);
+}
@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a class per field and accessor type, e.g. {@link IntFieldGetter}, whose only method accesses the field
+ * directly. Unlike {@link FieldAccess#getIntField(Object, int)} there is no switch on a field index, so a call site
+ * that always uses the same accessor is monomorphic and the JIT can inline it down to the field access. When the class
+ * cannot access the field directly, i.e. a private field on JDK 9 to 14, it calls a {@link MethodHandle} instead.
+ */
+final class FieldAccessorFactory {
+	/**
+	 * Accessors of each class, keyed by accessor type and field name
+	 */
+	private static final ClassValue<ConcurrentMap<String, Object>> ACCESSORS_VALUE =
+			new ClassValue<ConcurrentMap<String, Object>>() {
+				@Override
+				protected ConcurrentMap<String, Object> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	/**
+	 * Field type of each getter type, where {@link Object} means a field of any type
+	 */
+	private static final Map<Class<?>, Class<?>> GETTER_FIELD_TYPES;
+	private static final String HANDLE_FIELD_NAME = "handle";
+	private static final String METHOD_HANDLE_DESCRIPTOR = Type.getDescriptor(MethodHandle.class);
+	/**
+	 * Field type of each setter type, where {@link Object} means a field of any type
+	 */
+	private static final Map<Class<?>, Class<?>> SETTER_FIELD_TYPES;
+	
+	static {
+		Map<Class<?>, Class<?>> getterFieldTypes = new LinkedHashMap<>();
+		getterFieldTypes.put(BooleanFieldGetter.class, boolean.class);
+		getterFieldTypes.put(ByteFieldGetter.class, byte.class);
+		getterFieldTypes.put(CharFieldGetter.class, char.class);
+		getterFieldTypes.put(DoubleFieldGetter.class, double.class);
+		getterFieldTypes.put(FloatFieldGetter.class, float.class);
+		getterFieldTypes.put(IntFieldGetter.class, int.class);
+		getterFieldTypes.put(LongFieldGetter.class, long.class);
+		getterFieldTypes.put(ShortFieldGetter.class, short.class);
+		getterFieldTypes.put(ObjectFieldGetter.class, Object.class);
+		GETTER_FIELD_TYPES = Collections.unmodifiableMap(getterFieldTypes);
+		
+		Map<Class<?>, Class<?>> setterFieldTypes = new LinkedHashMap<>();
+		setterFieldTypes.put(BooleanFieldSetter.class, boolean.class);
+		setterFieldTypes.put(ByteFieldSetter.class, byte.class);
+		setterFieldTypes.put(CharFieldSetter.class, char.class);
+		setterFieldTypes.put(DoubleFieldSetter.class, double.class);
+		setterFieldTypes.put(FloatFieldSetter.class, float.class);
+		setterFieldTypes.put(IntFieldSetter.class, int.class);
+		setterFieldTypes.put(LongFieldSetter.class, long.class);
+		setterFieldTypes.put(ShortFieldSetter.class, short.class);
+		setterFieldTypes.put(ObjectFieldSetter.class, Object.class);
+		SETTER_FIELD_TYPES = Collections.unmodifiableMap(setterFieldTypes);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldName
+	 * @param accessorType
+	 * @return the accessor, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with the name, or the accessor type does not match the
+	 * type of the field
+	 */
+	static <A> A get(Class<?> clazz, String fieldName, Class<A> accessorType) {
+		Object accessor = ACCESSORS_VALUE.get(clazz).computeIfAbsent(
+				accessorType.getSimpleName() + ":" + fieldName,
+				key -> createAccessor(clazz, fieldName, accessorType));
+		return accessorType.cast(accessor);
+	}
+	
+	/**
+	 * 
+	 * @param fieldType
+	 * @return the getter type for the primitive type, or {@link ObjectFieldGetter} for a reference type
+	 */
+	static Class<?> getGetterType(Class<?> fieldType) {
+		return getAccessorType(GETTER_FIELD_TYPES, fieldType);
+	}
+	
+	/**
+	 * 
+	 * @param fieldType
+	 * @return the setter type for the primitive type, or {@link ObjectFieldSetter} for a reference type
+	 */
+	static Class<?> getSetterType(Class<?> fieldType) {
+		return getAccessorType(SETTER_FIELD_TYPES, fieldType);
+	}
+	
+	private static Class<?> getAccessorType(Map<Class<?>, Class<?>> accessorFieldTypes, Class<?> fieldType) {
+		Class<?> valueType = fieldType.isPrimitive() ? fieldType : Object.class;
+		return accessorFieldTypes.entrySet().stream()
+				.filter(entry -> entry.getValue() == valueType)
+				.map(Map.Entry::getKey)
+				.findFirst()
+				.get();
+	}
+	
+	private static Object createAccessor(Class<?> clazz, String fieldName, Class<?> accessorType) {
+		boolean isSetter = SETTER_FIELD_TYPES.containsKey(accessorType);
+		Class<?> valueType = isSetter ? SETTER_FIELD_TYPES.get(accessorType) : GETTER_FIELD_TYPES.get(accessorType);
+		if (valueType == null) {
+			throw new IllegalArgumentException("Not a field accessor type: " + accessorType);
+		}
+		
+		// Resolve the name like FieldAccess#fieldIndex(String), where a field of the class shadows the ones of its
+		// superclasses
+		Field field = ClassAccessFactory.getFields(clazz).stream()
+				.filter(f -> f.getName().equals(fieldName))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("No field with name: " + fieldName));
+		if (valueType != Object.class && valueType != field.getType()) {
+			throw new IllegalArgumentException("Field " + fieldName + " is of type " + field.getType().getName()
+					+ ", not " + valueType.getName());
+		}
+		if (field.getDeclaringClass() != clazz) {
+			// An inherited field, e.g. a private field of a superclass in another package, can only be accessed by a
+			// class generated for its declaring class
+			return get(field.getDeclaringClass(), fieldName, accessorType);
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooIntFieldGetter$intVal
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + accessorType.getSimpleName() + "$" + fieldName;
+		boolean isDirect = AccessClassDefiner.canAccessDirectly(clazz, field);
+		byte[] bytecode = generateAccessorClass(
+				className.replace('.', '/'),
+				accessorType,
+				Type.getType(valueType),
+				field,
+				isSetter,
+				isDirect);
+		try {
+			Class<?> accessorClass = AccessClassDefiner.defineClass(clazz, className, bytecode);
+			if (isDirect) {
+				return accessorClass.newInstance();
+			}
+			return accessorClass.getConstructor(MethodHandle.class).newInstance(newHandle(field, valueType, isSetter));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateAccessorClass(
+			String internalName,
+			Class<?> accessorType,
+			Type valueType,
+			Field field,
+			boolean isSetter,
+			boolean isDirect) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(accessorType) });
+		
+		if (!isDirect) {
+			visitHandleConstructor(cw, internalName);
+			visitInvokeHandleMethod(cw, internalName, valueType, isSetter);
+		} else if (isSetter) {
+			AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+			visitSetMethod(cw, valueType, field);
+		} else {
+			AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+			visitGetMethod(cw, valueType, field);
+		}
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param field
+	 * @param valueType
+	 * @param isSetter
+	 * @return a method handle of the type <code>(Object)valueType</code> that gets the field, or
+	 * <code>(Object, valueType)void</code> that sets it, for an accessor that cannot access the field directly
+	 */
+	private static MethodHandle newHandle(Field field, Class<?> valueType, boolean isSetter) {
+		MethodHandle handle;
+		try {
+			handle = AccessClassDefiner.unreflectField(field, isSetter);
+		} catch (IllegalAccessException e) {
+			// Fail when the setter is called rather than when it is created, like a PUTSTATIC would
+			return MethodHandles.dropArguments(
+					MethodHandles.throwException(void.class, IllegalAccessError.class)
+							.bindTo(new IllegalAccessError(e.getMessage())),
+					0,
+					Object.class,
+					valueType);
+		}
+		
+		if (Modifier.isStatic(field.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(isSetter ? MethodType.methodType(void.class, Object.class, valueType)
+				: MethodType.methodType(valueType, Object.class));
+	}
+	
+	private static void visitGetMethod(ClassWriter cw, Type valueType, Field field) {
+		Type fieldType = Type.getType(field.getType());
+		boolean isStatic = Modifier.isStatic(field.getModifiers());
+		String ownerInternalName = Type.getInternalName(field.getDeclaringClass());
+		
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"get",
+				"(Ljava/lang/Object;)" + valueType.getDescriptor(),
+				null,
+				null);
+		mv.visitCode();
+		if (!isStatic) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, ownerInternalName);
+		}
+		mv.visitFieldInsn(
+				isStatic ? GETSTATIC : GETFIELD,
+				ownerInternalName,
+				field.getName(),
+				fieldType.getDescriptor());
+		
+		if (valueType.getSort() == Type.OBJECT && field.getType().isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.primitiveToWrapper(field.getType());
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(wrapperType),
+					"valueOf",
+					"(" + fieldType.getDescriptor() + ")" + Type.getDescriptor(wrapperType),
+					false);
+		}
+		
+		mv.visitInsn(valueType.getOpcode(IRETURN));
+		mv.visitMaxs(fieldType.getSize(), 2);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a constructor that keeps the {@link MethodHandle} that accesses the field
+	 * @param cw
+	 * @param internalName
+	 */
+	private static void visitHandleConstructor(ClassWriter cw, String internalName) {
+		cw.visitField(ACC_PRIVATE + ACC_FINAL, HANDLE_FIELD_NAME, METHOD_HANDLE_DESCRIPTOR, null, null).visitEnd();
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + METHOD_HANDLE_DESCRIPTOR + ")V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, AccessClassDefiner.getSuperclassInternalName(), "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, internalName, HANDLE_FIELD_NAME, METHOD_HANDLE_DESCRIPTOR);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>get(Object)</code> or <code>set(Object, value)</code>, which calls the {@link MethodHandle} of
+	 * {@link #newHandle(Field, Class, boolean)}
+	 * @param cw
+	 * @param internalName
+	 * @param valueType
+	 * @param isSetter
+	 */
+	private static void visitInvokeHandleMethod(ClassWriter cw, String internalName, Type valueType, boolean isSetter) {
+		String descriptor = isSetter ? "(Ljava/lang/Object;" + valueType.getDescriptor() + ")V"
+				: "(Ljava/lang/Object;)" + valueType.getDescriptor();
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, isSetter ? "set" : "get", descriptor, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, HANDLE_FIELD_NAME, METHOD_HANDLE_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 1);
+		if (isSetter) {
+			mv.visitVarInsn(valueType.getOpcode(ILOAD), 2);
+		}
+		mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(MethodHandle.class), "invokeExact", descriptor, false);
+		mv.visitInsn(isSetter ? RETURN : valueType.getOpcode(IRETURN));
+		int valueSize = valueType.getSize();
+		mv.visitMaxs(isSetter ? 2 + valueSize : 2, isSetter ? 2 + valueSize : 2);
+		mv.visitEnd();
+	}
+	
+	private static void visitSetMethod(ClassWriter cw, Type valueType, Field field) {
+		Type fieldType = Type.getType(field.getType());
+		boolean isStatic = Modifier.isStatic(field.getModifiers());
+		String ownerInternalName = Type.getInternalName(field.getDeclaringClass());
+		
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"set",
+				"(Ljava/lang/Object;" + valueType.getDescriptor() + ")V",
+				null,
+				null);
+		mv.visitCode();
+		if (!isStatic) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, ownerInternalName);
+		}
+		mv.visitVarInsn(valueType.getOpcode(ILOAD), 2);
+		
+		if (valueType.getSort() == Type.OBJECT) {
+			if (field.getType().isPrimitive()) {
+				String wrapperInternalName = Type.getInternalName(ClassUtils.primitiveToWrapper(field.getType()));
+				mv.visitTypeInsn(CHECKCAST, wrapperInternalName);
+				mv.visitMethodInsn(
+						INVOKEVIRTUAL,
+						wrapperInternalName,
+						field.getType().getName() + "Value",
+						"()" + fieldType.getDescriptor(),
+						false);
+			} else if (field.getType() != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, fieldType.getInternalName());
+			}
+		}
+		
+		mv.visitFieldInsn(
+				isStatic ? PUTSTATIC : PUTFIELD,
+				ownerInternalName,
+				field.getName(),
+				fieldType.getDescriptor());
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(1 + fieldType.getSize(), 2 + valueType.getSize());
+		mv.visitEnd();
+	}
+	
+	private FieldAccessorFactory() {}
+}
@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.List;
+
+/**
+ * Gets or sets one primitive field of many objects at once, e.g. to pull a column of numbers out of a list of
+ * entities for analytics. The field index is switched on once per call, then a loop generated for the field gets or
+ * sets it directly, without boxing. Element <code>i</code> of an array of values is the value of the field of
+ * <code>objs[i]</code>, so that the array lines up with the objects.
+ * <p>
+ * The methods with a range get or set the fields of <code>objs[from]</code> to <code>objs[to - 1]</code>, and the
+ * parallel methods split the objects into ranges that run in the common {@link java.util.concurrent.ForkJoinPool}.
+ * They throw {@link IllegalArgumentException} if there is no field of their type with the index. Static fields are
+ * not supported, and final fields cannot be set.
+ * @param <T> the class that declares the fields
+ * @see ClassAccessFactory#getFieldColumns(Class)
+ */
+public interface FieldColumns<T> {
+	// boolean fields
+	//
+	default boolean[] extractBoolean(List<? extends T> objs, int fieldIndex) {
+		boolean[] out = new boolean[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, boolean[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, boolean[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, boolean[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setBooleanFieldAll(List<? extends T> objs, int fieldIndex, boolean[] values) {
+		setBooleanFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setBooleanFieldAll(T[] objs, int fieldIndex, boolean[] values) {
+		setBooleanFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setBooleanFieldAll(T[] objs, int from, int to, int fieldIndex, boolean[] values);
+	
+	default void setBooleanFieldAllParallel(T[] objs, int fieldIndex, boolean[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setBooleanFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// byte fields
+	//
+	default byte[] extractByte(List<? extends T> objs, int fieldIndex) {
+		byte[] out = new byte[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, byte[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, byte[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, byte[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setByteFieldAll(List<? extends T> objs, int fieldIndex, byte[] values) {
+		setByteFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setByteFieldAll(T[] objs, int fieldIndex, byte[] values) {
+		setByteFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setByteFieldAll(T[] objs, int from, int to, int fieldIndex, byte[] values);
+	
+	default void setByteFieldAllParallel(T[] objs, int fieldIndex, byte[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setByteFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// char fields
+	//
+	default char[] extractChar(List<? extends T> objs, int fieldIndex) {
+		char[] out = new char[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, char[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, char[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, char[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setCharFieldAll(List<? extends T> objs, int fieldIndex, char[] values) {
+		setCharFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setCharFieldAll(T[] objs, int fieldIndex, char[] values) {
+		setCharFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setCharFieldAll(T[] objs, int from, int to, int fieldIndex, char[] values);
+	
+	default void setCharFieldAllParallel(T[] objs, int fieldIndex, char[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setCharFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// double fields
+	//
+	default double[] extractDouble(List<? extends T> objs, int fieldIndex) {
+		double[] out = new double[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, double[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, double[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, double[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setDoubleFieldAll(List<? extends T> objs, int fieldIndex, double[] values) {
+		setDoubleFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setDoubleFieldAll(T[] objs, int fieldIndex, double[] values) {
+		setDoubleFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setDoubleFieldAll(T[] objs, int from, int to, int fieldIndex, double[] values);
+	
+	default void setDoubleFieldAllParallel(T[] objs, int fieldIndex, double[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setDoubleFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// float fields
+	//
+	default float[] extractFloat(List<? extends T> objs, int fieldIndex) {
+		float[] out = new float[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, float[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, float[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, float[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setFloatFieldAll(List<? extends T> objs, int fieldIndex, float[] values) {
+		setFloatFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setFloatFieldAll(T[] objs, int fieldIndex, float[] values) {
+		setFloatFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setFloatFieldAll(T[] objs, int from, int to, int fieldIndex, float[] values);
+	
+	default void setFloatFieldAllParallel(T[] objs, int fieldIndex, float[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setFloatFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// int fields
+	//
+	default int[] extractInt(List<? extends T> objs, int fieldIndex) {
+		int[] out = new int[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, int[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, int[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, int[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setIntFieldAll(List<? extends T> objs, int fieldIndex, int[] values) {
+		setIntFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setIntFieldAll(T[] objs, int fieldIndex, int[] values) {
+		setIntFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setIntFieldAll(T[] objs, int from, int to, int fieldIndex, int[] values);
+	
+	default void setIntFieldAllParallel(T[] objs, int fieldIndex, int[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setIntFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// long fields
+	//
+	default long[] extractLong(List<? extends T> objs, int fieldIndex) {
+		long[] out = new long[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, long[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, long[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, long[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setLongFieldAll(List<? extends T> objs, int fieldIndex, long[] values) {
+		setLongFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setLongFieldAll(T[] objs, int fieldIndex, long[] values) {
+		setLongFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setLongFieldAll(T[] objs, int from, int to, int fieldIndex, long[] values);
+	
+	default void setLongFieldAllParallel(T[] objs, int fieldIndex, long[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setLongFieldAll(objs, from, to, fieldIndex, values));
+	}
+	
+	// short fields
+	//
+	default short[] extractShort(List<? extends T> objs, int fieldIndex) {
+		short[] out = new short[objs.size()];
+		extractInto(FieldColumnsFactory.toArray(objs), 0, out.length, fieldIndex, out);
+		return out;
+	}
+	
+	default void extractInto(T[] objs, int fieldIndex, short[] out) {
+		extractInto(objs, 0, objs.length, fieldIndex, out);
+	}
+	
+	void extractInto(T[] objs, int from, int to, int fieldIndex, short[] out);
+	
+	default void extractIntoParallel(T[] objs, int fieldIndex, short[] out) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> extractInto(objs, from, to, fieldIndex, out));
+	}
+	
+	default void setShortFieldAll(List<? extends T> objs, int fieldIndex, short[] values) {
+		setShortFieldAll(FieldColumnsFactory.toArray(objs), 0, objs.size(), fieldIndex, values);
+	}
+	
+	default void setShortFieldAll(T[] objs, int fieldIndex, short[] values) {
+		setShortFieldAll(objs, 0, objs.length, fieldIndex, values);
+	}
+	
+	void setShortFieldAll(T[] objs, int from, int to, int fieldIndex, short[] values);
+	
+	default void setShortFieldAllParallel(T[] objs, int fieldIndex, short[] values) {
+		FieldColumnsFactory.runInRangesParallel(objs.length, (from, to) -> setShortFieldAll(objs, from, to, fieldIndex, values));
+	}
+}
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates {@link FieldColumns} per class, with a private static method per primitive field that loops over the
+ * objects and gets or sets the field directly. The public methods switch on the field index once, then call the
+ * loop of the field.
+ */
+final class FieldColumnsFactory {
+	private static final ClassValue<FieldColumns<?>> COLUMNS_VALUE = new ClassValue<FieldColumns<?>>() {
+		@Override
+		protected FieldColumns<?> computeValue(Class<?> type) {
+			return createColumns(type);
+		}
+	};
+	/**
+	 * At most about 20 bytes of bytecode per case of a switch on the field index, so that a switch over many fields
+	 * is split into methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_FIELDS_PER_METHOD = 300;
+	/**
+	 * Fewest objects per range of a parallel extraction or scatter, below which splitting costs more than it saves
+	 */
+	private static final int MIN_PARALLEL_RANGE_LENGTH = 1 << 14;
+	private static final Class<?>[] PRIMITIVE_TYPES = {
+			boolean.class, byte.class, char.class, double.class, float.class, int.class, long.class, short.class };
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the columns, which are generated the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldColumns<T> get(Class<T> clazz) {
+		return (FieldColumns<T>)COLUMNS_VALUE.get(clazz);
+	}
+	
+	/**
+	 * Runs the task for ranges of about the same length that cover <code>[0, length)</code>, in parallel in the
+	 * common {@link ForkJoinPool}
+	 * @param length
+	 * @param task
+	 */
+	static void runInRangesParallel(int length, RangeTask task) {
+		int rangeCount = Math.min(
+				ForkJoinPool.getCommonPoolParallelism() * 4,
+				(length + MIN_PARALLEL_RANGE_LENGTH - 1) / MIN_PARALLEL_RANGE_LENGTH);
+		if (rangeCount <= 1) {
+			task.run(0, length);
+			return;
+		}
+		IntStream.range(0, rangeCount).parallel().forEach(i -> task.run(
+				(int)((long)length * i / rangeCount),
+				(int)((long)length * (i + 1) / rangeCount)));
+	}
+	
+	/**
+	 * 
+	 * @param objs
+	 * @return the objects in an array whose type is erased, which the generated loops read like a <code>T[]</code>
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T[] toArray(List<? extends T> objs) {
+		return (T[])objs.toArray();
+	}
+	
+	private static FieldColumns<?> createColumns(Class<?> clazz) {
+		List<Field> fields = ClassAccessFactory.getFields(clazz);
+		Map<Field, Integer> fieldIndices = new IdentityHashMap<>();
+		List<Field> gettableFields = new ArrayList<>();
+		List<Field> settableFields = new ArrayList<>();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			int modifiers = field.getModifiers();
+			if (!field.getType().isPrimitive() || Modifier.isStatic(modifiers)) {
+				continue;
+			}
+			fieldIndices.put(field, i);
+			gettableFields.add(field);
+			if (!Modifier.isFinal(modifiers)) {
+				settableFields.add(field);
+			}
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooFieldColumns
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "FieldColumns";
+		byte[] bytecode = generateColumnsClass(
+				className.replace('.', '/'),
+				clazz,
+				fieldIndices,
+				gettableFields,
+				settableFields);
+		try {
+			return (FieldColumns<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateColumnsClass(
+			String internalName,
+			Class<?> clazz,
+			Map<Field, Integer> fieldIndices,
+			List<Field> gettableFields,
+			List<Field> settableFields) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(FieldColumns.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, gettableFields, false);
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, settableFields, true);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		for (int i = 0; i < gettableFields.size(); i++) {
+			visitExtractLoopMethod(cw, internalName, clazz, gettableFields.get(i), fieldIndices.get(gettableFields.get(i)), i);
+		}
+		for (int i = 0; i < settableFields.size(); i++) {
+			visitSetLoopMethod(cw, internalName, clazz, settableFields.get(i), fieldIndices.get(settableFields.get(i)), i);
+		}
+		for (Class<?> type : PRIMITIVE_TYPES) {
+			String typeName = StringUtils.capitalize(type.getName());
+			visitSwitchMethods(cw, internalName, "extractInto", "extract$", type, "No " + type.getName()
+					+ " field with index: ", getFieldIndices(fieldIndices, gettableFields, type));
+			visitSwitchMethods(cw, internalName, "set" + typeName + "FieldAll", "set$", type, "No " + type.getName()
+					+ " field that can be set with index: ", getFieldIndices(fieldIndices, settableFields, type));
+		}
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @return the indices of the fields of the type, in order
+	 */
+	private static int[] getFieldIndices(Map<Field, Integer> fieldIndices, List<Field> fields, Class<?> type) {
+		return fields.stream()
+				.filter(field -> field.getType() == type)
+				.mapToInt(fieldIndices::get)
+				.toArray();
+	}
+	
+	private static String getLoopMethodDescriptor(Class<?> type) {
+		return "([Ljava/lang/Object;II[" + Type.getDescriptor(type) + ")V";
+	}
+	
+	private static String getRangeMethodDescriptor(Class<?> type) {
+		return "([Ljava/lang/Object;III[" + Type.getDescriptor(type) + ")V";
+	}
+	
+	/**
+	 * Visits <code>extract$k(Object[] objs, int from, int to, X[] out)</code> for the field with index k, which sets
+	 * <code>out[i]</code> to the value of the field of <code>objs[i]</code>
+	 * @param fieldNumber position of the field in the fields of its {@link FieldInstructions#visitAccessorFields}
+	 */
+	private static void visitExtractLoopMethod(
+			ClassWriter cw,
+			String internalName,
+			Class<?> clazz,
+			Field field,
+			int fieldIndex,
+			int fieldNumber) {
+		Type fieldType = Type.getType(field.getType());
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE + ACC_STATIC,
+				"extract$" + fieldIndex,
+				getLoopMethodDescriptor(field.getType()),
+				null,
+				null);
+		mv.visitCode();
+		Label conditionLabel = new Label();
+		Label endLabel = new Label();
+		mv.visitLabel(conditionLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitJumpInsn(IF_ICMPGE, endLabel);
+		visitLoadElement(mv);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ILOAD, 1);
+		FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 4);
+		mv.visitInsn(fieldType.getOpcode(IASTORE));
+		mv.visitIincInsn(1, 1);
+		mv.visitJumpInsn(GOTO, conditionLabel);
+		
+		mv.visitLabel(endLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(RETURN);
+		// The array, index, and the getter and object or a long or double value
+		mv.visitMaxs(4, 5);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Stores <code>objs[i]</code> in slot 4, where <code>objs</code> is in slot 0 and <code>i</code> in slot 1
+	 */
+	private static void visitLoadElement(MethodVisitor mv) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitInsn(AALOAD);
+		mv.visitVarInsn(ASTORE, 4);
+	}
+	
+	/**
+	 * Visits <code>set$k(Object[] objs, int from, int to, X[] values)</code> for the field with index k, which sets
+	 * the field of <code>objs[i]</code> to <code>values[i]</code>
+	 * @param fieldNumber position of the field in the fields of its {@link FieldInstructions#visitAccessorFields}
+	 */
+	private static void visitSetLoopMethod(
+			ClassWriter cw,
+			String internalName,
+			Class<?> clazz,
+			Field field,
+			int fieldIndex,
+			int fieldNumber) {
+		Type fieldType = Type.getType(field.getType());
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE + ACC_STATIC,
+				"set$" + fieldIndex,
+				getLoopMethodDescriptor(field.getType()),
+				null,
+				null);
+		mv.visitCode();
+		Label conditionLabel = new Label();
+		Label endLabel = new Label();
+		mv.visitLabel(conditionLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitJumpInsn(IF_ICMPGE, endLabel);
+		visitLoadElement(mv);
+		FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, fieldNumber, 4);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitInsn(fieldType.getOpcode(IALOAD));
+		FieldInstructions.visitSetField(mv, clazz, field);
+		mv.visitIincInsn(1, 1);
+		mv.visitJumpInsn(GOTO, conditionLabel);
+		
+		mv.visitLabel(endLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(RETURN);
+		// The setter, object and a long or double value
+		mv.visitMaxs(4, 5);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a public method like <code>extractInto(Object[] objs, int from, int to, int fieldIndex, int[] out)</code>
+	 * that switches on the field index to call the loop method of the field, and the private chunk methods
+	 * <code>name$k</code> that its default case calls if there are too many fields for one switch
+	 * @param loopMethodPrefix <code>extract$</code> or <code>set$</code>
+	 * @param noFieldMessage of the {@link IllegalArgumentException} if there is no field with the index
+	 * @param fieldIndices of the fields of the type that have loop methods
+	 */
+	private static void visitSwitchMethods(
+			ClassWriter cw,
+			String internalName,
+			String methodName,
+			String loopMethodPrefix,
+			Class<?> type,
+			String noFieldMessage,
+			int[] fieldIndices) {
+		String descriptor = getRangeMethodDescriptor(type);
+		int chunkCount = Math.max(1, (fieldIndices.length + MAX_FIELDS_PER_METHOD - 1) / MAX_FIELDS_PER_METHOD);
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			int from = chunk * MAX_FIELDS_PER_METHOD;
+			int to = Math.min(fieldIndices.length, from + MAX_FIELDS_PER_METHOD);
+			MethodVisitor mv = cw.visitMethod(
+					chunk == 0 ? ACC_PUBLIC : ACC_PRIVATE,
+					chunk == 0 ? methodName : methodName + "$" + chunk,
+					descriptor,
+					null,
+					null);
+			mv.visitCode();
+			
+			Label defaultCaseLabel = new Label();
+			if (from < to) {
+				int[] cases = new int[to - from];
+				Label[] labels = new Label[cases.length];
+				for (int i = 0; i < cases.length; i++) {
+					cases[i] = fieldIndices[from + i];
+					labels[i] = new Label();
+				}
+				mv.visitVarInsn(ILOAD, 4);
+				mv.visitLookupSwitchInsn(defaultCaseLabel, cases, labels);
+				for (int i = 0; i < cases.length; i++) {
+					mv.visitLabel(labels[i]);
+					mv.visitFrame(F_SAME, 0, null, 0, null);
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitVarInsn(ILOAD, 2);
+					mv.visitVarInsn(ILOAD, 3);
+					mv.visitVarInsn(ALOAD, 5);
+					mv.visitMethodInsn(
+							INVOKESTATIC,
+							internalName,
+							loopMethodPrefix + cases[i],
+							getLoopMethodDescriptor(type),
+							false);
+					mv.visitInsn(RETURN);
+				}
+			}
+			
+			mv.visitLabel(defaultCaseLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			if (chunk + 1 < chunkCount) {
+				for (int slot = 0; slot <= 5; slot++) {
+					mv.visitVarInsn(slot == 0 || slot == 1 || slot == 5 ? ALOAD : ILOAD, slot);
+				}
+				mv.visitMethodInsn(INVOKESPECIAL, internalName, methodName + "$" + (chunk + 1), descriptor, false);
+				mv.visitInsn(RETURN);
+			} else {
+				mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+				mv.visitInsn(DUP);
+				mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+				mv.visitInsn(DUP);
+				mv.visitLdcInsn(noFieldMessage);
+				mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+				mv.visitVarInsn(ILOAD, 4);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(I)Ljava/lang/StringBuilder;", false);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+				mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+				mv.visitInsn(ATHROW);
+			}
+			mv.visitMaxs(6, 6);
+			mv.visitEnd();
+		}
+	}
+	
+	/**
+	 * Task for a range of objects of a parallel extraction or scatter
+	 */
+	@FunctionalInterface
+	interface RangeTask {
+		void run(int from, int to);
+	}
+	
+	private FieldColumnsFactory() {}
+}
@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.Comparator;
+
+/**
+ * Compares objects by some of their fields in order, which are read directly and without boxing primitive values.
+ * Primitive fields are compared like <code>Integer.compare()</code> and the other <code>compare()</code> methods of
+ * the wrapper types, and {@link Comparable} fields by their natural ordering with <code>null</code> first.
+ * @param <T> the class that declares the fields
+ * @see ClassAccessFactory#getFieldComparator(Class, int...)
+ */
+@FunctionalInterface
+public interface FieldComparator<T> extends Comparator<T> {
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static java.util.stream.Collectors.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link FieldHasher} or {@link FieldComparator} per class and ordered set of field indices, whose methods
+ * read each field directly and combine primitive values without boxing them, e.g. with {@link Long#hashCode(long)}
+ * and {@link Double#compare(double, double)}
+ */
+final class FieldComparisonFactory {
+	/**
+	 * Hashers and comparators of each class, keyed by type and field indices
+	 */
+	private static final ClassValue<ConcurrentMap<String, Object>> COMPARISONS_VALUE =
+			new ClassValue<ConcurrentMap<String, Object>>() {
+				@Override
+				protected ConcurrentMap<String, Object> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	private static final String NULLS_FIRST_FIELD_NAME = "NULLS_FIRST";
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the comparator, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, a field is static, or a field is neither
+	 * primitive nor {@link Comparable}
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldComparator<T> getComparator(Class<T> clazz, int[] fieldIndices) {
+		return (FieldComparator<T>)get(clazz, fieldIndices, FieldComparator.class);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the hasher, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, or a field is static
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldHasher<T> getHasher(Class<T> clazz, int[] fieldIndices) {
+		return (FieldHasher<T>)get(clazz, fieldIndices, FieldHasher.class);
+	}
+	
+	private static Object createComparison(Class<?> clazz, int[] fieldIndices, Class<?> comparisonType) {
+		boolean isComparator = comparisonType == FieldComparator.class;
+		List<Field> classFields = ClassAccessFactory.getFields(clazz);
+		List<Field> fields = new ArrayList<>();
+		for (int fieldIndex : fieldIndices) {
+			if (fieldIndex < 0 || fieldIndex >= classFields.size()) {
+				throw new IllegalArgumentException("No field with index: " + fieldIndex);
+			}
+			
+			Field field = classFields.get(fieldIndex);
+			if (Modifier.isStatic(field.getModifiers())) {
+				throw new IllegalArgumentException("Field " + field.getName() + " is static");
+			} else if (isComparator && !field.getType().isPrimitive()
+					&& !Comparable.class.isAssignableFrom(field.getType())) {
+				throw new IllegalArgumentException("Field " + field.getName() + " is of type "
+						+ field.getType().getName() + ", which is not Comparable");
+			}
+			fields.add(field);
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooFieldHasher$0_2
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + comparisonType.getSimpleName() + "$"
+				+ Arrays.stream(fieldIndices)
+				.mapToObj(Integer::toString)
+				.collect(joining("_"));
+		byte[] bytecode = generateComparisonClass(className.replace('.', '/'), clazz, fields, comparisonType);
+		try {
+			return AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateComparisonClass(
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			Class<?> comparisonType) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(comparisonType) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		if (comparisonType == FieldComparator.class) {
+			visitStaticInitializer(cw, internalName, clazz, fields, true);
+			visitCompareMethod(cw, internalName, clazz, fields);
+		} else {
+			visitStaticInitializer(cw, internalName, clazz, fields, false);
+			visitEqualsMethod(cw, internalName, clazz, fields);
+			visitHashCodeMethod(cw, internalName, clazz, fields);
+		}
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static Object get(Class<?> clazz, int[] fieldIndices, Class<?> comparisonType) {
+		return COMPARISONS_VALUE.get(clazz).computeIfAbsent(
+				comparisonType.getSimpleName() + ":" + Arrays.toString(fieldIndices),
+				key -> createComparison(clazz, fieldIndices, comparisonType));
+	}
+	
+	/**
+	 * Visits <code>compare(Object, Object)</code>, which returns the first result of comparing a field that is not 0
+	 */
+	private static void visitCompareMethod(ClassWriter cw, String internalName, Class<?> clazz, List<Field> fields) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "compare", "(Ljava/lang/Object;Ljava/lang/Object;)I", null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			
+			if (fieldType.isPrimitive()) {
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 1);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 2);
+				String descriptor = Type.getDescriptor(fieldType);
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						Type.getInternalName(ClassUtils.primitiveToWrapper(fieldType)),
+						"compare",
+						"(" + descriptor + descriptor + ")I",
+						false);
+			} else {
+				mv.visitFieldInsn(GETSTATIC, internalName, NULLS_FIRST_FIELD_NAME, "Ljava/util/Comparator;");
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 1);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 2);
+				mv.visitMethodInsn(
+						INVOKEINTERFACE,
+						"java/util/Comparator",
+						"compare",
+						"(Ljava/lang/Object;Ljava/lang/Object;)I",
+						true);
+			}
+			
+			Label nextFieldLabel = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFEQ, nextFieldLabel);
+			mv.visitInsn(IRETURN);
+			mv.visitLabel(nextFieldLabel);
+			mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { INTEGER });
+			mv.visitInsn(POP);
+		}
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		// Comparator, or the first value, and the accessor and object of the second value
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>equals(Object, Object)</code>, which returns <code>false</code> at the first field that is not equal
+	 */
+	private static void visitEqualsMethod(ClassWriter cw, String internalName, Class<?> clazz, List<Field> fields) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z", null, null);
+		mv.visitCode();
+		Label notEqualLabel = new Label();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 1);
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 2);
+			if (fieldType == long.class) {
+				mv.visitInsn(LCMP);
+				mv.visitJumpInsn(IFNE, notEqualLabel);
+			} else if (fieldType == double.class || fieldType == float.class) {
+				String descriptor = Type.getDescriptor(fieldType);
+				// Unlike DCMPL and FCMPL, NaN is equal to NaN, and 0.0 is not equal to -0.0
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						Type.getInternalName(ClassUtils.primitiveToWrapper(fieldType)),
+						"compare",
+						"(" + descriptor + descriptor + ")I",
+						false);
+				mv.visitJumpInsn(IFNE, notEqualLabel);
+			} else if (fieldType.isPrimitive()) {
+				mv.visitJumpInsn(IF_ICMPNE, notEqualLabel);
+			} else {
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						"java/util/Objects",
+						"equals",
+						"(Ljava/lang/Object;Ljava/lang/Object;)Z",
+						false);
+				mv.visitJumpInsn(IFEQ, notEqualLabel);
+			}
+		}
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(IRETURN);
+		
+		if (!fields.isEmpty()) {
+			mv.visitLabel(notEqualLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+		}
+		// The first value, and the accessor and object of the second value
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>hashCode(Object)</code>, which combines the hash codes of the fields like
+	 * {@link Arrays#hashCode(Object[])}
+	 */
+	private static void visitHashCodeMethod(ClassWriter cw, String internalName, Class<?> clazz, List<Field> fields) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "hashCode", "(Ljava/lang/Object;)I", null, null);
+		mv.visitCode();
+		mv.visitInsn(ICONST_1);
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			
+			mv.visitIntInsn(BIPUSH, 31);
+			mv.visitInsn(IMUL);
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, i, 1);
+			if (fieldType == boolean.class || fieldType == double.class || fieldType == float.class
+					|| fieldType == long.class) {
+				String descriptor = Type.getDescriptor(fieldType);
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						Type.getInternalName(ClassUtils.primitiveToWrapper(fieldType)),
+						"hashCode",
+						"(" + descriptor + ")I",
+						false);
+			} else if (!fieldType.isPrimitive()) {
+				mv.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "hashCode", "(Ljava/lang/Object;)I", false);
+			}
+			// The hash code of a byte, char, short or int is its int value
+			mv.visitInsn(IADD);
+		}
+		mv.visitInsn(IRETURN);
+		// The hash code so far, and the accessor and object of the value
+		mv.visitMaxs(3, 2);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits static fields with the getters of the fields that cannot be accessed directly, and for a comparator, the
+	 * comparator of reference type fields
+	 */
+	private static void visitStaticInitializer(
+			ClassWriter cw,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			boolean isComparator) {
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, false);
+		
+		if (isComparator) {
+			cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, NULLS_FIRST_FIELD_NAME, "Ljava/util/Comparator;", null, null)
+					.visitEnd();
+			mv.visitMethodInsn(INVOKESTATIC, "java/util/Comparator", "naturalOrder", "()Ljava/util/Comparator;", true);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					"java/util/Comparator",
+					"nullsFirst",
+					"(Ljava/util/Comparator;)Ljava/util/Comparator;",
+					true);
+			mv.visitFieldInsn(PUTSTATIC, internalName, NULLS_FIRST_FIELD_NAME, "Ljava/util/Comparator;");
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+	}
+	
+	private FieldComparisonFactory() {}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static java.util.stream.Collectors.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link FieldCopier} per class, and per class and ordered set of field indices, whose
+ * <code>copy()</code> reads and sets each field directly without boxing primitive values
+ */
+final class FieldCopierFactory {
+	private static final ClassValue<FieldCopier<?>> COPIER_VALUE = new ClassValue<FieldCopier<?>>() {
+		@Override
+		protected FieldCopier<?> computeValue(Class<?> type) {
+			List<Field> classFields = ClassAccessFactory.getFields(type);
+			int[] fieldIndices = IntStream.range(0, classFields.size())
+					.filter(i -> isCopyable(classFields.get(i)))
+					.toArray();
+			return createCopier(type, fieldIndices, "");
+		}
+	};
+	private static final String COPY_METHOD_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/Object;)V";
+	/**
+	 * Copiers of some of the fields of each class, keyed by field indices
+	 */
+	private static final ClassValue<ConcurrentMap<String, FieldCopier<?>>> FIELD_INDICES_COPIERS_VALUE =
+			new ClassValue<ConcurrentMap<String, FieldCopier<?>>>() {
+				@Override
+				protected ConcurrentMap<String, FieldCopier<?>> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	/**
+	 * At most about 20 bytes of bytecode per field in <code>copy()</code>, so that the method of a class with many
+	 * fields is split into methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_FIELDS_PER_METHOD = 350;
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the copier of the fields that are neither static nor final, which is generated the first time and
+	 * cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldCopier<T> get(Class<T> clazz) {
+		return (FieldCopier<T>)COPIER_VALUE.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param fieldIndices
+	 * @return the copier of the fields with the indices, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no field with an index, or a field is static or final
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldCopier<T> get(Class<T> clazz, int[] fieldIndices) {
+		String key = Arrays.toString(fieldIndices);
+		return (FieldCopier<T>)FIELD_INDICES_COPIERS_VALUE.get(clazz).computeIfAbsent(
+				key,
+				k -> createCopier(clazz, fieldIndices, "$" + Arrays.stream(fieldIndices)
+						.mapToObj(Integer::toString)
+						.collect(joining("_"))));
+	}
+	
+	private static FieldCopier<?> createCopier(Class<?> clazz, int[] fieldIndices, String classNameSuffix) {
+		List<Field> classFields = ClassAccessFactory.getFields(clazz);
+		List<Field> fields = new ArrayList<>();
+		for (int fieldIndex : fieldIndices) {
+			if (fieldIndex < 0 || fieldIndex >= classFields.size() || !isCopyable(classFields.get(fieldIndex))) {
+				throw new IllegalArgumentException("No field that can be copied with index: " + fieldIndex);
+			}
+			fields.add(classFields.get(fieldIndex));
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooFieldCopier, or Foo$FooFieldCopier$0_2 for some fields
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "FieldCopier" + classNameSuffix;
+		byte[] bytecode = generateCopierClass(className.replace('.', '/'), clazz, fields);
+		try {
+			return (FieldCopier<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateCopierClass(String internalName, Class<?> clazz, List<Field> fields) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(FieldCopier.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, false);
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, true);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		int chunkCount = Math.max(1, (fields.size() + MAX_FIELDS_PER_METHOD - 1) / MAX_FIELDS_PER_METHOD);
+		if (chunkCount == 1) {
+			visitCopyMethod(cw, ACC_PUBLIC, "copy", internalName, clazz, fields, 0);
+		} else {
+			for (int i = 0; i < chunkCount; i++) {
+				int from = i * MAX_FIELDS_PER_METHOD;
+				int to = Math.min(fields.size(), from + MAX_FIELDS_PER_METHOD);
+				visitCopyMethod(cw, ACC_PRIVATE, "copy$" + i, internalName, clazz, fields.subList(from, to), from);
+			}
+			visitChunkCallsMethod(cw, internalName, chunkCount);
+		}
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static boolean isCopyable(Field field) {
+		return !Modifier.isFinal(field.getModifiers()) && !Modifier.isStatic(field.getModifiers());
+	}
+	
+	/**
+	 * Visits <code>copy(Object, Object)</code>, which calls the method of each chunk of fields
+	 */
+	private static void visitChunkCallsMethod(ClassWriter cw, String internalName, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "copy", COPY_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "copy$" + i, COPY_METHOD_DESCRIPTOR, false);
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>copy(Object, Object)</code> for some of the fields, which sets each field of the second object to
+	 * the value of the field of the first object
+	 * @param cw
+	 * @param access
+	 * @param methodName
+	 * @param internalName
+	 * @param clazz
+	 * @param fields
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitCopyMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(access, methodName, COPY_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			int fieldNumber = firstFieldNumber + i;
+			FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, fieldNumber, 2);
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 1);
+			FieldInstructions.visitSetField(mv, clazz, field);
+		}
+		mv.visitInsn(RETURN);
+		// Setter accessor and dst, and the value or the getter accessor and src
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	private FieldCopierFactory() {}
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+/**
+ * Compares and hashes objects by some of their fields, which are read directly and without boxing primitive values
+ * @param <T> the class that declares the fields
+ * @see ClassAccessFactory#getFieldHasher(Class, int...)
+ */
+public interface FieldHasher<T> {
+	/**
+	 * 
+	 * @param a
+	 * @param b
+	 * @return <code>true</code> if every field is equal, comparing <code>float</code> and <code>double</code> fields
+	 * like {@link Double#equals(Object)}, and other reference type fields with {@link Object#equals(Object)}
+	 */
+	boolean equals(T a, T b);
+	
+	/**
+	 * 
+	 * @param obj
+	 * @return the same hash code as {@link java.util.Objects#hash(Object...)} of the values of the fields, in order
+	 */
+	int hashCode(T obj);
+}
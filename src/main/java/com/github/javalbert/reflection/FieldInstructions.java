@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static java.util.stream.Collectors.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Visits instructions that get or set the fields of a class from a class generated for it, e.g. a
+ * {@link FieldHasher}. A field that the generated class cannot access directly, i.e. a private or package-private
+ * field of a superclass in another package, is accessed through its {@link FieldAccessorFactory} accessor, which is
+ * kept in a static field of the generated class.
+ */
+final class FieldInstructions {
+	/**
+	 * Accessors that one method of the static initializer gets, so that it stays well under the 64KB limit of a method
+	 * for a class with thousands of fields that cannot be accessed directly, e.g. the private fields on JDK 9 to 14
+	 */
+	private static final int MAX_ACCESSORS_PER_METHOD = 400;
+	
+	/**
+	 * Visits static fields with the getters or setters of the fields that cannot be accessed directly, and the part
+	 * of the static initializer <code>mv</code> that gets them, which calls a private method for each chunk of
+	 * accessors if they do not fit in one method
+	 * @param cw
+	 * @param mv
+	 * @param internalName of the generated class
+	 * @param clazz
+	 * @param fields
+	 * @param isSetter
+	 */
+	static void visitAccessorFields(
+			ClassWriter cw,
+			MethodVisitor mv,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			boolean isSetter) {
+		List<Integer> fieldNumbers = IntStream.range(0, fields.size())
+				.filter(i -> !AccessClassDefiner.canAccessDirectly(clazz, fields.get(i)))
+				.boxed()
+				.collect(toList());
+		if (fieldNumbers.size() <= MAX_ACCESSORS_PER_METHOD) {
+			visitGetAccessors(cw, mv, internalName, fields, fieldNumbers, isSetter);
+			return;
+		}
+		
+		for (int chunk = 0; chunk * MAX_ACCESSORS_PER_METHOD < fieldNumbers.size(); chunk++) {
+			// A class file older than Java 9 can set its static final fields outside of the static initializer
+			String methodName = (isSetter ? "getSetters$" : "getGetters$") + chunk;
+			MethodVisitor chunkVisitor = cw.visitMethod(ACC_PRIVATE + ACC_STATIC, methodName, "()V", null, null);
+			chunkVisitor.visitCode();
+			visitGetAccessors(
+					cw,
+					chunkVisitor,
+					internalName,
+					fields,
+					fieldNumbers.subList(
+							chunk * MAX_ACCESSORS_PER_METHOD,
+							Math.min((chunk + 1) * MAX_ACCESSORS_PER_METHOD, fieldNumbers.size())),
+					isSetter);
+			chunkVisitor.visitInsn(RETURN);
+			chunkVisitor.visitMaxs(3, 0);
+			chunkVisitor.visitEnd();
+			
+			mv.visitMethodInsn(INVOKESTATIC, internalName, methodName, "()V", false);
+		}
+	}
+	
+	/**
+	 * Gets the value of the field of the object in the slot, or the value as an {@link Object} if it is a reference
+	 * type field that the generated class cannot access directly
+	 * @param mv
+	 * @param internalName of the generated class
+	 * @param clazz
+	 * @param field
+	 * @param fieldNumber position of the field in the fields of {@link #visitAccessorFields}
+	 * @param objSlot
+	 */
+	static void visitGetField(
+			MethodVisitor mv,
+			String internalName,
+			Class<?> clazz,
+			Field field,
+			int fieldNumber,
+			int objSlot) {
+		Class<?> fieldType = field.getType();
+		if (AccessClassDefiner.canAccessDirectly(clazz, field)) {
+			mv.visitVarInsn(ALOAD, objSlot);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(clazz));
+			mv.visitFieldInsn(
+					GETFIELD,
+					Type.getInternalName(field.getDeclaringClass()),
+					field.getName(),
+					Type.getDescriptor(fieldType));
+			return;
+		}
+		
+		Class<?> getterType = getAccessorType(field, false);
+		String valueDescriptor = fieldType.isPrimitive() ? Type.getDescriptor(fieldType) : "Ljava/lang/Object;";
+		mv.visitFieldInsn(GETSTATIC, internalName, getAccessorFieldName(fieldNumber, false), Type.getDescriptor(getterType));
+		mv.visitVarInsn(ALOAD, objSlot);
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				Type.getInternalName(getterType),
+				"get",
+				"(Ljava/lang/Object;)" + valueDescriptor,
+				true);
+	}
+	
+	/**
+	 * Loads the object in the slot, after the setter if the field cannot be accessed directly, so that the new value
+	 * can be loaded then set by {@link #visitSetField}
+	 * @param mv
+	 * @param internalName of the generated class
+	 * @param clazz
+	 * @param field
+	 * @param fieldNumber position of the field in the fields of {@link #visitAccessorFields}
+	 * @param objSlot
+	 */
+	static void visitLoadObjToSet(
+			MethodVisitor mv,
+			String internalName,
+			Class<?> clazz,
+			Field field,
+			int fieldNumber,
+			int objSlot) {
+		if (AccessClassDefiner.canAccessDirectly(clazz, field)) {
+			mv.visitVarInsn(ALOAD, objSlot);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(clazz));
+			return;
+		}
+		
+		Class<?> setterType = getAccessorType(field, true);
+		mv.visitFieldInsn(GETSTATIC, internalName, getAccessorFieldName(fieldNumber, true), Type.getDescriptor(setterType));
+		mv.visitVarInsn(ALOAD, objSlot);
+	}
+	
+	/**
+	 * Sets the field, whose object and new value are on the stack
+	 * @param mv
+	 * @param clazz
+	 * @param field
+	 */
+	static void visitSetField(MethodVisitor mv, Class<?> clazz, Field field) {
+		Class<?> fieldType = field.getType();
+		if (AccessClassDefiner.canAccessDirectly(clazz, field)) {
+			mv.visitFieldInsn(
+					PUTFIELD,
+					Type.getInternalName(field.getDeclaringClass()),
+					field.getName(),
+					Type.getDescriptor(fieldType));
+			return;
+		}
+		
+		String valueDescriptor = fieldType.isPrimitive() ? Type.getDescriptor(fieldType) : "Ljava/lang/Object;";
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				Type.getInternalName(getAccessorType(field, true)),
+				"set",
+				"(Ljava/lang/Object;" + valueDescriptor + ")V",
+				true);
+	}
+	
+	/**
+	 * Visits static fields with the getters or setters of some of the fields, and the instructions that get them
+	 * @param cw
+	 * @param mv
+	 * @param internalName
+	 * @param fields
+	 * @param fieldNumbers positions of the fields in <code>fields</code>
+	 * @param isSetter
+	 */
+	private static void visitGetAccessors(
+			ClassWriter cw,
+			MethodVisitor mv,
+			String internalName,
+			List<Field> fields,
+			List<Integer> fieldNumbers,
+			boolean isSetter) {
+		for (int fieldNumber : fieldNumbers) {
+			Field field = fields.get(fieldNumber);
+			Class<?> accessorType = getAccessorType(field, isSetter);
+			String accessorFieldName = getAccessorFieldName(fieldNumber, isSetter);
+			cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, accessorFieldName, Type.getDescriptor(accessorType), null, null)
+					.visitEnd();
+			
+			mv.visitLdcInsn(Type.getType(field.getDeclaringClass()));
+			mv.visitLdcInsn(field.getName());
+			mv.visitLdcInsn(Type.getType(accessorType));
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(ClassAccessFactory.class),
+					"getFieldAccessor",
+					"(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;",
+					false);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(accessorType));
+			mv.visitFieldInsn(PUTSTATIC, internalName, accessorFieldName, Type.getDescriptor(accessorType));
+		}
+	}
+	
+	private static String getAccessorFieldName(int fieldNumber, boolean isSetter) {
+		return (isSetter ? "setter$" : "getter$") + fieldNumber;
+	}
+	
+	private static Class<?> getAccessorType(Field field, boolean isSetter) {
+		return isSetter ? FieldAccessorFactory.getSetterType(field.getType())
+				: FieldAccessorFactory.getGetterType(field.getType());
+	}
+	
+	private FieldInstructions() {}
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import org.objectweb.asm.Type;
+
+/**
+ * Encodings of the reference types of fields that a {@link FieldSerializer} supports, which its generated code calls:
+ * <ul>
+ * <li>Primitive wrappers and {@link Date}: a byte that is 0 for <code>null</code> or 1 followed by the primitive
+ * value, which is the time in milliseconds as a <code>long</code> for {@link Date}</li>
+ * <li>{@link String}: the length of its UTF-8 bytes as an <code>int</code>, or -1 for <code>null</code>, followed by
+ * the bytes</li>
+ * <li><code>byte[]</code>: its length as an <code>int</code>, or -1 for <code>null</code>, followed by the bytes</li>
+ * <li>{@link BigDecimal}: its unscaled value as a <code>byte[]</code>, followed by its scale as an <code>int</code>
+ * unless it is <code>null</code></li>
+ * <li>{@link LocalDate}: its epoch day as a <code>long</code>, or {@link Long#MIN_VALUE} for <code>null</code></li>
+ * <li>{@link LocalDateTime}: its epoch second in UTC as a <code>long</code> and its nanosecond as an
+ * <code>int</code>, which is -1 for <code>null</code></li>
+ * </ul>
+ */
+public final class FieldSerialization {
+	/**
+	 * Version of the encodings, which is part of the fingerprint of a {@link FieldSerializer}
+	 */
+	public static final int FORMAT_VERSION = 2;
+	
+	private static final int NULL_LENGTH = -1;
+	private static final long NULL_LONG = Long.MIN_VALUE;
+	
+	/**
+	 * 
+	 * @param fingerprint read from the data
+	 * @param expectedFingerprint of the serializer
+	 * @param className
+	 * @throws IllegalStateException if the fingerprints are different
+	 */
+	public static void checkFingerprint(long fingerprint, long expectedFingerprint, String className) {
+		if (fingerprint != expectedFingerprint) {
+			throw new IllegalStateException("Fingerprint " + Long.toHexString(fingerprint) + " of the data is not "
+					+ Long.toHexString(expectedFingerprint) + " of the fields of " + className);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param formatVersion of the data
+	 * @param clazz
+	 * @param fields
+	 * @return the first 8 bytes of the SHA-256 hash of the format version, class name, and name and type of each field
+	 */
+	static long getFingerprint(int formatVersion, Class<?> clazz, List<Field> fields) {
+		StringBuilder schema = new StringBuilder()
+				.append(formatVersion)
+				.append(';')
+				.append(clazz.getName());
+		for (Field field : fields) {
+			schema.append(';')
+					.append(field.getName())
+					.append(':')
+					.append(Type.getDescriptor(field.getType()));
+		}
+		
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(schema.toString().getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(hash).getLong();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	public static BigDecimal readBigDecimal(ByteBuffer buffer) {
+		byte[] unscaledValue = readBytes(buffer);
+		return unscaledValue != null ? new BigDecimal(new BigInteger(unscaledValue), buffer.getInt()) : null;
+	}
+	
+	public static Boolean readBoxedBoolean(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.get() != 0 : null;
+	}
+	
+	public static Byte readBoxedByte(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.get() : null;
+	}
+	
+	public static Character readBoxedChar(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getChar() : null;
+	}
+	
+	public static Double readBoxedDouble(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getDouble() : null;
+	}
+	
+	public static Float readBoxedFloat(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getFloat() : null;
+	}
+	
+	public static Integer readBoxedInt(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getInt() : null;
+	}
+	
+	public static Long readBoxedLong(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getLong() : null;
+	}
+	
+	public static Short readBoxedShort(ByteBuffer buffer) {
+		return buffer.get() != 0 ? buffer.getShort() : null;
+	}
+	
+	public static byte[] readBytes(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+	
+	public static Date readDate(ByteBuffer buffer) {
+		return buffer.get() != 0 ? new Date(buffer.getLong()) : null;
+	}
+	
+	public static LocalDate readLocalDate(ByteBuffer buffer) {
+		long epochDay = buffer.getLong();
+		return epochDay != NULL_LONG ? LocalDate.ofEpochDay(epochDay) : null;
+	}
+	
+	public static LocalDateTime readLocalDateTime(ByteBuffer buffer) {
+		long epochSecond = buffer.getLong();
+		int nano = buffer.getInt();
+		return nano != NULL_LENGTH ? LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC) : null;
+	}
+	
+	public static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		} else if (buffer.hasArray()) {
+			String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+			// Through Buffer, whose position(int) is not overridden by ByteBuffer before Java 9
+			((Buffer)buffer).position(buffer.position() + length);
+			return s;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	public static void writeBigDecimal(ByteBuffer buffer, BigDecimal value) {
+		if (value == null) {
+			buffer.putInt(NULL_LENGTH);
+			return;
+		}
+		writeBytes(buffer, value.unscaledValue().toByteArray());
+		buffer.putInt(value.scale());
+	}
+	
+	public static void writeBoxedBoolean(ByteBuffer buffer, Boolean value) {
+		if (writePresence(buffer, value)) {
+			buffer.put(value ? (byte)1 : (byte)0);
+		}
+	}
+	
+	public static void writeBoxedByte(ByteBuffer buffer, Byte value) {
+		if (writePresence(buffer, value)) {
+			buffer.put(value);
+		}
+	}
+	
+	public static void writeBoxedChar(ByteBuffer buffer, Character value) {
+		if (writePresence(buffer, value)) {
+			buffer.putChar(value);
+		}
+	}
+	
+	public static void writeBoxedDouble(ByteBuffer buffer, Double value) {
+		if (writePresence(buffer, value)) {
+			buffer.putDouble(value);
+		}
+	}
+	
+	public static void writeBoxedFloat(ByteBuffer buffer, Float value) {
+		if (writePresence(buffer, value)) {
+			buffer.putFloat(value);
+		}
+	}
+	
+	public static void writeBoxedInt(ByteBuffer buffer, Integer value) {
+		if (writePresence(buffer, value)) {
+			buffer.putInt(value);
+		}
+	}
+	
+	public static void writeBoxedLong(ByteBuffer buffer, Long value) {
+		if (writePresence(buffer, value)) {
+			buffer.putLong(value);
+		}
+	}
+	
+	public static void writeBoxedShort(ByteBuffer buffer, Short value) {
+		if (writePresence(buffer, value)) {
+			buffer.putShort(value);
+		}
+	}
+	
+	public static void writeBytes(ByteBuffer buffer, byte[] value) {
+		if (value == null) {
+			buffer.putInt(NULL_LENGTH);
+			return;
+		}
+		buffer.putInt(value.length);
+		buffer.put(value);
+	}
+	
+	public static void writeDate(ByteBuffer buffer, Date value) {
+		if (writePresence(buffer, value)) {
+			buffer.putLong(value.getTime());
+		}
+	}
+	
+	public static void writeLocalDate(ByteBuffer buffer, LocalDate value) {
+		buffer.putLong(value != null ? value.toEpochDay() : NULL_LONG);
+	}
+	
+	public static void writeLocalDateTime(ByteBuffer buffer, LocalDateTime value) {
+		if (value == null) {
+			buffer.putLong(0L);
+			buffer.putInt(NULL_LENGTH);
+			return;
+		}
+		buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+		buffer.putInt(value.getNano());
+	}
+	
+	public static void writeString(ByteBuffer buffer, String value) {
+		writeBytes(buffer, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+	}
+	
+	private static boolean writePresence(ByteBuffer buffer, Object value) {
+		buffer.put(value != null ? (byte)1 : (byte)0);
+		return value != null;
+	}
+	
+	private FieldSerialization() {}
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the fields of an object to a {@link ByteBuffer} in a compact binary form, and reads them back into a new
+ * object. Primitive fields are written as raw bytes without boxing, and the encodings of the supported reference types
+ * are described by {@link FieldSerialization}. The data starts with the {@link #fingerprint()} of the fields, so that
+ * data written for another version of the class is rejected rather than read as garbage.
+ * @param <T> the class of the objects
+ * @see ClassAccessFactory#getFieldSerializer(Class)
+ */
+public interface FieldSerializer<T> {
+	/**
+	 * 
+	 * @return hash of the format version, the name of the class, and the name and type of each serialized field, in
+	 * order
+	 */
+	long fingerprint();
+	
+	/**
+	 * 
+	 * @param buffer positioned at data written by {@link #write(Object, ByteBuffer)}, and positioned after it when this
+	 * returns
+	 * @return a new object, created with the constructor without parameters, with the values of the fields
+	 * @throws IllegalStateException if the data was written with another fingerprint, or the class has no constructor
+	 * without parameters
+	 * @throws java.nio.BufferUnderflowException if the data ends early
+	 */
+	T read(ByteBuffer buffer);
+	
+	/**
+	 * 
+	 * @param obj
+	 * @param buffer
+	 * @throws java.nio.BufferOverflowException if the buffer is full
+	 */
+	void write(T obj, ByteBuffer buffer);
+}
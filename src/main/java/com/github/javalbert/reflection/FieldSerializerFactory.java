@@ -0,0 +1,357 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link FieldSerializer} per class, with straight-line code that writes or reads each field that is
+ * neither static, transient nor final
+ */
+final class FieldSerializerFactory {
+	private static final String BYTE_BUFFER_INTERNAL_NAME = Type.getInternalName(ByteBuffer.class);
+	/**
+	 * {@link ByteBuffer} getter of each primitive type
+	 */
+	private static final Map<Class<?>, Method> BYTE_BUFFER_GETTERS;
+	/**
+	 * {@link ByteBuffer} method that puts each primitive type
+	 */
+	private static final Map<Class<?>, Method> BYTE_BUFFER_PUTTERS;
+	/**
+	 * At most about 15 bytes of bytecode per field, so that a method of a class with many fields is split into methods
+	 * under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_FIELDS_PER_METHOD = 250;
+	private static final String READ_FIELDS_METHOD_DESCRIPTOR = "(L" + BYTE_BUFFER_INTERNAL_NAME + ";Ljava/lang/Object;)V";
+	private static final ClassValue<FieldSerializer<?>> SERIALIZER_VALUE = new ClassValue<FieldSerializer<?>>() {
+		@Override
+		protected FieldSerializer<?> computeValue(Class<?> type) {
+			return createSerializer(type);
+		}
+	};
+	/**
+	 * Name of the {@link FieldSerialization} methods of each supported reference type, after <code>read</code> or
+	 * <code>write</code>
+	 */
+	private static final Map<Class<?>, String> SERIALIZATION_METHOD_SUFFIXES;
+	private static final String WRITE_FIELDS_METHOD_DESCRIPTOR = "(Ljava/lang/Object;L" + BYTE_BUFFER_INTERNAL_NAME + ";)V";
+	
+	static {
+		Map<Class<?>, Method> getters = new HashMap<>();
+		Map<Class<?>, Method> putters = new HashMap<>();
+		Map<Class<?>, String> suffixes = new HashMap<>();
+		try {
+			for (Class<?> type : new Class<?>[] {
+					boolean.class, byte.class, char.class, double.class, float.class, int.class, long.class, short.class }) {
+				// A boolean is a byte that is 0 or 1
+				Class<?> bufferType = type == boolean.class ? byte.class : type;
+				String typeName = bufferType == byte.class ? "" : StringUtils.capitalize(bufferType.getName());
+				getters.put(type, ByteBuffer.class.getMethod("get" + typeName));
+				putters.put(type, ByteBuffer.class.getMethod("put" + typeName, bufferType));
+				suffixes.put(ClassUtils.primitiveToWrapper(type), "Boxed" + StringUtils.capitalize(type.getName()));
+			}
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		suffixes.put(BigDecimal.class, "BigDecimal");
+		suffixes.put(byte[].class, "Bytes");
+		suffixes.put(Date.class, "Date");
+		suffixes.put(LocalDate.class, "LocalDate");
+		suffixes.put(LocalDateTime.class, "LocalDateTime");
+		suffixes.put(String.class, "String");
+		BYTE_BUFFER_GETTERS = Collections.unmodifiableMap(getters);
+		BYTE_BUFFER_PUTTERS = Collections.unmodifiableMap(putters);
+		SERIALIZATION_METHOD_SUFFIXES = Collections.unmodifiableMap(suffixes);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the serializer, which is generated the first time and cached
+	 * @throws IllegalArgumentException if a field is of a type that cannot be serialized
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldSerializer<T> get(Class<T> clazz) {
+		return (FieldSerializer<T>)SERIALIZER_VALUE.get(clazz);
+	}
+	
+	private static FieldSerializer<?> createSerializer(Class<?> clazz) {
+		List<Field> fields = new ArrayList<>();
+		for (Field field : ClassAccessFactory.getFields(clazz)) {
+			int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)) {
+				continue;
+			}
+			if (!field.getType().isPrimitive() && !SERIALIZATION_METHOD_SUFFIXES.containsKey(field.getType())) {
+				throw new IllegalArgumentException("Field " + field.getName() + " is of type "
+						+ field.getType().getName() + ", which cannot be serialized");
+			}
+			fields.add(field);
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooFieldSerializer
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "FieldSerializer";
+		byte[] bytecode = generateSerializerClass(className.replace('.', '/'), clazz, fields, FieldSerialization.getFingerprint(FieldSerialization.FORMAT_VERSION, clazz, fields));
+		try {
+			return (FieldSerializer<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateSerializerClass(
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			long fingerprint) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(FieldSerializer.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, false);
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, true);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		int chunkCount = Math.max(1, (fields.size() + MAX_FIELDS_PER_METHOD - 1) / MAX_FIELDS_PER_METHOD);
+		for (int i = 0; i < chunkCount; i++) {
+			int from = i * MAX_FIELDS_PER_METHOD;
+			int to = Math.min(fields.size(), from + MAX_FIELDS_PER_METHOD);
+			visitReadFieldsMethod(cw, "readFields$" + i, internalName, clazz, fields.subList(from, to), from);
+			visitWriteFieldsMethod(cw, "writeFields$" + i, internalName, clazz, fields.subList(from, to), from);
+		}
+		
+		mv = cw.visitMethod(ACC_PUBLIC, "fingerprint", "()J", null, null);
+		mv.visitCode();
+		mv.visitLdcInsn(fingerprint);
+		mv.visitInsn(LRETURN);
+		mv.visitMaxs(2, 1);
+		mv.visitEnd();
+		
+		visitReadMethod(cw, internalName, clazz, fingerprint, chunkCount);
+		visitWriteMethod(cw, internalName, fingerprint, chunkCount);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static boolean hasConstructorWithoutParameters(Class<?> clazz) {
+		if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isEnum()) {
+			return false;
+		}
+		try {
+			return AccessClassDefiner.canAccessDirectly(clazz, clazz.getDeclaredConstructor());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	private static void visitByteBufferMethod(MethodVisitor mv, Method method) {
+		mv.visitMethodInsn(
+				INVOKEVIRTUAL,
+				BYTE_BUFFER_INTERNAL_NAME,
+				method.getName(),
+				Type.getMethodDescriptor(method),
+				false);
+	}
+	
+	/**
+	 * Visits <code>read(ByteBuffer)</code>, which checks the fingerprint at the start of the data, then creates an
+	 * object with the constructor without parameters and reads its fields, or throws {@link IllegalStateException} if
+	 * there is no such constructor
+	 */
+	private static void visitReadMethod(
+			ClassWriter cw,
+			String internalName,
+			Class<?> clazz,
+			long fingerprint,
+			int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"read",
+				"(L" + BYTE_BUFFER_INTERNAL_NAME + ";)Ljava/lang/Object;",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, BYTE_BUFFER_INTERNAL_NAME, "getLong", "()J", false);
+		mv.visitLdcInsn(fingerprint);
+		mv.visitLdcInsn(clazz.getName());
+		mv.visitMethodInsn(
+				INVOKESTATIC,
+				Type.getInternalName(FieldSerialization.class),
+				"checkFingerprint",
+				"(JJLjava/lang/String;)V",
+				false);
+		
+		if (hasConstructorWithoutParameters(clazz)) {
+			mv.visitTypeInsn(NEW, Type.getInternalName(clazz));
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(clazz), "<init>", "()V", false);
+			mv.visitVarInsn(ASTORE, 2);
+			for (int i = 0; i < chunkCount; i++) {
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitMethodInsn(INVOKESPECIAL, internalName, "readFields$" + i, READ_FIELDS_METHOD_DESCRIPTOR, false);
+			}
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitInsn(ARETURN);
+		} else {
+			mv.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn("No constructor without parameters in " + clazz.getName());
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(Ljava/lang/String;)V", false);
+			mv.visitInsn(ATHROW);
+		}
+		// The two fingerprints and the class name
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a private method <code>readFields(ByteBuffer, Object)</code> for some of the fields, which reads the value
+	 * of each field then sets it
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitReadFieldsMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, methodName, READ_FIELDS_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			
+			FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, firstFieldNumber + i, 2);
+			mv.visitVarInsn(ALOAD, 1);
+			if (fieldType.isPrimitive()) {
+				visitByteBufferMethod(mv, BYTE_BUFFER_GETTERS.get(fieldType));
+			} else {
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						Type.getInternalName(FieldSerialization.class),
+						"read" + SERIALIZATION_METHOD_SUFFIXES.get(fieldType),
+						"(L" + BYTE_BUFFER_INTERNAL_NAME + ";)" + Type.getDescriptor(fieldType),
+						false);
+			}
+			FieldInstructions.visitSetField(mv, clazz, field);
+		}
+		mv.visitInsn(RETURN);
+		// The setter, object and a long or double value
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>write(Object, ByteBuffer)</code>, which puts the fingerprint then writes the fields
+	 */
+	private static void visitWriteMethod(ClassWriter cw, String internalName, long fingerprint, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "write", WRITE_FIELDS_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitLdcInsn(fingerprint);
+		mv.visitMethodInsn(INVOKEVIRTUAL, BYTE_BUFFER_INTERNAL_NAME, "putLong", "(J)L" + BYTE_BUFFER_INTERNAL_NAME + ";", false);
+		mv.visitInsn(POP);
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "writeFields$" + i, WRITE_FIELDS_METHOD_DESCRIPTOR, false);
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a private method <code>writeFields(Object, ByteBuffer)</code> for some of the fields, which gets the value
+	 * of each field then writes it
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitWriteFieldsMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, methodName, WRITE_FIELDS_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			
+			mv.visitVarInsn(ALOAD, 2);
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, firstFieldNumber + i, 1);
+			if (fieldType.isPrimitive()) {
+				visitByteBufferMethod(mv, BYTE_BUFFER_PUTTERS.get(fieldType));
+				mv.visitInsn(POP);
+				continue;
+			}
+			
+			if (!AccessClassDefiner.canAccessDirectly(clazz, field)) {
+				// The getter returns an Object
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(fieldType));
+			}
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(FieldSerialization.class),
+					"write" + SERIALIZATION_METHOD_SUFFIXES.get(fieldType),
+					"(L" + BYTE_BUFFER_INTERNAL_NAME + ";" + Type.getDescriptor(fieldType) + ")V",
+					false);
+		}
+		mv.visitInsn(RETURN);
+		// The buffer, and the getter and object or a long or double value
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	private FieldSerializerFactory() {}
+}
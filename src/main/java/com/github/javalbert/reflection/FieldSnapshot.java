@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+/**
+ * Values of the fields of an object captured by a {@link FieldSnapshotter}, with primitive values stored as their
+ * bits in a <code>long[]</code> so that they are not boxed
+ * @see FieldSnapshotter#snapshot(Object)
+ */
+public final class FieldSnapshot {
+	private final long[] primitives;
+	private final Object[] references;
+	
+	public FieldSnapshot(int primitiveCount, int referenceCount) {
+		primitives = new long[primitiveCount];
+		references = new Object[referenceCount];
+	}
+	
+	/**
+	 * 
+	 * @return values of the primitive fields in the order of the snapshotter, where <code>float</code> and
+	 * <code>double</code> values are stored as their raw bits and <code>boolean</code> values as 0 or 1
+	 */
+	public long[] getPrimitives() {
+		return primitives;
+	}
+	
+	/**
+	 * 
+	 * @return values of the reference type fields in the order of the snapshotter
+	 */
+	public Object[] getReferences() {
+		return references;
+	}
+}
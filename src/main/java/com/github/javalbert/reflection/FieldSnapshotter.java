@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.BitSet;
+
+/**
+ * Captures the values of the fields of an object that are not static, and later finds the fields whose values have
+ * changed since, e.g. to detect modified entities. Fields are read directly and primitive values are not boxed.
+ * @param <T> the class that declares the fields
+ * @see ClassAccessFactory#getFieldSnapshotter(Class)
+ */
+public interface FieldSnapshotter<T> {
+	/**
+	 * 
+	 * @param obj
+	 * @param snapshot from this snapshotter
+	 * @return the indices of the fields whose values changed
+	 */
+	default BitSet diff(T obj, FieldSnapshot snapshot) {
+		BitSet changedFieldIndices = new BitSet();
+		diff(obj, snapshot, changedFieldIndices);
+		return changedFieldIndices;
+	}
+	
+	/**
+	 * Compares primitive fields by their bits, so that e.g. <code>0.0</code> and <code>-0.0</code> differ, and
+	 * reference type fields with {@link Object#equals(Object)}
+	 * @param obj
+	 * @param snapshot from this snapshotter
+	 * @param changedFieldIndices where the bit of the index of each field whose value changed is set
+	 * @return <code>true</code> if the value of any field changed
+	 */
+	boolean diff(T obj, FieldSnapshot snapshot, BitSet changedFieldIndices);
+	
+	/**
+	 * 
+	 * @param obj
+	 * @return a new snapshot of the values of the fields
+	 */
+	FieldSnapshot snapshot(T obj);
+	
+	/**
+	 * Captures the values of the fields into an existing snapshot, e.g. after the object was saved, without
+	 * allocating a new one
+	 * @param obj
+	 * @param snapshot from this snapshotter
+	 */
+	void snapshot(T obj, FieldSnapshot snapshot);
+}
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link FieldSnapshotter} per class, whose methods read each field that is not static directly, and
+ * store or compare primitive values as <code>long</code> bits without boxing them
+ */
+final class FieldSnapshotterFactory {
+	private static final String DIFF_METHOD_DESCRIPTOR = Type.getMethodDescriptor(
+			Type.BOOLEAN_TYPE,
+			Type.getType(Object.class),
+			Type.getType(FieldSnapshot.class),
+			Type.getType(BitSet.class));
+	private static final String FIELD_SNAPSHOT_INTERNAL_NAME = Type.getInternalName(FieldSnapshot.class);
+	/**
+	 * At most about 40 bytes of bytecode per field in <code>diff()</code>, so that a method of a class with many fields
+	 * is split into methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_FIELDS_PER_METHOD = 175;
+	private static final ClassValue<FieldSnapshotter<?>> SNAPSHOTTER_VALUE = new ClassValue<FieldSnapshotter<?>>() {
+		@Override
+		protected FieldSnapshotter<?> computeValue(Class<?> type) {
+			return createSnapshotter(type);
+		}
+	};
+	private static final String SNAPSHOT_METHOD_DESCRIPTOR = Type.getMethodDescriptor(
+			Type.VOID_TYPE,
+			Type.getType(Object.class),
+			Type.getType(FieldSnapshot.class));
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the snapshotter, which is generated the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> FieldSnapshotter<T> get(Class<T> clazz) {
+		return (FieldSnapshotter<T>)SNAPSHOTTER_VALUE.get(clazz);
+	}
+	
+	private static FieldSnapshotter<?> createSnapshotter(Class<?> clazz) {
+		List<Field> classFields = ClassAccessFactory.getFields(clazz);
+		List<Field> fields = new ArrayList<>();
+		List<Integer> fieldIndices = new ArrayList<>();
+		for (int i = 0; i < classFields.size(); i++) {
+			if (!Modifier.isStatic(classFields.get(i).getModifiers())) {
+				fields.add(classFields.get(i));
+				fieldIndices.add(i);
+			}
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooFieldSnapshotter
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "FieldSnapshotter";
+		byte[] bytecode = generateSnapshotterClass(className.replace('.', '/'), clazz, fields, fieldIndices);
+		try {
+			return (FieldSnapshotter<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateSnapshotterClass(
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			List<Integer> fieldIndices) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(FieldSnapshotter.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		// Index of the value of each field in the primitives or references of a snapshot
+		int[] valueIndices = new int[fields.size()];
+		int primitiveCount = 0;
+		int referenceCount = 0;
+		for (int i = 0; i < fields.size(); i++) {
+			valueIndices[i] = fields.get(i).getType().isPrimitive() ? primitiveCount++ : referenceCount++;
+		}
+		
+		int chunkCount = Math.max(1, (fields.size() + MAX_FIELDS_PER_METHOD - 1) / MAX_FIELDS_PER_METHOD);
+		if (chunkCount == 1) {
+			visitDiffMethod(cw, ACC_PUBLIC, "diff", internalName, clazz, fields, fieldIndices, valueIndices, 0);
+			visitSnapshotMethod(cw, ACC_PUBLIC, "snapshot", internalName, clazz, fields, valueIndices, 0);
+		} else {
+			for (int i = 0; i < chunkCount; i++) {
+				int from = i * MAX_FIELDS_PER_METHOD;
+				int to = Math.min(fields.size(), from + MAX_FIELDS_PER_METHOD);
+				visitDiffMethod(
+						cw,
+						ACC_PRIVATE,
+						"diff$" + i,
+						internalName,
+						clazz,
+						fields.subList(from, to),
+						fieldIndices.subList(from, to),
+						valueIndices,
+						from);
+				visitSnapshotMethod(
+						cw,
+						ACC_PRIVATE,
+						"snapshot$" + i,
+						internalName,
+						clazz,
+						fields.subList(from, to),
+						valueIndices,
+						from);
+			}
+			visitChunkCallsMethod(cw, "diff", DIFF_METHOD_DESCRIPTOR, internalName, chunkCount);
+			visitChunkCallsMethod(cw, "snapshot", SNAPSHOT_METHOD_DESCRIPTOR, internalName, chunkCount);
+		}
+		visitNewSnapshotMethod(cw, internalName, primitiveCount, referenceCount);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * Visits a method that calls the method of each chunk of fields, and for <code>diff()</code>, returns whether any
+	 * of them returned <code>true</code>
+	 */
+	private static void visitChunkCallsMethod(
+			ClassWriter cw,
+			String methodName,
+			String descriptor,
+			String internalName,
+			int chunkCount) {
+		Type returnType = Type.getReturnType(descriptor);
+		int argumentSlots = Type.getArgumentsAndReturnSizes(descriptor) >> 2;
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, descriptor, null, null);
+		mv.visitCode();
+		if (returnType != Type.VOID_TYPE) {
+			mv.visitInsn(ICONST_0);
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			for (int slot = 0; slot < argumentSlots; slot++) {
+				mv.visitVarInsn(ALOAD, slot);
+			}
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, methodName + "$" + i, descriptor, false);
+			if (returnType != Type.VOID_TYPE) {
+				mv.visitInsn(IOR);
+			}
+		}
+		mv.visitInsn(returnType.getOpcode(IRETURN));
+		mv.visitMaxs(argumentSlots + 1, argumentSlots);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Converts the primitive value on the stack to the <code>long</code> that is stored in a {@link FieldSnapshot}
+	 * @param mv
+	 * @param fieldType
+	 */
+	private static void visitConvertToLong(MethodVisitor mv, Class<?> fieldType) {
+		if (fieldType == double.class) {
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "doubleToRawLongBits", "(D)J", false);
+		} else if (fieldType == float.class) {
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false);
+			mv.visitInsn(I2L);
+		} else if (fieldType != long.class) {
+			mv.visitInsn(I2L);
+		}
+	}
+	
+	/**
+	 * Visits <code>diff(Object, FieldSnapshot, BitSet)</code> for some of the fields, which sets the bit of each field
+	 * that changed, and keeps whether any did in a local variable
+	 * @param cw
+	 * @param access
+	 * @param methodName
+	 * @param internalName
+	 * @param clazz
+	 * @param fields
+	 * @param fieldIndices
+	 * @param valueIndices of all the fields
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitDiffMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			List<Integer> fieldIndices,
+			int[] valueIndices,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(access, methodName, DIFF_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitInsn(ICONST_0);
+		mv.visitVarInsn(ISTORE, 4);
+		
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			Class<?> fieldType = field.getType();
+			int fieldNumber = firstFieldNumber + i;
+			Label unchangedLabel = new Label();
+			
+			if (fieldType.isPrimitive()) {
+				visitLoadValues(mv, "getPrimitives", "[J", valueIndices[fieldNumber]);
+				mv.visitInsn(LALOAD);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 1);
+				visitConvertToLong(mv, fieldType);
+				mv.visitInsn(LCMP);
+				mv.visitJumpInsn(IFEQ, unchangedLabel);
+			} else {
+				visitLoadValues(mv, "getReferences", "[Ljava/lang/Object;", valueIndices[fieldNumber]);
+				mv.visitInsn(AALOAD);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 1);
+				mv.visitMethodInsn(
+						INVOKESTATIC,
+						"java/util/Objects",
+						"equals",
+						"(Ljava/lang/Object;Ljava/lang/Object;)Z",
+						false);
+				mv.visitJumpInsn(IFNE, unchangedLabel);
+			}
+			mv.visitVarInsn(ALOAD, 3);
+			AsmUtils.visitZeroOperandInt(mv, fieldIndices.get(i));
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/BitSet", "set", "(I)V", false);
+			mv.visitInsn(ICONST_1);
+			mv.visitVarInsn(ISTORE, 4);
+			
+			mv.visitLabel(unchangedLabel);
+			if (i == 0) {
+				mv.visitFrame(F_APPEND, 1, new Object[] { INTEGER }, 0, null);
+			} else {
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+			}
+		}
+		mv.visitVarInsn(ILOAD, 4);
+		mv.visitInsn(IRETURN);
+		// The snapshot value, and the field value or the accessor and object
+		mv.visitMaxs(4, 5);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Loads the array of values of the snapshot parameter and the index of a value
+	 * @param mv
+	 * @param getterName
+	 * @param arrayDescriptor
+	 * @param valueIndex
+	 */
+	private static void visitLoadValues(MethodVisitor mv, String getterName, String arrayDescriptor, int valueIndex) {
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, FIELD_SNAPSHOT_INTERNAL_NAME, getterName, "()" + arrayDescriptor, false);
+		AsmUtils.visitZeroOperandInt(mv, valueIndex);
+	}
+	
+	/**
+	 * Visits <code>snapshot(Object)</code>, which creates a snapshot with room for the values of the fields then
+	 * captures them
+	 */
+	private static void visitNewSnapshotMethod(
+			ClassWriter cw,
+			String internalName,
+			int primitiveCount,
+			int referenceCount) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"snapshot",
+				"(Ljava/lang/Object;)L" + FIELD_SNAPSHOT_INTERNAL_NAME + ";",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, FIELD_SNAPSHOT_INTERNAL_NAME);
+		mv.visitInsn(DUP);
+		AsmUtils.visitZeroOperandInt(mv, primitiveCount);
+		AsmUtils.visitZeroOperandInt(mv, referenceCount);
+		mv.visitMethodInsn(INVOKESPECIAL, FIELD_SNAPSHOT_INTERNAL_NAME, "<init>", "(II)V", false);
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, internalName, "snapshot", SNAPSHOT_METHOD_DESCRIPTOR, false);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>snapshot(Object, FieldSnapshot)</code> for some of the fields, which stores the value of each
+	 * field in the snapshot
+	 * @param cw
+	 * @param access
+	 * @param methodName
+	 * @param internalName
+	 * @param clazz
+	 * @param fields
+	 * @param valueIndices of all the fields
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitSnapshotMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			int[] valueIndices,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(access, methodName, SNAPSHOT_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			int fieldNumber = firstFieldNumber + i;
+			
+			if (field.getType().isPrimitive()) {
+				visitLoadValues(mv, "getPrimitives", "[J", valueIndices[fieldNumber]);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 1);
+				visitConvertToLong(mv, field.getType());
+				mv.visitInsn(LASTORE);
+			} else {
+				visitLoadValues(mv, "getReferences", "[Ljava/lang/Object;", valueIndices[fieldNumber]);
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, fieldNumber, 1);
+				mv.visitInsn(AASTORE);
+			}
+		}
+		mv.visitInsn(RETURN);
+		// The array and index, and the value or the accessor and object
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	private FieldSnapshotterFactory() {}
+}
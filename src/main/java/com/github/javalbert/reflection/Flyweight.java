@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by the generated views of {@link RecordFile#newView(Class)}, whose getters read their values from a
+ * record in a {@link ByteBuffer} rather than from fields, so that one view can be moved from record to record without
+ * creating objects
+ */
+public interface Flyweight {
+	/**
+	 * Moves the view to the record
+	 * @param buffer
+	 * @param offset of the record in the buffer
+	 */
+	void wrap(ByteBuffer buffer, int offset);
+}
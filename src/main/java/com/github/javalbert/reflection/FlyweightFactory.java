@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates {@link Flyweight} views of the records of a class, which implement an interface or extend a class with a
+ * getter per property that reads the value of the stored field with the same name and type at its offset in the
+ * record
+ */
+final class FlyweightFactory {
+	private static final String BYTE_BUFFER_DESCRIPTOR = Type.getDescriptor(ByteBuffer.class);
+	/**
+	 * Numbers the generated classes, since record classes of other packages or class loaders can have the same name
+	 */
+	private static final AtomicInteger CLASS_NUMBER = new AtomicInteger();
+	/**
+	 * Generated classes by view type, per record class, so that a view type shared by record classes of other class
+	 * loaders does not keep them from being unloaded
+	 */
+	private static final ClassValue<Map<Class<?>, Class<?>>> FLYWEIGHT_CLASSES_VALUE = new ClassValue<Map<Class<?>, Class<?>>>() {
+		@Override
+		protected Map<Class<?>, Class<?>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+	
+	/**
+	 * 
+	 * @param viewType a public interface, or a public class that is not final and has a public or protected
+	 * constructor without parameters
+	 * @param recordClass
+	 * @return a new view that is not on any record, of a class that is generated the first time and cached
+	 * @throws IllegalArgumentException if the view type cannot be extended, or has an abstract method that is not a
+	 * getter of a stored field of the record class
+	 */
+	static <V> V newFlyweight(Class<V> viewType, Class<?> recordClass) {
+		Class<?> flyweightClass = FLYWEIGHT_CLASSES_VALUE.get(recordClass)
+				.computeIfAbsent(viewType, type -> createFlyweightClass(type, recordClass));
+		try {
+			return viewType.cast(flyweightClass.newInstance());
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static Class<?> createFlyweightClass(Class<?> viewType, Class<?> recordClass) {
+		boolean isInterface = viewType.isInterface();
+		if (!isInterface) {
+			if (Modifier.isFinal(viewType.getModifiers())) {
+				throw new IllegalArgumentException(viewType.getName() + " is final, so it cannot be extended by a view");
+			}
+			Constructor<?> constructor = null;
+			try {
+				constructor = viewType.getDeclaredConstructor();
+			} catch (NoSuchMethodException ignored) {}
+			if (constructor == null
+					|| !Modifier.isPublic(constructor.getModifiers()) && !Modifier.isProtected(constructor.getModifiers())) {
+				throw new IllegalArgumentException("No public or protected constructor without parameters in "
+						+ viewType.getName());
+			}
+		}
+		
+		// The first stored field with the name in the order of the field indices, like OffHeapStore.cursor()
+		Map<String, OffHeapStoreFactory.Column> columnsByName = new HashMap<>();
+		for (OffHeapStoreFactory.Column column : OffHeapStoreFactory.get(recordClass).columns) {
+			columnsByName.putIfAbsent(column.field.getName(), column);
+		}
+		List<Method> getters = new ArrayList<>();
+		List<OffHeapStoreFactory.Column> getterColumns = new ArrayList<>();
+		Set<String> getterSignatures = new HashSet<>();
+		for (PropertyDescriptor propertyDescriptor : getPropertyDescriptors(viewType)) {
+			Method getter = propertyDescriptor.getReadMethod();
+			OffHeapStoreFactory.Column column = columnsByName.get(propertyDescriptor.getName());
+			if (getter == null || column == null || column.field.getType() != getter.getReturnType()) {
+				continue;
+			} else if (Modifier.isFinal(getter.getModifiers())) {
+				throw new IllegalArgumentException("Getter " + getter.getName() + " of " + viewType.getName()
+						+ " is final, so it cannot read from a record");
+			}
+			getters.add(getter);
+			getterColumns.add(column);
+			getterSignatures.add(getter.getName() + Type.getMethodDescriptor(getter));
+		}
+		for (Method method : viewType.getMethods()) {
+			if (Modifier.isAbstract(method.getModifiers())
+					&& !getterSignatures.contains(method.getName() + Type.getMethodDescriptor(method))) {
+				throw new IllegalArgumentException("Method " + method.getName() + " of " + viewType.getName()
+						+ " is not a getter of a stored field of " + recordClass.getName());
+			}
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.FooView$com_github_javalbert_reflection_test_FooFlyweight$1
+		String className = viewType.getName() + "$" + recordClass.getName().replace('.', '_') + "Flyweight$"
+				+ CLASS_NUMBER.incrementAndGet();
+		byte[] bytecode = generateFlyweightClass(className.replace('.', '/'), viewType, getters, getterColumns);
+		return AccessClassDefiner.defineClass(viewType, className, bytecode);
+	}
+	
+	private static byte[] generateFlyweightClass(
+			String internalName,
+			Class<?> viewType,
+			List<Method> getters,
+			List<OffHeapStoreFactory.Column> getterColumns) {
+		String viewInternalName = Type.getInternalName(viewType);
+		String superName = viewType.isInterface() ? "java/lang/Object" : viewInternalName;
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				superName,
+				viewType.isInterface()
+						? new String[] { viewInternalName, Type.getInternalName(Flyweight.class) }
+						: new String[] { Type.getInternalName(Flyweight.class) });
+		cw.visitField(ACC_PRIVATE, "buffer", BYTE_BUFFER_DESCRIPTOR, null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE, "offset", "I", null, null).visitEnd();
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+		
+		mv = cw.visitMethod(ACC_PUBLIC, "wrap", "(" + BYTE_BUFFER_DESCRIPTOR + "I)V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, internalName, "buffer", BYTE_BUFFER_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitFieldInsn(PUTFIELD, internalName, "offset", "I");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 3);
+		mv.visitEnd();
+		
+		for (int i = 0; i < getters.size(); i++) {
+			visitGetter(cw, internalName, getters.get(i), getterColumns.get(i));
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * Same as the properties of {@link ClassAccessFactory}
+	 */
+	private static List<PropertyDescriptor> getPropertyDescriptors(Class<?> viewType) {
+		List<PropertyDescriptor> propertyDescriptors = new ArrayList<>();
+		try {
+			for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(viewType).getPropertyDescriptors()) {
+				if (!propertyDescriptor.getName().equals("class")) {
+					propertyDescriptors.add(propertyDescriptor);
+				}
+			}
+		} catch (IntrospectionException e) {
+			throw new RuntimeException(e);
+		}
+		return propertyDescriptors;
+	}
+	
+	/**
+	 * Pushes the buffer, and the offset of the record plus the prefix
+	 */
+	private static void visitBufferAndOffset(MethodVisitor mv, String internalName, int prefix) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, "buffer", BYTE_BUFFER_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, "offset", "I");
+		if (prefix > 0) {
+			AsmUtils.visitZeroOperandInt(mv, prefix);
+			mv.visitInsn(IADD);
+		}
+	}
+	
+	/**
+	 * Visits a getter that returns the value of the column in the record, or <code>null</code> if the column has no
+	 * value in the record
+	 */
+	private static void visitGetter(
+			ClassWriter cw,
+			String internalName,
+			Method getter,
+			OffHeapStoreFactory.Column column) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, getter.getName(), Type.getMethodDescriptor(getter), null, null);
+		mv.visitCode();
+		if (column.isNullable) {
+			Label presentLabel = new Label();
+			visitBufferAndOffset(mv, internalName, column.presencePrefix);
+			OffHeapStoreFactory.visitByteBufferGet(mv, byte.class);
+			mv.visitJumpInsn(IFNE, presentLabel);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitInsn(ARETURN);
+			mv.visitLabel(presentLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+		}
+		OffHeapStoreFactory.visitGetValue(mv, column, () -> visitBufferAndOffset(mv, internalName, column.valuePrefix));
+		mv.visitInsn(Type.getType(getter.getReturnType()).getOpcode(IRETURN));
+		// new Date twice, then the buffer and the operands of the offset
+		mv.visitMaxs(5, 1);
+		mv.visitEnd();
+	}
+	
+	private FlyweightFactory() {}
+}
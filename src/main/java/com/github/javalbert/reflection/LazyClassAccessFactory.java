@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static java.util.Comparator.*;
+import static java.util.stream.Collectors.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.text.WordUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates, once, the {@link ClassAccess} that {@link ClassAccessFactory#getLazy(Class)} returns for every class. It
+ * delegates to the {@link FieldAccess}, {@link PropertyAccess}, {@link MethodAccess} and {@link ConstructorAccess} of
+ * the class, each of which is got from {@link ClassAccessFactory}, and so generated, the first time that one of its
+ * methods is called.
+ */
+final class LazyClassAccessFactory {
+	private static final String CLASS_FIELD_NAME = "clazz";
+	private static final String CLASS_NAME = LazyClassAccessFactory.class.getName() + "$LazyClassAccess";
+	private static final Constructor<?> LAZY_CLASS_ACCESS_CONSTRUCTOR = defineLazyClassAccessClass();
+	@SuppressWarnings("rawtypes")
+	private static final ClassValue<ClassAccess> LAZY_CLASS_ACCESS_VALUE = new ClassValue<ClassAccess>() {
+		@Override
+		protected ClassAccess computeValue(Class<?> type) {
+			if (ClassAccessFactory.isAccessClass(type)) {
+				throw new IllegalArgumentException("should not get class access recursively");
+			}
+			try {
+				return (ClassAccess)LAZY_CLASS_ACCESS_CONSTRUCTOR.newInstance(type);
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the access, which is created the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ClassAccess<T> get(Class<T> clazz) {
+		return LAZY_CLASS_ACCESS_VALUE.get(clazz);
+	}
+	
+	private static Constructor<?> defineLazyClassAccessClass() {
+		byte[] bytecode = generateLazyClassAccessClass(CLASS_NAME.replace('.', '/'));
+		try {
+			return AccessClassDefiner.defineClass(LazyClassAccessFactory.class, CLASS_NAME, bytecode)
+					.getConstructor(Class.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateLazyClassAccessClass(String internalName) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				"java/lang/Object",
+				new String[] { Type.getInternalName(ClassAccess.class) });
+		cw.visitField(ACC_PRIVATE + ACC_FINAL, CLASS_FIELD_NAME, "Ljava/lang/Class;", null, null).visitEnd();
+		visitConstructor(cw, internalName);
+		
+		for (Class<?> delegateType : ClassAccess.class.getInterfaces()) {
+			String delegateName = WordUtils.uncapitalize(delegateType.getSimpleName()); // fieldAccess
+			visitGetDelegateMethod(cw, internalName, delegateType, delegateName);
+			
+			// Sorted so that the same class is generated each time
+			List<Method> methods = Arrays.stream(delegateType.getMethods())
+					.filter(method -> !Modifier.isStatic(method.getModifiers()) && !method.isDefault())
+					.sorted(comparing(method -> method.getName() + Type.getMethodDescriptor(method)))
+					.collect(toList());
+			for (Method method : methods) {
+				visitDelegatingMethod(cw, internalName, method, delegateType, delegateName);
+			}
+		}
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static void visitConstructor(ClassWriter cw, String internalName) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(Ljava/lang/Class;)V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, internalName, CLASS_FIELD_NAME, "Ljava/lang/Class;");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a method that calls the same method of the delegate
+	 * @param cw
+	 * @param internalName
+	 * @param method of the delegate type
+	 * @param delegateType
+	 * @param delegateName
+	 */
+	private static void visitDelegatingMethod(
+			ClassWriter cw,
+			String internalName,
+			Method method,
+			Class<?> delegateType,
+			String delegateName) {
+		String methodDescriptor = Type.getMethodDescriptor(method);
+		
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC + (method.isVarArgs() ? ACC_VARARGS : 0),
+				method.getName(),
+				methodDescriptor,
+				null,
+				null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, internalName, delegateName, "()" + Type.getDescriptor(delegateType), false);
+		int slot = 1;
+		for (Type parameterType : Type.getArgumentTypes(methodDescriptor)) {
+			mv.visitVarInsn(parameterType.getOpcode(ILOAD), slot);
+			slot += parameterType.getSize();
+		}
+		mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(delegateType), method.getName(), methodDescriptor, true);
+		mv.visitInsn(Type.getReturnType(methodDescriptor).getOpcode(IRETURN));
+		// The delegate and the parameters, or a long or double return value
+		mv.visitMaxs(Math.max(slot, 2), slot);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a field with the delegate, and a method that gets it from {@link ClassAccessFactory} the first time
+	 * @param cw
+	 * @param internalName
+	 * @param delegateType e.g. {@link FieldAccess}
+	 * @param delegateName name of the field and the method
+	 */
+	private static void visitGetDelegateMethod(
+			ClassWriter cw,
+			String internalName,
+			Class<?> delegateType,
+			String delegateName) {
+		String delegateTypeDescriptor = Type.getDescriptor(delegateType);
+		cw.visitField(ACC_PRIVATE, delegateName, delegateTypeDescriptor, null, null).visitEnd();
+		
+		// Generated access classes have no state, so a racy read of the field sees either null or a usable delegate
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, delegateName, "()" + delegateTypeDescriptor, null, null);
+		mv.visitCode();
+		Label returnLabel = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, delegateName, delegateTypeDescriptor);
+		mv.visitVarInsn(ASTORE, 1);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitJumpInsn(IFNONNULL, returnLabel);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, CLASS_FIELD_NAME, "Ljava/lang/Class;");
+		mv.visitMethodInsn(
+				INVOKESTATIC,
+				Type.getInternalName(ClassAccessFactory.class),
+				"get" + delegateType.getSimpleName(),
+				"(Ljava/lang/Class;)" + delegateTypeDescriptor,
+				false);
+		mv.visitVarInsn(ASTORE, 1);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, internalName, delegateName, delegateTypeDescriptor);
+		mv.visitLabel(returnLabel);
+		mv.visitFrame(F_APPEND, 1, new Object[] { Type.getInternalName(delegateType) }, 0, null);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+	
+	private LazyClassAccessFactory() {}
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Loads and stores the fields of an object in a row of the columns of an {@link OffHeapStore}, with straight-line code
+ * generated per class. Use it through {@link OffHeapStore}, which checks the row and owns the buffer.
+ * @param <T> the class of the objects
+ */
+public interface OffHeapCodec<T> {
+	/**
+	 * Sets the stored fields of the object to the values in the row
+	 * @param buffer of the store
+	 * @param capacity rows of the store
+	 * @param row
+	 * @param obj
+	 */
+	void load(ByteBuffer buffer, int capacity, int row, T obj);
+	
+	/**
+	 * Writes the values of the stored fields of the object to the row
+	 * @param buffer of the store
+	 * @param capacity rows of the store
+	 * @param row
+	 * @param obj
+	 */
+	void store(ByteBuffer buffer, int capacity, int row, T obj);
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes the values of one column of an {@link OffHeapStore} in place, without loading objects. The getter
+ * and setter of the type of the column must be used, where the column of a primitive wrapper field is of the primitive
+ * type, and a {@link java.time.LocalDate} or {@link java.util.Date} column is a <code>long</code> epoch day or
+ * millisecond.
+ * <p>
+ * A cursor starts before the first row, so that it can be used as
+ * <pre>
+ * while (cursor.next()) {
+ *     sum += cursor.getLong();
+ * }
+ * </pre>
+ * @see OffHeapStore#cursor(String)
+ */
+public final class OffHeapCursor {
+	private final ByteBuffer buffer;
+	private final int capacity;
+	private final String columnName;
+	/**
+	 * Offset of the column of whether a row has a value, or -1 if the type of the column is primitive
+	 */
+	private final int presenceOffset;
+	private int row = -1;
+	private final Class<?> type;
+	private final int valueOffset;
+	private final int width;
+	
+	OffHeapCursor(
+			ByteBuffer buffer,
+			int capacity,
+			String columnName,
+			Class<?> type,
+			int valueOffset,
+			int width,
+			int presenceOffset) {
+		this.buffer = buffer;
+		this.capacity = capacity;
+		this.columnName = columnName;
+		this.presenceOffset = presenceOffset;
+		this.type = type;
+		this.valueOffset = valueOffset;
+		this.width = width;
+	}
+	
+	public boolean getBoolean() {
+		return buffer.get(getValueIndex(boolean.class)) != 0;
+	}
+	
+	public byte getByte() {
+		return buffer.get(getValueIndex(byte.class));
+	}
+	
+	public char getChar() {
+		return buffer.getChar(getValueIndex(char.class));
+	}
+	
+	public double getDouble() {
+		return buffer.getDouble(getValueIndex(double.class));
+	}
+	
+	public float getFloat() {
+		return buffer.getFloat(getValueIndex(float.class));
+	}
+	
+	public int getInt() {
+		return buffer.getInt(getValueIndex(int.class));
+	}
+	
+	public long getLong() {
+		return buffer.getLong(getValueIndex(long.class));
+	}
+	
+	/**
+	 * 
+	 * @return the current row, or -1 before the first row
+	 */
+	public int getRow() {
+		return row;
+	}
+	
+	public short getShort() {
+		return buffer.getShort(getValueIndex(short.class));
+	}
+	
+	/**
+	 * 
+	 * @return primitive type of the values of the column
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+	
+	/**
+	 * 
+	 * @return <code>true</code> if the field of the row is <code>null</code>, which is never the case for a primitive
+	 * field
+	 */
+	public boolean isNull() {
+		checkRow();
+		return presenceOffset >= 0 && buffer.get(presenceOffset + row) == 0;
+	}
+	
+	/**
+	 * Moves to the next row
+	 * @return <code>false</code> if there is no next row
+	 */
+	public boolean next() {
+		if (row + 1 >= capacity) {
+			return false;
+		}
+		row++;
+		return true;
+	}
+	
+	public void setBoolean(boolean x) {
+		buffer.put(setValueIndex(boolean.class), (byte)(x ? 1 : 0));
+	}
+	
+	public void setByte(byte x) {
+		buffer.put(setValueIndex(byte.class), x);
+	}
+	
+	public void setChar(char x) {
+		buffer.putChar(setValueIndex(char.class), x);
+	}
+	
+	public void setDouble(double x) {
+		buffer.putDouble(setValueIndex(double.class), x);
+	}
+	
+	public void setFloat(float x) {
+		buffer.putFloat(setValueIndex(float.class), x);
+	}
+	
+	public void setInt(int x) {
+		buffer.putInt(setValueIndex(int.class), x);
+	}
+	
+	public void setLong(long x) {
+		buffer.putLong(setValueIndex(long.class), x);
+	}
+	
+	/**
+	 * Sets the field of the row to <code>null</code>
+	 * @throws IllegalStateException if the field is primitive
+	 */
+	public void setNull() {
+		checkRow();
+		if (presenceOffset < 0) {
+			throw new IllegalStateException("Column " + columnName + " is of primitive type " + type.getName()
+					+ ", which cannot be null");
+		}
+		buffer.put(presenceOffset + row, (byte)0);
+	}
+	
+	/**
+	 * Moves to the row
+	 * @param row
+	 * @throws IndexOutOfBoundsException if the row is not less than the capacity
+	 */
+	public void setRow(int row) {
+		if (row < 0 || row >= capacity) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not between 0 and capacity " + capacity);
+		}
+		this.row = row;
+	}
+	
+	public void setShort(short x) {
+		buffer.putShort(setValueIndex(short.class), x);
+	}
+	
+	private void checkRow() {
+		if (row < 0) {
+			throw new IllegalStateException("Cursor is before the first row");
+		}
+	}
+	
+	private int getValueIndex(Class<?> valueType) {
+		if (valueType != type) {
+			throw new IllegalStateException("Column " + columnName + " is of type " + type.getName() + ", not "
+					+ valueType.getName());
+		}
+		checkRow();
+		return valueOffset + row * width;
+	}
+	
+	/**
+	 * 
+	 * @return the index of the value of the row, after marking that the row has a value
+	 */
+	private int setValueIndex(Class<?> valueType) {
+		int index = getValueIndex(valueType);
+		if (presenceOffset >= 0) {
+			buffer.put(presenceOffset + row, (byte)1);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores the fields of a fixed number of objects off the heap, in a direct {@link ByteBuffer} with a column per field
+ * rather than an object per row, so that millions of small objects cost neither object headers nor garbage collection.
+ * Objects are only created or filled at the edges, by {@link #load(int, Object)} and {@link #store(int, Object)} with
+ * a generated {@link OffHeapCodec}, and a column can be read or written in place with an {@link OffHeapCursor}.
+ * <p>
+ * The stored fields are those of {@link ClassAccessFactory} that are neither static nor final, and whose types are
+ * primitive, primitive wrappers, {@link java.time.LocalDate} or {@link java.util.Date}. Other fields are neither
+ * stored nor loaded. The values of a row are 0, <code>false</code> or <code>null</code> until it is stored.
+ * <p>
+ * It is not thread-safe, but threads can load and store different rows.
+ * @param <T> the class of the objects
+ */
+public final class OffHeapStore<T> {
+	/**
+	 * 
+	 * @param clazz
+	 * @param capacity number of rows
+	 * @return a store whose memory is freed when it is garbage collected
+	 * @throws IllegalArgumentException if the capacity is negative, or too big for one {@link ByteBuffer}
+	 */
+	public static <T> OffHeapStore<T> allocate(Class<T> clazz, int capacity) {
+		OffHeapStoreFactory.Layout layout = OffHeapStoreFactory.get(clazz);
+		if (capacity < 0 || (long)capacity * layout.rowWidth > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Capacity " + capacity + " of rows of " + layout.rowWidth
+					+ " bytes is not between 0 and " + Integer.MAX_VALUE + " bytes");
+		}
+		return new OffHeapStore<>(clazz, layout, capacity);
+	}
+	
+	private final ByteBuffer buffer;
+	private final int capacity;
+	private final OffHeapCodec<T> codec;
+	private final List<String> columnNames;
+	private final ConstructorAccess<T> constructorAccess;
+	private final OffHeapStoreFactory.Layout layout;
+	
+	@SuppressWarnings("unchecked")
+	private OffHeapStore(Class<T> clazz, OffHeapStoreFactory.Layout layout, int capacity) {
+		this.buffer = ByteBuffer.allocateDirect(capacity * layout.rowWidth).order(ByteOrder.nativeOrder());
+		this.capacity = capacity;
+		this.codec = (OffHeapCodec<T>)layout.codec;
+		this.constructorAccess = ClassAccessFactory.getConstructorAccess(clazz);
+		this.layout = layout;
+		
+		List<String> columnNames = new ArrayList<>();
+		for (OffHeapStoreFactory.Column column : layout.columns) {
+			columnNames.add(column.field.getName());
+		}
+		this.columnNames = Collections.unmodifiableList(columnNames);
+	}
+	
+	/**
+	 * 
+	 * @param fieldName of a stored field, which is the first with the name in the order of the field indices if
+	 * fields are shadowed
+	 * @return a new cursor before the first row of the column of the field
+	 * @throws IllegalArgumentException if no stored field has the name
+	 */
+	public OffHeapCursor cursor(String fieldName) {
+		int position = columnNames.indexOf(fieldName);
+		if (position < 0) {
+			throw new IllegalArgumentException("No stored field with name: " + fieldName);
+		}
+		OffHeapStoreFactory.Column column = layout.columns.get(position);
+		return new OffHeapCursor(
+				buffer,
+				capacity,
+				fieldName,
+				column.storedType,
+				capacity * column.valuePrefix,
+				column.width,
+				column.isNullable ? capacity * column.presencePrefix : -1);
+	}
+	
+	/**
+	 * 
+	 * @return number of rows
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * 
+	 * @return names of the stored fields, in the order of the field indices
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+	
+	/**
+	 * 
+	 * @return bytes per row
+	 */
+	public int getRowWidth() {
+		return layout.rowWidth;
+	}
+	
+	/**
+	 * 
+	 * @param row
+	 * @return a new object, created with the constructor without parameters, whose stored fields are set to the
+	 * values in the row
+	 * @throws IndexOutOfBoundsException if the row is not less than the capacity
+	 * @throws IllegalStateException if the class has no constructor without parameters
+	 */
+	public T load(int row) {
+		T obj = constructorAccess.newInstance();
+		load(row, obj);
+		return obj;
+	}
+	
+	/**
+	 * Sets the stored fields of the object to the values in the row
+	 * @param row
+	 * @param obj
+	 * @throws IndexOutOfBoundsException if the row is not less than the capacity
+	 */
+	public void load(int row, T obj) {
+		checkRow(row);
+		codec.load(buffer, capacity, row, obj);
+	}
+	
+	/**
+	 * Writes the values of the stored fields of the object to the row
+	 * @param row
+	 * @param obj
+	 * @throws IndexOutOfBoundsException if the row is not less than the capacity
+	 */
+	public void store(int row, T obj) {
+		checkRow(row);
+		codec.store(buffer, capacity, row, obj);
+	}
+	
+	/**
+	 * The row must be checked because the buffer does not end with each column
+	 */
+	private void checkRow(int row) {
+		if (row < 0 || row >= capacity) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not between 0 and capacity " + capacity);
+		}
+	}
+}
@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Lays out the fields of a class as the columns of an {@link OffHeapStore}, or the same fields in the same order as a
+ * record of a {@link RecordFile}, and generates the {@link OffHeapCodec} or {@link RecordCodec} with straight-line code
+ * that gets or sets each field and puts or gets its value at its offset in the buffer
+ */
+final class OffHeapStoreFactory {
+	private static final String BYTE_BUFFER_INTERNAL_NAME = Type.getInternalName(ByteBuffer.class);
+	private static final String CODEC_METHOD_DESCRIPTOR = "(L" + BYTE_BUFFER_INTERNAL_NAME + ";IILjava/lang/Object;)V";
+	/**
+	 * Slot of the object in the methods of the {@link OffHeapCodec}, after the buffer, capacity and row
+	 */
+	private static final int CODEC_OBJ_SLOT = 4;
+	private static final ClassValue<Layout> LAYOUT_VALUE = new ClassValue<Layout>() {
+		@Override
+		protected Layout computeValue(Class<?> type) {
+			return createLayout(type);
+		}
+	};
+	/**
+	 * At most about 60 bytes of bytecode per column, so that a method of a class with many fields is split into
+	 * methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_COLUMNS_PER_METHOD = 120;
+	private static final ClassValue<RecordCodec<?>> RECORD_CODEC_VALUE = new ClassValue<RecordCodec<?>>() {
+		@Override
+		protected RecordCodec<?> computeValue(Class<?> type) {
+			return createRecordCodec(type, OffHeapStoreFactory.get(type));
+		}
+	};
+	private static final String RECORD_CODEC_METHOD_DESCRIPTOR = "(L" + BYTE_BUFFER_INTERNAL_NAME + ";ILjava/lang/Object;)V";
+	/**
+	 * Slot of the object in the methods of the {@link RecordCodec}, after the buffer and offset
+	 */
+	private static final int RECORD_CODEC_OBJ_SLOT = 3;
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the layout, which is created the first time and cached
+	 */
+	static Layout get(Class<?> clazz) {
+		return LAYOUT_VALUE.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the codec of records of the layout of the class, which is generated the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RecordCodec<T> getRecordCodec(Class<T> clazz) {
+		return (RecordCodec<T>)RECORD_CODEC_VALUE.get(clazz);
+	}
+	
+	/**
+	 * 
+	 * @param type of a field
+	 * @return the primitive type of the values of fields of the type in their columns, where {@link LocalDate} is
+	 * stored as its epoch day and {@link Date} as its epoch millisecond, or <code>null</code> if the type cannot be
+	 * stored
+	 */
+	static Class<?> getStoredType(Class<?> type) {
+		if (type.isPrimitive()) {
+			return type;
+		} else if (ClassUtils.isPrimitiveWrapper(type)) {
+			return ClassUtils.wrapperToPrimitive(type);
+		} else if (type == Date.class || type == LocalDate.class) {
+			return long.class;
+		}
+		return null;
+	}
+	
+	/**
+	 * 
+	 * @param type primitive
+	 * @return the size in bytes of a value of the type, where a <code>boolean</code> is a byte that is 0 or 1
+	 */
+	static int getWidth(Class<?> type) {
+		if (type == boolean.class || type == byte.class) {
+			return 1;
+		} else if (type == char.class || type == short.class) {
+			return 2;
+		} else if (type == int.class || type == float.class) {
+			return 4;
+		}
+		return 8;
+	}
+	
+	private static Layout createLayout(Class<?> clazz) {
+		List<Field> fields = new ArrayList<>();
+		for (Field field : ClassAccessFactory.getFields(clazz)) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && getStoredType(field.getType()) != null) {
+				fields.add(field);
+			}
+		}
+		
+		List<Column> columns = new ArrayList<>();
+		for (int i = 0; i < fields.size(); i++) {
+			columns.add(new Column(fields.get(i), i));
+		}
+		// Widest first, so that every column starts at a multiple of its width
+		List<Column> columnsByWidth = new ArrayList<>(columns);
+		columnsByWidth.sort(Comparator.comparingInt((Column column) -> column.width).reversed());
+		int rowWidth = 0;
+		for (Column column : columnsByWidth) {
+			column.valuePrefix = rowWidth;
+			rowWidth += column.width;
+		}
+		for (Column column : columns) {
+			if (column.isNullable) {
+				column.presencePrefix = rowWidth;
+				rowWidth++;
+			}
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooOffHeapCodec
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "OffHeapCodec";
+		byte[] bytecode = generateCodecClass(
+				className.replace('.', '/'),
+				clazz,
+				OffHeapCodec.class,
+				new String[] { "load", "store" },
+				fields,
+				columns,
+				false);
+		try {
+			OffHeapCodec<?> codec = (OffHeapCodec<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+			return new Layout(Collections.unmodifiableList(columns), rowWidth, codec);
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static RecordCodec<?> createRecordCodec(Class<?> clazz, Layout layout) {
+		List<Field> fields = new ArrayList<>();
+		for (Column column : layout.columns) {
+			fields.add(column.field);
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooRecordCodec
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "RecordCodec";
+		byte[] bytecode = generateCodecClass(
+				className.replace('.', '/'),
+				clazz,
+				RecordCodec.class,
+				new String[] { "read", "write" },
+				fields,
+				layout.columns,
+				true);
+		try {
+			return (RecordCodec<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param codecType {@link OffHeapCodec} or {@link RecordCodec}
+	 * @param methodNames of the method that sets the fields from the buffer, then of the method that puts them
+	 * @param isRecord whether the columns are at their prefixes after an offset, rather than at the row in columns
+	 * after the prefixes times the capacity
+	 */
+	private static byte[] generateCodecClass(
+			String internalName,
+			Class<?> clazz,
+			Class<?> codecType,
+			String[] methodNames,
+			List<Field> fields,
+			List<Column> columns,
+			boolean isRecord) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(codecType) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, false);
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, true);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		int chunkCount = Math.max(1, (columns.size() + MAX_COLUMNS_PER_METHOD - 1) / MAX_COLUMNS_PER_METHOD);
+		for (int i = 0; i < chunkCount; i++) {
+			List<Column> chunk = columns.subList(
+					i * MAX_COLUMNS_PER_METHOD,
+					Math.min(columns.size(), (i + 1) * MAX_COLUMNS_PER_METHOD));
+			visitLoadColumnsMethod(cw, methodNames[0] + "$" + i, internalName, clazz, chunk, isRecord);
+			visitStoreColumnsMethod(cw, methodNames[1] + "$" + i, internalName, clazz, chunk, isRecord);
+		}
+		visitChunksMethod(cw, methodNames[0], internalName, chunkCount, isRecord);
+		visitChunksMethod(cw, methodNames[1], internalName, chunkCount, isRecord);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param storedType of a value, or <code>byte</code> for whether there is a value
+	 */
+	static void visitByteBufferGet(MethodVisitor mv, Class<?> storedType) {
+		Type valueType = Type.getType(storedType == boolean.class ? byte.class : storedType);
+		mv.visitMethodInsn(
+				INVOKEVIRTUAL,
+				BYTE_BUFFER_INTERNAL_NAME,
+				"get" + getByteBufferTypeName(storedType),
+				"(I)" + valueType.getDescriptor(),
+				false);
+	}
+	
+	private static void visitByteBufferPut(MethodVisitor mv, Class<?> storedType) {
+		Type valueType = Type.getType(storedType == boolean.class ? byte.class : storedType);
+		mv.visitMethodInsn(
+				INVOKEVIRTUAL,
+				BYTE_BUFFER_INTERNAL_NAME,
+				"put" + getByteBufferTypeName(storedType),
+				"(I" + valueType.getDescriptor() + ")L" + BYTE_BUFFER_INTERNAL_NAME + ";",
+				false);
+		mv.visitInsn(POP);
+	}
+	
+	private static String getByteBufferTypeName(Class<?> storedType) {
+		return storedType == boolean.class || storedType == byte.class ? "" : StringUtils.capitalize(storedType.getName());
+	}
+	
+	/**
+	 * Visits a public method like <code>load</code> that calls the chunk methods in order
+	 */
+	private static void visitChunksMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			int chunkCount,
+			boolean isRecord) {
+		String descriptor = isRecord ? RECORD_CODEC_METHOD_DESCRIPTOR : CODEC_METHOD_DESCRIPTOR;
+		int objSlot = isRecord ? RECORD_CODEC_OBJ_SLOT : CODEC_OBJ_SLOT;
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, descriptor, null, null);
+		mv.visitCode();
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			for (int slot = 2; slot < objSlot; slot++) {
+				mv.visitVarInsn(ILOAD, slot);
+			}
+			mv.visitVarInsn(ALOAD, objSlot);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, methodName + "$" + i, descriptor, false);
+		}
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(objSlot + 1, objSlot + 1);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Pushes the value of the column, converted to the type of its field e.g. a {@link LocalDate} from its epoch day
+	 * @param visitBufferAndOffset pushes the buffer and the offset of the value
+	 */
+	static void visitGetValue(MethodVisitor mv, Column column, Runnable visitBufferAndOffset) {
+		Class<?> fieldType = column.field.getType();
+		if (fieldType == Date.class) {
+			mv.visitTypeInsn(NEW, "java/util/Date");
+			mv.visitInsn(DUP);
+		}
+		visitBufferAndOffset.run();
+		visitByteBufferGet(mv, column.storedType);
+		if (fieldType == Date.class) {
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/Date", "<init>", "(J)V", false);
+		} else if (fieldType == LocalDate.class) {
+			mv.visitMethodInsn(INVOKESTATIC, "java/time/LocalDate", "ofEpochDay", "(J)Ljava/time/LocalDate;", false);
+		} else if (!fieldType.isPrimitive()) {
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(fieldType),
+					"valueOf",
+					"(" + Type.getDescriptor(column.storedType) + ")" + Type.getDescriptor(fieldType),
+					false);
+		}
+	}
+	
+	/**
+	 * Visits a private method like <code>load$k(ByteBuffer, int, int, Object)</code> for some of the columns, which sets
+	 * each field to its value in the row, or to <code>null</code> if its column has no value in the row
+	 */
+	private static void visitLoadColumnsMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Column> columns,
+			boolean isRecord) {
+		int objSlot = isRecord ? RECORD_CODEC_OBJ_SLOT : CODEC_OBJ_SLOT;
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE,
+				methodName,
+				isRecord ? RECORD_CODEC_METHOD_DESCRIPTOR : CODEC_METHOD_DESCRIPTOR,
+				null,
+				null);
+		mv.visitCode();
+		for (Column column : columns) {
+			Field field = column.field;
+			Label nextColumnLabel = new Label();
+			if (column.isNullable) {
+				Label presentLabel = new Label();
+				mv.visitVarInsn(ALOAD, 1);
+				visitOffset(mv, column.presencePrefix, 1, isRecord);
+				visitByteBufferGet(mv, byte.class);
+				mv.visitJumpInsn(IFNE, presentLabel);
+				FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, column.fieldNumber, objSlot);
+				mv.visitInsn(ACONST_NULL);
+				FieldInstructions.visitSetField(mv, clazz, field);
+				mv.visitJumpInsn(GOTO, nextColumnLabel);
+				mv.visitLabel(presentLabel);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+			}
+			
+			FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, column.fieldNumber, objSlot);
+			visitGetValue(mv, column, () -> {
+				mv.visitVarInsn(ALOAD, 1);
+				visitOffset(mv, column.valuePrefix, column.width, isRecord);
+			});
+			FieldInstructions.visitSetField(mv, clazz, field);
+			
+			if (column.isNullable) {
+				mv.visitLabel(nextColumnLabel);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+			}
+		}
+		mv.visitInsn(RETURN);
+		// The setter, object, new Date twice, buffer and the operands of the offset
+		mv.visitMaxs(8, objSlot + 1);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Pushes <code>capacity * prefix + row * width</code>, the offset of the row in a column that starts after
+	 * <code>prefix</code> bytes per row of other columns, or <code>offset + prefix</code> in a record
+	 */
+	private static void visitOffset(MethodVisitor mv, int prefix, int width, boolean isRecord) {
+		if (isRecord) {
+			mv.visitVarInsn(ILOAD, 2);
+			if (prefix > 0) {
+				AsmUtils.visitZeroOperandInt(mv, prefix);
+				mv.visitInsn(IADD);
+			}
+			return;
+		}
+		mv.visitVarInsn(ILOAD, 2);
+		AsmUtils.visitZeroOperandInt(mv, prefix);
+		mv.visitInsn(IMUL);
+		mv.visitVarInsn(ILOAD, 3);
+		if (width > 1) {
+			AsmUtils.visitZeroOperandInt(mv, width);
+			mv.visitInsn(IMUL);
+		}
+		mv.visitInsn(IADD);
+	}
+	
+	/**
+	 * Visits a private method like <code>store$k(ByteBuffer, int, int, Object)</code> for some of the columns, which puts
+	 * the value of each field in the row, and whether it is <code>null</code> if its type is not primitive
+	 */
+	private static void visitStoreColumnsMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Column> columns,
+			boolean isRecord) {
+		int objSlot = isRecord ? RECORD_CODEC_OBJ_SLOT : CODEC_OBJ_SLOT;
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE,
+				methodName,
+				isRecord ? RECORD_CODEC_METHOD_DESCRIPTOR : CODEC_METHOD_DESCRIPTOR,
+				null,
+				null);
+		mv.visitCode();
+		for (Column column : columns) {
+			Field field = column.field;
+			Class<?> fieldType = field.getType();
+			Label nextColumnLabel = new Label();
+			if (column.isNullable) {
+				Label presentLabel = new Label();
+				FieldInstructions.visitGetField(mv, internalName, clazz, field, column.fieldNumber, objSlot);
+				mv.visitJumpInsn(IFNONNULL, presentLabel);
+				mv.visitVarInsn(ALOAD, 1);
+				visitOffset(mv, column.presencePrefix, 1, isRecord);
+				mv.visitInsn(ICONST_0);
+				visitByteBufferPut(mv, byte.class);
+				mv.visitJumpInsn(GOTO, nextColumnLabel);
+				mv.visitLabel(presentLabel);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+				mv.visitVarInsn(ALOAD, 1);
+				visitOffset(mv, column.presencePrefix, 1, isRecord);
+				mv.visitInsn(ICONST_1);
+				visitByteBufferPut(mv, byte.class);
+			}
+			
+			mv.visitVarInsn(ALOAD, 1);
+			visitOffset(mv, column.valuePrefix, column.width, isRecord);
+			FieldInstructions.visitGetField(mv, internalName, clazz, field, column.fieldNumber, objSlot);
+			if (!fieldType.isPrimitive()) {
+				if (!AccessClassDefiner.canAccessDirectly(clazz, field)) {
+					mv.visitTypeInsn(CHECKCAST, Type.getInternalName(fieldType));
+				}
+				if (fieldType == Date.class) {
+					mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/Date", "getTime", "()J", false);
+				} else if (fieldType == LocalDate.class) {
+					mv.visitMethodInsn(INVOKEVIRTUAL, "java/time/LocalDate", "toEpochDay", "()J", false);
+				} else {
+					mv.visitMethodInsn(
+							INVOKEVIRTUAL,
+							Type.getInternalName(fieldType),
+							column.storedType.getName() + "Value",
+							"()" + Type.getDescriptor(column.storedType),
+							false);
+				}
+			}
+			visitByteBufferPut(mv, column.storedType);
+			
+			if (column.isNullable) {
+				mv.visitLabel(nextColumnLabel);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+			}
+		}
+		mv.visitInsn(RETURN);
+		// The buffer, offset and a long or double value, or the getter and object
+		mv.visitMaxs(4, objSlot + 1);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * A field stored in a column of values, and a column of bytes that are 1 if it has a value if it is not primitive
+	 */
+	static final class Column {
+		final Field field;
+		/**
+		 * Position of the field in the stored fields, in the order of the field indices
+		 */
+		final int fieldNumber;
+		final boolean isNullable;
+		/**
+		 * Bytes per row of the columns before the column of values, or of whether there is a value
+		 */
+		int presencePrefix = -1;
+		final Class<?> storedType;
+		int valuePrefix;
+		final int width;
+		
+		private Column(Field field, int fieldNumber) {
+			this.field = field;
+			this.fieldNumber = fieldNumber;
+			isNullable = !field.getType().isPrimitive();
+			storedType = getStoredType(field.getType());
+			width = getWidth(storedType);
+		}
+	}
+	
+	/**
+	 * The columns of the stored fields of a class, which take {@link #rowWidth} bytes per row in total
+	 */
+	static final class Layout {
+		final OffHeapCodec<?> codec;
+		/**
+		 * In the order of the field indices
+		 */
+		final List<Column> columns;
+		final int rowWidth;
+		
+		private Layout(List<Column> columns, int rowWidth, OffHeapCodec<?> codec) {
+			this.codec = codec;
+			this.columns = columns;
+			this.rowWidth = rowWidth;
+		}
+	}
+	
+	private OffHeapStoreFactory() {}
+}
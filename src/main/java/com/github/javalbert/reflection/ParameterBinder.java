@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Binds properties of an object, in a certain order, to the parameters of a {@link PreparedStatement}, calling the
+ * getter of each property and the <code>PreparedStatement</code> setter for its type, e.g.
+ * {@link PreparedStatement#setLong(int, long)}, without boxing
+ * @param <T> the class of the objects
+ * @see ClassAccessFactory#getParameterBinder(Class, String...)
+ */
+public interface ParameterBinder<T> {
+	/**
+	 * Sets the parameters starting from the first one to the values of the properties
+	 * @param obj
+	 * @param ps
+	 * @throws SQLException
+	 */
+	void bind(T obj, PreparedStatement ps) throws SQLException;
+	
+	/**
+	 * Binds each object then adds the parameters to the batch of commands of the statement with
+	 * {@link PreparedStatement#addBatch()}
+	 * @param objs
+	 * @param ps
+	 * @throws SQLException
+	 */
+	void bindAll(List<? extends T> objs, PreparedStatement ps) throws SQLException;
+}
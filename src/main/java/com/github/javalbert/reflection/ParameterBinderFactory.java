@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link ParameterBinder} per class and list of properties
+ */
+final class ParameterBinderFactory {
+	private static final ClassValue<ConcurrentMap<List<String>, ParameterBinder<?>>> BINDERS_VALUE =
+			new ClassValue<ConcurrentMap<List<String>, ParameterBinder<?>>>() {
+				@Override
+				protected ConcurrentMap<List<String>, ParameterBinder<?>> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	private static final String BIND_METHOD_DESCRIPTOR;
+	private static final AtomicInteger CLASS_NUMBER = new AtomicInteger();
+	/**
+	 * At most about 20 bytes of bytecode per parameter, so that <code>bind()</code> of many parameters is split into
+	 * methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_PARAMETERS_PER_METHOD = 300;
+	/**
+	 * SQL type of <code>null</code> values of each property type that needs a helper method
+	 */
+	private static final Map<Class<?>, Integer> NULL_SQL_TYPES;
+	private static final String PREPARED_STATEMENT_INTERNAL_NAME = Type.getInternalName(PreparedStatement.class);
+	/**
+	 * {@link PreparedStatement} setter of each property type that one can be called for directly
+	 */
+	private static final Map<Class<?>, Method> PREPARED_STATEMENT_SETTERS;
+	
+	static {
+		BIND_METHOD_DESCRIPTOR = "(Ljava/lang/Object;L" + PREPARED_STATEMENT_INTERNAL_NAME + ";)V";
+		
+		Map<Class<?>, Integer> nullSqlTypes = new HashMap<>();
+		nullSqlTypes.put(Boolean.class, Types.BOOLEAN);
+		nullSqlTypes.put(Byte.class, Types.TINYINT);
+		nullSqlTypes.put(Character.class, Types.CHAR);
+		nullSqlTypes.put(Date.class, Types.TIMESTAMP);
+		nullSqlTypes.put(Double.class, Types.DOUBLE);
+		nullSqlTypes.put(Float.class, Types.REAL);
+		nullSqlTypes.put(Integer.class, Types.INTEGER);
+		nullSqlTypes.put(LocalDate.class, Types.DATE);
+		nullSqlTypes.put(LocalDateTime.class, Types.TIMESTAMP);
+		nullSqlTypes.put(Long.class, Types.BIGINT);
+		nullSqlTypes.put(Short.class, Types.SMALLINT);
+		NULL_SQL_TYPES = Collections.unmodifiableMap(nullSqlTypes);
+		
+		Map<Class<?>, String> setterNames = new LinkedHashMap<>();
+		setterNames.put(boolean.class, "setBoolean");
+		setterNames.put(byte.class, "setByte");
+		setterNames.put(double.class, "setDouble");
+		setterNames.put(float.class, "setFloat");
+		setterNames.put(int.class, "setInt");
+		setterNames.put(long.class, "setLong");
+		setterNames.put(short.class, "setShort");
+		setterNames.put(BigDecimal.class, "setBigDecimal");
+		setterNames.put(byte[].class, "setBytes");
+		setterNames.put(java.sql.Date.class, "setDate");
+		setterNames.put(String.class, "setString");
+		setterNames.put(Time.class, "setTime");
+		setterNames.put(Timestamp.class, "setTimestamp");
+		
+		Map<Class<?>, Method> setters = new HashMap<>();
+		setterNames.forEach((type, setterName) -> setters.put(type, getPreparedStatementSetter(setterName, type)));
+		PREPARED_STATEMENT_SETTERS = Collections.unmodifiableMap(setters);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param propertyNames
+	 * @return the binder, which is generated the first time and cached
+	 * @throws IllegalArgumentException if there is no property with a name, or a property has no getter
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ParameterBinder<T> get(Class<T> clazz, String... propertyNames) {
+		List<String> key = Collections.unmodifiableList(Arrays.asList(propertyNames.clone()));
+		return (ParameterBinder<T>)BINDERS_VALUE.get(clazz).computeIfAbsent(
+				key,
+				k -> createBinder(clazz, getReadMethods(clazz, key)));
+	}
+	
+	private static ParameterBinder<?> createBinder(Class<?> clazz, List<Method> readMethods) {
+		// e.g. com.github.javalbert.reflection.test.Foo$FooParameterBinder$1
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "ParameterBinder$"
+				+ CLASS_NUMBER.incrementAndGet();
+		byte[] bytecode = generateBinderClass(className.replace('.', '/'), clazz, readMethods);
+		try {
+			return (ParameterBinder<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateBinderClass(String internalName, Class<?> clazz, List<Method> readMethods) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(ParameterBinder.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		Map<String, Class<?>> helperParameterTypes = new LinkedHashMap<>();
+		int chunkCount = Math.max(1, (readMethods.size() + MAX_PARAMETERS_PER_METHOD - 1) / MAX_PARAMETERS_PER_METHOD);
+		if (chunkCount == 1) {
+			visitBindMethod(cw, ACC_PUBLIC, "bind", internalName, clazz, readMethods, 0, helperParameterTypes);
+		} else {
+			for (int i = 0; i < chunkCount; i++) {
+				int from = i * MAX_PARAMETERS_PER_METHOD;
+				int to = Math.min(readMethods.size(), from + MAX_PARAMETERS_PER_METHOD);
+				visitBindMethod(
+						cw,
+						ACC_PRIVATE,
+						"bind$" + i,
+						internalName,
+						clazz,
+						readMethods.subList(from, to),
+						from,
+						helperParameterTypes);
+			}
+			
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "bind", BIND_METHOD_DESCRIPTOR, null, null);
+			mv.visitCode();
+			for (int i = 0; i < chunkCount; i++) {
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitMethodInsn(INVOKESPECIAL, internalName, "bind$" + i, BIND_METHOD_DESCRIPTOR, false);
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(3, 3);
+			mv.visitEnd();
+		}
+		helperParameterTypes.forEach((helperName, parameterType) -> visitHelperMethod(cw, helperName, parameterType));
+		visitBindAllMethod(cw, internalName);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static Method getPreparedStatementSetter(String setterName, Class<?> parameterType) {
+		try {
+			return PreparedStatement.class.getMethod(setterName, int.class, parameterType);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static List<Method> getReadMethods(Class<?> clazz, List<String> propertyNames) {
+		Map<String, PropertyDescriptor> propertyDescriptorsByName = new HashMap<>();
+		try {
+			for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(clazz).getPropertyDescriptors()) {
+				propertyDescriptorsByName.put(propertyDescriptor.getName(), propertyDescriptor);
+			}
+		} catch (IntrospectionException e) {
+			throw new RuntimeException(e);
+		}
+		
+		List<Method> readMethods = new ArrayList<>(propertyNames.size());
+		for (String propertyName : propertyNames) {
+			PropertyDescriptor propertyDescriptor = propertyDescriptorsByName.get(propertyName);
+			if (propertyDescriptor == null || propertyName.equals("class")) {
+				throw new IllegalArgumentException("No property with name: " + propertyName);
+			} else if (propertyDescriptor.getReadMethod() == null) {
+				throw new IllegalArgumentException("Property " + propertyName + " has no getter");
+			}
+			readMethods.add(propertyDescriptor.getReadMethod());
+		}
+		return readMethods;
+	}
+	
+	/**
+	 * Visits <code>bindAll(List, PreparedStatement)</code>, which is generated rather than a default method so that
+	 * its call of <code>bind()</code> is monomorphic
+	 */
+	private static void visitBindAllMethod(ClassWriter cw, String internalName) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"bindAll",
+				"(Ljava/util/List;L" + PREPARED_STATEMENT_INTERNAL_NAME + ";)V",
+				null,
+				new String[] { "java/sql/SQLException" });
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "iterator", "()Ljava/util/Iterator;", true);
+		mv.visitVarInsn(ASTORE, 3);
+		
+		Label loopLabel = new Label();
+		Label endLabel = new Label();
+		mv.visitLabel(loopLabel);
+		mv.visitFrame(F_APPEND, 1, new Object[] { "java/util/Iterator" }, 0, null);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, endLabel);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, internalName, "bind", BIND_METHOD_DESCRIPTOR, false);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEINTERFACE, PREPARED_STATEMENT_INTERNAL_NAME, "addBatch", "()V", true);
+		mv.visitJumpInsn(GOTO, loopLabel);
+		
+		mv.visitLabel(endLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 4);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>bind(Object, PreparedStatement)</code> for some of the parameters, which calls the getter of each
+	 * property and sets its parameter
+	 * @param cw
+	 * @param access
+	 * @param methodName
+	 * @param internalName
+	 * @param clazz
+	 * @param readMethods
+	 * @param firstParameterOffset number of parameters before the first of <code>readMethods</code>
+	 * @param helperParameterTypes
+	 */
+	private static void visitBindMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Method> readMethods,
+			int firstParameterOffset,
+			Map<String, Class<?>> helperParameterTypes) {
+		MethodVisitor mv = cw.visitMethod(
+				access,
+				methodName,
+				BIND_METHOD_DESCRIPTOR,
+				null,
+				new String[] { "java/sql/SQLException" });
+		mv.visitCode();
+		String classInternalName = Type.getInternalName(clazz);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, classInternalName);
+		mv.visitVarInsn(ASTORE, 3);
+		
+		for (int i = 0; i < readMethods.size(); i++) {
+			Method readMethod = readMethods.get(i);
+			
+			mv.visitVarInsn(ALOAD, 2);
+			AsmUtils.visitZeroOperandInt(mv, firstParameterOffset + i + 1);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitMethodInsn(
+					clazz.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+					classInternalName,
+					readMethod.getName(),
+					Type.getMethodDescriptor(readMethod),
+					clazz.isInterface());
+			visitSetParameter(mv, internalName, readMethod.getReturnType(), helperParameterTypes);
+		}
+		mv.visitInsn(RETURN);
+		// The PreparedStatement, parameter index and value
+		mv.visitMaxs(4, 4);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a private static helper method that sets a parameter to a value of a type that needs a
+	 * <code>null</code> check or a conversion
+	 * @param cw
+	 * @param helperName
+	 * @param parameterType primitive wrapper type, {@link Date}, {@link LocalDate} or {@link LocalDateTime}
+	 */
+	private static void visitHelperMethod(ClassWriter cw, String helperName, Class<?> parameterType) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE + ACC_STATIC,
+				helperName,
+				"(L" + PREPARED_STATEMENT_INTERNAL_NAME + ";I" + Type.getDescriptor(parameterType) + ")V",
+				null,
+				null);
+		mv.visitCode();
+		Label notNullLabel = new Label();
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitJumpInsn(IFNONNULL, notNullLabel);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		AsmUtils.visitZeroOperandInt(mv, NULL_SQL_TYPES.get(parameterType));
+		mv.visitMethodInsn(INVOKEINTERFACE, PREPARED_STATEMENT_INTERNAL_NAME, "setNull", "(II)V", true);
+		mv.visitInsn(RETURN);
+		
+		mv.visitLabel(notNullLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		String timestampInternalName = Type.getInternalName(Timestamp.class);
+		if (parameterType == Date.class) {
+			// A Timestamp as is, so that its nanoseconds are kept
+			Label notTimestampLabel = new Label();
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(INSTANCEOF, timestampInternalName);
+			mv.visitJumpInsn(IFEQ, notTimestampLabel);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ILOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, timestampInternalName);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(Timestamp.class));
+			mv.visitInsn(RETURN);
+			
+			mv.visitLabel(notTimestampLabel);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+		}
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		
+		if (parameterType == Date.class) {
+			mv.visitTypeInsn(NEW, timestampInternalName);
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/Date", "getTime", "()J", false);
+			mv.visitMethodInsn(INVOKESPECIAL, timestampInternalName, "<init>", "(J)V", false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(Timestamp.class));
+		} else if (parameterType == LocalDate.class) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					"java/sql/Date",
+					"valueOf",
+					"(Ljava/time/LocalDate;)Ljava/sql/Date;",
+					false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(java.sql.Date.class));
+		} else if (parameterType == LocalDateTime.class) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					timestampInternalName,
+					"valueOf",
+					"(Ljava/time/LocalDateTime;)L" + timestampInternalName + ";",
+					false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(Timestamp.class));
+		} else if (parameterType == Character.class) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Character", "toString", "()Ljava/lang/String;", false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(String.class));
+		} else {
+			// The unboxed value
+			Class<?> primitiveType = ClassUtils.wrapperToPrimitive(parameterType);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					Type.getInternalName(parameterType),
+					primitiveType.getName() + "Value",
+					"()" + Type.getDescriptor(primitiveType),
+					false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(primitiveType));
+		}
+		mv.visitInsn(RETURN);
+		// The PreparedStatement, parameter index, new Timestamp twice and the long of Date.getTime()
+		mv.visitMaxs(6, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Sets the parameter, whose value, index and {@link PreparedStatement} are on the stack, by calling the
+	 * <code>PreparedStatement</code> setter for the type of the value, a helper method of the generated class for a
+	 * type that needs a <code>null</code> check or conversion, or otherwise
+	 * {@link PreparedStatement#setObject(int, Object)}
+	 * @param mv
+	 * @param internalName
+	 * @param valueType
+	 * @param helperParameterTypes where the helper method that is called is added
+	 */
+	private static void visitSetParameter(
+			MethodVisitor mv,
+			String internalName,
+			Class<?> valueType,
+			Map<String, Class<?>> helperParameterTypes) {
+		Method setter = PREPARED_STATEMENT_SETTERS.get(valueType);
+		if (setter != null) {
+			visitSetter(mv, setter);
+		} else if (valueType == char.class) {
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/String", "valueOf", "(C)Ljava/lang/String;", false);
+			visitSetter(mv, PREPARED_STATEMENT_SETTERS.get(String.class));
+		} else if (NULL_SQL_TYPES.containsKey(valueType)) {
+			// e.g. setBoxedInt, setDate, setLocalDate
+			String helperName = "set" + (ClassUtils.isPrimitiveWrapper(valueType)
+					? "Boxed" + StringUtils.capitalize(ClassUtils.wrapperToPrimitive(valueType).getName())
+					: valueType.getSimpleName());
+			helperParameterTypes.put(helperName, valueType);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					internalName,
+					helperName,
+					"(L" + PREPARED_STATEMENT_INTERNAL_NAME + ";I" + Type.getDescriptor(valueType) + ")V",
+					false);
+		} else {
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					PREPARED_STATEMENT_INTERNAL_NAME,
+					"setObject",
+					"(ILjava/lang/Object;)V",
+					true);
+		}
+	}
+	
+	private static void visitSetter(MethodVisitor mv, Method setter) {
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				PREPARED_STATEMENT_INTERNAL_NAME,
+				setter.getName(),
+				Type.getMethodDescriptor(setter),
+				true);
+	}
+	
+	private ParameterBinderFactory() {}
+}
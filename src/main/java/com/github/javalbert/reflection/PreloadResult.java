@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of {@link ClassAccessFactory#preload(java.util.Collection)}, with the time spent getting the
+ * {@link ClassAccess}, or the accesses of the types that were given, of each class
+ */
+public final class PreloadResult {
+	private final Map<Class<?>, Throwable> failures;
+	private final Map<Class<?>, Long> generationNanos;
+	
+	/**
+	 * 
+	 * @return classes whose access could not be generated, mapped to the error that occurred
+	 */
+	public Map<Class<?>, Throwable> getFailures() {
+		return failures;
+	}
+	
+	/**
+	 * 
+	 * @return successfully preloaded classes in the order they were given, mapped to the nanoseconds taken to get
+	 * their access (close to zero when it was already generated)
+	 */
+	public Map<Class<?>, Long> getGenerationNanos() {
+		return generationNanos;
+	}
+	
+	/**
+	 * 
+	 * @return the sum of {@link #getGenerationNanos()}, which exceeds the elapsed time when classes were
+	 * generated in parallel
+	 */
+	public long getTotalGenerationNanos() {
+		return generationNanos.values().stream()
+				.mapToLong(Long::longValue)
+				.sum();
+	}
+	
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+	
+	PreloadResult(Map<Class<?>, Long> generationNanos, Map<Class<?>, Throwable> failures) {
+		this.failures = Collections.unmodifiableMap(failures);
+		this.generationNanos = Collections.unmodifiableMap(generationNanos);
+	}
+}
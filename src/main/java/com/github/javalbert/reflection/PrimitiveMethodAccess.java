@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+/**
+ * {@link MethodAccess} that also calls methods without boxing, if their parameter types are exactly those of the call,
+ * and their return type is that of the call. <code>callVoid()</code> calls methods of any return type and discards
+ * the return value. It is generated separately from {@link ClassAccess}, so that the access to the other members does
+ * not carry these methods.
+ * @param <T> the class of the objects
+ * @see ClassAccessFactory#getPrimitiveMethodAccess(Class)
+ */
+public interface PrimitiveMethodAccess<T> extends MethodAccess<T> {
+	boolean callBoolean(T obj, int methodIndex);
+	boolean callBoolean(T obj, int methodIndex, int arg0);
+	boolean callBoolean(T obj, int methodIndex, long arg0);
+	boolean callBoolean(T obj, int methodIndex, double arg0);
+	boolean callBoolean(T obj, int methodIndex, int arg0, int arg1);
+	boolean callBoolean(T obj, int methodIndex, long arg0, long arg1);
+	boolean callBoolean(T obj, int methodIndex, double arg0, double arg1);
+	double callDouble(T obj, int methodIndex);
+	double callDouble(T obj, int methodIndex, int arg0);
+	double callDouble(T obj, int methodIndex, long arg0);
+	double callDouble(T obj, int methodIndex, double arg0);
+	double callDouble(T obj, int methodIndex, int arg0, int arg1);
+	double callDouble(T obj, int methodIndex, long arg0, long arg1);
+	double callDouble(T obj, int methodIndex, double arg0, double arg1);
+	int callInt(T obj, int methodIndex);
+	int callInt(T obj, int methodIndex, int arg0);
+	int callInt(T obj, int methodIndex, long arg0);
+	int callInt(T obj, int methodIndex, double arg0);
+	int callInt(T obj, int methodIndex, int arg0, int arg1);
+	int callInt(T obj, int methodIndex, long arg0, long arg1);
+	int callInt(T obj, int methodIndex, double arg0, double arg1);
+	long callLong(T obj, int methodIndex);
+	long callLong(T obj, int methodIndex, int arg0);
+	long callLong(T obj, int methodIndex, long arg0);
+	long callLong(T obj, int methodIndex, double arg0);
+	long callLong(T obj, int methodIndex, int arg0, int arg1);
+	long callLong(T obj, int methodIndex, long arg0, long arg1);
+	long callLong(T obj, int methodIndex, double arg0, double arg1);
+	void callVoid(T obj, int methodIndex);
+	void callVoid(T obj, int methodIndex, int arg0);
+	void callVoid(T obj, int methodIndex, long arg0);
+	void callVoid(T obj, int methodIndex, double arg0);
+	void callVoid(T obj, int methodIndex, int arg0, int arg1);
+	void callVoid(T obj, int methodIndex, long arg0, long arg1);
+	void callVoid(T obj, int methodIndex, double arg0, double arg1);
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes the fields of an object in a fixed-width record of a {@link RecordFile}, with straight-line code
+ * generated per class. The fields are laid out like a row of an {@link OffHeapStore}, but next to each other.
+ * @param <T> the class of the objects
+ */
+public interface RecordCodec<T> {
+	/**
+	 * Sets the stored fields of the object to the values in the record
+	 * @param buffer
+	 * @param offset of the record in the buffer
+	 * @param obj
+	 */
+	void read(ByteBuffer buffer, int offset, T obj);
+	
+	/**
+	 * Writes the values of the stored fields of the object to the record
+	 * @param buffer
+	 * @param offset of the record in the buffer
+	 * @param obj
+	 */
+	void write(ByteBuffer buffer, int offset, T obj);
+}
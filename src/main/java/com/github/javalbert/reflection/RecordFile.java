@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file of fixed-width records of the fields of objects of a class, which is read through memory mapped regions, so
+ * that opening it costs no deserialization, and {@link #get(long, Object)} sets the fields of an object straight from
+ * the mapped bytes of its record with a generated {@link RecordCodec}.
+ * <p>
+ * The stored fields, and their widths, are those of an {@link OffHeapStore}. A record has the values of the fields in
+ * the order of the columns of a row of an {@link OffHeapStore}, widest first, then a byte per field that is not
+ * primitive that is 1 if it has a value, padded to a multiple of the widest value. The file starts with a header of
+ * {@value #HEADER_SIZE} bytes that has the fingerprint of the stored fields, the width of a record and the number of
+ * records. Values are little-endian, which is the native order of most platforms.
+ * <p>
+ * Records can also be read without creating or setting objects through a view from {@link #newView(Class)}, whose
+ * getters read straight from the record it is on.
+ * <p>
+ * It is thread-safe, as the mapped regions are only read with absolute positions.
+ * @param <T> the class of the objects
+ */
+public final class RecordFile<T> {
+	/**
+	 * Version of the format of the header and records, which is part of the fingerprint
+	 */
+	public static final int FORMAT_VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	/**
+	 * "FTRF" in ASCII
+	 */
+	private static final int MAGIC = 0x46545246;
+	/**
+	 * Largest region of the file that is mapped at once, which is the most that a {@link ByteBuffer} can have
+	 */
+	private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+	/**
+	 * Bytes of records that are written to the file at once
+	 */
+	private static final int WRITE_BLOCK_SIZE = 64 * 1024;
+	
+	/**
+	 * Maps the records of a file written by {@link #write(Path, Class, Iterable)}. The file can be closed, or
+	 * changed by other processes, but not truncated, while the regions are mapped.
+	 * @param path
+	 * @param clazz
+	 * @return a record file whose mapped regions are unmapped when it is garbage collected
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the class has no stored fields
+	 * @throws IllegalStateException if the file is not a record file of the stored fields of the class, or has fewer
+	 * records than its header says
+	 */
+	public static <T> RecordFile<T> open(Path path, Class<T> clazz) throws IOException {
+		OffHeapStoreFactory.Layout layout = OffHeapStoreFactory.get(clazz);
+		int recordWidth = getRecordWidth(clazz, layout);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					break;
+				}
+			}
+			if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+				throw new IllegalStateException("File " + path + " is not a record file");
+			}
+			// The fingerprint has the version of the format, and the fields that determine the width of a record
+			FieldSerialization.checkFingerprint(header.getLong(8), getFingerprint(clazz, layout), clazz.getName());
+			long size = header.getLong(24);
+			if (size < 0L || channel.size() - HEADER_SIZE < size * recordWidth) {
+				throw new IllegalStateException("File " + path + " has fewer than the " + size + " records of "
+						+ recordWidth + " bytes in its header");
+			}
+			
+			int recordsPerRegion = (int)(MAX_MAPPED_SIZE / recordWidth);
+			ByteBuffer[] regions = new ByteBuffer[(int)((size + recordsPerRegion - 1) / recordsPerRegion)];
+			for (int i = 0; i < regions.length; i++) {
+				long start = (long)i * recordsPerRegion;
+				long count = Math.min(recordsPerRegion, size - start);
+				regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start * recordWidth, count * recordWidth)
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new RecordFile<>(clazz, recordWidth, recordsPerRegion, regions, size);
+		}
+	}
+	
+	/**
+	 * Writes the stored fields of the objects as the records of a file, replacing the file if it exists
+	 * @param path
+	 * @param clazz
+	 * @param objs
+	 * @return number of records
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the class has no stored fields
+	 */
+	public static <T> long write(Path path, Class<T> clazz, Iterable<? extends T> objs) throws IOException {
+		OffHeapStoreFactory.Layout layout = OffHeapStoreFactory.get(clazz);
+		int recordWidth = getRecordWidth(clazz, layout);
+		RecordCodec<T> codec = OffHeapStoreFactory.getRecordCodec(clazz);
+		try (FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer block = ByteBuffer.allocateDirect(Math.max(1, WRITE_BLOCK_SIZE / recordWidth) * recordWidth)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			long position = HEADER_SIZE;
+			long size = 0L;
+			int offset = 0;
+			for (T obj : objs) {
+				if (offset == block.capacity()) {
+					position = writeFully(channel, block, offset, position);
+					offset = 0;
+				}
+				codec.write(block, offset, obj);
+				offset += recordWidth;
+				size++;
+			}
+			writeFully(channel, block, offset, position);
+			
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+					.putInt(MAGIC)
+					.putInt(FORMAT_VERSION)
+					.putLong(getFingerprint(clazz, layout))
+					.putInt(recordWidth)
+					.putInt(0)
+					.putLong(size);
+			writeFully(channel, header, HEADER_SIZE, 0L);
+			return size;
+		}
+	}
+	
+	private static long getFingerprint(Class<?> clazz, OffHeapStoreFactory.Layout layout) {
+		List<Field> fields = new ArrayList<>(layout.columns.size());
+		for (OffHeapStoreFactory.Column column : layout.columns) {
+			fields.add(column.field);
+		}
+		return FieldSerialization.getFingerprint(FORMAT_VERSION, clazz, fields);
+	}
+	
+	/**
+	 * A record is padded to a multiple of its widest value, so that every value of every record is aligned
+	 */
+	private static int getRecordWidth(Class<?> clazz, OffHeapStoreFactory.Layout layout) {
+		if (layout.rowWidth == 0) {
+			throw new IllegalArgumentException("No stored fields in " + clazz.getName());
+		}
+		int maxWidth = 1;
+		for (OffHeapStoreFactory.Column column : layout.columns) {
+			maxWidth = Math.max(maxWidth, column.width);
+		}
+		return (layout.rowWidth + maxWidth - 1) / maxWidth * maxWidth;
+	}
+	
+	/**
+	 * Writes the first bytes of the buffer at the position in the file
+	 * @return the position after the bytes
+	 */
+	private static long writeFully(FileChannel channel, ByteBuffer buffer, int length, long position) throws IOException {
+		((Buffer)buffer).position(0).limit(length);
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+		((Buffer)buffer).clear();
+		return position;
+	}
+	
+	private final Class<T> clazz;
+	private final RecordCodec<T> codec;
+	private final ConstructorAccess<T> constructorAccess;
+	private final int recordsPerRegion;
+	private final int recordWidth;
+	private final ByteBuffer[] regions;
+	private final long size;
+	
+	private RecordFile(Class<T> clazz, int recordWidth, int recordsPerRegion, ByteBuffer[] regions, long size) {
+		this.clazz = clazz;
+		this.codec = OffHeapStoreFactory.getRecordCodec(clazz);
+		this.constructorAccess = ClassAccessFactory.getConstructorAccess(clazz);
+		this.recordsPerRegion = recordsPerRegion;
+		this.recordWidth = recordWidth;
+		this.regions = regions;
+		this.size = size;
+	}
+	
+	/**
+	 * 
+	 * @param index of a record
+	 * @return a new object, created with the constructor without parameters, whose stored fields are set to the
+	 * values in the record
+	 * @throws IndexOutOfBoundsException if the index is not less than the size
+	 * @throws IllegalStateException if the class has no constructor without parameters
+	 */
+	public T get(long index) {
+		return get(index, constructorAccess.newInstance());
+	}
+	
+	/**
+	 * Sets the stored fields of the object to the values in the record, so that records can be read one after
+	 * another into the same object without creating any
+	 * @param index of a record
+	 * @param reuse
+	 * @return the object
+	 * @throws IndexOutOfBoundsException if the index is not less than the size
+	 */
+	public T get(long index, T reuse) {
+		checkIndex(index);
+		codec.read(regions[(int)(index / recordsPerRegion)], (int)(index % recordsPerRegion) * recordWidth, reuse);
+		return reuse;
+	}
+	
+	/**
+	 * 
+	 * @return bytes per record
+	 */
+	public int getRecordWidth() {
+		return recordWidth;
+	}
+	
+	/**
+	 * Creates a flyweight view of the records, e.g. of the class of the records itself or of an interface of its
+	 * getters. The getter of each property, as found by the {@link java.beans.Introspector}, of the same name and
+	 * type as a stored field returns the value of the field in the record that the view is on, without creating or
+	 * setting an object. Other methods of a class are inherited, and see the fields of the view, which are not set.
+	 * @param viewType a public interface, or a public class that is not final and has a public or protected
+	 * constructor without parameters
+	 * @return a new view that implements {@link Flyweight}, which can be moved to a record by
+	 * {@link #view(long, Object)}
+	 * @throws IllegalArgumentException if the view type cannot be extended, or has an abstract method that is not a
+	 * getter of a stored field
+	 */
+	public <V> V newView(Class<V> viewType) {
+		return FlyweightFactory.newFlyweight(viewType, clazz);
+	}
+	
+	/**
+	 * 
+	 * @return number of records
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/**
+	 * Moves the view to the record, so that records can be read one after another through the same view
+	 * @param index of a record
+	 * @param view created by {@link #newView(Class)} of a file of the same class
+	 * @return the view
+	 * @throws IndexOutOfBoundsException if the index is not less than the size
+	 * @throws ClassCastException if the view was not created by {@link #newView(Class)}
+	 */
+	public <V> V view(long index, V view) {
+		checkIndex(index);
+		((Flyweight)view).wrap(regions[(int)(index / recordsPerRegion)], (int)(index % recordsPerRegion) * recordWidth);
+		return view;
+	}
+	
+	private void checkIndex(long index) {
+		if (index < 0L || index >= size) {
+			throw new IndexOutOfBoundsException("Record " + index + " is not between 0 and size " + size);
+		}
+	}
+}
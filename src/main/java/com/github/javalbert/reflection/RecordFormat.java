@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Format of the lines of a file that a {@link RecordParser} parses, either delimited, e.g. CSV, or fixed-width.
+ * Each line is a record, ending with <code>\n</code> or <code>\r\n</code>.
+ */
+public final class RecordFormat {
+	private static final char QUOTE = '"';
+	
+	/**
+	 * 
+	 * @return the format of CSV whose first line is a header with the names of the columns
+	 */
+	public static RecordFormat csv() {
+		return delimited(',');
+	}
+	
+	/**
+	 * Gets the format of lines of cells separated by the delimiter, in which a cell can be quoted with <code>"</code>
+	 * to contain the delimiter, and a quote in a quoted cell is escaped as <code>""</code>. A quoted cell cannot
+	 * contain a line break.
+	 * @param delimiter an ASCII character
+	 * @param columnNames of the columns in order, or none if the first line is a header with them
+	 * @return the format
+	 */
+	public static RecordFormat delimited(char delimiter, String... columnNames) {
+		if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+			throw new IllegalArgumentException("Delimiter cannot be a quote or line break");
+		} else if (delimiter >= 0x80) {
+			// Cells are split on the raw bytes of the lines, in which any other character is more than one byte
+			throw new IllegalArgumentException("Delimiter must be an ASCII character: " + delimiter);
+		}
+		return new RecordFormat(delimiter, Arrays.asList(columnNames), null);
+	}
+	
+	/**
+	 * Gets the format of lines of cells with fixed widths, without a header. Spaces around the value of a cell are
+	 * ignored, and a line can end before its last cells.
+	 * @param columnNames of the columns in order
+	 * @param widths in bytes of the columns
+	 * @return the format
+	 */
+	public static RecordFormat fixedWidth(List<String> columnNames, int... widths) {
+		if (columnNames.size() != widths.length) {
+			throw new IllegalArgumentException(columnNames.size() + " column names but " + widths.length + " widths");
+		}
+		for (int width : widths) {
+			if (width <= 0) {
+				throw new IllegalArgumentException("Width must be positive: " + width);
+			}
+		}
+		return new RecordFormat((char)0, columnNames, widths.clone());
+	}
+	
+	private final List<String> columnNames;
+	private final char delimiter;
+	private final int[] widths;
+	
+	private RecordFormat(char delimiter, List<String> columnNames, int[] widths) {
+		this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+		this.delimiter = delimiter;
+		this.widths = widths;
+	}
+	
+	/**
+	 * 
+	 * @return the names of the columns, which are empty if they are in a header
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+	
+	public char getDelimiter() {
+		return delimiter;
+	}
+	
+	/**
+	 * 
+	 * @return <code>true</code> if the first line is a header with the names of the columns
+	 */
+	public boolean hasHeader() {
+		return columnNames.isEmpty();
+	}
+	
+	public boolean isFixedWidth() {
+		return widths != null;
+	}
+	
+	char getQuote() {
+		return QUOTE;
+	}
+	
+	int[] getWidths() {
+		return widths;
+	}
+}
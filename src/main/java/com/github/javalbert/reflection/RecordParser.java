@@ -0,0 +1,692 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.ClassUtils;
+
+/**
+ * Parses the lines of a file in a {@link RecordFormat} into objects, one per line, reading the file through memory
+ * mapped regions of its {@link FileChannel}. The columns are bound to fields once, by their names ignoring case and
+ * underscores, and each cell is set with the {@link FieldAccess} setter of its field, e.g. an
+ * {@link IntFieldSetter}, after parsing numbers straight from the bytes without creating a {@link String}. Columns
+ * without a field are ignored, and an empty cell leaves its field unset.
+ * <p>
+ * The file can be parsed in parts by byte range, e.g. by {@link #parseParallel(int, Consumer)}, because a record is
+ * parsed by the part in which it starts.
+ * @param <T> the class of the objects
+ */
+public final class RecordParser<T> {
+	private static final int BLOCK_SIZE = 8192;
+	private static final byte[] BYTE_ORDER_MARK = { (byte)0xef, (byte)0xbb, (byte)0xbf };
+	private static final Map<Class<?>, CellType> CELL_TYPES;
+	private static final double[] DOUBLE_POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	private static final float[] FLOAT_POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+	/**
+	 * Longest header that is read, to fail fast on a file that is not in the format
+	 */
+	private static final int MAX_HEADER_LENGTH = 1024 * 1024;
+	/**
+	 * Largest region of the file that is mapped at once, which is the most that a {@link ByteBuffer} can have
+	 */
+	private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+	/**
+	 * Integers up to 2^53 and 2^24 are exact in a <code>double</code> and <code>float</code>, so dividing them by an
+	 * exact power of ten is correctly rounded
+	 */
+	private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+	private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+	private static final int MAX_MANTISSA_DIGITS = 18;
+	
+	static {
+		Map<Class<?>, CellType> cellTypes = new HashMap<>();
+		for (CellType cellType : CellType.values()) {
+			cellTypes.put(cellType.type, cellType);
+			if (cellType.type.isPrimitive()) {
+				cellTypes.put(ClassUtils.primitiveToWrapper(cellType.type), cellType);
+			}
+		}
+		CELL_TYPES = Collections.unmodifiableMap(cellTypes);
+	}
+	
+	/**
+	 * Reads the header of the file if the format has one, and binds the columns to the fields of the class
+	 * @param channel of the file, which must stay open while parsing
+	 * @param clazz
+	 * @param format
+	 * @return the parser
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the field of a column is of a type that cannot be parsed, or the header is
+	 * too long
+	 */
+	public static <T> RecordParser<T> open(FileChannel channel, Class<T> clazz, RecordFormat format)
+			throws IOException {
+		long size = channel.size();
+		long dataStart = startsWith(channel, BYTE_ORDER_MARK) ? BYTE_ORDER_MARK.length : 0;
+		List<String> columnNames = format.getColumnNames();
+		if (format.hasHeader()) {
+			byte[] header = readLine(channel, dataStart, size);
+			dataStart += header.length;
+			columnNames = splitHeader(new String(header, StandardCharsets.UTF_8).trim(), format);
+		}
+		return new RecordParser<>(channel, clazz, format, columnNames, dataStart, size);
+	}
+	
+	private static byte[] readLine(FileChannel channel, long start, long size) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		byte[] block = new byte[BLOCK_SIZE];
+		for (long position = start; position < size; ) {
+			int length = channel.read(ByteBuffer.wrap(block), position);
+			if (length <= 0) {
+				break;
+			}
+			for (int i = 0; i < length; i++) {
+				if (block[i] == '\n') {
+					line.write(block, 0, i + 1);
+					return line.toByteArray();
+				}
+			}
+			line.write(block, 0, length);
+			position += length;
+			if (line.size() > MAX_HEADER_LENGTH) {
+				throw new IllegalArgumentException("Header is longer than " + MAX_HEADER_LENGTH + " bytes");
+			}
+		}
+		return line.toByteArray();
+	}
+	
+	private static List<String> splitHeader(String header, RecordFormat format) {
+		List<String> columnNames = new ArrayList<>();
+		StringBuilder columnName = new StringBuilder();
+		boolean isQuoted = false;
+		for (int i = 0; i < header.length(); i++) {
+			char c = header.charAt(i);
+			if (c == format.getQuote()) {
+				if (isQuoted && i + 1 < header.length() && header.charAt(i + 1) == c) {
+					columnName.append(c);
+					i++;
+				} else {
+					isQuoted = !isQuoted;
+				}
+			} else if (c == format.getDelimiter() && !isQuoted) {
+				columnNames.add(columnName.toString().trim());
+				columnName.setLength(0);
+			} else {
+				columnName.append(c);
+			}
+		}
+		columnNames.add(columnName.toString().trim());
+		return columnNames;
+	}
+	
+	private static boolean startsWith(FileChannel channel, byte[] prefix) throws IOException {
+		byte[] bytes = new byte[prefix.length];
+		return channel.read(ByteBuffer.wrap(bytes), 0) == prefix.length && Arrays.equals(bytes, prefix);
+	}
+	
+	/**
+	 * Types of fields that cells can be parsed into, including the wrappers of the primitive types
+	 */
+	private enum CellType {
+		BIG_DECIMAL(BigDecimal.class),
+		BOOLEAN(boolean.class),
+		BYTE(byte.class),
+		CHAR(char.class),
+		DOUBLE(double.class),
+		FLOAT(float.class),
+		INT(int.class),
+		LOCAL_DATE(LocalDate.class),
+		LOCAL_DATE_TIME(LocalDateTime.class),
+		LONG(long.class),
+		SHORT(short.class),
+		STRING(String.class);
+		
+		private final Class<?> type;
+		
+		private CellType(Class<?> type) {
+			this.type = type;
+		}
+	}
+	
+	/**
+	 * A column that is bound to a field
+	 */
+	private static class Column {
+		private final CellType cellType;
+		private final boolean isPrimitive;
+		/**
+		 * {@link FieldAccess} setter of the type of the field, e.g. {@link IntFieldSetter}, or
+		 * {@link ObjectFieldSetter} if it is a reference type
+		 */
+		private final Object setter;
+		
+		private Column(CellType cellType, boolean isPrimitive, Object setter) {
+			this.cellType = cellType;
+			this.isPrimitive = isPrimitive;
+			this.setter = setter;
+		}
+	}
+	
+	/**
+	 * Parses the lines in a mapped region of the file, with a buffer for decoding strings. It is used by one thread.
+	 */
+	private class Cursor {
+		private final ByteBuffer buffer;
+		/**
+		 * Position in the file of the start of {@link #buffer}
+		 */
+		private final long offset;
+		/**
+		 * Number of digits after the decimal point of the last number parsed by {@link #parseMantissa(int, int)}
+		 */
+		private int parsedFractionDigits;
+		private byte[] stringBytes = new byte[64];
+		
+		private Cursor(ByteBuffer buffer, long offset) {
+			this.buffer = buffer;
+			this.offset = offset;
+		}
+		
+		private void parseLines(Consumer<? super T> consumer) {
+			int limit = buffer.limit();
+			int lineStart = 0;
+			while (lineStart < limit) {
+				int lineEnd = lineStart;
+				while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+					lineEnd++;
+				}
+				int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+				
+				if (contentEnd > lineStart) {
+					T obj = constructorAccess.newInstance();
+					if (format.isFixedWidth()) {
+						parseFixedWidthCells(obj, lineStart, contentEnd);
+					} else {
+						parseDelimitedCells(obj, lineStart, contentEnd);
+					}
+					consumer.accept(obj);
+				}
+				lineStart = lineEnd + 1;
+			}
+		}
+		
+		private void parseDelimitedCells(T obj, int start, int end) {
+			char delimiter = format.getDelimiter();
+			char quote = format.getQuote();
+			int position = start;
+			for (int i = 0; i < columns.length && position <= end; i++) {
+				int cellStart = position;
+				int cellEnd;
+				boolean isQuoted = position < end && buffer.get(position) == quote;
+				boolean hasEscapedQuotes = false;
+				if (isQuoted) {
+					cellStart++;
+					cellEnd = cellStart;
+					while (true) {
+						if (cellEnd >= end) {
+							throw new IllegalArgumentException("Quoted cell at byte " + (offset + position) + " does not end");
+						} else if (buffer.get(cellEnd) != quote) {
+							cellEnd++;
+						} else if (cellEnd + 1 < end && buffer.get(cellEnd + 1) == quote) {
+							hasEscapedQuotes = true;
+							cellEnd += 2;
+						} else {
+							break;
+						}
+					}
+					position = cellEnd + 1;
+					if (position < end && buffer.get(position) != delimiter) {
+						throw new IllegalArgumentException("Expected a delimiter at byte " + (offset + position));
+					}
+				} else {
+					cellEnd = cellStart;
+					while (cellEnd < end && buffer.get(cellEnd) != delimiter) {
+						cellEnd++;
+					}
+					position = cellEnd;
+				}
+				
+				if (columns[i] != null) {
+					setCell(obj, columns[i], cellStart, cellEnd, isQuoted, hasEscapedQuotes);
+				}
+				// After the delimiter
+				position++;
+			}
+		}
+		
+		private void parseFixedWidthCells(T obj, int start, int end) {
+			int[] widths = format.getWidths();
+			int cellStart = start;
+			for (int i = 0; i < columns.length && cellStart < end; i++) {
+				int cellEnd = (int)Math.min(end, (long)cellStart + widths[i]);
+				if (columns[i] != null) {
+					setCell(obj, columns[i], cellStart, cellEnd, false, false);
+				}
+				cellStart = cellEnd;
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void setCell(T obj, Column column, int start, int end, boolean isQuoted, boolean hasEscapedQuotes) {
+			if (column.cellType != CellType.STRING || format.isFixedWidth()) {
+				while (start < end && buffer.get(start) == ' ') {
+					start++;
+				}
+				while (end > start && buffer.get(end - 1) == ' ') {
+					end--;
+				}
+			}
+			if (start == end && !(isQuoted && column.cellType == CellType.STRING)) {
+				return;
+			}
+			
+			if (!column.isPrimitive) {
+				((ObjectFieldSetter<T, Object>)column.setter).set(obj, parseObject(column.cellType, start, end, hasEscapedQuotes));
+				return;
+			}
+			switch (column.cellType) {
+				case BOOLEAN:
+					((BooleanFieldSetter<T>)column.setter).set(obj, parseBoolean(start, end));
+					break;
+				case BYTE:
+					((ByteFieldSetter<T>)column.setter).set(obj, (byte)parseLong(start, end, Byte.MIN_VALUE, Byte.MAX_VALUE, "byte"));
+					break;
+				case CHAR:
+					((CharFieldSetter<T>)column.setter).set(obj, parseChar(start, end, hasEscapedQuotes));
+					break;
+				case DOUBLE:
+					((DoubleFieldSetter<T>)column.setter).set(obj, parseDouble(start, end));
+					break;
+				case FLOAT:
+					((FloatFieldSetter<T>)column.setter).set(obj, parseFloat(start, end));
+					break;
+				case INT:
+					((IntFieldSetter<T>)column.setter).set(obj, (int)parseLong(start, end, Integer.MIN_VALUE, Integer.MAX_VALUE, "int"));
+					break;
+				case LONG:
+					((LongFieldSetter<T>)column.setter).set(obj, parseLong(start, end, Long.MIN_VALUE, Long.MAX_VALUE, "long"));
+					break;
+				case SHORT:
+					((ShortFieldSetter<T>)column.setter).set(obj, (short)parseLong(start, end, Short.MIN_VALUE, Short.MAX_VALUE, "short"));
+					break;
+				default:
+					throw new IllegalStateException(column.cellType + " is not primitive");
+			}
+		}
+		
+		private String decodeAscii(int start, int end) {
+			char[] chars = new char[end - start];
+			for (int i = start; i < end; i++) {
+				chars[i - start] = (char)(buffer.get(i) & 0xff);
+			}
+			return new String(chars);
+		}
+		
+		private String decodeString(int start, int end, boolean hasEscapedQuotes) {
+			if (stringBytes.length < end - start) {
+				stringBytes = new byte[Math.max(stringBytes.length * 2, end - start)];
+			}
+			int length = 0;
+			for (int i = start; i < end; i++) {
+				byte b = buffer.get(i);
+				stringBytes[length++] = b;
+				if (hasEscapedQuotes && b == format.getQuote()) {
+					// The second quote of ""
+					i++;
+				}
+			}
+			return new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+		}
+		
+		private IllegalArgumentException newInvalidCellException(int start, int end, String typeName) {
+			return new IllegalArgumentException("Invalid " + typeName + " \"" + decodeString(start, end, false)
+					+ "\" at byte " + (offset + start));
+		}
+		
+		private boolean parseBoolean(int start, int end) {
+			String value = decodeAscii(start, end);
+			if (value.equalsIgnoreCase("true")) {
+				return true;
+			} else if (value.equalsIgnoreCase("false")) {
+				return false;
+			}
+			throw newInvalidCellException(start, end, "boolean");
+		}
+		
+		private char parseChar(int start, int end, boolean hasEscapedQuotes) {
+			String value = decodeString(start, end, hasEscapedQuotes);
+			if (value.length() != 1) {
+				throw newInvalidCellException(start, end, "char");
+			}
+			return value.charAt(0);
+		}
+		
+		/**
+		 * Parses a decimal number without an exponent from the bytes if its digits are exact in a <code>double</code>,
+		 * otherwise with {@link Double#parseDouble(String)}
+		 */
+		private double parseDouble(int start, int end) {
+			long mantissa = parseMantissa(start, end);
+			int fractionDigits = parsedFractionDigits;
+			if (mantissa >= 0 && mantissa <= MAX_EXACT_DOUBLE_MANTISSA && fractionDigits < DOUBLE_POWERS_OF_TEN.length) {
+				double value = mantissa / DOUBLE_POWERS_OF_TEN[fractionDigits];
+				return buffer.get(start) == '-' ? -value : value;
+			}
+			try {
+				return Double.parseDouble(decodeAscii(start, end));
+			} catch (NumberFormatException e) {
+				throw newInvalidCellException(start, end, "double");
+			}
+		}
+		
+		private float parseFloat(int start, int end) {
+			long mantissa = parseMantissa(start, end);
+			int fractionDigits = parsedFractionDigits;
+			if (mantissa >= 0 && mantissa <= MAX_EXACT_FLOAT_MANTISSA && fractionDigits < FLOAT_POWERS_OF_TEN.length) {
+				float value = mantissa / FLOAT_POWERS_OF_TEN[fractionDigits];
+				return buffer.get(start) == '-' ? -value : value;
+			}
+			try {
+				return Float.parseFloat(decodeAscii(start, end));
+			} catch (NumberFormatException e) {
+				throw newInvalidCellException(start, end, "float");
+			}
+		}
+		
+		private long parseLong(int start, int end, long min, long max, String typeName) {
+			boolean isNegative = buffer.get(start) == '-';
+			int position = isNegative || buffer.get(start) == '+' ? start + 1 : start;
+			if (position == end) {
+				throw newInvalidCellException(start, end, typeName);
+			}
+			// Accumulated as a negative number, whose range includes Long.MIN_VALUE
+			long value = 0;
+			for (; position < end; position++) {
+				int digit = buffer.get(position) - '0';
+				if (digit < 0 || digit > 9) {
+					throw newInvalidCellException(start, end, typeName);
+				} else if (value < (Long.MIN_VALUE + digit) / 10) {
+					throw newInvalidCellException(start, end, typeName);
+				}
+				value = value * 10 - digit;
+			}
+			if (!isNegative) {
+				if (value == Long.MIN_VALUE) {
+					throw newInvalidCellException(start, end, typeName);
+				}
+				value = -value;
+			}
+			if (value < min || value > max) {
+				throw newInvalidCellException(start, end, typeName);
+			}
+			return value;
+		}
+		
+		/**
+		 * 
+		 * @return the digits of a decimal number without an exponent as an integer, with the number of digits after
+		 * the decimal point in {@link #parsedFractionDigits}, or -1 if it is not such a number or has too many digits
+		 */
+		private long parseMantissa(int start, int end) {
+			int position = buffer.get(start) == '-' || buffer.get(start) == '+' ? start + 1 : start;
+			long mantissa = 0;
+			int digitCount = 0;
+			int fractionDigits = -1;
+			for (; position < end; position++) {
+				byte b = buffer.get(position);
+				if (b == '.' && fractionDigits < 0) {
+					fractionDigits = 0;
+					continue;
+				} else if (b < '0' || b > '9' || ++digitCount > MAX_MANTISSA_DIGITS) {
+					return -1;
+				}
+				mantissa = mantissa * 10 + b - '0';
+				if (fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			}
+			parsedFractionDigits = Math.max(0, fractionDigits);
+			return digitCount > 0 ? mantissa : -1;
+		}
+		
+		private Object parseObject(CellType cellType, int start, int end, boolean hasEscapedQuotes) {
+			switch (cellType) {
+				case BIG_DECIMAL:
+					try {
+						return new BigDecimal(decodeAscii(start, end));
+					} catch (NumberFormatException e) {
+						throw newInvalidCellException(start, end, "BigDecimal");
+					}
+				case BOOLEAN:
+					return parseBoolean(start, end);
+				case BYTE:
+					return (byte)parseLong(start, end, Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
+				case CHAR:
+					return parseChar(start, end, hasEscapedQuotes);
+				case DOUBLE:
+					return parseDouble(start, end);
+				case FLOAT:
+					return parseFloat(start, end);
+				case INT:
+					return (int)parseLong(start, end, Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+				case LOCAL_DATE:
+					return LocalDate.parse(decodeAscii(start, end));
+				case LOCAL_DATE_TIME:
+					return LocalDateTime.parse(decodeAscii(start, end));
+				case LONG:
+					return parseLong(start, end, Long.MIN_VALUE, Long.MAX_VALUE, "long");
+				case SHORT:
+					return (short)parseLong(start, end, Short.MIN_VALUE, Short.MAX_VALUE, "short");
+				case STRING:
+					return decodeString(start, end, hasEscapedQuotes);
+				default:
+					throw new IllegalStateException("Unknown " + cellType);
+			}
+		}
+	}
+	
+	private final FileChannel channel;
+	private final List<String> columnNames;
+	/**
+	 * Columns by their positions, which are <code>null</code> for columns without fields
+	 */
+	private final Column[] columns;
+	private final ConstructorAccess<T> constructorAccess;
+	private final long dataStart;
+	private final RecordFormat format;
+	private final long size;
+	
+	private RecordParser(
+			FileChannel channel,
+			Class<T> clazz,
+			RecordFormat format,
+			List<String> columnNames,
+			long dataStart,
+			long size) {
+		this.channel = channel;
+		this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+		this.constructorAccess = ClassAccessFactory.getConstructorAccess(clazz);
+		this.dataStart = dataStart;
+		this.format = format;
+		this.size = size;
+		
+		Map<String, Field> fieldsByName = RowMapperFactory.getFieldsByNormalizedName(clazz);
+		columns = new Column[columnNames.size()];
+		for (int i = 0; i < columns.length; i++) {
+			Field field = fieldsByName.get(RowMapperFactory.normalizeName(columnNames.get(i)));
+			if (field == null) {
+				continue;
+			}
+			CellType cellType = CELL_TYPES.get(field.getType());
+			if (cellType == null) {
+				throw new IllegalArgumentException("Field " + field.getName() + " of column " + columnNames.get(i)
+						+ " is of type " + field.getType().getName() + ", which cannot be parsed");
+			}
+			Object setter = ClassAccessFactory.getFieldAccessor(
+					clazz,
+					field.getName(),
+					FieldAccessorFactory.getSetterType(field.getType()));
+			columns[i] = new Column(cellType, field.getType().isPrimitive(), setter);
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the names of the columns, from the header or the format
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+	
+	/**
+	 * 
+	 * @return position in the file of the first record, after the header if there is one
+	 */
+	public long getDataStart() {
+		return dataStart;
+	}
+	
+	/**
+	 * 
+	 * @return size of the file when the parser was opened
+	 */
+	public long getSize() {
+		return size;
+	}
+	
+	/**
+	 * Parses every record of the file
+	 * @param consumer
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a cell cannot be parsed into its field
+	 */
+	public void parse(Consumer<? super T> consumer) throws IOException {
+		parse(dataStart, size, consumer);
+	}
+	
+	/**
+	 * Parses the records that start in the range of bytes, which can end in the middle of a record, so that
+	 * consecutive ranges parse each record once
+	 * @param start position in the file
+	 * @param end position in the file, exclusive
+	 * @param consumer
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a cell cannot be parsed into its field
+	 */
+	public void parse(long start, long end, Consumer<? super T> consumer) throws IOException {
+		long regionStart = getRecordStartFrom(start);
+		long regionEnd = getRecordStartFrom(end);
+		while (regionStart < regionEnd) {
+			long mappedEnd = regionEnd - regionStart <= MAX_MAPPED_SIZE
+					? regionEnd
+					: getRecordStartBefore(regionStart + MAX_MAPPED_SIZE, regionStart);
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, mappedEnd - regionStart);
+			new Cursor(buffer, regionStart).parseLines(consumer);
+			regionStart = mappedEnd;
+		}
+	}
+	
+	/**
+	 * Splits the records into ranges of bytes of about the same size, which are parsed in parallel in the common
+	 * {@link java.util.concurrent.ForkJoinPool}
+	 * @param splitCount
+	 * @param consumer called by many threads at once
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a cell cannot be parsed into its field
+	 */
+	public void parseParallel(int splitCount, Consumer<? super T> consumer) throws IOException {
+		long dataSize = size - dataStart;
+		try {
+			IntStream.range(0, splitCount).parallel().forEach(i -> {
+				try {
+					parse(dataStart + dataSize * i / splitCount, dataStart + dataSize * (i + 1) / splitCount, consumer);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param position
+	 * @param limit
+	 * @return the start of the last record that starts after the limit and before the position
+	 * @throws IllegalArgumentException if a record is too long to be mapped
+	 */
+	private long getRecordStartBefore(long position, long limit) throws IOException {
+		byte[] block = new byte[BLOCK_SIZE];
+		long blockEnd = position;
+		while (blockEnd > limit) {
+			long blockStart = Math.max(limit, blockEnd - BLOCK_SIZE);
+			int length = channel.read(ByteBuffer.wrap(block, 0, (int)(blockEnd - blockStart)), blockStart);
+			for (int i = length - 1; i >= 0; i--) {
+				if (block[i] == '\n' && blockStart + i + 1 < position) {
+					return blockStart + i + 1;
+				}
+			}
+			blockEnd = blockStart;
+		}
+		throw new IllegalArgumentException("Record at byte " + limit + " is longer than " + MAX_MAPPED_SIZE + " bytes");
+	}
+	
+	/**
+	 * 
+	 * @param position
+	 * @return the start of the record that starts at the position, or of the next record if the position is in a
+	 * record, or the size of the file if there is none
+	 */
+	private long getRecordStartFrom(long position) throws IOException {
+		if (position <= dataStart) {
+			return dataStart;
+		}
+		
+		// A record starts after the line break before it
+		byte[] block = new byte[BLOCK_SIZE];
+		for (long blockStart = position - 1; blockStart < size; ) {
+			int length = channel.read(ByteBuffer.wrap(block), blockStart);
+			if (length <= 0) {
+				break;
+			}
+			for (int i = 0; i < length; i++) {
+				if (block[i] == '\n') {
+					return Math.min(size, blockStart + i + 1);
+				}
+			}
+			blockStart += length;
+		}
+		return size;
+	}
+}
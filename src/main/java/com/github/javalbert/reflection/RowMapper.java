@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} with a certain column layout onto an object, calling the
+ * <code>ResultSet</code> getter for the type of each field, e.g. {@link ResultSet#getInt(int)}, and setting the field
+ * directly
+ * @param <T> the class of the objects
+ * @see ClassAccessFactory#getRowMapper(Class, java.sql.ResultSetMetaData)
+ */
+public interface RowMapper<T> {
+	/**
+	 * 
+	 * @param rs positioned on a row
+	 * @return a new object, created with the constructor without parameters, with the values of the row
+	 * @throws SQLException
+	 * @throws IllegalStateException if the class has no constructor without parameters
+	 */
+	T mapRow(ResultSet rs) throws SQLException;
+	
+	/**
+	 * Sets the fields of an existing object to the values of the row
+	 * @param rs positioned on a row
+	 * @param obj
+	 * @throws SQLException
+	 */
+	void mapRow(ResultSet rs, T obj) throws SQLException;
+}
@@ -0,0 +1,491 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+
+/**
+ * Generates a {@link RowMapper} per class and column layout. Each column is mapped to the field with the same name as
+ * its label, ignoring case and underscores (so <code>FIRST_NAME</code> is mapped to <code>firstName</code>), and
+ * columns without such a field are skipped.
+ */
+final class RowMapperFactory {
+	private static final AtomicInteger CLASS_NUMBER = new AtomicInteger();
+	/**
+	 * At most about 30 bytes of bytecode per column, so that <code>mapRow()</code> of a wide row is split into methods
+	 * under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_COLUMNS_PER_METHOD = 200;
+	/**
+	 * {@link ResultSet} getter of each field type that one can be called for directly
+	 */
+	private static final Map<Class<?>, Method> RESULT_SET_GETTERS;
+	private static final String RESULT_SET_INTERNAL_NAME = Type.getInternalName(ResultSet.class);
+	private static final ClassValue<ConcurrentMap<List<String>, RowMapper<?>>> ROW_MAPPERS_VALUE =
+			new ClassValue<ConcurrentMap<List<String>, RowMapper<?>>>() {
+				@Override
+				protected ConcurrentMap<List<String>, RowMapper<?>> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+	
+	static {
+		Map<Class<?>, String> getterNames = new LinkedHashMap<>();
+		getterNames.put(boolean.class, "getBoolean");
+		getterNames.put(byte.class, "getByte");
+		getterNames.put(double.class, "getDouble");
+		getterNames.put(float.class, "getFloat");
+		getterNames.put(int.class, "getInt");
+		getterNames.put(long.class, "getLong");
+		getterNames.put(short.class, "getShort");
+		getterNames.put(BigDecimal.class, "getBigDecimal");
+		getterNames.put(byte[].class, "getBytes");
+		getterNames.put(Date.class, "getTimestamp");
+		getterNames.put(java.sql.Date.class, "getDate");
+		getterNames.put(String.class, "getString");
+		getterNames.put(Time.class, "getTime");
+		getterNames.put(Timestamp.class, "getTimestamp");
+		
+		Map<Class<?>, Method> getters = new HashMap<>();
+		getterNames.forEach((type, getterName) -> getters.put(type, getResultSetGetter(getterName)));
+		RESULT_SET_GETTERS = Collections.unmodifiableMap(getters);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @param columnLabels
+	 * @return the row mapper, which is generated the first time and cached
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RowMapper<T> get(Class<T> clazz, List<String> columnLabels) {
+		return (RowMapper<T>)ROW_MAPPERS_VALUE.get(clazz).computeIfAbsent(
+				columnLabels,
+				key -> createRowMapper(clazz, columnLabels));
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the fields that are neither static nor final by their names in lower case without underscores, except
+	 * for a field shadowed by one with the same name
+	 */
+	static Map<String, Field> getFieldsByNormalizedName(Class<?> clazz) {
+		// Fields of the class before fields of superclasses
+		Map<String, Field> fieldsByName = new HashMap<>();
+		for (Field field : ClassAccessFactory.getFields(clazz)) {
+			if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+				fieldsByName.putIfAbsent(normalizeName(field.getName()), field);
+			}
+		}
+		return fieldsByName;
+	}
+	
+	/**
+	 * 
+	 * @param name
+	 * @return the name in lower case without underscores
+	 */
+	static String normalizeName(String name) {
+		return name.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+	
+	private static RowMapper<?> createRowMapper(Class<?> clazz, List<String> columnLabels) {
+		Map<String, Field> fieldsByName = getFieldsByNormalizedName(clazz);
+		
+		List<Field> fields = new ArrayList<>();
+		List<Integer> columns = new ArrayList<>();
+		for (int i = 0; i < columnLabels.size(); i++) {
+			Field field = fieldsByName.get(normalizeName(columnLabels.get(i)));
+			if (field != null) {
+				fields.add(field);
+				columns.add(i + 1);
+			}
+		}
+		
+		// e.g. com.github.javalbert.reflection.test.Foo$FooRowMapper$1
+		String className = clazz.getName() + "$" + clazz.getSimpleName() + "RowMapper$" + CLASS_NUMBER.incrementAndGet();
+		byte[] bytecode = generateRowMapperClass(className.replace('.', '/'), clazz, fields, columns);
+		try {
+			return (RowMapper<?>)AccessClassDefiner.defineClass(clazz, className, bytecode).newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateRowMapperClass(
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			List<Integer> columns) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				AccessClassDefiner.getSuperclassInternalName(),
+				new String[] { Type.getInternalName(RowMapper.class) });
+		AsmUtils.visitDefaultConstructor(cw, "L" + internalName + ";");
+		
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+		FieldInstructions.visitAccessorFields(cw, mv, internalName, clazz, fields, true);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 0);
+		mv.visitEnd();
+		
+		Map<String, Class<?>> helperReturnTypes = new LinkedHashMap<>();
+		String mapRowDescriptor = "(L" + RESULT_SET_INTERNAL_NAME + ";Ljava/lang/Object;)V";
+		int chunkCount = Math.max(1, (fields.size() + MAX_COLUMNS_PER_METHOD - 1) / MAX_COLUMNS_PER_METHOD);
+		if (chunkCount == 1) {
+			visitMapRowMethod(cw, ACC_PUBLIC, "mapRow", internalName, clazz, fields, columns, 0, helperReturnTypes);
+		} else {
+			for (int i = 0; i < chunkCount; i++) {
+				int from = i * MAX_COLUMNS_PER_METHOD;
+				int to = Math.min(fields.size(), from + MAX_COLUMNS_PER_METHOD);
+				visitMapRowMethod(
+						cw,
+						ACC_PRIVATE,
+						"mapRow$" + i,
+						internalName,
+						clazz,
+						fields.subList(from, to),
+						columns.subList(from, to),
+						from,
+						helperReturnTypes);
+			}
+			
+			mv = cw.visitMethod(ACC_PUBLIC, "mapRow", mapRowDescriptor, null, null);
+			mv.visitCode();
+			for (int i = 0; i < chunkCount; i++) {
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitMethodInsn(INVOKESPECIAL, internalName, "mapRow$" + i, mapRowDescriptor, false);
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(3, 3);
+			mv.visitEnd();
+		}
+		helperReturnTypes.forEach((helperName, returnType) -> visitHelperMethod(cw, helperName, returnType));
+		visitNewObjectMapRowMethod(cw, internalName, clazz);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param type primitive type
+	 * @return the type of a local variable of the type in a stack map frame
+	 */
+	private static Integer getFrameType(Type type) {
+		switch (type.getSort()) {
+			case Type.DOUBLE:
+				return DOUBLE;
+			case Type.FLOAT:
+				return FLOAT;
+			case Type.LONG:
+				return LONG;
+			default:
+				return INTEGER;
+		}
+	}
+	
+	private static Method getResultSetGetter(String getterName) {
+		try {
+			return ResultSet.class.getMethod(getterName, int.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static boolean hasConstructorWithoutParameters(Class<?> clazz) {
+		if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz.isEnum()) {
+			return false;
+		}
+		try {
+			return AccessClassDefiner.canAccessDirectly(clazz, clazz.getDeclaredConstructor());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Gets the value of the column for the field, whose column index and {@link ResultSet} are on the stack, by
+	 * calling the <code>ResultSet</code> getter for the type of the field, a helper method of the generated class for
+	 * a type that needs a <code>null</code> check or conversion, or otherwise
+	 * {@link ResultSet#getObject(int, Class)}
+	 * @param mv
+	 * @param internalName
+	 * @param fieldType
+	 * @param helperReturnTypes where the helper method that is called is added
+	 */
+	private static void visitGetColumnValue(
+			MethodVisitor mv,
+			String internalName,
+			Class<?> fieldType,
+			Map<String, Class<?>> helperReturnTypes) {
+		Method getter = RESULT_SET_GETTERS.get(fieldType);
+		if (getter != null) {
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					RESULT_SET_INTERNAL_NAME,
+					getter.getName(),
+					Type.getMethodDescriptor(getter),
+					true);
+			return;
+		}
+		
+		if (fieldType == char.class || ClassUtils.isPrimitiveWrapper(fieldType) || fieldType == LocalDate.class
+				|| fieldType == LocalDateTime.class) {
+			// e.g. getBoxedInt, getChar, getLocalDate
+			String helperName = "get" + (ClassUtils.isPrimitiveWrapper(fieldType)
+					? "Boxed" + StringUtils.capitalize(ClassUtils.wrapperToPrimitive(fieldType).getName())
+					: StringUtils.capitalize(fieldType.getSimpleName()));
+			helperReturnTypes.put(helperName, fieldType);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					internalName,
+					helperName,
+					"(L" + RESULT_SET_INTERNAL_NAME + ";I)" + Type.getDescriptor(fieldType),
+					false);
+			return;
+		}
+		
+		mv.visitLdcInsn(Type.getType(fieldType));
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				RESULT_SET_INTERNAL_NAME,
+				"getObject",
+				"(ILjava/lang/Class;)Ljava/lang/Object;",
+				true);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(fieldType));
+	}
+	
+	/**
+	 * Visits a private static helper method that gets the value of a column as a type that needs a <code>null</code>
+	 * check or a conversion
+	 * @param cw
+	 * @param helperName
+	 * @param returnType primitive wrapper type, <code>char</code>, {@link LocalDate} or {@link LocalDateTime}
+	 */
+	private static void visitHelperMethod(ClassWriter cw, String helperName, Class<?> returnType) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PRIVATE + ACC_STATIC,
+				helperName,
+				"(L" + RESULT_SET_INTERNAL_NAME + ";I)" + Type.getDescriptor(returnType),
+				null,
+				null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		Label notNullLabel = new Label();
+		
+		if (returnType == LocalDate.class || returnType == LocalDateTime.class) {
+			// java.sql.Date.toLocalDate() or Timestamp.toLocalDateTime() if the value is not null
+			boolean isDate = returnType == LocalDate.class;
+			String sqlTypeInternalName = Type.getInternalName(isDate ? java.sql.Date.class : Timestamp.class);
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					RESULT_SET_INTERNAL_NAME,
+					isDate ? "getDate" : "getTimestamp",
+					"(I)L" + sqlTypeInternalName + ";",
+					true);
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNullLabel);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitInsn(ARETURN);
+			mv.visitLabel(notNullLabel);
+			mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { sqlTypeInternalName });
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					sqlTypeInternalName,
+					isDate ? "toLocalDate" : "toLocalDateTime",
+					"()" + Type.getDescriptor(returnType),
+					false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(2, 2);
+		} else if (returnType == char.class || returnType == Character.class) {
+			// The first character of the string, or 0 or null if the value is null or empty
+			Label nullOrEmptyLabel = new Label();
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_INTERNAL_NAME, "getString", "(I)Ljava/lang/String;", true);
+			mv.visitVarInsn(ASTORE, 2);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitJumpInsn(IFNULL, nullOrEmptyLabel);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "isEmpty", "()Z", false);
+			mv.visitJumpInsn(IFNE, nullOrEmptyLabel);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitInsn(ICONST_0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "charAt", "(I)C", false);
+			if (returnType == Character.class) {
+				mv.visitMethodInsn(INVOKESTATIC, "java/lang/Character", "valueOf", "(C)Ljava/lang/Character;", false);
+			}
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+			mv.visitLabel(nullOrEmptyLabel);
+			mv.visitFrame(F_APPEND, 1, new Object[] { "java/lang/String" }, 0, null);
+			mv.visitInsn(returnType == Character.class ? ACONST_NULL : ICONST_0);
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+			mv.visitMaxs(2, 3);
+		} else {
+			// The primitive value, or null if ResultSet.wasNull()
+			Class<?> primitiveType = ClassUtils.wrapperToPrimitive(returnType);
+			Type type = Type.getType(primitiveType);
+			Method getter = RESULT_SET_GETTERS.get(primitiveType);
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					RESULT_SET_INTERNAL_NAME,
+					getter.getName(),
+					Type.getMethodDescriptor(getter),
+					true);
+			mv.visitVarInsn(type.getOpcode(ISTORE), 2);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_INTERNAL_NAME, "wasNull", "()Z", true);
+			mv.visitJumpInsn(IFEQ, notNullLabel);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitInsn(ARETURN);
+			mv.visitLabel(notNullLabel);
+			mv.visitFrame(F_APPEND, 1, new Object[] { getFrameType(type) }, 0, null);
+			mv.visitVarInsn(type.getOpcode(ILOAD), 2);
+			mv.visitMethodInsn(
+					INVOKESTATIC,
+					Type.getInternalName(returnType),
+					"valueOf",
+					"(" + type.getDescriptor() + ")" + Type.getDescriptor(returnType),
+					false);
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(2, 2 + type.getSize());
+		}
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>mapRow(ResultSet, Object)</code> for some of the columns, which gets the value of each column and
+	 * sets its field
+	 * @param cw
+	 * @param access
+	 * @param methodName
+	 * @param internalName
+	 * @param clazz
+	 * @param fields
+	 * @param columns index of the column of each field
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 * @param helperReturnTypes
+	 */
+	private static void visitMapRowMethod(
+			ClassWriter cw,
+			int access,
+			String methodName,
+			String internalName,
+			Class<?> clazz,
+			List<Field> fields,
+			List<Integer> columns,
+			int firstFieldNumber,
+			Map<String, Class<?>> helperReturnTypes) {
+		MethodVisitor mv = cw.visitMethod(
+				access,
+				methodName,
+				"(L" + RESULT_SET_INTERNAL_NAME + ";Ljava/lang/Object;)V",
+				null,
+				new String[] { "java/sql/SQLException" });
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			
+			FieldInstructions.visitLoadObjToSet(mv, internalName, clazz, field, firstFieldNumber + i, 2);
+			mv.visitVarInsn(ALOAD, 1);
+			AsmUtils.visitZeroOperandInt(mv, columns.get(i));
+			visitGetColumnValue(mv, internalName, field.getType(), helperReturnTypes);
+			FieldInstructions.visitSetField(mv, clazz, field);
+		}
+		mv.visitInsn(RETURN);
+		// The setter, object, ResultSet, column index and type of getObject()
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>mapRow(ResultSet)</code>, which creates an object with the constructor without parameters then sets
+	 * its fields, or throws {@link IllegalStateException} if there is no such constructor
+	 */
+	private static void visitNewObjectMapRowMethod(ClassWriter cw, String internalName, Class<?> clazz) {
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"mapRow",
+				"(L" + RESULT_SET_INTERNAL_NAME + ";)Ljava/lang/Object;",
+				null,
+				new String[] { "java/sql/SQLException" });
+		mv.visitCode();
+		
+		if (hasConstructorWithoutParameters(clazz)) {
+			mv.visitTypeInsn(NEW, Type.getInternalName(clazz));
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(clazz), "<init>", "()V", false);
+			mv.visitVarInsn(ASTORE, 2);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					internalName,
+					"mapRow",
+					"(L" + RESULT_SET_INTERNAL_NAME + ";Ljava/lang/Object;)V",
+					false);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitInsn(ARETURN);
+		} else {
+			mv.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn("No constructor without parameters in " + clazz.getName());
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(Ljava/lang/String;)V", false);
+			mv.visitInsn(ATHROW);
+		}
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	private RowMapperFactory() {}
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.json;
+
+/**
+ * Writes the fields of an object as a JSON object, and reads a JSON object into the fields, without building a tree.
+ * The names of the fields are encoded once when the codec is generated, primitive values are formatted and parsed
+ * without boxing, and a name is matched to a field by its hash and bytes rather than as a {@link String}. The
+ * encodings of the supported types are described by {@link JsonOutput}.
+ * @param <T> the class of the objects
+ * @see JsonCodecFactory#get(Class)
+ */
+public interface JsonCodec<T> {
+	/**
+	 * 
+	 * @param in positioned before a JSON object, and positioned after it when this returns
+	 * @return a new object, created with the constructor without parameters, with the values of the members of the
+	 * JSON object whose names are names of fields. Other members are skipped.
+	 * @throws IllegalArgumentException if the JSON is invalid, or a value is not of the type of its field
+	 * @throws IllegalStateException if the class has no constructor without parameters
+	 */
+	T read(JsonInput in);
+	
+	/**
+	 * Sets the fields of the object to the values of the members of the JSON object whose names are names of fields.
+	 * Other members are skipped, and fields without members are not changed.
+	 * @param in positioned before a JSON object, and positioned after it when this returns
+	 * @param obj
+	 * @throws IllegalArgumentException if the JSON is invalid, or a value is not of the type of its field
+	 */
+	void read(JsonInput in, T obj);
+	
+	/**
+	 * Writes a JSON object with a member per field, in the order of the field indices
+	 * @param obj
+	 * @param out
+	 * @throws java.io.UncheckedIOException if <code>out</code> writes to a stream, and writing to it fails
+	 */
+	void write(T obj, JsonOutput out);
+}
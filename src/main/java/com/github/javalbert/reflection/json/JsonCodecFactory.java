@@ -0,0 +1,485 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.json;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.bytecode.utils.AsmUtils;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.ConstructorAccess;
+import com.github.javalbert.reflection.FieldAccess;
+
+/**
+ * Generates a {@link JsonCodec} per class, with straight-line code that writes each field that is neither static,
+ * transient nor final after its pre-encoded name, and a switch on the hash of a name that reads the value into its
+ * field. The fields are read and set with the {@link FieldAccess} of the class by constant field indices, and objects
+ * are created with its {@link ConstructorAccess}.
+ */
+public final class JsonCodecFactory {
+	private static final ClassValue<JsonCodec<?>> CODEC_VALUE = new ClassValue<JsonCodec<?>>() {
+		@Override
+		protected JsonCodec<?> computeValue(Class<?> type) {
+			return createCodec(type);
+		}
+	};
+	private static final String CONSTRUCTOR_ACCESS_INTERNAL_NAME = Type.getInternalName(ConstructorAccess.class);
+	private static final String FIELD_ACCESS_INTERNAL_NAME = Type.getInternalName(FieldAccess.class);
+	/**
+	 * Package of the generated codecs, which only refer to the classes of this library and of the JDK, so that they are
+	 * defined by a class loader of their own rather than in the package of the class
+	 */
+	private static final String GENERATED_PACKAGE_NAME = "com.github.javalbert.reflection.json.generated";
+	private static final String JSON_INPUT_INTERNAL_NAME = Type.getInternalName(JsonInput.class);
+	private static final String JSON_OUTPUT_INTERNAL_NAME = Type.getInternalName(JsonOutput.class);
+	/**
+	 * At most about 45 bytes of bytecode per field, including its case in the switch, so that a method of a class with
+	 * many fields is split into methods under the 8000 byte limit of the JIT compiler
+	 */
+	private static final int MAX_FIELDS_PER_METHOD = 150;
+	/**
+	 * Name of the {@link JsonInput} and {@link JsonOutput} methods of each supported type, after <code>read</code>
+	 * or <code>write</code>
+	 */
+	private static final Map<Class<?>, String> METHOD_SUFFIXES;
+	private static final String READ_FIELD_METHOD_DESCRIPTOR =
+			"(L" + JSON_INPUT_INTERNAL_NAME + ";Ljava/lang/Object;)Z";
+	private static final String READ_METHOD_DESCRIPTOR = "(L" + JSON_INPUT_INTERNAL_NAME + ";Ljava/lang/Object;)V";
+	private static final String WRITE_METHOD_DESCRIPTOR = "(Ljava/lang/Object;L" + JSON_OUTPUT_INTERNAL_NAME + ";)V";
+	
+	static {
+		Map<Class<?>, String> suffixes = new HashMap<>();
+		for (Class<?> type : new Class<?>[] {
+				boolean.class, byte.class, double.class, float.class, int.class, long.class, short.class }) {
+			suffixes.put(type, StringUtils.capitalize(type.getName()));
+			suffixes.put(ClassUtils.primitiveToWrapper(type), "Boxed" + StringUtils.capitalize(type.getName()));
+		}
+		suffixes.put(char.class, "Char");
+		suffixes.put(Character.class, "BoxedChar");
+		suffixes.put(BigDecimal.class, "BigDecimal");
+		suffixes.put(byte[].class, "Bytes");
+		suffixes.put(Date.class, "Date");
+		suffixes.put(LocalDate.class, "LocalDate");
+		suffixes.put(LocalDateTime.class, "LocalDateTime");
+		suffixes.put(String.class, "String");
+		METHOD_SUFFIXES = Collections.unmodifiableMap(suffixes);
+	}
+	
+	/**
+	 * 
+	 * @param clazz
+	 * @return the codec, which is generated the first time and cached
+	 * @throws IllegalArgumentException if a field is of a type that cannot be written as JSON
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> JsonCodec<T> get(Class<T> clazz) {
+		return (JsonCodec<T>)CODEC_VALUE.get(clazz);
+	}
+	
+	private static JsonCodec<?> createCodec(Class<?> clazz) {
+		List<Field> classFields = ClassAccessFactory.getFields(clazz);
+		List<Field> fields = new ArrayList<>();
+		List<Integer> fieldIndices = new ArrayList<>();
+		Set<String> fieldNames = new HashSet<>();
+		for (int i = 0; i < classFields.size(); i++) {
+			Field field = classFields.get(i);
+			int modifiers = field.getModifiers();
+			// A field shadowed by a field of a subclass, which comes first, is skipped
+			if (Modifier.isStatic(modifiers)
+					|| Modifier.isTransient(modifiers)
+					|| Modifier.isFinal(modifiers)
+					|| !fieldNames.add(field.getName())) {
+				continue;
+			}
+			if (!METHOD_SUFFIXES.containsKey(field.getType())) {
+				throw new IllegalArgumentException("Field " + field.getName() + " is of type "
+						+ field.getType().getName() + ", which cannot be written as JSON");
+			}
+			fields.add(field);
+			fieldIndices.add(i);
+		}
+		
+		byte[][] names = new byte[fields.size()][];
+		byte[][] prefixes = new byte[fields.size()][];
+		for (int i = 0; i < fields.size(); i++) {
+			// The names of fields are Java identifiers, which have no characters to escape
+			String name = fields.get(i).getName();
+			names[i] = name.getBytes(StandardCharsets.UTF_8);
+			prefixes[i] = ((i > 0 ? "," : "") + '"' + name + "\":").getBytes(StandardCharsets.UTF_8);
+		}
+		
+		// e.g. com.github.javalbert.reflection.json.generated.com.github.javalbert.reflection.test.Foo$JsonCodec
+		String className = GENERATED_PACKAGE_NAME + "." + clazz.getName() + "$JsonCodec";
+		byte[] bytecode = generateCodecClass(className.replace('.', '/'), fields, fieldIndices, names);
+		try {
+			return (JsonCodec<?>)new CodecClassLoader().defineCodecClass(className, bytecode)
+					.getConstructor(FieldAccess.class, ConstructorAccess.class, byte[][].class, byte[][].class)
+					.newInstance(
+							ClassAccessFactory.getFieldAccess(clazz),
+							ClassAccessFactory.getConstructorAccess(clazz),
+							names,
+							prefixes);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] generateCodecClass(
+			String internalName,
+			List<Field> fields,
+			List<Integer> fieldIndices,
+			byte[][] names) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(
+				V1_8,
+				ACC_PUBLIC + ACC_FINAL + ACC_SUPER,
+				internalName,
+				null,
+				"java/lang/Object",
+				new String[] { Type.getInternalName(JsonCodec.class) });
+		cw.visitField(
+				ACC_PRIVATE + ACC_FINAL,
+				"constructorAccess",
+				"L" + CONSTRUCTOR_ACCESS_INTERNAL_NAME + ";",
+				null,
+				null).visitEnd();
+		cw.visitField(ACC_PRIVATE + ACC_FINAL, "fieldAccess", "L" + FIELD_ACCESS_INTERNAL_NAME + ";", null, null)
+				.visitEnd();
+		cw.visitField(ACC_PRIVATE + ACC_FINAL, "names", "[[B", null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE + ACC_FINAL, "prefixes", "[[B", null, null).visitEnd();
+		
+		// The encoded names are passed to the constructor rather than created in the static initializer, which would
+		// be too big for a class with many fields
+		MethodVisitor mv = cw.visitMethod(
+				ACC_PUBLIC,
+				"<init>",
+				"(L" + FIELD_ACCESS_INTERNAL_NAME + ";L" + CONSTRUCTOR_ACCESS_INTERNAL_NAME + ";[[B[[B)V",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, internalName, "fieldAccess", "L" + FIELD_ACCESS_INTERNAL_NAME + ";");
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitFieldInsn(PUTFIELD, internalName, "constructorAccess", "L" + CONSTRUCTOR_ACCESS_INTERNAL_NAME + ";");
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitFieldInsn(PUTFIELD, internalName, "names", "[[B");
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 4);
+		mv.visitFieldInsn(PUTFIELD, internalName, "prefixes", "[[B");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 5);
+		mv.visitEnd();
+		
+		int chunkCount = Math.max(1, (fields.size() + MAX_FIELDS_PER_METHOD - 1) / MAX_FIELDS_PER_METHOD);
+		for (int i = 0; i < chunkCount; i++) {
+			int from = i * MAX_FIELDS_PER_METHOD;
+			int to = Math.min(fields.size(), from + MAX_FIELDS_PER_METHOD);
+			visitReadFieldMethod(
+					cw,
+					"readField$" + i,
+					internalName,
+					fields.subList(from, to),
+					fieldIndices.subList(from, to),
+					from,
+					names);
+			visitWriteFieldsMethod(
+					cw,
+					"writeFields$" + i,
+					internalName,
+					fields.subList(from, to),
+					fieldIndices.subList(from, to),
+					from);
+		}
+		
+		visitReadMethods(cw, internalName, chunkCount);
+		visitWriteMethod(cw, internalName, chunkCount);
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param fieldType
+	 * @return the name of the {@link FieldAccess} methods of the type after <code>get</code> or <code>set</code>
+	 */
+	private static String getFieldAccessMethodSuffix(Class<?> fieldType) {
+		return fieldType == byte[].class ? "Field" : METHOD_SUFFIXES.get(fieldType) + "Field";
+	}
+	
+	/**
+	 * 
+	 * @param fieldType
+	 * @return the descriptor of the values of the {@link FieldAccess} methods of the type
+	 */
+	private static String getFieldAccessValueDescriptor(Class<?> fieldType) {
+		return fieldType == byte[].class ? "Ljava/lang/Object;" : Type.getDescriptor(fieldType);
+	}
+	
+	private static void visitLoadEncodedName(MethodVisitor mv, String internalName, String arrayName, int fieldNumber) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, arrayName, "[[B");
+		AsmUtils.visitZeroOperandInt(mv, fieldNumber);
+		mv.visitInsn(AALOAD);
+	}
+	
+	/**
+	 * Visits a private method <code>readField(JsonInput, Object)</code> for some of the fields, which switches on the
+	 * hash of the name that was read, then reads the value into the field with the name and returns <code>true</code>,
+	 * or returns <code>false</code> if none of the fields has the name
+	 * @param fieldIndices of <code>fields</code>
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 * @param names encoded names of all the fields
+	 */
+	private static void visitReadFieldMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			List<Field> fields,
+			List<Integer> fieldIndices,
+			int firstFieldNumber,
+			byte[][] names) {
+		// Fields whose names have the same hash are compared in the same case
+		Map<Integer, List<Integer>> fieldNumbersByHash = new TreeMap<>();
+		for (int i = 0; i < fields.size(); i++) {
+			byte[] name = names[firstFieldNumber + i];
+			fieldNumbersByHash.computeIfAbsent(JsonInput.hash(name, 0, name.length), hash -> new ArrayList<>())
+					.add(firstFieldNumber + i);
+		}
+		int[] hashes = fieldNumbersByHash.keySet().stream().mapToInt(Integer::intValue).toArray();
+		Label[] caseLabels = new Label[hashes.length];
+		for (int i = 0; i < caseLabels.length; i++) {
+			caseLabels[i] = new Label();
+		}
+		Label noFieldLabel = new Label();
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, methodName, READ_FIELD_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_INPUT_INTERNAL_NAME, "nameHash", "()I", false);
+		mv.visitLookupSwitchInsn(noFieldLabel, hashes, caseLabels);
+		for (int i = 0; i < hashes.length; i++) {
+			mv.visitLabel(caseLabels[i]);
+			mv.visitFrame(F_SAME, 0, null, 0, null);
+			for (int fieldNumber : fieldNumbersByHash.get(hashes[i])) {
+				Class<?> fieldType = fields.get(fieldNumber - firstFieldNumber).getType();
+				Label otherNameLabel = new Label();
+				
+				mv.visitVarInsn(ALOAD, 1);
+				visitLoadEncodedName(mv, internalName, "names", fieldNumber);
+				mv.visitMethodInsn(INVOKEVIRTUAL, JSON_INPUT_INTERNAL_NAME, "nameEquals", "([B)Z", false);
+				mv.visitJumpInsn(IFEQ, otherNameLabel);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitFieldInsn(GETFIELD, internalName, "fieldAccess", "L" + FIELD_ACCESS_INTERNAL_NAME + ";");
+				mv.visitVarInsn(ALOAD, 2);
+				AsmUtils.visitZeroOperandInt(mv, fieldIndices.get(fieldNumber - firstFieldNumber));
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitMethodInsn(
+						INVOKEVIRTUAL,
+						JSON_INPUT_INTERNAL_NAME,
+						"read" + METHOD_SUFFIXES.get(fieldType),
+						"()" + Type.getDescriptor(fieldType),
+						false);
+				mv.visitMethodInsn(
+						INVOKEINTERFACE,
+						FIELD_ACCESS_INTERNAL_NAME,
+						"set" + getFieldAccessMethodSuffix(fieldType),
+						"(Ljava/lang/Object;I" + getFieldAccessValueDescriptor(fieldType) + ")V",
+						true);
+				mv.visitInsn(ICONST_1);
+				mv.visitInsn(IRETURN);
+				mv.visitLabel(otherNameLabel);
+				mv.visitFrame(F_SAME, 0, null, 0, null);
+			}
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+		}
+		mv.visitLabel(noFieldLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		// The field access, object, field index and a long or double value
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>read(JsonInput, Object)</code>, which reads each member of the object into the field with its name
+	 * or skips it, and <code>read(JsonInput)</code>, which creates an object with the constructor without parameters
+	 * first
+	 */
+	private static void visitReadMethods(ClassWriter cw, String internalName, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "read", READ_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_INPUT_INTERNAL_NAME, "beginObject", "()V", false);
+		Label nextNameLabel = new Label();
+		Label endLabel = new Label();
+		mv.visitLabel(nextNameLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_INPUT_INTERNAL_NAME, "nextName", "()Z", false);
+		mv.visitJumpInsn(IFEQ, endLabel);
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "readField$" + i, READ_FIELD_METHOD_DESCRIPTOR, false);
+			mv.visitJumpInsn(IFNE, nextNameLabel);
+		}
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_INPUT_INTERNAL_NAME, "skipValue", "()V", false);
+		mv.visitJumpInsn(GOTO, nextNameLabel);
+		mv.visitLabel(endLabel);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+		
+		// ConstructorAccess.newInstance() throws IllegalStateException if there is no constructor without parameters
+		mv = cw.visitMethod(ACC_PUBLIC, "read", "(L" + JSON_INPUT_INTERNAL_NAME + ";)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalName, "constructorAccess", "L" + CONSTRUCTOR_ACCESS_INTERNAL_NAME + ";");
+		mv.visitMethodInsn(
+				INVOKEINTERFACE,
+				CONSTRUCTOR_ACCESS_INTERNAL_NAME,
+				"newInstance",
+				"()Ljava/lang/Object;",
+				true);
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, internalName, "read", READ_METHOD_DESCRIPTOR, false);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits <code>write(Object, JsonOutput)</code>, which writes the braces of the object around the fields
+	 */
+	private static void visitWriteMethod(ClassWriter cw, String internalName, int chunkCount) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "write", WRITE_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitIntInsn(BIPUSH, '{');
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_OUTPUT_INTERNAL_NAME, "writeRawByte", "(I)V", false);
+		for (int i = 0; i < chunkCount; i++) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKESPECIAL, internalName, "writeFields$" + i, WRITE_METHOD_DESCRIPTOR, false);
+		}
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitIntInsn(BIPUSH, '}');
+		mv.visitMethodInsn(INVOKEVIRTUAL, JSON_OUTPUT_INTERNAL_NAME, "writeRawByte", "(I)V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Visits a private method <code>writeFields(Object, JsonOutput)</code> for some of the fields, which writes the
+	 * encoded name of each field, i.e. a comma if it is not the first, its name in quotes and a colon, then its value
+	 * @param fieldIndices of <code>fields</code>
+	 * @param firstFieldNumber position of the first of <code>fields</code> in all the fields
+	 */
+	private static void visitWriteFieldsMethod(
+			ClassWriter cw,
+			String methodName,
+			String internalName,
+			List<Field> fields,
+			List<Integer> fieldIndices,
+			int firstFieldNumber) {
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE, methodName, WRITE_METHOD_DESCRIPTOR, null, null);
+		mv.visitCode();
+		for (int i = 0; i < fields.size(); i++) {
+			Class<?> fieldType = fields.get(i).getType();
+			
+			mv.visitVarInsn(ALOAD, 2);
+			visitLoadEncodedName(mv, internalName, "prefixes", firstFieldNumber + i);
+			mv.visitMethodInsn(INVOKEVIRTUAL, JSON_OUTPUT_INTERNAL_NAME, "writeRaw", "([B)V", false);
+			
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, internalName, "fieldAccess", "L" + FIELD_ACCESS_INTERNAL_NAME + ";");
+			mv.visitVarInsn(ALOAD, 1);
+			AsmUtils.visitZeroOperandInt(mv, fieldIndices.get(i));
+			mv.visitMethodInsn(
+					INVOKEINTERFACE,
+					FIELD_ACCESS_INTERNAL_NAME,
+					"get" + getFieldAccessMethodSuffix(fieldType),
+					"(Ljava/lang/Object;I)" + getFieldAccessValueDescriptor(fieldType),
+					true);
+			if (fieldType == byte[].class) {
+				// getField() returns an Object
+				mv.visitTypeInsn(CHECKCAST, "[B");
+			}
+			mv.visitMethodInsn(
+					INVOKEVIRTUAL,
+					JSON_OUTPUT_INTERNAL_NAME,
+					"write" + METHOD_SUFFIXES.get(fieldType),
+					"(" + Type.getDescriptor(fieldType) + ")V",
+					false);
+		}
+		mv.visitInsn(RETURN);
+		// The output, field access, object and field index
+		mv.visitMaxs(4, 3);
+		mv.visitEnd();
+	}
+	
+	/**
+	 * Defines one codec, so that codecs of classes with the same name in different class loaders do not clash
+	 */
+	private static final class CodecClassLoader extends ClassLoader {
+		CodecClassLoader() {
+			super(JsonCodecFactory.class.getClassLoader());
+		}
+		
+		Class<?> defineCodecClass(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+	
+	private JsonCodecFactory() {}
+}
@@ -0,0 +1,678 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.json;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * UTF-8 JSON read from a byte array, with the read methods of values that the generated code of a {@link JsonCodec}
+ * calls. The values are read in the encodings of {@link JsonOutput}, and numbers are parsed from the bytes without
+ * allocating unless they have many digits.
+ */
+public final class JsonInput {
+	private static final double[] DOUBLE_POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	private static final byte[] FALSE_BYTES = { 'f', 'a', 'l', 's', 'e' };
+	private static final float[] FLOAT_POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+	/**
+	 * Integers up to 2^53 and 2^24 are exact in a <code>double</code> and <code>float</code>, so multiplying or
+	 * dividing them by an exact power of ten is correctly rounded
+	 */
+	private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+	private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+	private static final int MAX_MANTISSA_DIGITS = 18;
+	private static final byte[] NULL_BYTES = { 'n', 'u', 'l', 'l' };
+	private static final byte[] TRUE_BYTES = { 't', 'r', 'u', 'e' };
+	
+	/**
+	 * 
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 * @return the hash of the bytes of a name that {@link #nameHash()} returns
+	 */
+	static int hash(byte[] bytes, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + bytes[i];
+		}
+		return hash;
+	}
+	
+	private static boolean isDigit(int b) {
+		return b >= '0' && b <= '9';
+	}
+	
+	private final byte[] bytes;
+	/**
+	 * Whether a comma comes before the next member of the object
+	 */
+	private boolean isAfterMember;
+	private boolean isNumberMantissaExact;
+	private boolean isNumberNegative;
+	private final int limit;
+	private int nameHash;
+	private int nameLength;
+	private int numberExponent;
+	/**
+	 * Digits of the last number, as an integer whose decimal point is moved by {@link #numberExponent}, unless it has
+	 * more than {@link #MAX_MANTISSA_DIGITS} digits
+	 */
+	private long numberMantissa;
+	private int numberStart;
+	private int position;
+	/**
+	 * Decoded UTF-8 bytes of the last name or string that has escape sequences
+	 */
+	private byte[] stringBytes;
+	private int stringOffset;
+	/**
+	 * Either {@link #bytes} or {@link #stringBytes}, whichever has the UTF-8 bytes of the last name or string from
+	 * {@link #stringOffset}
+	 */
+	private byte[] stringSource;
+	
+	public JsonInput(byte[] bytes) {
+		this(bytes, 0, bytes.length);
+	}
+	
+	public JsonInput(byte[] bytes, int offset, int length) {
+		this.bytes = bytes;
+		position = offset;
+		limit = offset + length;
+	}
+	
+	/**
+	 * Reads the opening brace of an object
+	 * @throws IllegalArgumentException if the next value is not an object
+	 */
+	public void beginObject() {
+		skipWhitespace();
+		expect('{', "an object");
+		isAfterMember = false;
+	}
+	
+	/**
+	 * 
+	 * @param name UTF-8 bytes
+	 * @return <code>true</code> if the name that {@link #nextName()} read has the bytes
+	 */
+	public boolean nameEquals(byte[] name) {
+		if (name.length != nameLength) {
+			return false;
+		}
+		for (int i = 0; i < nameLength; i++) {
+			if (name[i] != stringSource[stringOffset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * 
+	 * @return the hash of the name that {@link #nextName()} read
+	 */
+	public int nameHash() {
+		return nameHash;
+	}
+	
+	/**
+	 * Reads the name and colon of the next member of the object that {@link #beginObject()} began, or its closing
+	 * brace
+	 * @return <code>true</code> if there is a member, whose value is next
+	 * @throws IllegalArgumentException if the JSON is invalid
+	 */
+	public boolean nextName() {
+		skipWhitespace();
+		if (position < limit && bytes[position] == '}') {
+			position++;
+			return false;
+		}
+		if (isAfterMember) {
+			expect(',', "a comma or closing brace");
+			skipWhitespace();
+		}
+		if (position >= limit || bytes[position] != '"') {
+			throw newException("a name");
+		}
+		nameLength = readStringBytes();
+		nameHash = hash(stringSource, stringOffset, nameLength);
+		skipWhitespace();
+		expect(':', "a colon");
+		isAfterMember = true;
+		return true;
+	}
+	
+	/**
+	 * 
+	 * @return the position of the next byte to read
+	 */
+	public int position() {
+		return position;
+	}
+	
+	public BigDecimal readBigDecimal() {
+		if (readNull()) {
+			return null;
+		}
+		readNumber();
+		return new BigDecimal(new String(bytes, numberStart, position - numberStart, StandardCharsets.US_ASCII));
+	}
+	
+	public boolean readBoolean() {
+		skipWhitespace();
+		if (position < limit && bytes[position] == 't') {
+			expectLiteral(TRUE_BYTES, "a boolean");
+			return true;
+		}
+		expectLiteral(FALSE_BYTES, "a boolean");
+		return false;
+	}
+	
+	public Boolean readBoxedBoolean() {
+		return readNull() ? null : readBoolean();
+	}
+	
+	public Byte readBoxedByte() {
+		return readNull() ? null : readByte();
+	}
+	
+	public Character readBoxedChar() {
+		return readNull() ? null : readChar();
+	}
+	
+	public Double readBoxedDouble() {
+		return readNull() ? null : readDouble();
+	}
+	
+	public Float readBoxedFloat() {
+		return readNull() ? null : readFloat();
+	}
+	
+	public Integer readBoxedInt() {
+		return readNull() ? null : readInt();
+	}
+	
+	public Long readBoxedLong() {
+		return readNull() ? null : readLong();
+	}
+	
+	public Short readBoxedShort() {
+		return readNull() ? null : readShort();
+	}
+	
+	public byte readByte() {
+		return (byte)readInteger(Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
+	}
+	
+	/**
+	 * 
+	 * @return the bytes of a string in Base64
+	 */
+	public byte[] readBytes() {
+		if (readNull()) {
+			return null;
+		}
+		skipWhitespace();
+		if (position >= limit || bytes[position] != '"') {
+			throw newException("a string");
+		}
+		int length = readStringBytes();
+		try {
+			return Base64.getDecoder().decode(Arrays.copyOfRange(stringSource, stringOffset, stringOffset + length));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Expected Base64 before position " + position, e);
+		}
+	}
+	
+	public char readChar() {
+		String value = readString();
+		if (value == null || value.length() != 1) {
+			throw new IllegalArgumentException("Expected a string of one character before position " + position);
+		}
+		return value.charAt(0);
+	}
+	
+	public Date readDate() {
+		return readNull() ? null : new Date(readLong());
+	}
+	
+	public double readDouble() {
+		skipWhitespace();
+		if (position < limit && bytes[position] == '"') {
+			return Double.parseDouble(readString());
+		}
+		
+		readNumber();
+		if (isNumberMantissaExact
+				&& numberMantissa <= MAX_EXACT_DOUBLE_MANTISSA
+				&& Math.abs(numberExponent) < DOUBLE_POWERS_OF_TEN.length) {
+			double value = numberExponent < 0
+					? numberMantissa / DOUBLE_POWERS_OF_TEN[-numberExponent]
+					: numberMantissa * DOUBLE_POWERS_OF_TEN[numberExponent];
+			return isNumberNegative ? -value : value;
+		}
+		return Double.parseDouble(new String(bytes, numberStart, position - numberStart, StandardCharsets.US_ASCII));
+	}
+	
+	public float readFloat() {
+		skipWhitespace();
+		if (position < limit && bytes[position] == '"') {
+			return Float.parseFloat(readString());
+		}
+		
+		readNumber();
+		if (isNumberMantissaExact
+				&& numberMantissa <= MAX_EXACT_FLOAT_MANTISSA
+				&& Math.abs(numberExponent) < FLOAT_POWERS_OF_TEN.length) {
+			float value = numberExponent < 0
+					? numberMantissa / FLOAT_POWERS_OF_TEN[-numberExponent]
+					: numberMantissa * FLOAT_POWERS_OF_TEN[numberExponent];
+			return isNumberNegative ? -value : value;
+		}
+		return Float.parseFloat(new String(bytes, numberStart, position - numberStart, StandardCharsets.US_ASCII));
+	}
+	
+	public int readInt() {
+		return (int)readInteger(Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+	}
+	
+	public LocalDate readLocalDate() {
+		String value = readString();
+		return value != null ? LocalDate.parse(value) : null;
+	}
+	
+	public LocalDateTime readLocalDateTime() {
+		String value = readString();
+		return value != null ? LocalDateTime.parse(value) : null;
+	}
+	
+	public long readLong() {
+		return readInteger(Long.MIN_VALUE, Long.MAX_VALUE, "long");
+	}
+	
+	public short readShort() {
+		return (short)readInteger(Short.MIN_VALUE, Short.MAX_VALUE, "short");
+	}
+	
+	public String readString() {
+		if (readNull()) {
+			return null;
+		}
+		if (position >= limit || bytes[position] != '"') {
+			throw newException("a string");
+		}
+		int length = readStringBytes();
+		return new String(stringSource, stringOffset, length, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Skips the next value, including the members or elements of an object or array
+	 * @throws IllegalArgumentException if the JSON is invalid
+	 */
+	public void skipValue() {
+		int depth = 0;
+		do {
+			skipWhitespace();
+			if (position >= limit) {
+				throw newException("a value");
+			}
+			switch (bytes[position]) {
+				case '"':
+					readStringBytes();
+					break;
+				case '{':
+				case '[':
+					depth++;
+					position++;
+					break;
+				case '}':
+				case ']':
+				case ',':
+				case ':':
+					if (depth == 0) {
+						throw newException("a value");
+					}
+					if (bytes[position] == '}' || bytes[position] == ']') {
+						depth--;
+					}
+					position++;
+					break;
+				default:
+					int start = position;
+					while (position < limit && !isEndOfLiteral(bytes[position])) {
+						position++;
+					}
+					if (position == start) {
+						throw newException("a value");
+					}
+			}
+		} while (depth > 0);
+	}
+	
+	private void expect(char c, String expected) {
+		if (position >= limit || bytes[position] != c) {
+			throw newException(expected);
+		}
+		position++;
+	}
+	
+	private void expectLiteral(byte[] literal, String expected) {
+		if (limit - position < literal.length) {
+			throw newException(expected);
+		}
+		for (int i = 0; i < literal.length; i++) {
+			if (bytes[position + i] != literal[i]) {
+				throw newException(expected);
+			}
+		}
+		position += literal.length;
+	}
+	
+	private boolean isEndOfLiteral(byte b) {
+		return b == ',' || b == '}' || b == ']' || b == ':' || b == '"' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+	
+	private IllegalArgumentException newException(String expected) {
+		return new IllegalArgumentException("Expected " + expected + " at position " + position);
+	}
+	
+	private IllegalArgumentException outOfRange(int start, String typeName) {
+		int end = start;
+		while (end < limit && (isDigit(bytes[end]) || bytes[end] == '-')) {
+			end++;
+		}
+		return new IllegalArgumentException("Number "
+				+ new String(bytes, start, end - start, StandardCharsets.US_ASCII)
+				+ " at position " + start + " is out of the range of " + typeName);
+	}
+	
+	private int readHexDigits() {
+		if (limit - position < 4) {
+			throw newException("4 hexadecimal digits");
+		}
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int digit = Character.digit(bytes[position++], 16);
+			if (digit < 0) {
+				throw newException("4 hexadecimal digits");
+			}
+			value = value << 4 | digit;
+		}
+		return value;
+	}
+	
+	/**
+	 * 
+	 * @param min
+	 * @param max
+	 * @param typeName
+	 * @return a number without a fraction or exponent, between the min and max
+	 */
+	private long readInteger(long min, long max, String typeName) {
+		skipWhitespace();
+		int start = position;
+		boolean isNegative = position < limit && bytes[position] == '-';
+		if (isNegative) {
+			position++;
+		}
+		int digitsStart = position;
+		// Accumulated as a negative number, whose range includes Long.MIN_VALUE
+		long value = 0;
+		while (position < limit && isDigit(bytes[position])) {
+			int digit = bytes[position++] - '0';
+			if (value < (Long.MIN_VALUE + digit) / 10) {
+				throw outOfRange(start, typeName);
+			}
+			value = value * 10 - digit;
+		}
+		if (position == digitsStart
+				|| position < limit && (bytes[position] == '.' || bytes[position] == 'e' || bytes[position] == 'E')) {
+			position = start;
+			throw newException("an integer");
+		}
+		if (!isNegative) {
+			if (value == Long.MIN_VALUE) {
+				throw outOfRange(start, typeName);
+			}
+			value = -value;
+		}
+		if (value < min || value > max) {
+			throw outOfRange(start, typeName);
+		}
+		return value;
+	}
+	
+	/**
+	 * 
+	 * @return <code>true</code> after reading <code>null</code>, otherwise <code>false</code> without reading
+	 */
+	private boolean readNull() {
+		skipWhitespace();
+		if (position < limit && bytes[position] == 'n') {
+			expectLiteral(NULL_BYTES, "null");
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads a number, whose digits are in {@link #numberMantissa} unless there are too many
+	 */
+	private void readNumber() {
+		skipWhitespace();
+		numberStart = position;
+		isNumberNegative = position < limit && bytes[position] == '-';
+		if (isNumberNegative) {
+			position++;
+		}
+		
+		long mantissa = 0;
+		int mantissaDigits = 0;
+		int exponent = 0;
+		int integerDigitsStart = position;
+		while (position < limit && isDigit(bytes[position])) {
+			if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+				mantissa = mantissa * 10 + bytes[position] - '0';
+				mantissaDigits += mantissa != 0 ? 1 : 0;
+			} else {
+				mantissaDigits++;
+			}
+			position++;
+		}
+		if (position == integerDigitsStart) {
+			throw newException("a number");
+		}
+		
+		if (position < limit && bytes[position] == '.') {
+			position++;
+			int fractionDigitsStart = position;
+			while (position < limit && isDigit(bytes[position])) {
+				if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+					mantissa = mantissa * 10 + bytes[position] - '0';
+					mantissaDigits += mantissa != 0 ? 1 : 0;
+					exponent--;
+				} else {
+					mantissaDigits++;
+				}
+				position++;
+			}
+			if (position == fractionDigitsStart) {
+				throw newException("a digit");
+			}
+		}
+		
+		if (position < limit && (bytes[position] == 'e' || bytes[position] == 'E')) {
+			position++;
+			boolean isExponentNegative = position < limit && bytes[position] == '-';
+			if (position < limit && (bytes[position] == '-' || bytes[position] == '+')) {
+				position++;
+			}
+			int exponentDigitsStart = position;
+			int explicitExponent = 0;
+			while (position < limit && isDigit(bytes[position])) {
+				// Large enough to be out of the range of double without overflowing
+				explicitExponent = Math.min(explicitExponent * 10 + bytes[position] - '0', 100_000);
+				position++;
+			}
+			if (position == exponentDigitsStart) {
+				throw newException("a digit");
+			}
+			exponent += isExponentNegative ? -explicitExponent : explicitExponent;
+		}
+		
+		numberMantissa = mantissa;
+		numberExponent = exponent;
+		isNumberMantissaExact = mantissaDigits <= MAX_MANTISSA_DIGITS;
+	}
+	
+	/**
+	 * Reads a string, whose UTF-8 bytes are left in {@link #stringSource}, without copying them unless there are
+	 * escape sequences
+	 * @return the length of the UTF-8 bytes
+	 */
+	private int readStringBytes() {
+		int start = position;
+		int end = start + 1;
+		while (end < limit && bytes[end] != '"' && bytes[end] != '\\') {
+			end++;
+		}
+		if (end < limit && bytes[end] == '"') {
+			stringSource = bytes;
+			stringOffset = start + 1;
+			position = end + 1;
+			return end - start - 1;
+		}
+		
+		// Decodes the escape sequences, after the bytes before the first one
+		int length = end - start - 1;
+		if (stringBytes == null || stringBytes.length < length + 4) {
+			stringBytes = new byte[Math.max(64, Integer.highestOneBit(length + 4) << 1)];
+		}
+		System.arraycopy(bytes, start + 1, stringBytes, 0, length);
+		stringOffset = 0;
+		position = end;
+		while (true) {
+			if (position >= limit) {
+				position = start;
+				throw newException("a string that ends");
+			}
+			if (length + 4 > stringBytes.length) {
+				stringBytes = Arrays.copyOf(stringBytes, stringBytes.length * 2);
+			}
+			
+			byte b = bytes[position++];
+			if (b == '"') {
+				stringSource = stringBytes;
+				return length;
+			}
+			if (b != '\\') {
+				stringBytes[length++] = b;
+				continue;
+			}
+			
+			if (position >= limit) {
+				throw newException("an escape sequence");
+			}
+			b = bytes[position++];
+			switch (b) {
+				case '"':
+				case '\\':
+				case '/':
+					stringBytes[length++] = b;
+					break;
+				case 'b':
+					stringBytes[length++] = '\b';
+					break;
+				case 'f':
+					stringBytes[length++] = '\f';
+					break;
+				case 'n':
+					stringBytes[length++] = '\n';
+					break;
+				case 'r':
+					stringBytes[length++] = '\r';
+					break;
+				case 't':
+					stringBytes[length++] = '\t';
+					break;
+				case 'u':
+					int codePoint = readHexDigits();
+					if (Character.isHighSurrogate((char)codePoint)
+							&& limit - position >= 6
+							&& bytes[position] == '\\'
+							&& bytes[position + 1] == 'u') {
+						position += 2;
+						int lowSurrogate = readHexDigits();
+						if (!Character.isLowSurrogate((char)lowSurrogate)) {
+							throw newException("a low surrogate");
+						}
+						codePoint = Character.toCodePoint((char)codePoint, (char)lowSurrogate);
+					}
+					length = writeUtf8(codePoint, length);
+					break;
+				default:
+					position--;
+					throw newException("an escape sequence");
+			}
+		}
+	}
+	
+	private void skipWhitespace() {
+		while (position < limit) {
+			byte b = bytes[position];
+			if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+				return;
+			}
+			position++;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param codePoint
+	 * @param length of {@link #stringBytes}, which has room for 4 more bytes
+	 * @return the length after the UTF-8 bytes of the code point
+	 */
+	private int writeUtf8(int codePoint, int length) {
+		if (codePoint < 0x80) {
+			stringBytes[length++] = (byte)codePoint;
+		} else if (codePoint < 0x800) {
+			stringBytes[length++] = (byte)(0xc0 | codePoint >> 6);
+			stringBytes[length++] = (byte)(0x80 | codePoint & 0x3f);
+		} else if (codePoint < 0x10000) {
+			if (Character.isSurrogate((char)codePoint)) {
+				// Unpaired surrogate, which cannot be encoded
+				stringBytes[length++] = '?';
+				return length;
+			}
+			stringBytes[length++] = (byte)(0xe0 | codePoint >> 12);
+			stringBytes[length++] = (byte)(0x80 | codePoint >> 6 & 0x3f);
+			stringBytes[length++] = (byte)(0x80 | codePoint & 0x3f);
+		} else {
+			stringBytes[length++] = (byte)(0xf0 | codePoint >> 18);
+			stringBytes[length++] = (byte)(0x80 | codePoint >> 12 & 0x3f);
+			stringBytes[length++] = (byte)(0x80 | codePoint >> 6 & 0x3f);
+			stringBytes[length++] = (byte)(0x80 | codePoint & 0x3f);
+		}
+		return length;
+	}
+}
@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * UTF-8 JSON written to a reusable byte array, which is written to an {@link OutputStream} whenever it is full if
+ * there is one. The write methods of values are what the generated code of a {@link JsonCodec} calls, with these
+ * encodings:
+ * <ul>
+ * <li>Integral primitives: numbers, formatted without allocating</li>
+ * <li><code>float</code> and <code>double</code>: numbers, or the strings <code>"NaN"</code>,
+ * <code>"Infinity"</code> and <code>"-Infinity"</code>, which are not numbers in JSON</li>
+ * <li><code>char</code>: a string of the character</li>
+ * <li>Primitive wrappers: as their primitives, or <code>null</code></li>
+ * <li>{@link BigDecimal}: a number, of {@link BigDecimal#toString()}</li>
+ * <li><code>byte[]</code>: a string in Base64</li>
+ * <li>{@link Date}: a number, of its time in milliseconds</li>
+ * <li>{@link LocalDate} and {@link LocalDateTime}: strings in ISO-8601, of their <code>toString()</code></li>
+ * </ul>
+ */
+public final class JsonOutput {
+	private static final int DEFAULT_CAPACITY = 256;
+	private static final int DEFAULT_STREAM_BUFFER_SIZE = 8192;
+	private static final byte[] FALSE_BYTES = { 'f', 'a', 'l', 's', 'e' };
+	private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+	/**
+	 * Whole numbers of at most 15 digits are written as a <code>long</code> followed by <code>.0</code>, which is
+	 * what {@link Double#toString(double)} returns for them
+	 */
+	private static final double MAX_WHOLE_DOUBLE = 1e15d;
+	private static final byte[] MIN_LONG_BYTES = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NULL_BYTES = { 'n', 'u', 'l', 'l' };
+	private static final byte[] TRUE_BYTES = { 't', 'r', 'u', 'e' };
+	
+	private static int getDigitCount(long value) {
+		int digitCount = 1;
+		for (long x = value; x >= 10; x /= 10) {
+			digitCount++;
+		}
+		return digitCount;
+	}
+	
+	private byte[] buffer;
+	private int count;
+	private final OutputStream out;
+	
+	public JsonOutput() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * 
+	 * @param capacity initial size of the byte array, which grows as needed
+	 */
+	public JsonOutput(int capacity) {
+		buffer = new byte[capacity];
+		out = null;
+	}
+	
+	/**
+	 * 
+	 * @param out that the bytes are written to whenever the buffer is full, and by {@link #flush()}
+	 */
+	public JsonOutput(OutputStream out) {
+		this(out, DEFAULT_STREAM_BUFFER_SIZE);
+	}
+	
+	/**
+	 * 
+	 * @param out that the bytes are written to whenever the buffer is full, and by {@link #flush()}
+	 * @param bufferSize
+	 */
+	public JsonOutput(OutputStream out, int bufferSize) {
+		buffer = new byte[bufferSize];
+		this.out = out;
+	}
+	
+	/**
+	 * Writes the bytes in the buffer to the stream, then flushes the stream. Does nothing if there is no stream.
+	 * @throws UncheckedIOException
+	 */
+	public void flush() {
+		if (out == null) {
+			return;
+		}
+		flushBuffer();
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Discards the bytes in the buffer, to reuse it for other JSON
+	 */
+	public void reset() {
+		count = 0;
+	}
+	
+	/**
+	 * 
+	 * @return the number of bytes in the buffer
+	 */
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * 
+	 * @return a copy of the bytes in the buffer
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(buffer, count);
+	}
+	
+	public void writeBigDecimal(BigDecimal value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeAscii(value.toString());
+	}
+	
+	public void writeBoolean(boolean value) {
+		writeRaw(value ? TRUE_BYTES : FALSE_BYTES);
+	}
+	
+	public void writeBoxedBoolean(Boolean value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeBoolean(value);
+	}
+	
+	public void writeBoxedByte(Byte value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeInt(value);
+	}
+	
+	public void writeBoxedChar(Character value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeChar(value);
+	}
+	
+	public void writeBoxedDouble(Double value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeDouble(value);
+	}
+	
+	public void writeBoxedFloat(Float value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeFloat(value);
+	}
+	
+	public void writeBoxedInt(Integer value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeInt(value);
+	}
+	
+	public void writeBoxedLong(Long value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeLong(value);
+	}
+	
+	public void writeBoxedShort(Short value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeInt(value);
+	}
+	
+	public void writeByte(byte value) {
+		writeInt(value);
+	}
+	
+	public void writeBytes(byte[] value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeRawByte('"');
+		writeRaw(Base64.getEncoder().encode(value));
+		writeRawByte('"');
+	}
+	
+	public void writeChar(char value) {
+		ensureCapacity(8);
+		buffer[count++] = '"';
+		writeEscapedChar(Character.isSurrogate(value) ? '?' : value);
+		buffer[count++] = '"';
+	}
+	
+	public void writeDate(Date value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeLong(value.getTime());
+	}
+	
+	public void writeDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			writeString(Double.toString(value));
+		} else if (value == (long)value
+				&& Math.abs(value) < MAX_WHOLE_DOUBLE
+				&& Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(-0d)) {
+			writeLong((long)value);
+			writeRawByte('.');
+			writeRawByte('0');
+		} else {
+			writeAscii(Double.toString(value));
+		}
+	}
+	
+	public void writeFloat(float value) {
+		if (Float.isNaN(value) || Float.isInfinite(value)) {
+			writeString(Float.toString(value));
+		} else {
+			writeAscii(Float.toString(value));
+		}
+	}
+	
+	public void writeInt(int value) {
+		writeLong(value);
+	}
+	
+	public void writeLocalDate(LocalDate value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeRawByte('"');
+		writeAscii(value.toString());
+		writeRawByte('"');
+	}
+	
+	public void writeLocalDateTime(LocalDateTime value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		writeRawByte('"');
+		writeAscii(value.toString());
+		writeRawByte('"');
+	}
+	
+	public void writeLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			writeRaw(MIN_LONG_BYTES);
+			return;
+		}
+		
+		ensureCapacity(20);
+		if (value < 0) {
+			buffer[count++] = '-';
+			value = -value;
+		}
+		int digitCount = getDigitCount(value);
+		int position = count + digitCount;
+		do {
+			buffer[--position] = (byte)('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		count += digitCount;
+	}
+	
+	public void writeNull() {
+		writeRaw(NULL_BYTES);
+	}
+	
+	/**
+	 * Writes bytes that are already encoded, e.g. a name of a member followed by a colon
+	 * @param bytes
+	 */
+	public void writeRaw(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, count, bytes.length);
+		count += bytes.length;
+	}
+	
+	/**
+	 * Writes a byte that is already encoded, e.g. a brace or comma
+	 * @param b
+	 */
+	public void writeRawByte(int b) {
+		ensureCapacity(1);
+		buffer[count++] = (byte)b;
+	}
+	
+	public void writeShort(short value) {
+		writeInt(value);
+	}
+	
+	/**
+	 * Writes a string in UTF-8, escaping quotes, backslashes and control characters
+	 * @param value
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		
+		ensureCapacity(value.length() + 2);
+		buffer[count++] = '"';
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			ensureCapacity(6);
+			if (!Character.isSurrogate(c)) {
+				writeEscapedChar(c);
+			} else if (Character.isHighSurrogate(c)
+					&& i + 1 < value.length()
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[count++] = (byte)(0xf0 | codePoint >> 18);
+				buffer[count++] = (byte)(0x80 | codePoint >> 12 & 0x3f);
+				buffer[count++] = (byte)(0x80 | codePoint >> 6 & 0x3f);
+				buffer[count++] = (byte)(0x80 | codePoint & 0x3f);
+			} else {
+				// Unpaired surrogate, which cannot be encoded
+				buffer[count++] = '?';
+			}
+		}
+		ensureCapacity(1);
+		buffer[count++] = '"';
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(buffer, 0, count);
+	}
+	
+	/**
+	 * Makes room for the bytes to write, by writing the buffer to the stream if there is one, otherwise by growing it
+	 * @param length
+	 */
+	private void ensureCapacity(int length) {
+		if (count + length <= buffer.length) {
+			return;
+		}
+		if (out != null) {
+			flushBuffer();
+			if (length <= buffer.length) {
+				return;
+			}
+		}
+		buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+	}
+	
+	private void flushBuffer() {
+		try {
+			out.write(buffer, 0, count);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		count = 0;
+	}
+	
+	private void writeAscii(String value) {
+		ensureCapacity(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			buffer[count++] = (byte)value.charAt(i);
+		}
+	}
+	
+	/**
+	 * Writes a character that is not a surrogate, for which there must be room for 6 bytes
+	 * @param c
+	 */
+	private void writeEscapedChar(char c) {
+		if (c >= 0x80) {
+			if (c < 0x800) {
+				buffer[count++] = (byte)(0xc0 | c >> 6);
+			} else {
+				buffer[count++] = (byte)(0xe0 | c >> 12);
+				buffer[count++] = (byte)(0x80 | c >> 6 & 0x3f);
+			}
+			buffer[count++] = (byte)(0x80 | c & 0x3f);
+			return;
+		}
+		
+		switch (c) {
+			case '"':
+			case '\\':
+				buffer[count++] = '\\';
+				buffer[count++] = (byte)c;
+				return;
+			case '\n':
+				buffer[count++] = '\\';
+				buffer[count++] = 'n';
+				return;
+			case '\r':
+				buffer[count++] = '\\';
+				buffer[count++] = 'r';
+				return;
+			case '\t':
+				buffer[count++] = '\\';
+				buffer[count++] = 't';
+				return;
+		}
+		if (c < 0x20) {
+			buffer[count++] = '\\';
+			buffer[count++] = 'u';
+			buffer[count++] = '0';
+			buffer[count++] = '0';
+			buffer[count++] = HEX_DIGITS[c >> 4];
+			buffer[count++] = HEX_DIGITS[c & 0xf];
+			return;
+		}
+		buffer[count++] = (byte)c;
+	}
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.json.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.json.JsonCodec;
+import com.github.javalbert.reflection.json.JsonCodecFactory;
+import com.github.javalbert.reflection.json.JsonInput;
+import com.github.javalbert.reflection.json.JsonOutput;
+import com.github.javalbert.reflection.test.Customer;
+
+public class JsonCodecTest {
+	private static JsonInput input(String json) {
+		return new JsonInput(json.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static <T> String toJson(JsonCodec<T> codec, T obj) {
+		JsonOutput out = new JsonOutput();
+		codec.write(obj, out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	@Test
+	public void getCodecOfClassWithUnsupportedFieldAndVerifyException() {
+		try {
+			JsonCodecFactory.get(Unsupported.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field values is of type java.util.List, which cannot be written as JSON"));
+		}
+	}
+	
+	@Test
+	public void getCodecTwiceAndVerifySameInstance() {
+		assertThat(JsonCodecFactory.get(Reading.class), sameInstance(JsonCodecFactory.get(Reading.class)));
+	}
+	
+	@Test
+	public void readEscapedStringsAndVerify() {
+		Reading reading = JsonCodecFactory.get(Reading.class).read(input(
+				"{\"n\\u0061me\":\"tab\\tquote\\\"slash\\/\\\\ \\u00e9\\ud83d\\ude00 \u2615\",\"code\":\"\\u0041\"}"));
+		
+		assertThat(reading.name, equalTo("tab\tquote\"slash/\\ \u00e9\ud83d\ude00 \u2615"));
+		assertThat(reading.code, equalTo('A'));
+	}
+	
+	@Test
+	public void readIntoObjectAndVerifyMissingFieldsUnchanged() {
+		Reading reading = new Reading();
+		reading.count = 5;
+		reading.name = "name";
+		
+		JsonCodecFactory.get(Reading.class).read(input("{\"name\":null}"), reading);
+		
+		assertThat(reading.count, equalTo(5));
+		assertThat(reading.name, nullValue());
+	}
+	
+	@Test
+	public void readInvalidJsonAndVerifyException() {
+		JsonCodec<Reading> codec = JsonCodecFactory.get(Reading.class);
+		
+		String[][] jsonAndMessages = {
+				{ "{\"count\":1 \"total\":2}", "Expected a comma or closing brace at position 11" },
+				{ "{\"count\":\"1\"}", "Expected an integer at position 9" },
+				{ "{\"count\":1.5}", "Expected an integer at position 9" },
+				{ "{\"count\":2147483648}", "Number 2147483648 at position 9 is out of the range of int" },
+				{ "{\"total\":-9223372036854775809}", "Number -9223372036854775809 at position 9 is out of the range of long" },
+				{ "{\"active\":yes}", "Expected a boolean at position 10" },
+				{ "{\"name\":\"unterminated}", "Expected a string that ends at position 8" },
+				{ "{\"other\":}", "Expected a value at position 9" },
+				{ "[]", "Expected an object at position 0" },
+		};
+		for (String[] jsonAndMessage : jsonAndMessages) {
+			try {
+				codec.read(input(jsonAndMessage[0]));
+				fail("expected IllegalArgumentException for " + jsonAndMessage[0]);
+			} catch (IllegalArgumentException e) {
+				assertThat(e.getMessage(), equalTo(jsonAndMessage[1]));
+			}
+		}
+	}
+	
+	@Test
+	public void readNamesWithSameHashAndVerify() {
+		JsonCodec<SameHash> codec = JsonCodecFactory.get(SameHash.class);
+		
+		SameHash sameHash = codec.read(input("{\"BB\":2,\"Aa\":1}"));
+		
+		assertThat(sameHash.Aa, equalTo(1));
+		assertThat(sameHash.BB, equalTo(2));
+	}
+	
+	@Test
+	public void readNumbersAndVerifyParsedExactly() {
+		JsonCodec<Reading> codec = JsonCodecFactory.get(Reading.class);
+		String[] doubles = {
+				"0.1", "-0.0", "1e22", "1E-5", "123456789012345678901234", "4.9e-324", "1.7976931348623157e308",
+				"2.2250738585072014E-308", "9007199254740993", "0.30000000000000004" };
+		
+		for (String value : doubles) {
+			Reading reading = codec.read(input("{\"value\":" + value + ",\"ratio\":" + value + "}"));
+			
+			assertThat(value, reading.value, equalTo(Double.parseDouble(value)));
+			assertThat(value, reading.ratio, equalTo(Float.parseFloat(value)));
+		}
+		assertThat(codec.read(input("{\"total\":-9223372036854775808}")).total, equalTo(Long.MIN_VALUE));
+		assertThat(codec.read(input("{\"value\":\"-Infinity\"}")).value, equalTo(Double.NEGATIVE_INFINITY));
+	}
+	
+	@Test
+	public void readWithWhitespaceAndOtherMembersAndVerify() {
+		Reading reading = JsonCodecFactory.get(Reading.class).read(input(
+				" {\n\t\"other\" : {\"count\": [1, {\"x\": \"}\"}], \"y\": null},\r\n"
+				+ " \"count\" : 3 , \"list\": [true, false, \"]\"], \"total\": -4 } "));
+		
+		assertThat(reading.count, equalTo(3));
+		assertThat(reading.total, equalTo(-4L));
+	}
+	
+	@Test
+	public void writeAndReadAndVerifyEveryField() {
+		JsonCodec<Reading> codec = JsonCodecFactory.get(Reading.class);
+		Reading reading = new Reading();
+		reading.active = true;
+		reading.amount = new BigDecimal("-12345678901234567890.125");
+		reading.boxedCode = 'y';
+		reading.boxedCount = -7;
+		reading.code = '\u00e9';
+		reading.count = Integer.MIN_VALUE;
+		reading.data = new byte[] { 1, -1, 0 };
+		reading.day = LocalDate.of(1969, 7, 20);
+		reading.flag = Boolean.FALSE;
+		reading.level = -3;
+		reading.name = "caf\u00e9 \u2615\n";
+		reading.ratio = -0.25f;
+		reading.sent = new Date(-1L);
+		reading.shortValue = Short.MAX_VALUE;
+		reading.timestamp = LocalDateTime.of(2017, 5, 6, 7, 8, 9, 123456789);
+		reading.total = Long.MAX_VALUE;
+		reading.value = Double.NaN;
+		reading.weight = 1.5d;
+		
+		String json = toJson(codec, reading);
+		Reading result = codec.read(input(json));
+		
+		assertThat(json, equalTo("{\"active\":true,\"amount\":-12345678901234567890.125,\"boxedCode\":\"y\","
+				+ "\"boxedCount\":-7,\"code\":\"\u00e9\",\"count\":-2147483648,\"data\":\"Af8A\","
+				+ "\"day\":\"1969-07-20\",\"flag\":false,\"level\":-3,\"name\":\"caf\u00e9 \u2615\\n\",\"ratio\":-0.25,"
+				+ "\"sent\":-1,\"shortValue\":32767,\"timestamp\":\"2017-05-06T07:08:09.123456789\","
+				+ "\"total\":9223372036854775807,\"value\":\"NaN\",\"weight\":1.5}"));
+		assertThat(result.active, equalTo(true));
+		assertThat(result.amount, equalTo(reading.amount));
+		assertThat(result.boxedCode, equalTo('y'));
+		assertThat(result.boxedCount, equalTo(-7));
+		assertThat(result.code, equalTo('\u00e9'));
+		assertThat(result.count, equalTo(Integer.MIN_VALUE));
+		assertThat(result.data, equalTo(reading.data));
+		assertThat(result.day, equalTo(reading.day));
+		assertThat(result.flag, equalTo(false));
+		assertThat(result.level, equalTo((byte)-3));
+		assertThat(result.name, equalTo(reading.name));
+		assertThat(result.ratio, equalTo(-0.25f));
+		assertThat(result.sent, equalTo(reading.sent));
+		assertThat(result.shortValue, equalTo(Short.MAX_VALUE));
+		assertThat(result.timestamp, equalTo(reading.timestamp));
+		assertThat(result.total, equalTo(Long.MAX_VALUE));
+		assertThat(Double.isNaN(result.value), equalTo(true));
+		assertThat(result.weight, equalTo(1.5d));
+	}
+	
+	@Test
+	public void writeAndReadInheritedAndShadowedFieldsAndVerify() {
+		JsonCodec<Customer> codec = JsonCodecFactory.get(Customer.class);
+		Customer customer = new Customer();
+		customer.setId(42L);
+		customer.setName("customer");
+		
+		String json = toJson(codec, customer);
+		Customer result = codec.read(input(json));
+		
+		// BaseEntity.version is shadowed by Customer.version
+		assertThat(json, equalTo("{\"name\":\"customer\",\"version\":null,\"id\":42}"));
+		assertThat(result.getId(), equalTo(42L));
+		assertThat(result.getName(), equalTo("customer"));
+	}
+	
+	@Test
+	public void writeNullsAndVerify() {
+		JsonCodec<Reading> codec = JsonCodecFactory.get(Reading.class);
+		
+		String json = toJson(codec, new Reading());
+		Reading result = codec.read(input(json));
+		
+		assertThat(json, equalTo("{\"active\":false,\"amount\":null,\"boxedCode\":null,\"boxedCount\":null,"
+				+ "\"code\":\"\\u0000\",\"count\":0,\"data\":null,\"day\":null,\"flag\":null,\"level\":0,\"name\":null,"
+				+ "\"ratio\":0.0,\"sent\":null,\"shortValue\":0,\"timestamp\":null,\"total\":0,\"value\":0.0,"
+				+ "\"weight\":0.0}"));
+		assertThat(result.code, equalTo('\u0000'));
+		assertThat(result.name, nullValue());
+	}
+	
+	@Test
+	public void writeToStreamAndVerifyBytes() {
+		JsonCodec<Reading> codec = JsonCodecFactory.get(Reading.class);
+		Reading reading = new Reading();
+		reading.name = "a string longer than the buffer";
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		JsonOutput out = new JsonOutput(stream, 8);
+		
+		codec.write(reading, out);
+		codec.write(reading, out);
+		out.flush();
+		
+		assertThat(
+				new String(stream.toByteArray(), StandardCharsets.UTF_8),
+				equalTo(toJson(codec, reading) + toJson(codec, reading)));
+		assertThat(out.size(), equalTo(0));
+	}
+	
+	public static class Reading {
+		private static int instances;
+		
+		private boolean active;
+		private BigDecimal amount;
+		private Character boxedCode;
+		private Integer boxedCount;
+		private char code;
+		private int count;
+		private byte[] data;
+		private LocalDate day;
+		private Boolean flag;
+		private transient String label;
+		private byte level;
+		private String name;
+		private float ratio;
+		private Date sent;
+		private short shortValue;
+		private LocalDateTime timestamp;
+		private long total;
+		private double value;
+		private double weight;
+	}
+	
+	public static class SameHash {
+		// "Aa" and "BB" have the same hash code
+		private int Aa;
+		private int BB;
+	}
+	
+	public static class Unsupported {
+		private List<String> values;
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.BeanMapper;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+public class BeanMapperTest {
+	private final BeanMapper<Product> mapper = ClassAccessFactory.getBeanMapper(Product.class);
+	
+	@Test
+	public void asMapAndVerifyViewOfCurrentValues() {
+		Product product = newProduct();
+		
+		Map<String, Object> map = mapper.asMap(product);
+		product.setName("gizmo");
+		
+		assertThat(map.get("name"), equalTo((Object)"gizmo"));
+		assertThat(map.get("id"), equalTo((Object)1L));
+		assertThat(map.get("note"), nullValue());
+		assertThat(map.get(1), nullValue());
+		assertThat(map.containsKey("label"), equalTo(true));
+		assertThat(map.containsKey("note"), equalTo(false));
+		assertThat(map.size(), equalTo(6));
+		assertThat(map, equalTo(mapper.toMap(product)));
+	}
+	
+	@Test
+	public void asMapAndPutAndVerifyException() {
+		try {
+			mapper.asMap(newProduct()).put("name", "gizmo");
+			fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+	
+	@Test
+	public void fromMapAndVerifyPropertiesOfKeysSet() {
+		Product product = newProduct();
+		Map<String, Object> map = new HashMap<>();
+		map.put("active", null);
+		map.put("id", 2L);
+		map.put("name", null);
+		map.put("note", "fragile");
+		map.put("quantity", 5);
+		map.put("unknown", "ignored");
+		
+		mapper.fromMap(map, product);
+		
+		assertThat(product.isActive(), equalTo(true));
+		assertThat(product.getId(), equalTo(2L));
+		assertThat(product.getName(), nullValue());
+		assertThat(product.note, equalTo("fragile"));
+		assertThat(product.getPrice(), equalTo(new BigDecimal("2.50")));
+		assertThat(product.getQuantity(), equalTo(5));
+	}
+	
+	@Test
+	public void fromMapWithValueOfOtherTypeAndVerifyException() {
+		try {
+			mapper.fromMap(Collections.singletonMap("id", "2"), newProduct());
+			fail("expected ClassCastException");
+		} catch (ClassCastException e) {
+		}
+	}
+	
+	@Test
+	public void getAndPositionAndVerify() {
+		Product product = newProduct();
+		
+		assertThat(mapper.get(product, mapper.position("price")), equalTo((Object)new BigDecimal("2.50")));
+		assertThat(mapper.position("note"), equalTo(-1));
+		
+		try {
+			mapper.get(product, 6);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No property with position: 6"));
+		}
+	}
+	
+	@Test
+	public void getBeanMapperTwiceAndVerifySameInstance() {
+		assertThat(mapper, sameInstance(ClassAccessFactory.getBeanMapper(Product.class)));
+	}
+	
+	@Test
+	public void toMapAndVerifyValuesInOrderOfProperties() {
+		Map<String, Object> map = mapper.toMap(newProduct());
+		
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("active", true);
+		expected.put("id", 1L);
+		expected.put("label", "widget (1)");
+		expected.put("name", "widget");
+		expected.put("price", new BigDecimal("2.50"));
+		expected.put("quantity", null);
+		assertThat(map, equalTo(expected));
+		assertThat(map.keySet().toArray(), equalTo(expected.keySet().toArray()));
+		assertThat(mapper.propertyNames(), equalTo(Arrays.asList("active", "id", "label", "name", "price", "quantity")));
+	}
+	
+	@Test
+	public void toMapSkippingNullsAndVerifyNullValuesLeftOut() {
+		Product product = newProduct();
+		product.setName(null);
+		
+		Map<String, Object> map = mapper.toMap(product, true);
+		
+		assertThat(map.keySet().toArray(), equalTo(new Object[] { "active", "id", "label", "price" }));
+	}
+	
+	private static Product newProduct() {
+		Product product = new Product();
+		product.setActive(true);
+		product.setId(1L);
+		product.setName("widget");
+		product.setPrice(new BigDecimal("2.50"));
+		return product;
+	}
+	
+	public static class Product {
+		private boolean active;
+		private long id;
+		private String name;
+		private String note;
+		private BigDecimal price;
+		private Integer quantity;
+		
+		public long getId() {
+			return id;
+		}
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getLabel() {
+			return name + " (" + id + ")";
+		}
+		
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public void setNote(String note) {
+			this.note = note;
+		}
+		
+		public BigDecimal getPrice() {
+			return price;
+		}
+		public void setPrice(BigDecimal price) {
+			this.price = price;
+		}
+		
+		public Integer getQuantity() {
+			return quantity;
+		}
+		public void setQuantity(Integer quantity) {
+			this.quantity = quantity;
+		}
+		
+		public boolean isActive() {
+			return active;
+		}
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+}
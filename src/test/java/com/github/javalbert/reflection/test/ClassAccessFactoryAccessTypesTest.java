@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.ConstructorAccess;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.MethodAccess;
+import com.github.javalbert.reflection.PropertyAccess;
+
+/**
+ * Gets the access to each kind of member on its own, and the lazy {@link ClassAccess} that delegates to them
+ */
+public class ClassAccessFactoryAccessTypesTest {
+	@Test
+	public void getConstructorAccessAndVerifyOnlyConstructorsAccessed() {
+		ConstructorAccess<Account> access = ClassAccessFactory.getConstructorAccess(Account.class);
+		
+		Account account = access.newInstance(access.constructorIndex(String.class), "savings");
+		
+		assertThat(account.name, equalTo("savings"));
+		assertThat(access instanceof FieldAccess, equalTo(false));
+		assertThat(access instanceof MethodAccess, equalTo(false));
+		assertThat(access.getClass().getName(), startsWith(Account.class.getName() + "$AccountConstructorAccess"));
+	}
+	
+	@Test
+	public void getFieldAccessAndVerifyOnlyFieldsAccessed() {
+		FieldAccess<Account> access = ClassAccessFactory.getFieldAccess(Account.class);
+		Account account = new Account();
+		
+		access.setLongField(account, access.fieldIndex("balance"), 42L);
+		
+		assertThat(account.balance, equalTo(42L));
+		assertThat(access instanceof PropertyAccess, equalTo(false));
+		assertThat(access instanceof ConstructorAccess, equalTo(false));
+		assertThat(access.getClass().getName(), startsWith(Account.class.getName() + "$AccountFieldAccess"));
+	}
+	
+	@Test
+	public void getFieldAccessOfGeneratedClassAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldAccess(ClassAccessFactory.getMethodAccess(Account.class).getClass());
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("should not get class access recursively"));
+		}
+	}
+	
+	@Test
+	public void getFieldAccessTwiceAndVerifySameInstance() {
+		assertThat(
+				ClassAccessFactory.getFieldAccess(Account.class),
+				sameInstance(ClassAccessFactory.getFieldAccess(Account.class)));
+	}
+	
+	@Test
+	public void getLazyAndVerifyEveryMethodIsImplemented() throws NoSuchMethodException {
+		Class<?> lazyClassAccessClass = ClassAccessFactory.getLazy(Account.class).getClass();
+		
+		for (Method method : ClassAccess.class.getMethods()) {
+			Method implementation = lazyClassAccessClass.getMethod(method.getName(), method.getParameterTypes());
+			
+			assertThat(implementation.toString(), Modifier.isAbstract(implementation.getModifiers()), equalTo(false));
+		}
+	}
+	
+	@Test
+	public void getLazyOfGeneratedClassAndVerifyException() {
+		try {
+			ClassAccessFactory.getLazy(ClassAccessFactory.get(Account.class).getClass());
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("should not get class access recursively"));
+		}
+	}
+	
+	@Test
+	public void getLazyTwiceAndVerifySameInstance() {
+		assertThat(ClassAccessFactory.getLazy(Account.class), sameInstance(ClassAccessFactory.getLazy(Account.class)));
+	}
+	
+	@Test
+	public void getMethodAccessAndVerifyOnlyMethodsAccessed() {
+		MethodAccess<Account> access = ClassAccessFactory.getMethodAccess(Account.class);
+		Account account = new Account();
+		
+		access.call(account, access.methodIndex("deposit", long.class), 5L);
+		
+		assertThat(access.call(account, access.methodIndex("getBalance")), equalTo((Object)5L));
+		assertThat(access instanceof FieldAccess, equalTo(false));
+		assertThat(access instanceof PropertyAccess, equalTo(false));
+	}
+	
+	@Test
+	public void getPropertyAccessAndVerifyOnlyPropertiesAccessed() {
+		PropertyAccess<Account> access = ClassAccessFactory.getPropertyAccess(Account.class);
+		Account account = new Account();
+		
+		access.setStringProperty(account, access.propertyIndex("name"), "checking");
+		
+		assertThat(access.getStringProperty(account, access.propertyIndex("name")), equalTo("checking"));
+		assertThat(access instanceof FieldAccess, equalTo(false));
+		assertThat(access instanceof MethodAccess, equalTo(false));
+	}
+	
+	@Test
+	public void useLazyClassAccessAndVerifySameResultsAsEachAccessType() {
+		ClassAccess<Account> access = ClassAccessFactory.getLazy(Account.class);
+		Account account = access.newInstance(access.constructorIndex(String.class), "savings");
+		
+		access.setLongField(account, access.fieldIndex("balance"), 10L);
+		access.call(account, access.methodIndex("deposit", long.class), 5L);
+		
+		assertThat(access.getLongProperty(account, access.propertyIndex("balance")), equalTo(15L));
+		assertThat(access.getStringProperty(account, access.propertyIndex("name")), equalTo("savings"));
+		assertThat(
+				access.fieldIndex("balance"),
+				equalTo(ClassAccessFactory.getFieldAccess(Account.class).fieldIndex("balance")));
+	}
+	
+	public static class Account {
+		private long balance;
+		private String name;
+		
+		public Account() {
+		}
+		
+		public Account(String name) {
+			this.name = name;
+		}
+		
+		public void deposit(long amount) {
+			balance += amount;
+		}
+		
+		public long getBalance() {
+			return balance;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+/**
+ * Gets the {@link ClassAccess} of classes defined in new class loaders, so that each is generated or read from the
+ * cache rather than taken from the registry
+ */
+public class ClassAccessFactoryBytecodeCacheTest {
+	private static final String ENTITY_CLASS_NAME = "com.github.javalbert.reflection.test.CachedEntity";
+	
+	/**
+	 * 
+	 * @param hasClassFile whether the class loader has the class file of the class as a resource
+	 * @param fieldNames of <code>int</code> fields
+	 * @return a class defined in a new class loader
+	 */
+	private static Class<?> defineEntity(boolean hasClassFile, String... fieldNames) throws ClassNotFoundException {
+		byte[] bytecode = generateEntity(fieldNames);
+		return new ClassLoader(ClassAccessFactoryBytecodeCacheTest.class.getClassLoader()) {
+			@Override
+			public InputStream getResourceAsStream(String name) {
+				if (hasClassFile && name.equals(ENTITY_CLASS_NAME.replace('.', '/') + ".class")) {
+					return new ByteArrayInputStream(bytecode);
+				}
+				return super.getResourceAsStream(name);
+			}
+			
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				synchronized (getClassLoadingLock(name)) {
+					if (name.equals(ENTITY_CLASS_NAME)) {
+						Class<?> clazz = findLoadedClass(name);
+						return clazz != null ? clazz : defineClass(name, bytecode, 0, bytecode.length);
+					}
+					return super.loadClass(name, resolve);
+				}
+			}
+		}.loadClass(ENTITY_CLASS_NAME);
+	}
+	
+	private static byte[] generateEntity(String... fieldNames) {
+		String internalName = ENTITY_CLASS_NAME.replace('.', '/');
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC + ACC_SUPER, internalName, null, "java/lang/Object", null);
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		for (String fieldName : fieldNames) {
+			cw.visitField(ACC_PRIVATE, fieldName, "I", null, null).visitEnd();
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@After
+	public void clearBytecodeCacheDirectory() {
+		ClassAccessFactory.setBytecodeCacheDirectory(null);
+	}
+	
+	@Test
+	public void getChangedClassAndVerifyAnotherFile() throws ClassNotFoundException, IOException {
+		Path directory = useNewBytecodeCacheDirectory();
+		
+		ClassAccessFactory.get(defineEntity(true, "count"));
+		ClassAccessFactory.get(defineEntity(true, "count", "total"));
+		
+		assertThat(listFiles(directory).size(), equalTo(2));
+	}
+	
+	@Test
+	public void getClassWithoutClassFileAndVerifyNotCached() throws ClassNotFoundException, IOException {
+		Path directory = useNewBytecodeCacheDirectory();
+		
+		ClassAccessFactory.get(defineEntity(false, "count"));
+		
+		assertThat(Files.exists(directory), equalTo(false));
+	}
+	
+	@Test
+	public void getLazyAndAccessFieldsAndVerifyOnlyFieldAccessGenerated() throws ClassNotFoundException, IOException {
+		Path directory = useNewBytecodeCacheDirectory();
+		
+		ClassAccess<?> access = ClassAccessFactory.getLazy(defineEntity(true, "count"));
+		
+		assertThat(Files.exists(directory), equalTo(false));
+		assertThat(access.fieldIndex("count"), equalTo(0));
+		List<Path> files = listFiles(directory);
+		assertThat(files.size(), equalTo(1));
+		assertThat(files.get(0).getFileName().toString(), startsWith(ENTITY_CLASS_NAME + "$CachedEntityFieldAccess-"));
+	}
+	
+	@Test
+	public void getWithCacheDirectoryAndVerifyBytecodeWrittenThenReused()
+			throws ReflectiveOperationException, IOException {
+		Path directory = useNewBytecodeCacheDirectory();
+		
+		ClassAccessFactory.get(defineEntity(true, "count"));
+		List<Path> files = listFiles(directory);
+		Files.setLastModifiedTime(files.get(0), FileTime.fromMillis(0L));
+		@SuppressWarnings("unchecked")
+		ClassAccess<Object> access = (ClassAccess<Object>)ClassAccessFactory.get(defineEntity(true, "count"));
+		Object obj = access.newInstance();
+		access.setIntField(obj, access.fieldIndex("count"), 3);
+		
+		assertThat(files.size(), equalTo(1));
+		assertThat(
+				files.get(0).getFileName().toString(),
+				allOf(startsWith(ENTITY_CLASS_NAME + "$CachedEntityClassAccess-"), endsWith(".class")));
+		// Defined from the file rather than generated and written again
+		assertThat(listFiles(directory), equalTo(files));
+		assertThat(Files.getLastModifiedTime(files.get(0)), equalTo(FileTime.fromMillis(0L)));
+		assertThat(access.getIntField(obj, access.fieldIndex("count")), equalTo(3));
+	}
+	
+	@Test
+	public void getWithCorruptCachedFileAndVerifyGeneratedAgain() throws ReflectiveOperationException, IOException {
+		Path directory = useNewBytecodeCacheDirectory();
+		ClassAccessFactory.get(defineEntity(true, "count"));
+		Path file = listFiles(directory).get(0);
+		Files.write(file, "not a class file".getBytes());
+		
+		ClassAccess<?> access = ClassAccessFactory.get(defineEntity(true, "count"));
+		
+		assertThat(access.fieldIndex("count"), equalTo(0));
+		assertThat(
+				new ClassReader(Files.readAllBytes(file)).getClassName(),
+				equalTo(ENTITY_CLASS_NAME.replace('.', '/') + "$CachedEntityClassAccess"));
+	}
+	
+	private List<Path> listFiles(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+	
+	private Path useNewBytecodeCacheDirectory() throws IOException {
+		Path directory = folder.newFolder().toPath().resolve("cache");
+		ClassAccessFactory.setBytecodeCacheDirectory(directory);
+		
+		assertThat(ClassAccessFactory.getBytecodeCacheDirectory(), equalTo(directory));
+		return directory;
+	}
+}
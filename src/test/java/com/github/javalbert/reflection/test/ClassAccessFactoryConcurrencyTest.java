@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+public class ClassAccessFactoryConcurrencyTest {
+	private static final int THREAD_COUNT = 16;
+	
+	@Test
+	public void getFromManyThreadsAndVerifySameInstance() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<ClassAccess<ConcurrentFoo>>> futures = new ArrayList<>();
+			for (int i = 0; i < THREAD_COUNT; i++) {
+				futures.add(executor.submit(new Callable<ClassAccess<ConcurrentFoo>>() {
+					@Override
+					public ClassAccess<ConcurrentFoo> call() throws Exception {
+						start.await();
+						return ClassAccessFactory.get(ConcurrentFoo.class);
+					}
+				}));
+			}
+			start.countDown();
+			
+			ClassAccess<ConcurrentFoo> expected = futures.get(0).get();
+			for (Future<ClassAccess<ConcurrentFoo>> future : futures) {
+				assertThat(future.get(), sameInstance(expected));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void getDifferentClassesFromManyThreadsAndVerifyEachIsUsable() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int i = 0; i < THREAD_COUNT; i++) {
+				boolean even = i % 2 == 0;
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+						if (even) {
+							ClassAccess<ConcurrentBar> access = ClassAccessFactory.get(ConcurrentBar.class);
+							ConcurrentBar bar = new ConcurrentBar();
+							access.setIntField(bar, access.fieldIndex("intVal"), 2);
+							return bar.intVal;
+						}
+						ClassAccess<ConcurrentBaz> access = ClassAccessFactory.get(ConcurrentBaz.class);
+						ConcurrentBaz baz = new ConcurrentBaz();
+						access.setIntField(baz, access.fieldIndex("intVal"), 3);
+						return baz.intVal;
+					}
+				}));
+			}
+			start.countDown();
+			
+			for (int i = 0; i < futures.size(); i++) {
+				assertThat(futures.get(i).get(), equalTo(i % 2 == 0 ? 2 : 3));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void getTwiceAndVerifySameInstance() {
+		assertThat(ClassAccessFactory.get(Foo.class), sameInstance(ClassAccessFactory.get(Foo.class)));
+	}
+	
+	public static class ConcurrentBar {
+		private int intVal;
+	}
+	
+	public static class ConcurrentBaz {
+		private int intVal;
+	}
+	
+	public static class ConcurrentFoo {
+		private int intVal;
+		private String string;
+	}
+}
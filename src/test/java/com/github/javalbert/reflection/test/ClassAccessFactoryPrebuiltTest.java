@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+/**
+ * Gets the {@link ClassAccess} of classes whose class loader has a class file of it generated at build time. The
+ * class file is generated for an older version of the class with only the field <code>count</code>, so that using it
+ * instead of generating one can be told by the index of the field <code>total</code>.
+ */
+public class ClassAccessFactoryPrebuiltTest {
+	private static final String ACCESS_CLASS_NAME = "com.github.javalbert.reflection.test.PrebuiltEntity$PrebuiltEntityClassAccess";
+	private static final String ENTITY_CLASS_NAME = "com.github.javalbert.reflection.test.PrebuiltEntity";
+	private static final String MODE_FIELD_NAME = "DEFINITION_MODE";
+	
+	private static byte[] prebuiltBytecode;
+	
+	/**
+	 * 
+	 * @param prebuiltBytecode class file of the {@link ClassAccess} class generated at build time, or <code>null</code>
+	 * if there is none
+	 * @param fieldNames of <code>int</code> fields
+	 * @return a class defined in a new class loader
+	 */
+	private static Class<?> defineEntity(byte[] prebuiltBytecode, String... fieldNames) throws ClassNotFoundException {
+		byte[] bytecode = generateEntity(fieldNames);
+		return new ClassLoader(ClassAccessFactoryPrebuiltTest.class.getClassLoader()) {
+			@Override
+			public InputStream getResourceAsStream(String name) {
+				if (prebuiltBytecode != null && name.equals(ACCESS_CLASS_NAME.replace('.', '/') + ".class")) {
+					return new ByteArrayInputStream(prebuiltBytecode);
+				}
+				return super.getResourceAsStream(name);
+			}
+			
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				synchronized (getClassLoadingLock(name)) {
+					byte[] classBytecode = name.equals(ENTITY_CLASS_NAME) ? bytecode
+							: name.equals(ACCESS_CLASS_NAME) ? prebuiltBytecode
+							: null;
+					if (classBytecode != null) {
+						Class<?> clazz = findLoadedClass(name);
+						return clazz != null ? clazz : defineClass(name, classBytecode, 0, classBytecode.length);
+					}
+					return super.loadClass(name, resolve);
+				}
+			}
+		}.loadClass(ENTITY_CLASS_NAME);
+	}
+	
+	private static byte[] generateEntity(String... fieldNames) {
+		String internalName = ENTITY_CLASS_NAME.replace('.', '/');
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC + ACC_SUPER, internalName, null, "java/lang/Object", null);
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		for (String fieldName : fieldNames) {
+			cw.visitField(ACC_PRIVATE, fieldName, "I", null, null).visitEnd();
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static String readMode(byte[] bytecode) {
+		String[] modeName = new String[1];
+		new ClassReader(bytecode).accept(new ClassVisitor(ASM5) {
+			@Override
+			public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+				if (name.equals(MODE_FIELD_NAME)) {
+					modeName[0] = (String)value;
+				}
+				return null;
+			}
+		}, 0);
+		return modeName[0];
+	}
+	
+	/**
+	 * 
+	 * @param bytecode
+	 * @param superName the superclass to extend instead, or <code>null</code> to keep it
+	 * @param modeName the value of the constant recording how the class is defined, or <code>null</code> to remove it
+	 * @return
+	 */
+	private static byte[] transform(byte[] bytecode, String superName, String modeName) {
+		ClassWriter cw = new ClassWriter(0);
+		new ClassReader(bytecode).accept(new ClassVisitor(ASM5, cw) {
+			@Override
+			public void visit(
+					int version,
+					int access,
+					String name,
+					String signature,
+					String originalSuperName,
+					String[] interfaces) {
+				super.visit(
+						version,
+						access,
+						name,
+						signature,
+						superName != null ? superName : originalSuperName,
+						interfaces);
+			}
+			
+			@Override
+			public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+				if (!name.equals(MODE_FIELD_NAME)) {
+					return super.visitField(access, name, desc, signature, value);
+				}
+				return modeName != null ? super.visitField(access, name, desc, signature, modeName) : null;
+			}
+		}, 0);
+		return cw.toByteArray();
+	}
+	
+	@BeforeClass
+	public static void generatePrebuiltBytecode() throws ClassNotFoundException {
+		prebuiltBytecode = ClassAccessFactory.generateClassAccessBytecode(defineEntity(null, "count"));
+	}
+	
+	@Test
+	public void generateClassAccessBytecodeAndVerifyModeRecorded() {
+		assertThat(
+				readMode(prebuiltBytecode),
+				anyOf(equalTo("HIDDEN_CLASS"), equalTo("LOOKUP_DEFINE_CLASS"), equalTo("MAGIC_ACCESSOR")));
+	}
+	
+	@Test
+	public void getWithPrebuiltClassAndVerifyUsed() throws ClassNotFoundException {
+		ClassAccess<?> access = ClassAccessFactory.get(defineEntity(prebuiltBytecode, "count", "total"));
+		
+		assertThat(access.fieldIndex("count"), equalTo(0));
+		try {
+			access.fieldIndex("total");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field with name: total"));
+		}
+	}
+	
+	@Test
+	public void getWithPrebuiltClassOfAnotherModeAndVerifyGenerated() throws ClassNotFoundException {
+		String modeName = readMode(prebuiltBytecode);
+		String otherModeName = Arrays.asList("HIDDEN_CLASS", "LOOKUP_DEFINE_CLASS", "MAGIC_ACCESSOR").stream()
+				.filter(m -> !m.equals(modeName))
+				.findFirst()
+				.get();
+		byte[] bytecode = transform(prebuiltBytecode, null, otherModeName);
+		
+		ClassAccess<?> access = ClassAccessFactory.get(defineEntity(bytecode, "count", "total"));
+		
+		assertThat(access.fieldIndex("total"), equalTo(1));
+	}
+	
+	@Test
+	public void getWithPrebuiltClassOfAnotherSuperclassAndVerifyGenerated() throws ClassNotFoundException {
+		String superName = new ClassReader(prebuiltBytecode).getSuperName();
+		byte[] bytecode = transform(
+				prebuiltBytecode,
+				superName.equals("java/lang/Object") ? "sun/reflect/MagicAccessorImpl" : "java/lang/Object",
+				readMode(prebuiltBytecode));
+		
+		ClassAccess<?> access = ClassAccessFactory.get(defineEntity(bytecode, "count", "total"));
+		
+		assertThat(access.fieldIndex("total"), equalTo(1));
+	}
+	
+	@Test
+	public void getWithPrebuiltClassWithoutModeAndVerifyGenerated() throws ClassNotFoundException {
+		byte[] bytecode = transform(prebuiltBytecode, null, null);
+		
+		ClassAccess<?> access = ClassAccessFactory.get(defineEntity(bytecode, "count", "total"));
+		
+		assertThat(access.fieldIndex("total"), equalTo(1));
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.ConstructorAccess;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.PreloadResult;
+
+public class ClassAccessFactoryPreloadTest {
+	private static final String SCANNED_PACKAGE_NAME = "com.github.javalbert.reflection.test.scanned";
+	
+	/**
+	 * 
+	 * @param internalName
+	 * @param interfaces internal names of the interfaces to implement, whose methods are left abstract since the class
+	 * is only loaded
+	 * @return bytecode of a public class with a constructor without parameters
+	 */
+	private static byte[] generateClass(String internalName, String... interfaces) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC + ACC_SUPER, internalName, null, "java/lang/Object", interfaces);
+		
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param internalName
+	 * @return bytecode of a public interface without methods
+	 */
+	private static byte[] generateInterface(String internalName) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC + ACC_ABSTRACT + ACC_INTERFACE, internalName, null, "java/lang/Object", null);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param internalName
+	 * @return bytecode of a lookup class like the one defined in the package of a class in another module, which is
+	 * not synthetic here, with the <code>lookup()</code> method that is used to define hidden classes
+	 */
+	private static byte[] generateLookupClass(String internalName) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_FINAL + ACC_SUPER, internalName, null, "java/lang/Object", null);
+		
+		MethodVisitor mv = cw.visitMethod(
+				ACC_STATIC,
+				"lookup",
+				"()Ljava/lang/invoke/MethodHandles$Lookup;",
+				null,
+				null);
+		mv.visitCode();
+		mv.visitMethodInsn(
+				INVOKESTATIC,
+				"java/lang/invoke/MethodHandles",
+				"lookup",
+				"()Ljava/lang/invoke/MethodHandles$Lookup;",
+				false);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+	
+	private static void writeClassFile(File directory, String simpleName, byte[] bytecode) throws IOException {
+		Files.write(new File(directory, simpleName + ".class").toPath(), bytecode);
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void isPreloadableAndVerify() {
+		assertThat(ClassAccessFactory.isPreloadable(Foo.class), is(true));
+		assertThat(ClassAccessFactory.isPreloadable(Runnable.class), is(false));
+		assertThat(ClassAccessFactory.isPreloadable(new Object() {}.getClass()), is(false));
+		assertThat(ClassAccessFactory.isPreloadable(ClassAccessFactory.getFieldAccess(Foo.class).getClass()), is(false));
+	}
+	
+	@Test
+	public void preloadAccessTypesAndVerifyTimings() throws Exception {
+		PreloadResult result = ClassAccessFactory.preload(
+				Arrays.asList(Foo.class, FooFactory.class),
+				Arrays.asList(FieldAccess.class, ConstructorAccess.class),
+				ForkJoinPool.commonPool())
+				.get();
+		
+		assertThat(result.isSuccessful(), is(true));
+		assertThat(result.getGenerationNanos().keySet(), hasItems(Foo.class, FooFactory.class));
+	}
+	
+	@Test
+	public void preloadClassesAndVerifyTimings() throws Exception {
+		PreloadResult result = ClassAccessFactory.preload(Arrays.asList(Foo.class, FooFactory.class)).get();
+		
+		assertThat(result.isSuccessful(), is(true));
+		assertThat(result.getGenerationNanos().keySet(), hasItems(Foo.class, FooFactory.class));
+		assertThat(result.getTotalGenerationNanos() >= 0L, is(true));
+	}
+	
+	@Test
+	public void preloadInvalidClassAndVerifyFailureIsReported() throws Exception {
+		PreloadResult result = ClassAccessFactory.preload(Arrays.asList(
+				Foo.class,
+				ClassAccessFactory.get(Foo.class).getClass()))
+				.get();
+		
+		assertThat(result.isSuccessful(), is(false));
+		assertThat(result.getGenerationNanos().keySet(), hasItem(Foo.class));
+		assertThat(result.getFailures().size(), equalTo(1));
+	}
+	
+	@Test
+	public void preloadNotAccessTypeAndVerifyException() {
+		try {
+			ClassAccessFactory.preload(
+					Arrays.asList(Foo.class),
+					Arrays.asList(FieldAccess.class, String.class),
+					ForkJoinPool.commonPool());
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Not an access type: java.lang.String"));
+		}
+	}
+	
+	@Test
+	public void preloadPackageAndVerifyAccessAndLookupClassesAndInterfacesExcluded() throws Exception {
+		String packagePath = SCANNED_PACKAGE_NAME.replace('.', '/');
+		File packageDirectory = folder.newFolder(packagePath.split("/"));
+		// An access class of only one access type, which is not a ClassAccess
+		writeClassFile(packageDirectory, "Entity", generateClass(packagePath + "/Entity"));
+		writeClassFile(
+				packageDirectory,
+				"Entity$EntityFieldAccess",
+				generateClass(packagePath + "/Entity$EntityFieldAccess", Type.getInternalName(FieldAccess.class)));
+		writeClassFile(
+				packageDirectory,
+				"FasterThanReflectionLookup",
+				generateLookupClass(packagePath + "/FasterThanReflectionLookup"));
+		writeClassFile(packageDirectory, "Repository", generateInterface(packagePath + "/Repository"));
+		
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] { folder.getRoot().toURI().toURL() },
+				ClassAccessFactoryPreloadTest.class.getClassLoader())) {
+			PreloadResult result = ClassAccessFactory.preloadPackage(
+					SCANNED_PACKAGE_NAME,
+					classLoader,
+					ForkJoinPool.commonPool())
+					.get();
+			
+			assertThat(result.isSuccessful(), is(true));
+			assertThat(
+					result.getGenerationNanos().keySet(),
+					equalTo(Collections.singleton(classLoader.loadClass(SCANNED_PACKAGE_NAME + ".Entity"))));
+		}
+	}
+	
+	@Test
+	public void preloadPackageAndVerifyClassesFound() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			PreloadResult result = ClassAccessFactory.preloadPackage(
+					Foo.class.getPackage().getName(),
+					Foo.class.getClassLoader(),
+					executor)
+					.get();
+			
+			assertThat(result.isSuccessful(), is(true));
+			assertThat(result.getGenerationNanos().keySet(), hasItems(Foo.class, Main.class));
+			assertThat(result.getGenerationNanos().keySet(), not(hasItem(FooFactory.class)));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,453 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import com.github.javalbert.reflection.BeanMapper;
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldColumns;
+import com.github.javalbert.reflection.FieldSerializer;
+import com.github.javalbert.reflection.FieldSnapshot;
+import com.github.javalbert.reflection.FieldSnapshotter;
+import com.github.javalbert.reflection.OffHeapStore;
+import com.github.javalbert.reflection.RecordFile;
+import com.github.javalbert.reflection.json.JsonCodec;
+import com.github.javalbert.reflection.json.JsonCodecFactory;
+import com.github.javalbert.reflection.json.JsonInput;
+import com.github.javalbert.reflection.json.JsonOutput;
+
+/**
+ * Uses a class generated at runtime with thousands of fields and methods, so that the generated methods would be
+ * too big for the JIT compiler unless they are split
+ */
+public class ClassAccessHugeClassTest {
+	private static final int FIELD_COUNT = 3000;
+	private static final int HUGE_METHOD_LIMIT = 8000;
+	private static final String HUGE_CLASS_NAME = "com.github.javalbert.reflection.test.HugeEntity";
+	private static final int PROPERTY_COUNT = 1000;
+	private static final Type[] TYPES = { Type.INT_TYPE, Type.LONG_TYPE, Type.getType(String.class) };
+
+	private static ClassAccess<Object> access;
+	private static Class<?> hugeClass;
+
+	@SuppressWarnings("unchecked")
+	@BeforeClass
+	public static void defineHugeClass() {
+		byte[] bytecode = generateHugeClass();
+		hugeClass = new ClassLoader(ClassAccessHugeClassTest.class.getClassLoader()) {
+			Class<?> define() {
+				return defineClass(HUGE_CLASS_NAME, bytecode, 0, bytecode.length);
+			}
+		}.define();
+		access = (ClassAccess<Object>)ClassAccessFactory.get(hugeClass);
+	}
+
+	private static String fieldName(int i) {
+		return String.format("field%04d", i);
+	}
+
+	private static byte[] generateHugeClass() {
+		String internalName = HUGE_CLASS_NAME.replace('.', '/');
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC + ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// "Aa" and "BB" have the same hash code
+		cw.visitField(ACC_PRIVATE, "Aa", "I", null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE, "BB", "I", null, null).visitEnd();
+
+		for (int i = 0; i < FIELD_COUNT; i++) {
+			String name = fieldName(i);
+			Type type = TYPES[i % TYPES.length];
+			cw.visitField(ACC_PRIVATE, name, type.getDescriptor(), null, null).visitEnd();
+
+			if (i >= PROPERTY_COUNT) {
+				continue;
+			}
+
+			String propertyName = "F" + name.substring(1);
+			mv = cw.visitMethod(ACC_PUBLIC, "get" + propertyName, "()" + type.getDescriptor(), null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, internalName, name, type.getDescriptor());
+			mv.visitInsn(type.getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			mv = cw.visitMethod(ACC_PUBLIC, "set" + propertyName, "(" + type.getDescriptor() + ")V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(type.getOpcode(ILOAD), 1);
+			mv.visitFieldInsn(PUTFIELD, internalName, name, type.getDescriptor());
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static Map<String, Integer> getCodeSizes(byte[] bytecode) {
+		Map<String, Integer> codeSizes = new HashMap<>();
+		new ClassReader(bytecode).accept(new ClassVisitor(ASM5, new ClassWriter(0)) {
+			@Override
+			public MethodVisitor visitMethod(
+					int access,
+					String name,
+					String desc,
+					String signature,
+					String[] exceptions) {
+				return new MethodVisitor(ASM5, super.visitMethod(access, name, desc, signature, exceptions)) {
+					@Override
+					public void visitMaxs(int maxStack, int maxLocals) {
+						// The offset of a label after the last instruction is the size of the code
+						Label endLabel = new Label();
+						super.visitLabel(endLabel);
+						codeSizes.put(name + desc, endLabel.getOffset());
+						super.visitMaxs(maxStack, maxLocals);
+					}
+				};
+			}
+		}, 0);
+		return codeSizes;
+	}
+
+	private static Object newHugeObject() throws ReflectiveOperationException {
+		return hugeClass.newInstance();
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void bindEveryPropertyAndVerifyParametersWithHighIndices() throws ReflectiveOperationException, SQLException {
+		Object obj = newHugeObject();
+		access.setStringProperty(obj, access.propertyIndex(fieldName(998)), "998");
+		access.setLongProperty(obj, access.propertyIndex(fieldName(997)), 997L);
+		String[] propertyNames = new String[PROPERTY_COUNT];
+		for (int i = 0; i < PROPERTY_COUNT; i++) {
+			propertyNames[i] = fieldName(i);
+		}
+		List<String> calls = new ArrayList<>();
+
+		ClassAccessFactory.getParameterBinder((Class<Object>)hugeClass, propertyNames)
+				.bind(obj, JdbcProxies.preparedStatement(calls));
+
+		assertThat(calls.size(), equalTo(PROPERTY_COUNT));
+		assertThat(calls.get(997), equalTo("setLong(998, 997)"));
+		assertThat(calls.get(998), equalTo("setString(999, 998)"));
+		assertThat(calls.get(999), equalTo("setInt(1000, 0)"));
+	}
+
+	@Test
+	public void callMethodWithHighIndexAndVerify() throws ReflectiveOperationException {
+		Object obj = newHugeObject();
+
+		access.call(obj, access.methodIndex("setField0999", int.class), 999);
+
+		assertThat(access.call(obj, access.methodIndex("getField0999")), equalTo((Object)999));
+		assertThat(access.invoke(obj, access.methodIndex("getField0999")), equalTo((Object)999));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void copyFieldsAndVerifyFieldsWithHighIndicesCopied() throws ReflectiveOperationException {
+		Object src = newHugeObject();
+		Object dst = newHugeObject();
+		int intFieldIndex = access.fieldIndex(fieldName(2997));
+		int stringFieldIndex = access.fieldIndex(fieldName(2999));
+		access.setIntField(src, intFieldIndex, 2997);
+		access.setStringField(src, stringFieldIndex, "2999");
+
+		ClassAccessFactory.getFieldCopier((Class<Object>)hugeClass).copy(src, dst);
+
+		assertThat(access.getIntField(dst, intFieldIndex), equalTo(2997));
+		assertThat(access.getStringField(dst, stringFieldIndex), equalTo("2999"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void copyFieldsWithHighFieldIndexAndVerify() throws ReflectiveOperationException {
+		Object src = newHugeObject();
+		Object dst = newHugeObject();
+		int longFieldIndex = access.fieldIndex(fieldName(2998));
+		access.setLongField(src, longFieldIndex, 2998L);
+
+		ClassAccessFactory.getFieldCopier((Class<Object>)hugeClass, longFieldIndex).copy(src, dst);
+
+		assertThat(access.getLongField(dst, longFieldIndex), equalTo(2998L));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void diffSnapshotAndVerifyFieldsWithHighIndicesChanged() throws ReflectiveOperationException {
+		Object obj = newHugeObject();
+		FieldSnapshotter<Object> snapshotter = ClassAccessFactory.getFieldSnapshotter((Class<Object>)hugeClass);
+		FieldSnapshot snapshot = snapshotter.snapshot(obj);
+		int longFieldIndex = access.fieldIndex(fieldName(2998));
+		int stringFieldIndex = access.fieldIndex(fieldName(2999));
+		access.setLongField(obj, longFieldIndex, 2998L);
+		access.setStringField(obj, stringFieldIndex, "2999");
+
+		BitSet changedFieldIndices = snapshotter.diff(obj, snapshot);
+
+		assertThat(changedFieldIndices.cardinality(), equalTo(2));
+		assertThat(changedFieldIndices.get(longFieldIndex), equalTo(true));
+		assertThat(changedFieldIndices.get(stringFieldIndex), equalTo(true));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void extractAndSetFieldColumnsAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException {
+		FieldColumns<Object> columns = ClassAccessFactory.getFieldColumns((Class<Object>)hugeClass);
+		Object[] objs = { newHugeObject(), newHugeObject() };
+		int intFieldIndex = access.fieldIndex(fieldName(2997));
+		int longFieldIndex = access.fieldIndex(fieldName(2998));
+
+		columns.setIntFieldAll(objs, intFieldIndex, new int[] { 1, 2 });
+		columns.setLongFieldAll(objs, longFieldIndex, new long[] { 3L, 4L });
+
+		assertThat(access.getIntField(objs[1], intFieldIndex), equalTo(2));
+		assertThat(columns.extractInt(Arrays.asList(objs), intFieldIndex), equalTo(new int[] { 1, 2 }));
+		assertThat(columns.extractLong(Arrays.asList(objs), longFieldIndex), equalTo(new long[] { 3L, 4L }));
+	}
+
+	@Test
+	public void generateHugeClassAccessAndVerifyEveryMethodIsUnderHugeMethodLimit() {
+		Map<String, Integer> codeSizes = getCodeSizes(ClassAccessFactory.generateClassAccessBytecode(hugeClass));
+
+		codeSizes.forEach((method, codeSize) ->
+				assertTrue(method + " has " + codeSize + " bytes", codeSize <= HUGE_METHOD_LIMIT));
+	}
+
+	@Test
+	public void getIndexOfEveryFieldAndVerify() {
+		assertThat(access.fieldIndex("Aa"), equalTo(0));
+		assertThat(access.fieldIndex("BB"), equalTo(1));
+		for (int i = 0; i < FIELD_COUNT; i++) {
+			assertThat(access.fieldIndex(fieldName(i)), equalTo(i + 2));
+		}
+	}
+
+	@Test
+	public void getIndexOfUnknownFieldAndVerifyException() {
+		try {
+			access.fieldIndex("field9999");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field with name: field9999"));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void mapRowWithEveryColumnAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException, SQLException {
+		List<String> columnLabels = new ArrayList<>();
+		Object[] row = new Object[FIELD_COUNT];
+		for (int i = 0; i < FIELD_COUNT; i++) {
+			columnLabels.add(fieldName(i).toUpperCase());
+			Type type = TYPES[i % TYPES.length];
+			row[i] = type == Type.INT_TYPE ? (Object)i : type == Type.LONG_TYPE ? (Object)(long)i : String.valueOf(i);
+		}
+		ResultSet rs = JdbcProxies.resultSet(columnLabels, row);
+		rs.next();
+
+		Object obj = newHugeObject();
+		ClassAccessFactory.getRowMapper((Class<Object>)hugeClass, rs.getMetaData()).mapRow(rs, obj);
+
+		assertThat(access.getIntField(obj, access.fieldIndex(fieldName(2997))), equalTo(2997));
+		assertThat(access.getLongField(obj, access.fieldIndex(fieldName(2998))), equalTo(2998L));
+		assertThat(access.getStringField(obj, access.fieldIndex(fieldName(2999))), equalTo("2999"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void serializeAndDeserializeAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException {
+		FieldSerializer<Object> serializer = ClassAccessFactory.getFieldSerializer((Class<Object>)hugeClass);
+		Object obj = newHugeObject();
+		access.setIntField(obj, access.fieldIndex(fieldName(2997)), 2997);
+		access.setLongField(obj, access.fieldIndex(fieldName(2998)), 2998L);
+		access.setStringField(obj, access.fieldIndex(fieldName(2999)), "2999");
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+		serializer.write(obj, buffer);
+		buffer.flip();
+		Object result = serializer.read(buffer);
+
+		assertThat(access.getIntField(result, access.fieldIndex(fieldName(2997))), equalTo(2997));
+		assertThat(access.getLongField(result, access.fieldIndex(fieldName(2998))), equalTo(2998L));
+		assertThat(access.getStringField(result, access.fieldIndex(fieldName(2999))), equalTo("2999"));
+		assertThat(buffer.hasRemaining(), equalTo(false));
+	}
+
+	@Test
+	public void setAndGetFieldsWithHighIndicesAndVerify() throws ReflectiveOperationException {
+		Object obj = newHugeObject();
+		int intFieldIndex = access.fieldIndex(fieldName(2997));
+		int longFieldIndex = access.fieldIndex(fieldName(2998));
+		int stringFieldIndex = access.fieldIndex(fieldName(2999));
+
+		access.setIntField(obj, intFieldIndex, 2997);
+		access.setLongField(obj, longFieldIndex, 2998L);
+		access.setField(obj, stringFieldIndex, "2999");
+
+		assertThat(access.getIntField(obj, intFieldIndex), equalTo(2997));
+		assertThat(access.getField(obj, longFieldIndex), equalTo((Object)2998L));
+		assertThat(access.getStringField(obj, stringFieldIndex), equalTo("2999"));
+	}
+
+	@Test
+	public void setAndGetPropertiesWithHighIndicesAndVerify() throws ReflectiveOperationException {
+		Object obj = newHugeObject();
+		int propertyIndex = access.propertyIndex("field0997");
+
+		access.setProperty(obj, propertyIndex, 997L);
+
+		assertThat(access.getLongProperty(obj, propertyIndex), equalTo(997L));
+	}
+
+	@Test
+	public void setFieldWithInvalidIndexAndVerifyException() throws ReflectiveOperationException {
+		Object obj = newHugeObject();
+
+		for (int fieldIndex : new int[] { -1, FIELD_COUNT + 2 }) {
+			try {
+				access.setField(obj, fieldIndex, null);
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				assertThat(e.getMessage(), equalTo("No field with index: " + fieldIndex));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void storeAndLoadOffHeapAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException {
+		OffHeapStore<Object> store = OffHeapStore.allocate((Class<Object>)hugeClass, 2);
+		Object obj = newHugeObject();
+		access.setIntField(obj, access.fieldIndex(fieldName(2997)), 2997);
+		access.setLongField(obj, access.fieldIndex(fieldName(2998)), 2998L);
+
+		store.store(1, obj);
+		Object result = store.load(1);
+
+		assertThat(access.getIntField(result, access.fieldIndex(fieldName(2997))), equalTo(2997));
+		assertThat(access.getLongField(result, access.fieldIndex(fieldName(2998))), equalTo(2998L));
+		assertThat(access.getStringField(result, access.fieldIndex(fieldName(2999))), nullValue());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void toMapAndFromMapAndVerifyPropertiesWithHighIndices() throws ReflectiveOperationException {
+		BeanMapper<Object> mapper = ClassAccessFactory.getBeanMapper((Class<Object>)hugeClass);
+		Object obj = newHugeObject();
+		Map<String, Object> values = new HashMap<>();
+		values.put(fieldName(998), "998");
+		values.put(fieldName(999), 999);
+
+		mapper.fromMap(values, obj);
+		Map<String, Object> map = mapper.toMap(obj);
+
+		assertThat(map.size(), equalTo(PROPERTY_COUNT));
+		assertThat(map.get(fieldName(997)), equalTo((Object)0L));
+		assertThat(map.get(fieldName(998)), equalTo((Object)"998"));
+		assertThat(mapper.asMap(obj).get(fieldName(999)), equalTo((Object)999));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void viewRecordFileAndVerifyPropertiesWithHighIndices() throws ReflectiveOperationException, IOException {
+		Path path = folder.newFile().toPath();
+		Object obj = newHugeObject();
+		access.setIntField(obj, access.fieldIndex(fieldName(996)), 996);
+		access.setLongField(obj, access.fieldIndex(fieldName(997)), 997L);
+		RecordFile.write(path, (Class<Object>)hugeClass, Arrays.asList(newHugeObject(), obj));
+		RecordFile<Object> file = RecordFile.open(path, (Class<Object>)hugeClass);
+
+		Object view = file.view(1L, file.newView((Class<Object>)hugeClass));
+
+		// The getters of the view, which extends the huge class
+		assertThat(access.getIntProperty(view, access.propertyIndex("field0996")), equalTo(996));
+		assertThat(access.getLongProperty(view, access.propertyIndex("field0997")), equalTo(997L));
+		assertThat(access.getProperty(view, access.propertyIndex("field0998")), nullValue());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void writeAndGetRecordFileAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException, IOException {
+		Path path = folder.newFile().toPath();
+		Object obj = newHugeObject();
+		access.setIntField(obj, access.fieldIndex(fieldName(2997)), 2997);
+		access.setLongField(obj, access.fieldIndex(fieldName(2998)), 2998L);
+
+		RecordFile.write(path, (Class<Object>)hugeClass, Arrays.asList(newHugeObject(), obj));
+		Object result = RecordFile.open(path, (Class<Object>)hugeClass).get(1L);
+
+		assertThat(access.getIntField(result, access.fieldIndex(fieldName(2997))), equalTo(2997));
+		assertThat(access.getLongField(result, access.fieldIndex(fieldName(2998))), equalTo(2998L));
+		assertThat(access.getStringField(result, access.fieldIndex(fieldName(2999))), nullValue());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void writeAndReadJsonAndVerifyFieldsWithHighIndices() throws ReflectiveOperationException {
+		JsonCodec<Object> codec = JsonCodecFactory.get((Class<Object>)hugeClass);
+		Object obj = newHugeObject();
+		access.setLongField(obj, access.fieldIndex(fieldName(2998)), 2998L);
+		access.setStringField(obj, access.fieldIndex(fieldName(2999)), "2999");
+		JsonOutput out = new JsonOutput();
+
+		codec.write(obj, out);
+		Object result = codec.read(new JsonInput(out.toByteArray()));
+
+		assertThat(access.getIntField(result, access.fieldIndex(fieldName(2997))), equalTo(0));
+		assertThat(access.getLongField(result, access.fieldIndex(fieldName(2998))), equalTo(2998L));
+		assertThat(access.getStringField(result, access.fieldIndex(fieldName(2999))), equalTo("2999"));
+	}
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.IntFieldSetter;
+import com.github.javalbert.reflection.LongFieldGetter;
+import com.github.javalbert.reflection.ObjectFieldGetter;
+import com.github.javalbert.reflection.ObjectFieldSetter;
+import com.github.javalbert.reflection.test.entity.BaseEntity;
+
+/**
+ * Accesses fields and methods that {@link Customer} inherits from {@link BaseEntity}, which is in another package
+ */
+public class ClassAccessInheritanceTest {
+	private final ClassAccess<Customer> access = ClassAccessFactory.get(Customer.class);
+	
+	@Test
+	public void callInheritedMethodAndVerifyResult() {
+		Customer customer = new Customer();
+		customer.setId(3L);
+		
+		assertThat(access.call(customer, access.methodIndex("getId")), equalTo((Object)3L));
+		assertThat(access.call(null, access.methodIndex("getCreated")), equalTo((Object)BaseEntity.getCreated()));
+	}
+	
+	@Test
+	public void callOverriddenMethodAndVerifyResult() {
+		assertThat(access.call(new Customer(), access.methodIndex("describe")), equalTo((Object)"customer"));
+	}
+	
+	@Test
+	public void getIndexOfFieldOfPlatformSuperclassAndVerifyException() {
+		// java.sql is loaded by the platform class loader on JDK 9+, rather than the bootstrap class loader
+		ClassAccess<Stamp> stampAccess = ClassAccessFactory.get(Stamp.class);
+		Stamp stamp = new Stamp();
+		stamp.zone = "UTC";
+		
+		assertThat(stampAccess.getField(stamp, stampAccess.fieldIndex("zone")), equalTo((Object)"UTC"));
+		try {
+			stampAccess.fieldIndex("nanos");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field with name: nanos"));
+		}
+	}
+	
+	@Test
+	public void getIndexOfProtectedMethodOfSuperclassInOtherPackageAndVerifyException() {
+		try {
+			access.methodIndex("incrementVersion");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No method called incrementVersion with parameters []"));
+		}
+	}
+	
+	@Test
+	public void getIndicesOfFieldsAndVerifyFieldsOfClassComeFirst() {
+		int nameFieldIndex = access.fieldIndex("name");
+		int versionFieldIndex = access.fieldIndex("version");
+		int createdFieldIndex = access.fieldIndex("created");
+		int idFieldIndex = access.fieldIndex("id");
+		
+		assertThat(nameFieldIndex < versionFieldIndex, equalTo(true));
+		assertThat(versionFieldIndex < createdFieldIndex, equalTo(true));
+		assertThat(createdFieldIndex < idFieldIndex, equalTo(true));
+	}
+	
+	@Test
+	public void getInheritedFieldWithAccessorAndVerify() {
+		Customer customer = new Customer();
+		customer.setId(3L);
+		
+		ObjectFieldGetter<Customer, Long> getter = ClassAccessFactory.getObjectFieldGetter(Customer.class, "id");
+		
+		assertThat(getter.get(customer), equalTo(3L));
+	}
+	
+	@Test
+	public void getShadowedFieldWithAccessorAndVerifyFieldOfClass() {
+		Customer customer = new Customer();
+		access.setStringField(customer, access.fieldIndex("version"), "v1");
+		
+		ObjectFieldGetter<Customer, String> getter = ClassAccessFactory.getObjectFieldGetter(Customer.class, "version");
+		
+		assertThat(getter.get(customer), equalTo("v1"));
+		try {
+			ClassAccessFactory.getFieldAccessor(Customer.class, "version", LongFieldGetter.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field version is of type java.lang.String, not long"));
+		}
+	}
+	
+	@Test
+	public void setAndGetPrivateFieldOfSuperclassAndVerify() {
+		Customer customer = new Customer();
+		int idFieldIndex = access.fieldIndex("id");
+		
+		access.setField(customer, idFieldIndex, 42L);
+		
+		assertThat(customer.getId(), equalTo(42L));
+		assertThat(access.getBoxedLongField(customer, idFieldIndex), equalTo(42L));
+	}
+	
+	@Test
+	public void setInheritedFieldWithAccessorAndVerify() {
+		Customer customer = new Customer();
+		
+		ObjectFieldSetter<Customer, Long> setter = ClassAccessFactory.getObjectFieldSetter(Customer.class, "id");
+		setter.set(customer, 42L);
+		
+		assertThat(customer.getId(), equalTo(42L));
+	}
+	
+	@Test
+	public void setShadowedFieldByIndexAndVerify() {
+		Customer customer = new Customer();
+		// BaseEntity.version comes after BaseEntity.id
+		int shadowedVersionFieldIndex = access.fieldIndex("id") + 1;
+		
+		access.setLongField(customer, shadowedVersionFieldIndex, 7L);
+		access.setStringField(customer, access.fieldIndex("version"), "v7");
+		
+		assertThat(customer.getVersion(), equalTo(7L));
+		assertThat(customer.getShadowingVersion(), equalTo("v7"));
+		assertThat(access.getField(customer, shadowedVersionFieldIndex), equalTo((Object)7L));
+	}
+	
+	@Test
+	public void setStaticFieldOfSuperclassAndVerify() {
+		int createdFieldIndex = access.fieldIndex("created");
+		
+		access.setIntField(null, createdFieldIndex, 5);
+		
+		assertThat(BaseEntity.getCreated(), equalTo(5));
+		assertThat(access.getIntField(null, createdFieldIndex), equalTo(5));
+	}
+	
+	@Test
+	public void setStaticFieldOfSuperclassWithAccessorAndVerify() {
+		IntFieldSetter<Customer> setter = ClassAccessFactory.getIntFieldSetter(Customer.class, "created");
+		
+		setter.set(null, 9);
+		
+		assertThat(BaseEntity.getCreated(), equalTo(9));
+	}
+	
+	@SuppressWarnings("serial")
+	public static class Stamp extends Timestamp {
+		public String zone;
+		
+		public Stamp() {
+			super(0L);
+		}
+	}
+}
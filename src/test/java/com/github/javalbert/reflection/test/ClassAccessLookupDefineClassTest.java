@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.IntFieldGetter;
+import com.github.javalbert.reflection.ObjectFieldSetter;
+import com.github.javalbert.reflection.PrimitiveMethodAccess;
+import com.github.javalbert.reflection.RecordFile;
+
+/**
+ * Accesses private members when generated classes are defined with <code>Lookup.defineClass</code> like on JDK 9 to
+ * 14, which the <code>lookup-define-class</code> execution of the build chooses on later JDKs with the system property
+ * <code>com.github.javalbert.reflection.definitionMode</code>
+ */
+public class ClassAccessLookupDefineClassTest {
+	private static ClassAccess<Wallet> access;
+	
+	@BeforeClass
+	public static void getClassAccess() {
+		assumeThat(System.getProperty("com.github.javalbert.reflection.definitionMode"), equalTo("LOOKUP_DEFINE_CLASS"));
+		access = ClassAccessFactory.get(Wallet.class);
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void callPrivateMethodAndVerify() {
+		Wallet wallet = new Wallet(5);
+		
+		access.call(wallet, access.methodIndex("reset"));
+		
+		assertThat(wallet.balance, equalTo(0));
+	}
+	
+	@Test
+	public void callPrivateMethodWithPrimitiveArgumentAndVerify() {
+		Wallet wallet = new Wallet(5);
+		
+		PrimitiveMethodAccess<Wallet> primitiveAccess = ClassAccessFactory.getPrimitiveMethodAccess(Wallet.class);
+		
+		assertThat(primitiveAccess.callInt(wallet, access.methodIndex("withdraw", int.class), 2), equalTo(3));
+		assertThat(wallet.balance, equalTo(3));
+	}
+	
+	@Test
+	public void callPrivateStaticMethodAndVerify() {
+		assertThat(access.invoke(null, access.methodIndex("format", int.class), 7), equalTo((Object)"7 EUR"));
+	}
+	
+	@Test
+	public void getPrivateFieldWithAccessorAndVerify() {
+		Wallet wallet = new Wallet(5);
+		
+		IntFieldGetter<Wallet> getter = ClassAccessFactory.getIntFieldGetter(Wallet.class, "balance");
+		
+		assertThat(getter.get(wallet), equalTo(5));
+	}
+	
+	@Test
+	public void getPrivateStaticFinalFieldAndVerify() {
+		assertThat(access.getField(null, access.fieldIndex("CURRENCY")), equalTo((Object)"EUR"));
+	}
+	
+	@Test
+	public void newInstanceWithPrivateConstructorAndVerify() {
+		Wallet wallet = access.newInstance();
+		
+		assertThat(wallet.balance, equalTo(0));
+	}
+	
+	@Test
+	public void newInstanceWithPrivateConstructorWithParametersAndVerify() {
+		Wallet wallet = access.newInstance(access.constructorIndex(int.class, String.class), 5, "albert");
+		
+		assertThat(wallet.balance, equalTo(5));
+		assertThat(wallet.owner, equalTo("albert"));
+	}
+	
+	@Test
+	public void viewRecordsOfClassesWithSameSimpleNameAndVerifyGetters() throws IOException {
+		Item item = new Item();
+		item.x = 7;
+		Warehouse.Item warehouseItem = new Warehouse.Item();
+		warehouseItem.a = Long.MAX_VALUE;
+		warehouseItem.x = 42;
+		Path path = folder.newFile().toPath();
+		RecordFile.write(path, Item.class, Collections.singletonList(item));
+		Path warehousePath = folder.newFile().toPath();
+		RecordFile.write(warehousePath, Warehouse.Item.class, Collections.singletonList(warehouseItem));
+		RecordFile<Item> file = RecordFile.open(path, Item.class);
+		RecordFile<Warehouse.Item> warehouseFile = RecordFile.open(warehousePath, Warehouse.Item.class);
+		
+		ItemView view = file.view(0L, file.newView(ItemView.class));
+		ItemView warehouseView = warehouseFile.view(0L, warehouseFile.newView(ItemView.class));
+		
+		assertThat(view.getX(), equalTo(7));
+		assertThat(warehouseView.getX(), equalTo(42));
+		assertThat(warehouseView.getClass(), not(equalTo((Object)view.getClass())));
+	}
+	
+	@Test
+	public void setAndGetPrivateFieldsAndVerify() {
+		Wallet wallet = new Wallet(5);
+		
+		access.setIntField(wallet, access.fieldIndex("balance"), 7);
+		access.setField(wallet, access.fieldIndex("owner"), "albert");
+		
+		assertThat(wallet.balance, equalTo(7));
+		assertThat(wallet.owner, equalTo("albert"));
+		assertThat(access.getIntField(wallet, access.fieldIndex("balance")), equalTo(7));
+	}
+	
+	@Test
+	public void setPrivateFieldWithAccessorAndVerify() {
+		Wallet wallet = new Wallet(5);
+		
+		ObjectFieldSetter<Wallet, String> setter = ClassAccessFactory.getObjectFieldSetter(Wallet.class, "owner");
+		setter.set(wallet, "albert");
+		
+		assertThat(wallet.owner, equalTo("albert"));
+	}
+	
+	@Test
+	public void setPrivateStaticFinalFieldAndVerifyException() {
+		try {
+			access.setField(null, access.fieldIndex("CURRENCY"), "USD");
+			fail("expected IllegalAccessError");
+		} catch (IllegalAccessError expected) {}
+	}
+	
+	public static class Item {
+		private int x;
+	}
+	
+	public interface ItemView {
+		int getX();
+	}
+	
+	public static class Wallet {
+		private static final String CURRENCY = "EUR";
+		
+		private int balance;
+		private String owner;
+		
+		private Wallet() {}
+		
+		public Wallet(int balance) {
+			this.balance = balance;
+		}
+		
+		private Wallet(int balance, String owner) {
+			this.balance = balance;
+			this.owner = owner;
+		}
+		
+		private static String format(int amount) {
+			return amount + " " + CURRENCY;
+		}
+		
+		private void reset() {
+			balance = 0;
+		}
+		
+		private int withdraw(int amount) {
+			balance -= amount;
+			return balance;
+		}
+	}
+	
+	public static class Warehouse {
+		public static class Item {
+			private long a;
+			private int x;
+		}
+	}
+}
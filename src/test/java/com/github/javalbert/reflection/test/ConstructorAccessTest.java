@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.ConstructorAccess;
+
+public class ConstructorAccessTest {
+	private final ConstructorAccess<Point> access = ClassAccessFactory.get(Point.class);
+	
+	@Test
+	public void getConstructorIndicesAndVerifyOrderOfParameterTypes() {
+		assertThat(access.constructorIndex(), equalTo(0));
+		assertThat(access.constructorIndex(int.class, int.class), equalTo(1));
+		assertThat(access.constructorIndex(String.class), equalTo(2));
+		assertThat(access.constructorIndex(long.class), equalTo(3));
+	}
+	
+	@Test
+	public void getIndexOfUnknownConstructorAndVerifyException() {
+		try {
+			access.constructorIndex(double.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No constructor with parameters [double]"));
+		}
+	}
+	
+	@Test
+	public void newInstanceOfAbstractClassAndVerifyException() {
+		ConstructorAccess<Shape> abstractAccess = ClassAccessFactory.get(Shape.class);
+		
+		try {
+			abstractAccess.newInstance();
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), equalTo("No constructor without parameters in com.github.javalbert.reflection.test.ConstructorAccessTest$Shape"));
+		}
+	}
+	
+	@Test
+	public void newInstanceWithArgsAndVerify() {
+		Point point = access.newInstance(access.constructorIndex(int.class, int.class), 3, 4);
+		
+		assertThat(point.x, equalTo(3));
+		assertThat(point.y, equalTo(4));
+	}
+	
+	@Test
+	public void newInstanceWithInvalidIndexAndVerifyException() {
+		try {
+			access.newInstance(access.constructorIndex(String.class), 1, 2);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No constructor with index 2 with 2 parameter(s)"));
+		}
+		
+		try {
+			access.newInstance(4, new Object[0]);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No constructor with index: 4"));
+		}
+	}
+	
+	@Test
+	public void newInstanceWithPrivateConstructorAndVerify() {
+		Point point = access.newInstance();
+		
+		assertThat(point.label, equalTo("origin"));
+	}
+	
+	@Test
+	public void newInstanceWithVarargsAndVerify() {
+		Object[] args = { "p" };
+		
+		Point point = access.newInstance(access.constructorIndex(String.class), args);
+		Point otherPoint = access.newInstance(access.constructorIndex(long.class), (Object)5L);
+		
+		assertThat(point.label, equalTo("p"));
+		assertThat(otherPoint.x, equalTo(5));
+	}
+	
+	public static class Point {
+		private String label;
+		private int x;
+		private int y;
+		
+		private Point() {
+			label = "origin";
+		}
+		
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+		
+		Point(long packed) {
+			x = (int)packed;
+			y = (int)(packed >>> 32);
+		}
+		
+		protected Point(String label) {
+			this.label = label;
+		}
+	}
+	
+	public static abstract class Shape {
+	}
+}
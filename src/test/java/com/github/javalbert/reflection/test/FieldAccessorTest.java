@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.IntFieldGetter;
+import com.github.javalbert.reflection.IntFieldSetter;
+import com.github.javalbert.reflection.LongFieldSetter;
+import com.github.javalbert.reflection.ObjectFieldGetter;
+import com.github.javalbert.reflection.ObjectFieldSetter;
+
+public class FieldAccessorTest {
+	@Test
+	public void getIntFieldWithGetterAndVerify() {
+		Foo obj = new Foo();
+		obj.setIntVal(1337);
+		
+		IntFieldGetter<Foo> getter = ClassAccessFactory.getIntFieldGetter(Foo.class, "intVal");
+		
+		assertThat(getter.get(obj), equalTo(1337));
+	}
+	
+	@Test
+	public void getPrimitiveFieldWithObjectGetterAndVerifyBoxedValue() {
+		Foo obj = new Foo();
+		obj.setLongVal(42L);
+		
+		ObjectFieldGetter<Foo, Long> getter = ClassAccessFactory.getObjectFieldGetter(Foo.class, "longVal");
+		
+		assertThat(getter.get(obj), equalTo(42L));
+	}
+	
+	@Test
+	public void getSameAccessorTwiceAndVerifySameInstance() {
+		assertThat(
+				ClassAccessFactory.getFieldAccessor(Foo.class, "intVal", IntFieldGetter.class),
+				sameInstance(ClassAccessFactory.getFieldAccessor(Foo.class, "intVal", IntFieldGetter.class)));
+	}
+	
+	@Test
+	public void getSetterOfFieldOfOtherTypeAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldAccessor(Foo.class, "intVal", LongFieldSetter.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field intVal is of type int, not long"));
+		}
+	}
+	
+	@Test
+	public void getGetterOfUnknownFieldAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldAccessor(Foo.class, "noSuchField", IntFieldGetter.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field with name: noSuchField"));
+		}
+	}
+	
+	@Test
+	public void setIntFieldWithSetterAndVerify() {
+		Foo obj = new Foo();
+		
+		IntFieldSetter<Foo> setter = ClassAccessFactory.getIntFieldSetter(Foo.class, "intVal");
+		setter.set(obj, 7);
+		
+		assertThat(obj.getIntVal(), equalTo(7));
+	}
+	
+	@Test
+	public void setLongFieldWithSetterAndVerify() {
+		Foo obj = new Foo();
+		
+		LongFieldSetter<Foo> setter = ClassAccessFactory.getLongFieldSetter(Foo.class, "longVal");
+		setter.set(obj, Long.MAX_VALUE);
+		
+		assertThat(obj.getLongVal(), equalTo(Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void setPrimitiveFieldWithObjectSetterAndVerifyUnboxedValue() {
+		Foo obj = new Foo();
+		
+		ObjectFieldSetter<Foo, Double> setter = ClassAccessFactory.getObjectFieldSetter(Foo.class, "doubleVal");
+		setter.set(obj, 0.5d);
+		
+		assertThat(obj.getDoubleVal(), equalTo(0.5d));
+	}
+	
+	@Test
+	public void setReferenceFieldWithObjectSetterAndVerify() {
+		Foo obj = new Foo();
+		
+		ObjectFieldSetter<Foo, String> setter = ClassAccessFactory.getObjectFieldSetter(Foo.class, "string");
+		setter.set(obj, "faster");
+		
+		assertThat(obj.getString(), equalTo("faster"));
+	}
+	
+	@Test
+	public void setStaticFieldWithSetterAndVerify() {
+		IntFieldSetter<Counter> setter = ClassAccessFactory.getIntFieldSetter(Counter.class, "count");
+		IntFieldGetter<Counter> getter = ClassAccessFactory.getIntFieldGetter(Counter.class, "count");
+		
+		setter.set(null, 3);
+		
+		assertThat(getter.get(null), equalTo(3));
+	}
+	
+	public static class Counter {
+		private static int count;
+	}
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldColumns;
+
+public class FieldColumnsTest {
+	private final ClassAccess<Sample> access = ClassAccessFactory.get(Sample.class);
+	private final FieldColumns<Sample> columns = ClassAccessFactory.getFieldColumns(Sample.class);
+	
+	private static Sample[] newSamples(int count) {
+		Sample[] samples = new Sample[count];
+		for (int i = 0; i < count; i++) {
+			samples[i] = new Sample();
+			samples[i].active = i % 2 == 0;
+			samples[i].amount = i / 2d;
+			samples[i].code = (char)('a' + i % 26);
+			samples[i].count = i;
+			samples[i].level = (byte)i;
+			samples[i].ratio = i / 4f;
+			samples[i].shortValue = (short)-i;
+			samples[i].total = i * 1_000_000_000L;
+		}
+		return samples;
+	}
+	
+	@Test
+	public void extractFieldOfOtherTypeAndVerifyException() {
+		int fieldIndex = access.fieldIndex("count");
+		
+		try {
+			columns.extractInto(newSamples(1), fieldIndex, new long[1]);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No long field with index: " + fieldIndex));
+		}
+	}
+	
+	@Test
+	public void extractFieldsAndVerifyValues() {
+		Sample[] samples = newSamples(3);
+		List<Sample> sampleList = Arrays.asList(samples);
+		boolean[] active = new boolean[3];
+		char[] codes = new char[3];
+		
+		columns.extractInto(samples, access.fieldIndex("active"), active);
+		columns.extractInto(samples, access.fieldIndex("code"), codes);
+		
+		assertThat(active, equalTo(new boolean[] { true, false, true }));
+		assertThat(codes, equalTo(new char[] { 'a', 'b', 'c' }));
+		assertThat(columns.extractByte(sampleList, access.fieldIndex("level")), equalTo(new byte[] { 0, 1, 2 }));
+		assertThat(columns.extractDouble(sampleList, access.fieldIndex("amount")), equalTo(new double[] { 0d, 0.5d, 1d }));
+		assertThat(columns.extractFloat(sampleList, access.fieldIndex("ratio")), equalTo(new float[] { 0f, 0.25f, 0.5f }));
+		assertThat(columns.extractInt(sampleList, access.fieldIndex("count")), equalTo(new int[] { 0, 1, 2 }));
+		assertThat(columns.extractLong(sampleList, access.fieldIndex("total")), equalTo(new long[] { 0L, 1_000_000_000L, 2_000_000_000L }));
+		assertThat(columns.extractShort(sampleList, access.fieldIndex("shortValue")), equalTo(new short[] { 0, -1, -2 }));
+		assertThat(columns.extractInt(sampleList, access.fieldIndex("size")), equalTo(new int[] { 3, 3, 3 }));
+	}
+	
+	@Test
+	public void extractFieldsInRangeAndVerifyOtherValuesUnchanged() {
+		int[] counts = { -1, -1, -1, -1 };
+		
+		columns.extractInto(newSamples(4), 1, 3, access.fieldIndex("count"), counts);
+		
+		assertThat(counts, equalTo(new int[] { -1, 1, 2, -1 }));
+	}
+	
+	@Test
+	public void extractInheritedFieldAndVerifyValues() {
+		ClassAccess<Customer> customerAccess = ClassAccessFactory.get(Customer.class);
+		// BaseEntity.version comes after BaseEntity.id
+		int versionFieldIndex = customerAccess.fieldIndex("id") + 1;
+		Customer customer = new Customer();
+		customerAccess.setLongField(customer, versionFieldIndex, 5L);
+		long[] versions = new long[1];
+		
+		ClassAccessFactory.getFieldColumns(Customer.class)
+				.extractInto(new Customer[] { customer }, versionFieldIndex, versions);
+		
+		assertThat(versions[0], equalTo(5L));
+	}
+	
+	@Test
+	public void extractIntoParallelAndVerifyValues() {
+		Sample[] samples = newSamples(100_000);
+		long[] totals = new long[samples.length];
+		
+		columns.extractIntoParallel(samples, access.fieldIndex("total"), totals);
+		
+		for (int i = 0; i < samples.length; i++) {
+			assertThat(totals[i], equalTo(i * 1_000_000_000L));
+		}
+	}
+	
+	@Test
+	public void getColumnsTwiceAndVerifySameInstance() {
+		assertThat(columns, sameInstance(ClassAccessFactory.getFieldColumns(Sample.class)));
+	}
+	
+	@Test
+	public void setFieldsAndVerifyValues() {
+		Sample[] samples = newSamples(3);
+		List<Sample> sampleList = new ArrayList<>(Arrays.asList(samples));
+		
+		columns.setIntFieldAll(samples, access.fieldIndex("count"), new int[] { 7, 8, 9 });
+		columns.setDoubleFieldAll(sampleList, access.fieldIndex("amount"), new double[] { -1d, -2d, -3d });
+		columns.setBooleanFieldAll(samples, 1, 2, access.fieldIndex("active"), new boolean[] { false, true, false });
+		
+		assertThat(samples[0].count, equalTo(7));
+		assertThat(samples[2].count, equalTo(9));
+		assertThat(samples[1].amount, equalTo(-2d));
+		assertThat(samples[0].active, equalTo(true));
+		assertThat(samples[1].active, equalTo(true));
+		assertThat(samples[2].active, equalTo(true));
+	}
+	
+	@Test
+	public void setFinalFieldAndVerifyException() {
+		int fieldIndex = access.fieldIndex("size");
+		
+		try {
+			columns.setIntFieldAll(newSamples(1), fieldIndex, new int[1]);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No int field that can be set with index: " + fieldIndex));
+		}
+	}
+	
+	@Test
+	public void setInheritedFieldAndVerifyValues() {
+		ClassAccess<Customer> customerAccess = ClassAccessFactory.get(Customer.class);
+		// BaseEntity.version comes after BaseEntity.id
+		int versionFieldIndex = customerAccess.fieldIndex("id") + 1;
+		Customer[] customers = { new Customer(), new Customer() };
+		
+		ClassAccessFactory.getFieldColumns(Customer.class)
+				.setLongFieldAll(customers, versionFieldIndex, new long[] { 3L, 4L });
+		
+		assertThat(customers[0].getVersion(), equalTo(3L));
+		assertThat(customers[1].getVersion(), equalTo(4L));
+	}
+	
+	@Test
+	public void setLongFieldAllParallelAndVerifyValues() {
+		Sample[] samples = newSamples(100_000);
+		long[] totals = new long[samples.length];
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] = -i;
+		}
+		
+		columns.setLongFieldAllParallel(samples, access.fieldIndex("total"), totals);
+		
+		for (int i = 0; i < samples.length; i++) {
+			assertThat(samples[i].total, equalTo((long)-i));
+		}
+	}
+	
+	public static class Sample {
+		private static int instances;
+		
+		private boolean active;
+		private double amount;
+		private char code;
+		private int count;
+		private byte level;
+		private String name;
+		private float ratio;
+		private short shortValue;
+		private final int size = 3;
+		private long total;
+	}
+}
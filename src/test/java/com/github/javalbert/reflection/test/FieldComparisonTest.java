@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Objects;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldComparator;
+import com.github.javalbert.reflection.FieldHasher;
+
+public class FieldComparisonTest {
+	private final FieldAccess<Reading> access = ClassAccessFactory.get(Reading.class);
+	
+	private static Reading newReading(String sensor, long time, double value, boolean valid) {
+		Reading reading = new Reading();
+		reading.sensor = sensor;
+		reading.time = time;
+		reading.valid = valid;
+		reading.value = value;
+		return reading;
+	}
+	
+	@Test
+	public void compareAndVerifyFirstFieldThatDiffersDecides() {
+		FieldComparator<Reading> comparator = ClassAccessFactory.getFieldComparator(
+				Reading.class,
+				access.fieldIndex("sensor"),
+				access.fieldIndex("time"));
+		
+		assertThat(comparator.compare(newReading("a", 2L, 0d, true), newReading("b", 1L, 0d, true)) < 0, equalTo(true));
+		assertThat(comparator.compare(newReading("a", 2L, 0d, true), newReading("a", 1L, 0d, true)) > 0, equalTo(true));
+		assertThat(comparator.compare(newReading("a", 1L, 0d, true), newReading("a", 1L, 5d, false)), equalTo(0));
+	}
+	
+	@Test
+	public void compareNullFieldAndVerifyNullFirst() {
+		FieldComparator<Reading> comparator = ClassAccessFactory.getFieldComparator(
+				Reading.class,
+				access.fieldIndex("sensor"));
+		
+		assertThat(comparator.compare(newReading(null, 0L, 0d, true), newReading("a", 0L, 0d, true)) < 0, equalTo(true));
+		assertThat(comparator.compare(newReading(null, 0L, 0d, true), newReading(null, 0L, 0d, true)), equalTo(0));
+	}
+	
+	@Test
+	public void equalsAndVerifyOnlySelectedFieldsCompared() {
+		FieldHasher<Reading> hasher = ClassAccessFactory.getFieldHasher(
+				Reading.class,
+				access.fieldIndex("sensor"),
+				access.fieldIndex("value"));
+		
+		assertThat(hasher.equals(newReading("a", 1L, 0.5d, true), newReading("a", 2L, 0.5d, false)), equalTo(true));
+		assertThat(hasher.equals(newReading("a", 1L, 0.5d, true), newReading("a", 1L, 0.25d, true)), equalTo(false));
+		assertThat(hasher.equals(newReading("a", 1L, Double.NaN, true), newReading("a", 1L, Double.NaN, true)), equalTo(true));
+		assertThat(hasher.equals(newReading(null, 1L, 0.5d, true), newReading("a", 1L, 0.5d, true)), equalTo(false));
+	}
+	
+	@Test
+	public void getComparatorOfFieldThatIsNotComparableAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldComparator(Reading.class, access.fieldIndex("tags"));
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field tags is of type [Ljava.lang.String;, which is not Comparable"));
+		}
+	}
+	
+	@Test
+	public void getHasherOfStaticFieldAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldHasher(Reading.class, access.fieldIndex("count"));
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field count is static"));
+		}
+	}
+	
+	@Test
+	public void getHasherOfUnknownFieldIndexAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldHasher(Reading.class, 99);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field with index: 99"));
+		}
+	}
+	
+	@Test
+	public void getSameHasherTwiceAndVerifySameInstance() {
+		int timeFieldIndex = access.fieldIndex("time");
+		
+		assertThat(
+				ClassAccessFactory.getFieldHasher(Reading.class, timeFieldIndex),
+				sameInstance(ClassAccessFactory.getFieldHasher(Reading.class, timeFieldIndex)));
+	}
+	
+	@Test
+	public void hashCodeAndVerifySameAsObjectsHash() {
+		FieldHasher<Reading> hasher = ClassAccessFactory.getFieldHasher(
+				Reading.class,
+				access.fieldIndex("valid"),
+				access.fieldIndex("time"),
+				access.fieldIndex("sensor"),
+				access.fieldIndex("value"));
+		Reading reading = newReading("t1", 1_000_000_000_000L, -3.5d, true);
+		
+		assertThat(hasher.hashCode(reading), equalTo(Objects.hash(true, 1_000_000_000_000L, "t1", -3.5d)));
+		assertThat(hasher.hashCode(newReading(null, 0L, 0d, false)), equalTo(Objects.hash(false, 0L, null, 0d)));
+	}
+	
+	@Test
+	public void hashCodeAndEqualsOfInheritedPrivateFieldAndVerify() {
+		ClassAccess<Customer> customerAccess = ClassAccessFactory.get(Customer.class);
+		int idFieldIndex = customerAccess.fieldIndex("id");
+		FieldComparator<Customer> comparator = ClassAccessFactory.getFieldComparator(Customer.class, idFieldIndex);
+		FieldHasher<Customer> hasher = ClassAccessFactory.getFieldHasher(Customer.class, idFieldIndex);
+		Customer customer = new Customer();
+		customer.setId(42L);
+		Customer otherCustomer = new Customer();
+		otherCustomer.setId(42L);
+		
+		assertThat(hasher.hashCode(customer), equalTo(Objects.hash(42L)));
+		assertThat(hasher.equals(customer, otherCustomer), equalTo(true));
+		assertThat(comparator.compare(customer, new Customer()) > 0, equalTo(true));
+	}
+	
+	public static class Reading {
+		private static int count;
+		
+		private String sensor;
+		private String[] tags;
+		private long time;
+		private boolean valid;
+		private double value;
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldCopier;
+
+public class FieldCopierTest {
+	private final FieldAccess<Item> access = ClassAccessFactory.get(Item.class);
+	
+	@Test
+	public void copyFieldsAndVerifyEveryFieldCopied() {
+		Item src = new Item("src");
+		src.count = 3;
+		src.name = "item";
+		src.price = 9.99d;
+		src.stock = Long.MAX_VALUE;
+		Item dst = new Item("dst");
+		
+		ClassAccessFactory.getFieldCopier(Item.class).copy(src, dst);
+		
+		assertThat(dst.count, equalTo(3));
+		assertThat(dst.name, equalTo("item"));
+		assertThat(dst.price, equalTo(9.99d));
+		assertThat(dst.stock, equalTo(Long.MAX_VALUE));
+		assertThat(dst.id, equalTo("dst"));
+	}
+	
+	@Test
+	public void copyFieldsOfSubclassAndVerifyInheritedFieldsCopied() {
+		Customer src = new Customer();
+		src.setId(5L);
+		src.setName("Ada");
+		Customer dst = new Customer();
+		
+		ClassAccessFactory.getFieldCopier(Customer.class).copy(src, dst);
+		
+		assertThat(dst.getId(), equalTo(5L));
+		assertThat(dst.getName(), equalTo("Ada"));
+	}
+	
+	@Test
+	public void copyFieldsWithFieldIndicesAndVerifyOnlyThoseFieldsCopied() {
+		Item src = new Item("src");
+		src.count = 3;
+		src.name = "item";
+		src.stock = 7L;
+		Item dst = new Item("dst");
+		
+		FieldCopier<Item> copier = ClassAccessFactory.getFieldCopier(
+				Item.class,
+				access.fieldIndex("stock"),
+				access.fieldIndex("name"));
+		copier.copy(src, dst);
+		
+		assertThat(dst.count, equalTo(0));
+		assertThat(dst.name, equalTo("item"));
+		assertThat(dst.stock, equalTo(7L));
+	}
+	
+	@Test
+	public void copyFieldsWithIndexOfFinalFieldAndVerifyException() {
+		int idFieldIndex = access.fieldIndex("id");
+		
+		try {
+			ClassAccessFactory.getFieldCopier(Item.class, idFieldIndex);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field that can be copied with index: " + idFieldIndex));
+		}
+	}
+	
+	@Test
+	public void copyFieldsWithIndexOfStaticFieldAndVerifyException() {
+		int createdFieldIndex = access.fieldIndex("created");
+		
+		try {
+			ClassAccessFactory.getFieldCopier(Item.class, createdFieldIndex);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field that can be copied with index: " + createdFieldIndex));
+		}
+	}
+	
+	@Test
+	public void copyFieldsWithIndexOutOfBoundsAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldCopier(Item.class, -1);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No field that can be copied with index: -1"));
+		}
+	}
+	
+	@Test
+	public void getFieldCopierTwiceAndVerifySameInstance() {
+		int nameFieldIndex = access.fieldIndex("name");
+		
+		assertThat(
+				ClassAccessFactory.getFieldCopier(Item.class),
+				sameInstance(ClassAccessFactory.getFieldCopier(Item.class)));
+		assertThat(
+				ClassAccessFactory.getFieldCopier(Item.class, nameFieldIndex),
+				sameInstance(ClassAccessFactory.getFieldCopier(Item.class, nameFieldIndex)));
+	}
+	
+	public static class Item {
+		private static int created;
+		
+		private int count;
+		private final String id;
+		private String name;
+		private double price;
+		private long stock;
+		
+		public Item(String id) {
+			this.id = id;
+			created++;
+		}
+	}
+}
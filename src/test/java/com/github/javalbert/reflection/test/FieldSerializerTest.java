@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldSerializer;
+
+public class FieldSerializerTest {
+	private static Reading newReading() {
+		Reading reading = new Reading();
+		reading.active = true;
+		reading.amount = new BigDecimal("-12345678901234567890.125");
+		reading.boxedCode = 'y';
+		reading.boxedCount = -7;
+		reading.code = 'é';
+		reading.count = Integer.MIN_VALUE;
+		reading.data = new byte[] { 1, -1, 0 };
+		reading.day = LocalDate.of(1969, 7, 20);
+		reading.flag = Boolean.FALSE;
+		reading.level = -3;
+		reading.name = "café ☕";
+		reading.ratio = -0f;
+		reading.sent = new Date(-1L);
+		reading.shortValue = Short.MAX_VALUE;
+		reading.timestamp = LocalDateTime.of(2017, 5, 6, 7, 8, 9, 123456789);
+		reading.total = Long.MAX_VALUE;
+		reading.value = Double.NaN;
+		reading.weight = 1.5d;
+		return reading;
+	}
+	
+	@Test
+	public void getSerializerOfClassWithUnsupportedFieldAndVerifyException() {
+		try {
+			ClassAccessFactory.getFieldSerializer(Unsupported.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Field values is of type java.util.List, which cannot be serialized"));
+		}
+	}
+	
+	@Test
+	public void getSerializerTwiceAndVerifySameInstance() {
+		assertThat(
+				ClassAccessFactory.getFieldSerializer(Reading.class),
+				sameInstance(ClassAccessFactory.getFieldSerializer(Reading.class)));
+	}
+	
+	@Test
+	public void readDataOfOtherClassAndVerifyException() {
+		FieldSerializer<Reading> serializer = ClassAccessFactory.getFieldSerializer(Reading.class);
+		FieldSerializer<Holder> otherSerializer = ClassAccessFactory.getFieldSerializer(Holder.class);
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		otherSerializer.write(new Holder(), buffer);
+		buffer.flip();
+		
+		try {
+			serializer.read(buffer);
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(
+					e.getMessage(),
+					equalTo("Fingerprint " + Long.toHexString(otherSerializer.fingerprint()) + " of the data is not "
+							+ Long.toHexString(serializer.fingerprint()) + " of the fields of " + Reading.class.getName()));
+		}
+	}
+	
+	@Test
+	public void readTruncatedDataAndVerifyException() {
+		FieldSerializer<Reading> serializer = ClassAccessFactory.getFieldSerializer(Reading.class);
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		serializer.write(newReading(), buffer);
+		buffer.flip();
+		buffer.limit(buffer.limit() - 1);
+		
+		try {
+			serializer.read(buffer);
+			fail("expected BufferUnderflowException");
+		} catch (BufferUnderflowException e) {
+		}
+	}
+	
+	@Test
+	public void writeAndReadInheritedPrivateFieldAndVerify() {
+		FieldSerializer<Customer> serializer = ClassAccessFactory.getFieldSerializer(Customer.class);
+		Customer customer = new Customer();
+		customer.setId(42L);
+		customer.setName("customer");
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		
+		serializer.write(customer, buffer);
+		buffer.flip();
+		Customer result = serializer.read(buffer);
+		
+		assertThat(result.getId(), equalTo(42L));
+		assertThat(result.getName(), equalTo("customer"));
+		assertThat(buffer.hasRemaining(), equalTo(false));
+	}
+	
+	@Test
+	public void writeAndReadNullsAndVerify() {
+		FieldSerializer<Reading> serializer = ClassAccessFactory.getFieldSerializer(Reading.class);
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		
+		serializer.write(new Reading(), buffer);
+		buffer.flip();
+		Reading result = serializer.read(buffer);
+		
+		assertThat(result.amount, nullValue());
+		assertThat(result.boxedCode, nullValue());
+		assertThat(result.boxedCount, nullValue());
+		assertThat(result.data, nullValue());
+		assertThat(result.day, nullValue());
+		assertThat(result.flag, nullValue());
+		assertThat(result.name, nullValue());
+		assertThat(result.sent, nullValue());
+		assertThat(result.timestamp, nullValue());
+		assertThat(buffer.hasRemaining(), equalTo(false));
+	}
+	
+	@Test
+	public void writeAndReadAndVerifyEveryField() {
+		FieldSerializer<Reading> serializer = ClassAccessFactory.getFieldSerializer(Reading.class);
+		Reading reading = newReading();
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		
+		serializer.write(reading, buffer);
+		buffer.flip();
+		Reading result = serializer.read(buffer);
+		
+		assertThat(result.active, equalTo(true));
+		assertThat(result.amount, equalTo(reading.amount));
+		assertThat(result.boxedCode, equalTo('y'));
+		assertThat(result.boxedCount, equalTo(-7));
+		assertThat(result.code, equalTo('é'));
+		assertThat(result.count, equalTo(Integer.MIN_VALUE));
+		assertThat(result.data, equalTo(reading.data));
+		assertThat(result.day, equalTo(reading.day));
+		assertThat(result.flag, equalTo(false));
+		assertThat(result.level, equalTo((byte)-3));
+		assertThat(result.name, equalTo(reading.name));
+		assertThat(Float.floatToRawIntBits(result.ratio), equalTo(Float.floatToRawIntBits(-0f)));
+		assertThat(result.sent, equalTo(reading.sent));
+		assertThat(result.shortValue, equalTo(Short.MAX_VALUE));
+		assertThat(result.timestamp, equalTo(reading.timestamp));
+		assertThat(result.total, equalTo(Long.MAX_VALUE));
+		assertThat(Double.isNaN(result.value), equalTo(true));
+		assertThat(result.weight, equalTo(1.5d));
+		assertThat(buffer.hasRemaining(), equalTo(false));
+	}
+	
+	@Test
+	public void writeAndReadMinimumDateAndVerifyNotNull() {
+		FieldSerializer<Reading> serializer = ClassAccessFactory.getFieldSerializer(Reading.class);
+		Reading reading = new Reading();
+		reading.sent = new Date(Long.MIN_VALUE);
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		
+		serializer.write(reading, buffer);
+		buffer.flip();
+		Reading result = serializer.read(buffer);
+		
+		assertThat(result.sent, equalTo(new Date(Long.MIN_VALUE)));
+	}
+	
+	@Test
+	public void writeAndVerifyStaticTransientAndFinalFieldsSkipped() {
+		FieldSerializer<Holder> serializer = ClassAccessFactory.getFieldSerializer(Holder.class);
+		Holder holder = new Holder();
+		holder.cache = "cache";
+		holder.value = 3;
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		
+		serializer.write(holder, buffer);
+		
+		// The fingerprint and value
+		assertThat(buffer.position(), equalTo(12));
+		buffer.flip();
+		Holder result = serializer.read(buffer);
+		assertThat(result.cache, nullValue());
+		assertThat(result.value, equalTo(3));
+	}
+	
+	public static class Holder {
+		private static int count;
+		
+		private transient String cache;
+		private final String id = "id";
+		private int value;
+	}
+	
+	public static class Reading {
+		private static int instances;
+		
+		private boolean active;
+		private BigDecimal amount;
+		private Character boxedCode;
+		private Integer boxedCount;
+		private char code;
+		private int count;
+		private byte[] data;
+		private LocalDate day;
+		private Boolean flag;
+		private byte level;
+		private String name;
+		private float ratio;
+		private Date sent;
+		private short shortValue;
+		private LocalDateTime timestamp;
+		private long total;
+		private double value;
+		private double weight;
+	}
+	
+	public static class Unsupported {
+		private List<String> values;
+	}
+}
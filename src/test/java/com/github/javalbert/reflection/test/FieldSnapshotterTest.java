@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.FieldAccess;
+import com.github.javalbert.reflection.FieldSnapshot;
+import com.github.javalbert.reflection.FieldSnapshotter;
+
+public class FieldSnapshotterTest {
+	private final FieldAccess<Account> access = ClassAccessFactory.get(Account.class);
+	
+	private static BitSet bitSetOf(int... indices) {
+		BitSet bitSet = new BitSet();
+		for (int index : indices) {
+			bitSet.set(index);
+		}
+		return bitSet;
+	}
+	
+	@Test
+	public void diffAfterChangingFieldsAndVerifyChangedFieldIndices() {
+		FieldSnapshotter<Account> snapshotter = ClassAccessFactory.getFieldSnapshotter(Account.class);
+		Account account = new Account();
+		account.balance = new BigDecimal("1.00");
+		FieldSnapshot snapshot = snapshotter.snapshot(account);
+		
+		account.active = true;
+		account.balance = new BigDecimal("1.00");
+		account.rate = 0.5f;
+		account.version = 2L;
+		
+		assertThat(
+				snapshotter.diff(account, snapshot),
+				equalTo(bitSetOf(
+						access.fieldIndex("active"),
+						access.fieldIndex("rate"),
+						access.fieldIndex("version"))));
+	}
+	
+	@Test
+	public void diffNegativeZeroAndVerifyChanged() {
+		FieldSnapshotter<Account> snapshotter = ClassAccessFactory.getFieldSnapshotter(Account.class);
+		Account account = new Account();
+		account.score = Double.NaN;
+		FieldSnapshot snapshot = snapshotter.snapshot(account);
+		
+		assertThat(snapshotter.diff(account, snapshot).isEmpty(), equalTo(true));
+		
+		account.score = 0d;
+		snapshotter.snapshot(account, snapshot);
+		account.score = -0d;
+		
+		assertThat(snapshotter.diff(account, snapshot), equalTo(bitSetOf(access.fieldIndex("score"))));
+	}
+	
+	@Test
+	public void diffUnchangedObjectAndVerifyNoChanges() {
+		FieldSnapshotter<Account> snapshotter = ClassAccessFactory.getFieldSnapshotter(Account.class);
+		Account account = new Account();
+		account.balance = BigDecimal.TEN;
+		account.code = 'x';
+		account.owner = "owner";
+		account.version = Long.MIN_VALUE;
+		BitSet changedFieldIndices = new BitSet();
+		
+		boolean changed = snapshotter.diff(account, snapshotter.snapshot(account), changedFieldIndices);
+		
+		assertThat(changed, equalTo(false));
+		assertThat(changedFieldIndices.isEmpty(), equalTo(true));
+	}
+	
+	@Test
+	public void diffWithReusedSnapshotAndVerifyChangesSinceLastSnapshot() {
+		FieldSnapshotter<Account> snapshotter = ClassAccessFactory.getFieldSnapshotter(Account.class);
+		Account account = new Account();
+		FieldSnapshot snapshot = snapshotter.snapshot(account);
+		account.owner = "first";
+		snapshotter.snapshot(account, snapshot);
+		
+		account.code = 'c';
+		BitSet changedFieldIndices = new BitSet();
+		
+		assertThat(snapshotter.diff(account, snapshot, changedFieldIndices), equalTo(true));
+		assertThat(changedFieldIndices, equalTo(bitSetOf(access.fieldIndex("code"))));
+	}
+	
+	@Test
+	public void diffInheritedPrivateFieldAndVerifyChanged() {
+		ClassAccess<Customer> customerAccess = ClassAccessFactory.get(Customer.class);
+		FieldSnapshotter<Customer> snapshotter = ClassAccessFactory.getFieldSnapshotter(Customer.class);
+		Customer customer = new Customer();
+		FieldSnapshot snapshot = snapshotter.snapshot(customer);
+		
+		customer.setId(1L);
+		
+		assertThat(snapshotter.diff(customer, snapshot), equalTo(bitSetOf(customerAccess.fieldIndex("id"))));
+	}
+	
+	@Test
+	public void getSnapshotterTwiceAndVerifySameInstance() {
+		assertThat(
+				ClassAccessFactory.getFieldSnapshotter(Account.class),
+				sameInstance(ClassAccessFactory.getFieldSnapshotter(Account.class)));
+	}
+	
+	@Test
+	public void snapshotAndVerifyStaticFieldsNotCaptured() {
+		FieldSnapshot snapshot = ClassAccessFactory.getFieldSnapshotter(Account.class).snapshot(new Account());
+		
+		// active, code, rate, score and version
+		assertThat(snapshot.getPrimitives().length, equalTo(5));
+		// balance and owner
+		assertThat(snapshot.getReferences().length, equalTo(2));
+	}
+	
+	public static class Account {
+		private static int count;
+		
+		private boolean active;
+		private BigDecimal balance;
+		private char code;
+		private String owner;
+		private float rate;
+		private double score;
+		private long version;
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static java.util.stream.Collectors.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory stand-ins for JDBC interfaces, which implement just the methods that the tests call
+ */
+public final class JdbcProxies {
+	/**
+	 * 
+	 * @param calls where each call of the statement is added, e.g. <code>setLong(1, 5)</code>
+	 * @return a prepared statement that records its calls
+	 */
+	public static PreparedStatement preparedStatement(List<String> calls) {
+		return newProxy(PreparedStatement.class, (proxy, method, args) -> {
+			calls.add(method.getName() + "(" + (args == null ? "" : Arrays.stream(args)
+					.map(String::valueOf)
+					.collect(joining(", "))) + ")");
+			return null;
+		});
+	}
+	
+	/**
+	 * 
+	 * @param columnLabels
+	 * @param rows values of each row, as {@link ResultSet#getObject(int)} would return them
+	 * @return a result set positioned before the first row
+	 */
+	public static ResultSet resultSet(List<String> columnLabels, Object[]... rows) {
+		ResultSetMetaData metaData = newProxy(ResultSetMetaData.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getColumnCount":
+					return columnLabels.size();
+				case "getColumnLabel":
+					return columnLabels.get((int)args[0] - 1);
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		});
+		
+		int[] rowIndex = { -1 };
+		boolean[] wasNull = { false };
+		return newProxy(ResultSet.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getMetaData":
+					return metaData;
+				case "next":
+					return ++rowIndex[0] < rows.length;
+				case "wasNull":
+					return wasNull[0];
+				default:
+					break;
+			}
+			if (!method.getName().startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+				throw new UnsupportedOperationException(method.getName() + Arrays.toString(method.getParameterTypes()));
+			}
+			
+			Object value = rows[rowIndex[0]][(int)args[0] - 1];
+			wasNull[0] = value == null;
+			return convert(value, method.getReturnType(), args.length == 2 ? (Class<?>)args[1] : null);
+		});
+	}
+	
+	private static Object convert(Object value, Class<?> returnType, Class<?> requestedType) {
+		if (requestedType != null) {
+			return requestedType.cast(value);
+		} else if (returnType == boolean.class) {
+			return value != null && (Boolean)value;
+		} else if (returnType.isPrimitive()) {
+			Number number = value == null ? 0 : (Number)value;
+			if (returnType == byte.class) {
+				return number.byteValue();
+			} else if (returnType == double.class) {
+				return number.doubleValue();
+			} else if (returnType == float.class) {
+				return number.floatValue();
+			} else if (returnType == int.class) {
+				return number.intValue();
+			} else if (returnType == long.class) {
+				return number.longValue();
+			}
+			return number.shortValue();
+		} else if (returnType == BigDecimal.class && value instanceof Number) {
+			return new BigDecimal(value.toString());
+		} else if (returnType == String.class && value != null) {
+			return value.toString();
+		}
+		return returnType.cast(value);
+	}
+	
+	private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(JdbcProxies.class.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+	
+	private JdbcProxies() {}
+}
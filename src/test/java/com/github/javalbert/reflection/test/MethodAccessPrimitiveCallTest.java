@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.PrimitiveMethodAccess;
+import com.sun.management.ThreadMXBean;
+
+public class MethodAccessPrimitiveCallTest {
+	/**
+	 * 
+	 * @param calls run once first so that the methods are linked
+	 * @return bytes allocated by the current thread while running the calls again, not counting the bytes allocated by
+	 * measuring them
+	 */
+	private static long getAllocatedBytes(Runnable calls) {
+		ThreadMXBean threadBean = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+		assumeThat(threadBean.isThreadAllocatedMemorySupported(), is(true));
+		long threadId = Thread.currentThread().getId();
+		calls.run();
+		
+		long start = threadBean.getThreadAllocatedBytes(threadId);
+		long measuringBytes = threadBean.getThreadAllocatedBytes(threadId) - start;
+		start = threadBean.getThreadAllocatedBytes(threadId);
+		calls.run();
+		return threadBean.getThreadAllocatedBytes(threadId) - start - measuringBytes;
+	}
+	
+	private final PrimitiveMethodAccess<Counter> access = ClassAccessFactory.getPrimitiveMethodAccess(Counter.class);
+	
+	@Test
+	public void callBooleanAndVerifyResult() {
+		int methodIndex = access.methodIndex("isAbove", int.class);
+		Counter counter = new Counter();
+		counter.count = 3;
+		
+		assertThat(access.callBoolean(counter, methodIndex, 2), equalTo(true));
+		assertThat(access.callBoolean(counter, methodIndex, 3), equalTo(false));
+	}
+	
+	@Test
+	public void callDoubleAndVerifyResult() {
+		int methodIndex = access.methodIndex("average", double.class, double.class);
+		
+		double result = access.callDouble(new Counter(), methodIndex, 1d, 2d);
+		
+		assertThat(result, equalTo(1.5d));
+	}
+	
+	@Test
+	public void callIntAndVerifyResult() {
+		Counter counter = new Counter();
+		
+		assertThat(access.callInt(counter, access.methodIndex("add", int.class, int.class), 2, 3), equalTo(5));
+		assertThat(access.callInt(counter, access.methodIndex("getCount")), equalTo(5));
+	}
+	
+	@Test
+	public void callIntAndVoidAndVerifyNothingAllocated() {
+		int addMethodIndex = access.methodIndex("add", int.class, int.class);
+		int resetMethodIndex = access.methodIndex("reset");
+		Counter counter = new Counter();
+		
+		// Results above 127 would be new Integer objects if they were boxed
+		long allocatedBytes = getAllocatedBytes(() -> {
+			for (int i = 0; i < 10_000; i++) {
+				access.callInt(counter, addMethodIndex, 1_000, i);
+				access.callVoid(counter, resetMethodIndex);
+			}
+		});
+		
+		assertThat(allocatedBytes, equalTo(0L));
+	}
+	
+	@Test
+	public void callLongOfStaticMethodAndVerifyResult() {
+		long result = access.callLong(null, access.methodIndex("twice", long.class), 21L);
+		
+		assertThat(result, equalTo(42L));
+	}
+	
+	@Test
+	public void callMethodWithOtherParameterTypesAndVerifyException() {
+		int methodIndex = access.methodIndex("add", int.class, int.class);
+		
+		try {
+			access.callInt(new Counter(), methodIndex, 2L, 3L);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(
+					e.getMessage(),
+					equalTo("No method with index " + methodIndex + " with parameters (long, long) returning int"));
+		}
+	}
+	
+	@Test
+	public void callVoidOfMethodWithReturnValueAndVerifySideEffect() {
+		Counter counter = new Counter();
+		
+		access.callVoid(counter, access.methodIndex("add", int.class, int.class), 4, 5);
+		
+		assertThat(counter.count, equalTo(9));
+	}
+	
+	@Test
+	public void callVoidAndVerifySideEffect() {
+		Counter counter = new Counter();
+		counter.count = 7;
+		
+		access.callVoid(counter, access.methodIndex("reset"));
+		
+		assertThat(counter.count, equalTo(0));
+	}
+	
+	public static class Counter {
+		private static long twice(long value) {
+			return value * 2;
+		}
+		
+		private int count;
+		
+		private int add(int a, int b) {
+			count += a + b;
+			return count;
+		}
+		
+		private double average(double a, double b) {
+			return (a + b) / 2;
+		}
+		
+		private int getCount() {
+			return count;
+		}
+		
+		private boolean isAbove(int value) {
+			return count > value;
+		}
+		
+		private void reset() {
+			count = 0;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccess;
+import com.github.javalbert.reflection.ClassAccessFactory;
+
+public class MethodAccessReturnValueTest {
+	private final ClassAccess<Calculator> access = ClassAccessFactory.get(Calculator.class);
+
+	@Test
+	public void callMethodReturningPrimitiveAndVerifyBoxedResult() {
+		Object result = access.call(new Calculator(), access.methodIndex("add", int.class, int.class), 2, 3);
+		assertThat(result, equalTo((Object)5));
+	}
+
+	@Test
+	public void callStaticMethodAndVerifyResult() {
+		Object result = access.call(null, access.methodIndex("twice", long.class), 21L);
+		assertThat(result, equalTo((Object)42L));
+	}
+
+	@Test
+	public void callVoidMethodAndVerifyNullResult() {
+		Calculator calculator = new Calculator();
+		calculator.total = 7;
+
+		Object result = access.call(calculator, access.methodIndex("reset"));
+		assertThat(result, nullValue());
+		assertThat(calculator.total, equalTo(0));
+	}
+
+	@Test
+	public void invokeMethodReturningPrimitiveAndVerifyBoxedResult() {
+		Object result = access.invoke(new Calculator(), access.methodIndex("add", int.class, int.class), 4, 5);
+		assertThat(result, equalTo((Object)9));
+	}
+
+	@Test
+	public void setStaticFieldAndVerifyValue() {
+		access.setIntField(null, access.fieldIndex("instances"), 11);
+		assertThat(access.getIntField(null, access.fieldIndex("instances")), equalTo(11));
+	}
+
+	public static class Calculator {
+		private static int instances;
+
+		private static long twice(long value) {
+			return value * 2;
+		}
+
+		private int total;
+
+		private int add(int a, int b) {
+			return a + b;
+		}
+
+		private void reset() {
+			total = 0;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.OffHeapCursor;
+import com.github.javalbert.reflection.OffHeapStore;
+
+public class OffHeapStoreTest {
+	private static Reading newReading(int i) {
+		Reading reading = new Reading();
+		reading.active = i % 2 == 0;
+		reading.boxedCount = i % 3 == 0 ? null : i;
+		reading.code = (char)('a' + i);
+		reading.count = -i;
+		reading.day = LocalDate.of(2017, 1, 1).plusDays(i);
+		reading.level = (byte)i;
+		reading.name = "reading" + i;
+		reading.ratio = i / 4f;
+		reading.sent = new Date(1_000L * i);
+		reading.shortValue = (short)(i * 100);
+		reading.total = Long.MAX_VALUE - i;
+		reading.weight = i / 8d;
+		return reading;
+	}
+	
+	@Test
+	public void allocateWithTooBigCapacityAndVerifyException() {
+		try {
+			OffHeapStore.allocate(Reading.class, Integer.MAX_VALUE);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), startsWith("Capacity 2147483647 of rows of "));
+		}
+	}
+	
+	@Test
+	public void getColumnNamesAndVerifyStoredFields() {
+		OffHeapStore<Reading> store = OffHeapStore.allocate(Reading.class, 1);
+		
+		assertThat(store.getColumnNames(), equalTo(Arrays.asList(
+				"active", "boxedCount", "code", "count", "day", "level", "ratio", "sent", "shortValue", "total", "weight")));
+		// 8 byte total, weight, day and sent, 4 byte count, boxedCount and ratio, 2 byte code and shortValue,
+		// 1 byte active and level, and whether boxedCount, day and sent are null
+		assertThat(store.getRowWidth(), equalTo(4 * 8 + 3 * 4 + 2 * 2 + 2 + 3));
+	}
+	
+	@Test
+	public void loadRowNotStoredAndVerifyDefaultValues() {
+		Reading reading = OffHeapStore.allocate(Reading.class, 2).load(1);
+		
+		assertThat(reading.boxedCount, nullValue());
+		assertThat(reading.count, equalTo(0));
+		assertThat(reading.day, nullValue());
+		assertThat(reading.name, nullValue());
+	}
+	
+	@Test
+	public void loadRowOutOfBoundsAndVerifyException() {
+		OffHeapStore<Reading> store = OffHeapStore.allocate(Reading.class, 2);
+		
+		try {
+			store.load(2, new Reading());
+			fail("expected IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e) {
+			assertThat(e.getMessage(), equalTo("Row 2 is not between 0 and capacity 2"));
+		}
+	}
+	
+	@Test
+	public void readColumnWithCursorAndVerifyValues() {
+		OffHeapStore<Reading> store = OffHeapStore.allocate(Reading.class, 4);
+		for (int i = 0; i < 4; i++) {
+			store.store(i, newReading(i));
+		}
+		OffHeapCursor cursor = store.cursor("total");
+		OffHeapCursor boxedCountCursor = store.cursor("boxedCount");
+		
+		long sum = 0;
+		while (cursor.next()) {
+			sum += cursor.getLong();
+		}
+		boxedCountCursor.setRow(2);
+		
+		assertThat(sum, equalTo(4 * Long.MAX_VALUE - 6));
+		assertThat(cursor.getRow(), equalTo(3));
+		assertThat(boxedCountCursor.isNull(), equalTo(false));
+		assertThat(boxedCountCursor.getInt(), equalTo(2));
+		boxedCountCursor.setRow(3);
+		assertThat(boxedCountCursor.isNull(), equalTo(true));
+	}
+	
+	@Test
+	public void readColumnWithCursorOfOtherTypeAndVerifyException() {
+		OffHeapCursor cursor = OffHeapStore.allocate(Reading.class, 1).cursor("count");
+		cursor.next();
+		
+		try {
+			cursor.getLong();
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), equalTo("Column count is of type int, not long"));
+		}
+	}
+	
+	@Test
+	public void storeAndLoadInheritedFieldsAndVerify() {
+		OffHeapStore<Customer> store = OffHeapStore.allocate(Customer.class, 1);
+		Customer customer = new Customer();
+		customer.setId(42L);
+		
+		store.store(0, customer);
+		Customer result = store.load(0);
+		
+		assertThat(store.getColumnNames(), equalTo(Arrays.asList("id", "version")));
+		assertThat(result.getId(), equalTo(42L));
+	}
+	
+	@Test
+	public void storeAndLoadRowsAndVerifyFields() {
+		OffHeapStore<Reading> store = OffHeapStore.allocate(Reading.class, 10);
+		for (int i = 0; i < 10; i++) {
+			store.store(i, newReading(i));
+		}
+		
+		for (int i = 0; i < 10; i++) {
+			Reading expected = newReading(i);
+			Reading reading = store.load(i);
+			
+			assertThat(reading.active, equalTo(expected.active));
+			assertThat(reading.boxedCount, equalTo(expected.boxedCount));
+			assertThat(reading.code, equalTo(expected.code));
+			assertThat(reading.count, equalTo(expected.count));
+			assertThat(reading.day, equalTo(expected.day));
+			assertThat(reading.level, equalTo(expected.level));
+			assertThat(reading.name, nullValue());
+			assertThat(reading.ratio, equalTo(expected.ratio));
+			assertThat(reading.sent, equalTo(expected.sent));
+			assertThat(reading.shortValue, equalTo(expected.shortValue));
+			assertThat(reading.total, equalTo(expected.total));
+			assertThat(reading.weight, equalTo(expected.weight));
+		}
+	}
+	
+	@Test
+	public void writeColumnWithCursorAndVerifyLoadedFields() {
+		OffHeapStore<Reading> store = OffHeapStore.allocate(Reading.class, 3);
+		OffHeapCursor dayCursor = store.cursor("day");
+		OffHeapCursor weightCursor = store.cursor("weight");
+		
+		while (dayCursor.next() && weightCursor.next()) {
+			dayCursor.setLong(dayCursor.getRow());
+			weightCursor.setDouble(weightCursor.getRow() * 1.5d);
+		}
+		dayCursor.setRow(2);
+		dayCursor.setNull();
+		
+		assertThat(store.load(1).day, equalTo(LocalDate.ofEpochDay(1)));
+		assertThat(store.load(1).weight, equalTo(1.5d));
+		assertThat(store.load(2).day, nullValue());
+		assertThat(store.load(2).weight, equalTo(3d));
+	}
+	
+	public static class Reading {
+		private static int instances;
+		
+		private boolean active;
+		private Integer boxedCount;
+		private char code;
+		private int count;
+		private LocalDate day;
+		private final int id = 1;
+		private byte level;
+		private String name;
+		private float ratio;
+		private Date sent;
+		private short shortValue;
+		private long total;
+		private double weight;
+	}
+}
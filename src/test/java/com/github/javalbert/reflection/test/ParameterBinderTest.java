@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.ParameterBinder;
+
+public class ParameterBinderTest {
+	@Test
+	public void bindAllAndVerifyBatchOfEachObject() throws SQLException {
+		ParameterBinder<Order> binder = ClassAccessFactory.getParameterBinder(Order.class, "id", "name");
+		List<String> calls = new ArrayList<>();
+		
+		binder.bindAll(Arrays.asList(new Order(1L, "a"), new Order(2L, "b")), JdbcProxies.preparedStatement(calls));
+		
+		assertThat(calls, equalTo(Arrays.asList(
+				"setLong(1, 1)", "setString(2, a)", "addBatch()",
+				"setLong(1, 2)", "setString(2, b)", "addBatch()")));
+	}
+	
+	@Test
+	public void bindAndVerifySetterOfEachType() throws SQLException {
+		Order order = new Order(3L, "c");
+		order.active = true;
+		order.amount = new BigDecimal("9.99");
+		order.code = 'x';
+		order.discount = 5;
+		order.grade = 'B';
+		order.created = LocalDateTime.of(2017, 1, 2, 3, 4, 5);
+		order.shipDate = LocalDate.of(2017, 1, 3);
+		order.token = new UUID(1L, 2L);
+		order.updated = Timestamp.valueOf("2017-01-02 03:04:05.123456789");
+		List<String> calls = new ArrayList<>();
+		
+		ClassAccessFactory.getParameterBinder(
+				Order.class,
+				"active", "amount", "code", "created", "discount", "grade", "shipDate", "token", "updated")
+				.bind(order, JdbcProxies.preparedStatement(calls));
+		
+		assertThat(calls, equalTo(Arrays.asList(
+				"setBoolean(1, true)",
+				"setBigDecimal(2, 9.99)",
+				"setString(3, x)",
+				"setTimestamp(4, 2017-01-02 03:04:05.0)",
+				"setInt(5, 5)",
+				"setString(6, B)",
+				"setDate(7, 2017-01-03)",
+				"setObject(8, " + new UUID(1L, 2L) + ")",
+				"setTimestamp(9, 2017-01-02 03:04:05.123456789)")));
+	}
+	
+	@Test
+	public void bindNullValuesAndVerifySetNull() throws SQLException {
+		Order order = new Order(4L, null);
+		order.updated = new Date(0L);
+		List<String> calls = new ArrayList<>();
+		
+		ClassAccessFactory.getParameterBinder(
+				Order.class,
+				"name", "amount", "discount", "grade", "created", "shipDate", "updated")
+				.bind(order, JdbcProxies.preparedStatement(calls));
+		
+		assertThat(calls, equalTo(Arrays.asList(
+				"setString(1, null)",
+				"setBigDecimal(2, null)",
+				"setNull(3, " + Types.INTEGER + ")",
+				"setNull(4, " + Types.CHAR + ")",
+				"setNull(5, " + Types.TIMESTAMP + ")",
+				"setNull(6, " + Types.DATE + ")",
+				"setTimestamp(7, " + new Timestamp(0L) + ")")));
+	}
+	
+	@Test
+	public void bindPropertiesInheritedFromSuperclassAndVerify() throws SQLException {
+		Customer customer = new Customer();
+		customer.setId(6L);
+		customer.setName("Acme");
+		List<String> calls = new ArrayList<>();
+		
+		ClassAccessFactory.getParameterBinder(Customer.class, "name", "id", "version")
+				.bind(customer, JdbcProxies.preparedStatement(calls));
+		
+		assertThat(calls, equalTo(Arrays.asList("setString(1, Acme)", "setLong(2, 6)", "setLong(3, 0)")));
+	}
+	
+	@Test
+	public void getParameterBinderOfUnknownPropertyOrPropertyWithoutGetterAndVerifyException() {
+		try {
+			ClassAccessFactory.getParameterBinder(Order.class, "id", "noSuchProperty");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No property with name: noSuchProperty"));
+		}
+		
+		try {
+			ClassAccessFactory.getParameterBinder(Order.class, "secret");
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Property secret has no getter"));
+		}
+	}
+	
+	@Test
+	public void getParameterBinderTwiceAndVerifySameInstance() {
+		ParameterBinder<Order> binder = ClassAccessFactory.getParameterBinder(Order.class, "id", "name");
+		
+		assertThat(binder, sameInstance(ClassAccessFactory.getParameterBinder(Order.class, "id", "name")));
+		assertThat(binder, not(sameInstance(ClassAccessFactory.getParameterBinder(Order.class, "name", "id"))));
+	}
+	
+	public static class Order {
+		private boolean active;
+		private BigDecimal amount;
+		private char code;
+		private LocalDateTime created;
+		private Integer discount;
+		private Character grade;
+		private long id;
+		private String name;
+		private LocalDate shipDate;
+		private UUID token;
+		private Date updated;
+		
+		public Order() {
+		}
+		
+		public Order(long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+		
+		public BigDecimal getAmount() {
+			return amount;
+		}
+		public char getCode() {
+			return code;
+		}
+		public LocalDateTime getCreated() {
+			return created;
+		}
+		public Integer getDiscount() {
+			return discount;
+		}
+		public Character getGrade() {
+			return grade;
+		}
+		public long getId() {
+			return id;
+		}
+		public String getName() {
+			return name;
+		}
+		public LocalDate getShipDate() {
+			return shipDate;
+		}
+		public UUID getToken() {
+			return token;
+		}
+		public Date getUpdated() {
+			return updated;
+		}
+		public boolean isActive() {
+			return active;
+		}
+		public void setSecret(String secret) {
+		}
+	}
+}
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javalbert.reflection.Flyweight;
+import com.github.javalbert.reflection.RecordFile;
+
+public class RecordFileTest {
+	private static Reading newReading(int i) {
+		Reading reading = new Reading();
+		reading.active = i % 2 == 0;
+		reading.boxedCount = i % 3 == 0 ? null : i;
+		reading.code = (char)('a' + i % 26);
+		reading.count = -i;
+		reading.day = i % 5 == 0 ? null : LocalDate.of(2017, 1, 1).plusDays(i);
+		reading.level = (byte)i;
+		reading.name = "reading" + i;
+		reading.ratio = i / 4f;
+		reading.sent = new Date(1_000L * i);
+		reading.shortValue = (short)(i * 100);
+		reading.total = Long.MAX_VALUE - i;
+		reading.weight = i / 8d;
+		return reading;
+	}
+	
+	private static List<Reading> newReadings(int count) {
+		List<Reading> readings = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			readings.add(newReading(i));
+		}
+		return readings;
+	}
+	
+	private static Trade newTrade(int i) {
+		Trade trade = new Trade();
+		trade.setDay(i % 2 == 0 ? null : LocalDate.ofEpochDay(i));
+		trade.setFilled(i % 3 == 0);
+		trade.setPrice(i / 4d);
+		trade.setQuantity(i % 5 == 0 ? null : i * 10L);
+		trade.setSymbol("T" + i);
+		return trade;
+	}
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private RecordFile<Trade> writeTrades(int count) throws IOException {
+		Path path = folder.newFile().toPath();
+		List<Trade> trades = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			trades.add(newTrade(i));
+		}
+		RecordFile.write(path, Trade.class, trades);
+		return RecordFile.open(path, Trade.class);
+	}
+	
+	@Test
+	public void getRecordOutOfBoundsAndVerifyException() throws IOException {
+		Path path = folder.newFile().toPath();
+		RecordFile.write(path, Reading.class, newReadings(2));
+		RecordFile<Reading> file = RecordFile.open(path, Reading.class);
+		
+		try {
+			file.get(2L, new Reading());
+			fail("expected IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e) {
+			assertThat(e.getMessage(), equalTo("Record 2 is not between 0 and size 2"));
+		}
+	}
+	
+	@Test
+	public void getRecordWidthAndVerifyPaddedToWidestValue() throws IOException {
+		Path path = folder.newFile().toPath();
+		RecordFile.write(path, Reading.class, newReadings(3));
+		
+		RecordFile<Reading> file = RecordFile.open(path, Reading.class);
+		
+		// 51 bytes, as in a row of an OffHeapStore, padded to a multiple of 8
+		assertThat(file.getRecordWidth(), equalTo(56));
+		assertThat(Files.size(path), equalTo((long)RecordFile.HEADER_SIZE + 3 * 56));
+	}
+	
+	@Test
+	public void newViewOfFinalClassAndVerifyException() throws IOException {
+		RecordFile<Trade> file = writeTrades(1);
+		
+		try {
+			file.newView(FinalTrade.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo(FinalTrade.class.getName() + " is final, so it cannot be extended by a view"));
+		}
+	}
+	
+	@Test
+	public void newViewWithGetterOfNoStoredFieldAndVerifyException() throws IOException {
+		RecordFile<Trade> file = writeTrades(1);
+		
+		try {
+			file.newView(SymbolView.class);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Method getSymbol of " + SymbolView.class.getName()
+					+ " is not a getter of a stored field of " + Trade.class.getName()));
+		}
+	}
+	
+	@Test
+	public void openFileOfOtherClassAndVerifyException() throws IOException {
+		Path path = folder.newFile().toPath();
+		RecordFile.write(path, Reading.class, newReadings(1));
+		
+		try {
+			RecordFile.open(path, Customer.class);
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString(" of the fields of " + Customer.class.getName()));
+		}
+	}
+	
+	@Test
+	public void openFileThatIsNotRecordFileAndVerifyException() throws IOException {
+		Path path = folder.newFile().toPath();
+		Files.write(path, "not a record file".getBytes());
+		
+		try {
+			RecordFile.open(path, Reading.class);
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), equalTo("File " + path + " is not a record file"));
+		}
+	}
+	
+	@Test
+	public void openTruncatedFileAndVerifyException() throws IOException {
+		Path path = folder.newFile().toPath();
+		RecordFile.write(path, Reading.class, newReadings(3));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(path) - 1);
+		}
+		
+		try {
+			RecordFile.open(path, Reading.class);
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), equalTo("File " + path + " has fewer than the 3 records of 56 bytes in its header"));
+		}
+	}
+	
+	@Test
+	public void viewRecordsWithInterfaceAndVerifyGetters() throws IOException {
+		RecordFile<Trade> file = writeTrades(10);
+		
+		TradeView view = file.newView(TradeView.class);
+		
+		assertThat(view, instanceOf(Flyweight.class));
+		for (int i = 0; i < 10; i++) {
+			Trade expected = newTrade(i);
+			
+			assertThat(file.view(i, view), sameInstance(view));
+			assertThat(view.getDay(), equalTo(expected.getDay()));
+			assertThat(view.getPrice(), equalTo(expected.getPrice()));
+			assertThat(view.getQuantity(), equalTo(expected.getQuantity()));
+			assertThat(view.isFilled(), equalTo(expected.isFilled()));
+		}
+	}
+	
+	@Test
+	public void viewRecordsWithSubclassAndVerifyGettersOfStoredFields() throws IOException {
+		RecordFile<Trade> file = writeTrades(4);
+		
+		Trade view = file.newView(Trade.class);
+		file.view(3L, view);
+		
+		assertThat(view.getDay(), equalTo(LocalDate.ofEpochDay(3)));
+		assertThat(view.getPrice(), equalTo(0.75d));
+		assertThat(view.getQuantity(), equalTo(30L));
+		assertThat(view.isFilled(), equalTo(true));
+		// Not stored, so the getter is inherited
+		assertThat(view.getSymbol(), nullValue());
+		file.view(0L, view);
+		assertThat(view.getDay(), nullValue());
+		assertThat(view.getQuantity(), nullValue());
+	}
+	
+	@Test
+	public void writeAndGetInheritedFieldsAndVerify() throws IOException {
+		Path path = folder.newFile().toPath();
+		Customer customer = new Customer();
+		customer.setId(42L);
+		
+		RecordFile.write(path, Customer.class, Collections.singletonList(customer));
+		Customer result = RecordFile.open(path, Customer.class).get(0L);
+		
+		assertThat(result.getId(), equalTo(42L));
+	}
+	
+	@Test
+	public void writeClassWithoutStoredFieldsAndVerifyException() throws IOException {
+		try {
+			RecordFile.write(folder.newFile().toPath(), Unstored.class, Arrays.asList(new Unstored()));
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("No stored fields in " + Unstored.class.getName()));
+		}
+	}
+	
+	@Test
+	public void writeNoRecordsAndVerifySize() throws IOException {
+		Path path = folder.newFile().toPath();
+		
+		long size = RecordFile.write(path, Reading.class, Collections.<Reading>emptyList());
+		
+		assertThat(size, equalTo(0L));
+		assertThat(RecordFile.open(path, Reading.class).size(), equalTo(0L));
+	}
+	
+	@Test
+	public void writeRecordsAndGetIntoSameObjectAndVerifyFields() throws IOException {
+		// More records than are written to the file at once
+		int count = 5_000;
+		Path path = folder.newFile().toPath();
+		
+		long size = RecordFile.write(path, Reading.class, newReadings(count));
+		RecordFile<Reading> file = RecordFile.open(path, Reading.class);
+		
+		assertThat(size, equalTo((long)count));
+		assertThat(file.size(), equalTo((long)count));
+		Reading reading = new Reading();
+		for (int i = 0; i < count; i++) {
+			Reading expected = newReading(i);
+			
+			assertThat(file.get(i, reading), sameInstance(reading));
+			assertThat(reading.active, equalTo(expected.active));
+			assertThat(reading.boxedCount, equalTo(expected.boxedCount));
+			assertThat(reading.code, equalTo(expected.code));
+			assertThat(reading.count, equalTo(expected.count));
+			assertThat(reading.day, equalTo(expected.day));
+			assertThat(reading.level, equalTo(expected.level));
+			assertThat(reading.name, nullValue());
+			assertThat(reading.ratio, equalTo(expected.ratio));
+			assertThat(reading.sent, equalTo(expected.sent));
+			assertThat(reading.shortValue, equalTo(expected.shortValue));
+			assertThat(reading.total, equalTo(expected.total));
+			assertThat(reading.weight, equalTo(expected.weight));
+		}
+	}
+	
+	public static class Reading {
+		private boolean active;
+		private Integer boxedCount;
+		private char code;
+		private int count;
+		private LocalDate day;
+		private byte level;
+		private String name;
+		private float ratio;
+		private Date sent;
+		private short shortValue;
+		private long total;
+		private double weight;
+	}
+	
+	public static final class FinalTrade {
+		private double price;
+		
+		public double getPrice() {
+			return price;
+		}
+	}
+	
+	public interface SymbolView {
+		double getPrice();
+		
+		String getSymbol();
+	}
+	
+	public static class Trade {
+		private LocalDate day;
+		private boolean filled;
+		private double price;
+		private Long quantity;
+		private String symbol;
+		
+		public LocalDate getDay() {
+			return day;
+		}
+		
+		public double getPrice() {
+			return price;
+		}
+		
+		public Long getQuantity() {
+			return quantity;
+		}
+		
+		public String getSymbol() {
+			return symbol;
+		}
+		
+		public boolean isFilled() {
+			return filled;
+		}
+		
+		public void setDay(LocalDate day) {
+			this.day = day;
+		}
+		
+		public void setFilled(boolean filled) {
+			this.filled = filled;
+		}
+		
+		public void setPrice(double price) {
+			this.price = price;
+		}
+		
+		public void setQuantity(Long quantity) {
+			this.quantity = quantity;
+		}
+		
+		public void setSymbol(String symbol) {
+			this.symbol = symbol;
+		}
+	}
+	
+	public interface TradeView {
+		LocalDate getDay();
+		
+		double getPrice();
+		
+		Long getQuantity();
+		
+		boolean isFilled();
+	}
+	
+	public static class Unstored {
+		private String name;
+	}
+}
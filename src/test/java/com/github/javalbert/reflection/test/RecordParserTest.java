@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javalbert.reflection.RecordFormat;
+import com.github.javalbert.reflection.RecordParser;
+
+public class RecordParserTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void getDelimitedFormatWithNonAsciiDelimiterAndVerifyException() {
+		try {
+			RecordFormat.delimited('§');
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Delimiter must be an ASCII character: §"));
+		}
+	}
+	
+	@Test
+	public void openWithColumnOfUnsupportedTypeAndVerifyException() throws IOException {
+		try (FileChannel channel = open("tags\nx\n")) {
+			RecordParser.open(channel, Unsupported.class, RecordFormat.csv());
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(
+					e.getMessage(),
+					equalTo("Field tags of column tags is of type java.util.List, which cannot be parsed"));
+		}
+	}
+	
+	@Test
+	public void parseCsvAndVerifyFields() throws IOException {
+		String csv = "\uFEFFID,First_Name,AGE,score,ACTIVE,grade,initial,BALANCE,BIRTH_DATE,UNKNOWN\r\n"
+				+ "1,Ada,36,98.5,true,A,x,12.34,1815-12-10,?\r\n"
+				+ "\r\n"
+				+ "-9223372036854775808,\"Lovelace, \"\"Ada\"\"\", 7 ,-0.125,FALSE,,é,,,\r\n";
+		
+		List<Person> people = parse(csv, RecordFormat.csv());
+		
+		assertThat(people.size(), equalTo(2));
+		Person ada = people.get(0);
+		assertThat(ada.id, equalTo(1L));
+		assertThat(ada.firstName, equalTo("Ada"));
+		assertThat(ada.age, equalTo(36));
+		assertThat(ada.score, equalTo(98.5d));
+		assertThat(ada.active, equalTo(true));
+		assertThat(ada.grade, equalTo((Character)'A'));
+		assertThat(ada.initial, equalTo('x'));
+		assertThat(ada.balance, equalTo(new BigDecimal("12.34")));
+		assertThat(ada.birthDate, equalTo(LocalDate.of(1815, 12, 10)));
+		Person other = people.get(1);
+		assertThat(other.id, equalTo(Long.MIN_VALUE));
+		assertThat(other.firstName, equalTo("Lovelace, \"Ada\""));
+		assertThat(other.age, equalTo(7));
+		assertThat(other.score, equalTo(-0.125d));
+		assertThat(other.active, equalTo(false));
+		assertThat(other.grade, nullValue());
+		assertThat(other.initial, equalTo('é'));
+		assertThat(other.balance, nullValue());
+	}
+	
+	@Test
+	public void parseDelimitedWithoutHeaderAndVerifyFields() throws IOException {
+		List<Person> people = parse("2|\"\"|1e3\n3|Grace", RecordFormat.delimited('|', "id", "first_name", "score"));
+		
+		assertThat(people.size(), equalTo(2));
+		assertThat(people.get(0).firstName, equalTo(""));
+		assertThat(people.get(0).score, equalTo(1000d));
+		assertThat(people.get(1).id, equalTo(3L));
+		assertThat(people.get(1).firstName, equalTo("Grace"));
+	}
+	
+	@Test
+	public void parseFixedWidthAndVerifyFields() throws IOException {
+		RecordFormat format = RecordFormat.fixedWidth(Arrays.asList("id", "first_name", "age"), 4, 8, 3);
+		
+		List<Person> people = parse("   1Ada      36\n  22Grace\n", format);
+		
+		assertThat(people.size(), equalTo(2));
+		assertThat(people.get(0).id, equalTo(1L));
+		assertThat(people.get(0).firstName, equalTo("Ada"));
+		assertThat(people.get(0).age, equalTo(36));
+		assertThat(people.get(1).id, equalTo(22L));
+		assertThat(people.get(1).firstName, equalTo("Grace"));
+		assertThat(people.get(1).age, equalTo(0));
+	}
+	
+	@Test
+	public void parseInvalidNumberAndVerifyException() throws IOException {
+		try (FileChannel channel = open("id,age\n1,2\n2,3x\n")) {
+			RecordParser.open(channel, Person.class, RecordFormat.csv()).parse(person -> {});
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Invalid int \"3x\" at byte 13"));
+		}
+	}
+	
+	@Test
+	public void parseNumberOutOfRangeAndVerifyException() throws IOException {
+		try (FileChannel channel = open("age\n2147483648\n")) {
+			RecordParser.open(channel, Person.class, RecordFormat.csv()).parse(person -> {});
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Invalid int \"2147483648\" at byte 4"));
+		}
+	}
+	
+	@Test
+	public void parseParallelAndVerifyEveryRecordParsedOnce() throws IOException {
+		StringBuilder csv = new StringBuilder("id,first_name,score\n");
+		for (int i = 0; i < 10_000; i++) {
+			csv.append(i).append(",name").append(i).append(',').append(i / 4d).append('\n');
+		}
+		ConcurrentLinkedQueue<Person> people = new ConcurrentLinkedQueue<>();
+		
+		try (FileChannel channel = open(csv.toString())) {
+			RecordParser.open(channel, Person.class, RecordFormat.csv()).parseParallel(7, people::add);
+		}
+		
+		List<Person> sortedPeople = new ArrayList<>(people);
+		sortedPeople.sort(Comparator.comparingLong(person -> person.id));
+		assertThat(sortedPeople.size(), equalTo(10_000));
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(sortedPeople.get(i).id, equalTo((long)i));
+			assertThat(sortedPeople.get(i).firstName, equalTo("name" + i));
+			assertThat(sortedPeople.get(i).score, equalTo(i / 4d));
+		}
+	}
+	
+	@Test
+	public void parseRangesAndVerifyEveryRecordParsedOnce() throws IOException {
+		String csv = "id\n1\n22\n333\n4444\n55555";
+		
+		try (FileChannel channel = open(csv)) {
+			RecordParser<Person> parser = RecordParser.open(channel, Person.class, RecordFormat.csv());
+			assertThat(parser.getDataStart(), equalTo(3L));
+			for (int split = 0; split <= csv.length(); split++) {
+				List<Long> ids = new ArrayList<>();
+				parser.parse(0, split, person -> ids.add(person.id));
+				parser.parse(split, csv.length(), person -> ids.add(person.id));
+				
+				assertThat(ids, equalTo(Arrays.asList(1L, 22L, 333L, 4444L, 55555L)));
+			}
+		}
+	}
+	
+	@Test
+	public void parseUnterminatedQuotedCellAndVerifyException() throws IOException {
+		try (FileChannel channel = open("first_name\n\"Ada\n")) {
+			RecordParser.open(channel, Person.class, RecordFormat.csv()).parse(person -> {});
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Quoted cell at byte 11 does not end"));
+		}
+	}
+	
+	private List<Person> parse(String content, RecordFormat format) throws IOException {
+		List<Person> people = new ArrayList<>();
+		try (FileChannel channel = open(content)) {
+			RecordParser.open(channel, Person.class, format).parse(people::add);
+		}
+		return people;
+	}
+	
+	private FileChannel open(String content) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	}
+	
+	public static class Person {
+		private boolean active;
+		private int age;
+		private BigDecimal balance;
+		private LocalDate birthDate;
+		private String firstName;
+		private Character grade;
+		private long id;
+		private char initial;
+		private double score;
+	}
+	
+	public static class Unsupported {
+		private List<String> tags = Collections.emptyList();
+	}
+}
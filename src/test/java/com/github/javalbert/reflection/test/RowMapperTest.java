@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.github.javalbert.reflection.ClassAccessFactory;
+import com.github.javalbert.reflection.RowMapper;
+
+public class RowMapperTest {
+	private static final List<String> PERSON_COLUMNS = Arrays.asList(
+			"ID", "FIRST_NAME", "AGE", "SCORE", "ACTIVE", "GRADE", "INITIAL", "BALANCE", "BIRTH_DATE", "CREATED_AT",
+			"TOKEN", "UNKNOWN");
+	
+	@Test
+	public void getRowMapperForColumnsInOtherOrderAndVerifyOtherMapper() throws SQLException {
+		ResultSet rs = JdbcProxies.resultSet(Arrays.asList("first_name", "id"), new Object[] { "Ada", 7L });
+		RowMapper<Person> mapper = ClassAccessFactory.getRowMapper(Person.class, rs.getMetaData());
+		rs.next();
+		
+		Person person = mapper.mapRow(rs);
+		
+		assertThat(person.firstName, equalTo("Ada"));
+		assertThat(person.id, equalTo(7L));
+		assertThat(mapper, not(sameInstance(getRowMapper(Person.class, PERSON_COLUMNS))));
+	}
+	
+	@Test
+	public void getRowMapperTwiceAndVerifySameInstance() throws SQLException {
+		assertThat(
+				getRowMapper(Person.class, PERSON_COLUMNS),
+				sameInstance(getRowMapper(Person.class, new ArrayList<>(PERSON_COLUMNS))));
+	}
+	
+	@Test
+	public void mapRowOfClassWithoutConstructorWithoutParametersAndVerifyException() throws SQLException {
+		ResultSet rs = JdbcProxies.resultSet(Arrays.asList("VALUE"), new Object[] { 1 });
+		RowMapper<Wrapper> mapper = ClassAccessFactory.getRowMapper(Wrapper.class, rs.getMetaData());
+		rs.next();
+		
+		try {
+			mapper.mapRow(rs);
+			fail("expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), equalTo("No constructor without parameters in " + Wrapper.class.getName()));
+		}
+		
+		Wrapper wrapper = new Wrapper(0);
+		mapper.mapRow(rs, wrapper);
+		assertThat(wrapper.value, equalTo(1));
+	}
+	
+	@Test
+	public void mapRowsAndVerifyFieldsOfEachRow() throws SQLException {
+		ResultSet rs = JdbcProxies.resultSet(
+				PERSON_COLUMNS,
+				new Object[] {
+					1L, "Ada", 36, 90, true, "A", "L", new BigDecimal("12.50"), Date.valueOf("1815-12-10"),
+					Timestamp.valueOf("2017-01-02 03:04:05"), new UUID(1L, 2L), "ignored"
+				},
+				new Object[] { 2L, "Alan", null, null, null, null, "", null, null, null, null, null });
+		RowMapper<Person> mapper = ClassAccessFactory.getRowMapper(Person.class, rs.getMetaData());
+		List<Person> persons = new ArrayList<>();
+		
+		while (rs.next()) {
+			persons.add(mapper.mapRow(rs));
+		}
+		
+		Person ada = persons.get(0);
+		assertThat(ada.id, equalTo(1L));
+		assertThat(ada.firstName, equalTo("Ada"));
+		assertThat(ada.age, equalTo(36));
+		assertThat(ada.score, equalTo(90));
+		assertThat(ada.active, equalTo(true));
+		assertThat(ada.grade, equalTo('A'));
+		assertThat(ada.initial, equalTo('L'));
+		assertThat(ada.balance, equalTo(new BigDecimal("12.50")));
+		assertThat(ada.birthDate, equalTo(LocalDate.of(1815, 12, 10)));
+		assertThat(ada.createdAt, equalTo(LocalDateTime.of(2017, 1, 2, 3, 4, 5)));
+		assertThat(ada.token, equalTo(new UUID(1L, 2L)));
+		
+		Person alan = persons.get(1);
+		assertThat(alan.id, equalTo(2L));
+		assertThat(alan.age, nullValue());
+		assertThat(alan.score, equalTo(0));
+		assertThat(alan.active, equalTo(false));
+		assertThat(alan.grade, equalTo('\0'));
+		assertThat(alan.initial, nullValue());
+		assertThat(alan.balance, nullValue());
+		assertThat(alan.birthDate, nullValue());
+		assertThat(alan.createdAt, nullValue());
+		assertThat(alan.token, nullValue());
+		assertThat(Person.count, equalTo(0));
+	}
+	
+	@Test
+	public void mapRowOntoSubclassAndVerifyInheritedAndShadowingFields() throws SQLException {
+		ResultSet rs = JdbcProxies.resultSet(Arrays.asList("ID", "NAME", "VERSION"), new Object[] { 5L, "Acme", "v2" });
+		RowMapper<Customer> mapper = ClassAccessFactory.getRowMapper(Customer.class, rs.getMetaData());
+		rs.next();
+		
+		Customer customer = mapper.mapRow(rs);
+		
+		assertThat(customer.getId(), equalTo(5L));
+		assertThat(customer.getName(), equalTo("Acme"));
+		assertThat(customer.getShadowingVersion(), equalTo("v2"));
+		assertThat(customer.getVersion(), equalTo(0L));
+	}
+	
+	private static <T> RowMapper<T> getRowMapper(Class<T> clazz, List<String> columnLabels) throws SQLException {
+		return ClassAccessFactory.getRowMapper(clazz, JdbcProxies.resultSet(columnLabels).getMetaData());
+	}
+	
+	public static class Person {
+		private static int count;
+		
+		private boolean active;
+		private Integer age;
+		private BigDecimal balance;
+		private LocalDate birthDate;
+		private LocalDateTime createdAt;
+		private String firstName;
+		private final String fixed = "fixed";
+		private char grade;
+		private long id;
+		private Character initial;
+		private int score;
+		private UUID token;
+	}
+	
+	public static class Wrapper {
+		private int value;
+		
+		public Wrapper(int value) {
+			this.value = value;
+		}
+	}
+}
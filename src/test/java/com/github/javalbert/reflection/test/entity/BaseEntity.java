@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2017 Albert Shun-Dat Chan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ *******************************************************************************/
+package com.github.javalbert.reflection.test.entity;
+
+/**
+ * Base class of entities, in a different package than its subclasses
+ */
+public abstract class BaseEntity {
+	private static int created;
+	
+	public static int getCreated() {
+		return created;
+	}
+	
+	private Long id;
+	protected long version;
+	
+	public Long getId() {
+		return id;
+	}
+	public void setId(Long id) {
+		this.id = id;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public String describe() {
+		return "base";
+	}
+	
+	protected void incrementVersion() {
+		version++;
+	}
+}